@@ -2,6 +2,8 @@ package com.utez.calendario;
 
 import com.utez.calendario.config.DatabaseConfig;
 import com.utez.calendario.services.*;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
@@ -9,9 +11,13 @@ import javafx.geometry.Rectangle2D;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.scene.control.TextArea;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.text.Font;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 public class MainApp extends Application {
 
@@ -117,7 +123,13 @@ public class MainApp extends Application {
             String dbInfo = DatabaseConfig.getDatabaseInfo();
             System.out.println("   " + dbInfo);
 
-            if (DatabaseConfig.isOfflineMode()) {
+            if (DatabaseConfig.isBootstrapping()) {
+                // Se atiende desde SQLite; la alerta solo aparece si Oracle no llega a conectar
+                System.out.println("   Conectando a Oracle en segundo plano (usando SQLite local)");
+                DatabaseConfig.getBootstrapResult().thenAccept(online -> {
+                    if (!online) Platform.runLater(this::showOfflineModeAlert);
+                });
+            } else if (DatabaseConfig.isOfflineMode()) {
                 System.out.println("   ATENCION: Funcionando en modo offline");
                 System.out.println("   Los datos se sincronizaran cuando la conexion se restaure");
 
@@ -189,6 +201,43 @@ public class MainApp extends Application {
 
         // Configurar el cierre limpio de la aplicación
         setupShutdownHook(primaryStage);
+
+        // Ctrl+Shift+D abre el diagnóstico desde cualquier pantalla (el filtro va en la ventana, no en la escena)
+        primaryStage.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+            if (event.getCode() == KeyCode.D && event.isShortcutDown() && event.isShiftDown()) {
+                event.consume();
+                showDiagnosticsDialog();
+            }
+        });
+    }
+
+    /**
+     * Diagnóstico de base de datos y pools; se actualiza cada 2 segundos mientras está abierto
+     */
+    private void showDiagnosticsDialog() {
+        TextArea content = new TextArea("Cargando...");
+        content.setEditable(false);
+        content.setWrapText(true);
+        content.setPrefSize(760, 360);
+
+        // getCurrentStatus consulta la BD: se arma fuera del hilo de la interfaz
+        Timeline refresh = new Timeline(new KeyFrame(Duration.seconds(2), event ->
+                DatabaseExecutor.getInstance().supplyAsync(MainApp::getCurrentStatus)
+                        .thenAccept(status -> Platform.runLater(() -> content.setText(status)))));
+        refresh.setCycleCount(Timeline.INDEFINITE);
+
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Diagnostico");
+        alert.setHeaderText("Estado de la base de datos y de los pools de conexiones");
+        alert.getDialogPane().setContent(content);
+        alert.setResizable(true);
+        alert.setOnShown(event -> {
+            DatabaseExecutor.getInstance().supplyAsync(MainApp::getCurrentStatus)
+                    .thenAccept(status -> Platform.runLater(() -> content.setText(status)));
+            refresh.play();
+        });
+        alert.setOnHidden(event -> refresh.stop());
+        alert.show();
     }
 
     /**
@@ -199,6 +248,9 @@ public class MainApp extends Application {
             System.out.println("Cerrando aplicacion y apagando servicios...");
 
             try {
+                // Una migración a SQLite en curso no debe retrasar el cierre
+                DatabaseConfig.abortOfflineMigration();
+
                 // Cerrar servicios en orden inverso
                 if (notificationService != null && notificationService.isRunning()) {
                     notificationService.shutdown();
@@ -211,8 +263,11 @@ public class MainApp extends Application {
                 OfflineSyncService.getInstance().shutdown();
                 System.out.println("   OfflineSyncService detenido");
 
-                EventService.getInstance().shutdown();
-                System.out.println("   EventService detenido");
+                EventPrefetchService.getInstance().shutdown();
+                System.out.println("   EventPrefetchService detenido");
+
+                DatabaseExecutor.getInstance().shutdown();
+                System.out.println("   DatabaseExecutor detenido");
 
                 if (emailService != null) {
                     MailService.shutdown();
@@ -341,6 +396,12 @@ public class MainApp extends Application {
 
         OfflineSyncService.SyncStats stats = OfflineSyncService.getInstance().getSyncStats();
         status.append("- Sincronizacion: ").append(stats.toString()).append("\n");
+        status.append("- Ejecutor de BD: ").append(DatabaseExecutor.getInstance().getStats()).append("\n");
+        status.append("- Conexion online: ").append(DatabaseConfig.getCircuitBreaker()).append("\n");
+        status.append("- Pools de conexiones:\n");
+        for (String line : DatabaseConfig.getPoolDiagnostics().split("\n")) {
+            status.append("    ").append(line).append("\n");
+        }
 
         return status.toString();
     }
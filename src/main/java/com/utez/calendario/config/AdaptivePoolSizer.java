@@ -0,0 +1,118 @@
+package com.utez.calendario.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ajusta en caliente el tamaño máximo de un pool online según la espera observada.
+ *
+ * Cada segundo toma una muestra de las conexiones activas y de los hilos esperando;
+ * cada DECISION_SAMPLES muestras compara el p95 de espera de la ventana con el objetivo.
+ * Crece si la espera supera el objetivo o el pool estuvo saturado la mitad del tiempo;
+ * se reduce de a una conexión cuando sobra capacidad. Siempre dentro de [minSize, maxSize].
+ * DatabaseExecutor toma el nuevo tamaño en su siguiente tarea (getMaxConcurrentConnections).
+ */
+final class AdaptivePoolSizer {
+
+    private static final long SAMPLE_MILLIS = 1000;
+    private static final int DECISION_SAMPLES = 10;
+    private static final double SATURATION_TO_GROW = 0.5;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            runnable -> Thread.ofPlatform().daemon().name("pool-sizer").unstarted(runnable));
+
+    private final HikariDataSource pool;
+    private final PoolTelemetry.PoolMetrics metrics;
+    private final int minSize;
+    private final int maxSize;
+    private final long targetWaitMillis;
+
+    private ScheduledFuture<?> task;
+    private long[] windowStart;
+    private int samples;
+    private int saturatedSamples;
+    private int peakActive;
+    private volatile String lastDecision = "sin cambios";
+
+    AdaptivePoolSizer(HikariDataSource pool, PoolTelemetry.PoolMetrics metrics, int minSize, int maxSize, long targetWaitMillis) {
+        this.pool = pool;
+        this.metrics = metrics;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetWaitMillis = targetWaitMillis;
+    }
+
+    synchronized void start() {
+        if (task != null) return;
+        windowStart = metrics.acquire.counts();
+        task = SCHEDULER.scheduleAtFixedRate(this::sample, SAMPLE_MILLIS, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+        System.out.printf("🔧 Ajuste adaptativo del pool %s activo (%d-%d conexiones, espera objetivo %dms)%n",
+                pool.getPoolName(), minSize, maxSize, targetWaitMillis);
+    }
+
+    synchronized void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    private void sample() {
+        try {
+            if (pool.isClosed()) {
+                stop();
+                return;
+            }
+            HikariConfigMXBean config = pool.getHikariConfigMXBean();
+            int size = config.getMaximumPoolSize();
+            int active = metrics.stats.getActiveConnections();
+            if (active >= size || metrics.stats.getPendingThreads() > 0) saturatedSamples++;
+            peakActive = Math.max(peakActive, active);
+
+            if (++samples < DECISION_SAMPLES) return;
+            decide(config, size);
+        } catch (Exception e) {
+            System.err.println("Error ajustando el pool " + pool.getPoolName() + ": " + e.getMessage());
+        }
+    }
+
+    private void decide(HikariConfigMXBean config, int size) {
+        long[] now = metrics.acquire.counts();
+        long[] window = PoolTelemetry.LatencyHistogram.delta(now, windowStart);
+        double p95Wait = PoolTelemetry.LatencyHistogram.percentileMillis(window, 0.95);
+        double saturation = (double) saturatedSamples / samples;
+
+        int target = size;
+        if ((p95Wait > targetWaitMillis || saturation >= SATURATION_TO_GROW) && size < maxSize) {
+            target = Math.min(maxSize, size + Math.max(1, size / 4));
+        } else if (p95Wait <= targetWaitMillis / 4.0 && peakActive <= size / 2 && size > minSize) {
+            target = size - 1;
+        }
+
+        if (target != size) {
+            // Hikari exige minimumIdle <= maximumPoolSize
+            if (target < config.getMinimumIdle()) config.setMinimumIdle(target);
+            config.setMaximumPoolSize(target);
+            lastDecision = String.format("%d → %d (espera p95=%.1fms, saturación=%.0f%%, pico=%d)",
+                    size, target, p95Wait, saturation * 100, peakActive);
+            System.out.println("🔧 Pool " + pool.getPoolName() + ": tamaño " + lastDecision);
+        }
+
+        windowStart = now;
+        samples = 0;
+        saturatedSamples = 0;
+        peakActive = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ajuste adaptativo %s: tamaño=%d (límites %d-%d, espera objetivo %dms), último cambio: %s",
+                pool.getPoolName(), pool.isClosed() ? 0 : pool.getMaximumPoolSize(), minSize, maxSize,
+                targetWaitMillis, lastDecision);
+    }
+}
@@ -0,0 +1,209 @@
+package com.utez.calendario.config;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cortacircuitos para la obtención de conexiones a la base de datos online.
+ *
+ * CERRADO deja pasar todo. Tras varios fallos seguidos, o uno solo de red, pasa a
+ * ABIERTO y rechaza al instante durante un tiempo que crece de forma exponencial con
+ * jitter. Después, SEMIABIERTO deja pasar una única prueba: si sale bien vuelve a
+ * CERRADO, si falla se abre otra vez con una espera mayor. Nadie duerme esperando:
+ * quien llega con el circuito abierto recibe una excepción y lo intenta más tarde.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @FunctionalInterface
+    public interface StateListener {
+        void onStateChange(State from, State to);
+    }
+
+    @FunctionalInterface
+    public interface SqlSupplier<T> {
+        T get() throws SQLException;
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final List<StateListener> listeners = new CopyOnWriteArrayList<>();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private int openCount = 0; // Aperturas seguidas sin un éxito, para el backoff
+    private long openUntil = 0;
+    private volatile long lastSuccessAt = 0;
+
+    public CircuitBreaker(String name, int failureThreshold, long baseDelayMs, long maxDelayMs) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    /**
+     * Ejecuta la operación si el circuito lo permite y registra el resultado
+     */
+    public <T> T call(SqlSupplier<T> operation) throws SQLException {
+        if (!allowRequest()) {
+            throw new SQLTransientConnectionException(
+                    "Circuito " + name + " abierto, siguiente intento en " + getRemainingOpenMillis() + " ms");
+        }
+        try {
+            T result = operation.get();
+            recordSuccess();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            recordFailure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * true si se puede intentar ahora. Con el circuito abierto y la espera cumplida,
+     * solo el primer llamador obtiene la prueba (pasa a SEMIABIERTO)
+     */
+    public boolean allowRequest() {
+        State previous;
+        synchronized (this) {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case HALF_OPEN:
+                    return false; // Ya hay una prueba en curso
+                default:
+                    if (System.currentTimeMillis() < openUntil) return false;
+                    previous = state;
+                    state = State.HALF_OPEN;
+            }
+        }
+        notifyListeners(previous, State.HALF_OPEN);
+        return true;
+    }
+
+    public void recordSuccess() {
+        lastSuccessAt = System.currentTimeMillis();
+        State previous;
+        synchronized (this) {
+            consecutiveFailures = 0;
+            openCount = 0;
+            if (state == State.CLOSED) return;
+            previous = state;
+            state = State.CLOSED;
+        }
+        notifyListeners(previous, State.CLOSED);
+    }
+
+    public void recordFailure(Throwable error) {
+        State previous;
+        long delay;
+        synchronized (this) {
+            // Un pool agotado no dice nada de la red; solo una prueba SEMIABIERTA debe resolverse
+            if (isPoolExhaustion(error) && state != State.HALF_OPEN) return;
+            consecutiveFailures++;
+            boolean trip = state == State.HALF_OPEN
+                    || isNetworkError(error)
+                    || consecutiveFailures >= failureThreshold;
+            if (!trip || state == State.OPEN) return;
+
+            previous = state;
+            delay = backoffWithJitter(openCount++, baseDelayMs, maxDelayMs);
+            openUntil = System.currentTimeMillis() + delay;
+            state = State.OPEN;
+        }
+        System.out.printf("⚡ Circuito %s abierto (%s), siguiente intento en %d ms\n",
+                name, error != null ? error.getMessage() : "fallo", delay);
+        notifyListeners(previous, State.OPEN);
+    }
+
+    /**
+     * Cierra el circuito sin esperar (p. ej. al cambiar de base de datos activa)
+     */
+    public void reset() {
+        recordSuccess();
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized long getRemainingOpenMillis() {
+        return state == State.OPEN ? Math.max(0, openUntil - System.currentTimeMillis()) : 0;
+    }
+
+    /**
+     * Momento del último éxito; el tráfico normal sirve como prueba de salud
+     */
+    public long getLastSuccessAt() {
+        return lastSuccessAt;
+    }
+
+    public void addListener(StateListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("CircuitBreaker{%s, estado=%s, fallos=%d, espera=%dms}",
+                name, state, consecutiveFailures, getRemainingOpenMillis());
+    }
+
+    /**
+     * Espera exponencial con "equal jitter": entre la mitad y el total de base·2^intento, acotada a max
+     */
+    public static long backoffWithJitter(int attempt, long baseMs, long maxMs) {
+        long ceiling = Math.min(maxMs, baseMs << Math.min(attempt, 20));
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+
+    /**
+     * Errores de red o de conexión caída: no tiene sentido insistir hasta que pase la espera
+     */
+    static boolean isNetworkError(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            // SQLTransientConnectionException sola es también el timeout de un pool agotado: se mira su causa
+            if (t instanceof IOException
+                    || t instanceof SQLNonTransientConnectionException
+                    || t instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (t instanceof SQLException sql) {
+                String sqlState = sql.getSQLState();
+                if (sqlState != null && sqlState.startsWith("08")) return true;
+                // ORA-12xxx: errores de Oracle Net (listener, TNS, timeouts); ORA-17002: error de E/S
+                int code = sql.getErrorCode();
+                if ((code >= 12500 && code < 12700) || code == 12170 || code == 17002) return true;
+            }
+            if (t.getCause() == t) break;
+        }
+        return false;
+    }
+
+    /**
+     * Timeout de un pool agotado (Hikari): SQLTransientConnectionException sin causa de red
+     */
+    static boolean isPoolExhaustion(Throwable error) {
+        return error instanceof SQLTransientConnectionException && !isNetworkError(error);
+    }
+
+    private void notifyListeners(State from, State to) {
+        for (StateListener listener : listeners) {
+            try {
+                listener.onStateChange(from, to);
+            } catch (Exception e) {
+                System.err.println("Error notificando cambio de circuito " + name + ": " + e.getMessage());
+            }
+        }
+    }
+}
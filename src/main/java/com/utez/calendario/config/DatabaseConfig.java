@@ -14,22 +14,71 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DatabaseConfig {
+
+    /**
+     * Aviso de cambio de base de datos activa (SQLite ↔ Oracle) para invalidar cachés
+     */
+    @FunctionalInterface
+    public interface DataSourceListener {
+        void onDataSourceChanged(boolean online);
+    }
+
     private static final String CONFIG_FILE = "/database.properties";
     private static Properties properties;
     private static volatile HikariDataSource dataSource;
+    // Pool de solo lectura para SQLite offline (null en modo online)
+    private static volatile HikariDataSource readDataSource;
+    // Migración online → offline en curso (para poder cancelarla)
+    private static volatile OfflineMigration activeMigration;
     private static final Object LOCK = new Object();
-    private static boolean isOracleConnection = false;
-    private static boolean isOfflineMode = false;
-    private static String offlineReason = "";
-    private static boolean hasBeenOnline = false;
+    private static volatile boolean isOracleConnection = false;
+    private static volatile boolean isOfflineMode = false;
+    private static volatile String offlineReason = "";
+    private static volatile boolean hasBeenOnline = false;
+
+    // ARRANQUE: se sirve desde SQLite mientras Oracle se conecta en segundo plano
+    private static final AtomicBoolean bootstrapInProgress = new AtomicBoolean(false);
+    private static volatile CompletableFuture<Boolean> bootstrapResult = CompletableFuture.completedFuture(false);
+    private static final List<DataSourceListener> dataSourceListeners = new CopyOnWriteArrayList<>();
+    private static final String BOOTSTRAP_REASON = "Conectando a Oracle en segundo plano";
+    private static final long POOL_DRAIN_TIMEOUT_MS = 30000; // Espera máxima a que se devuelvan las conexiones del pool retirado
+    private static final ScheduledExecutorService POOL_RETIREMENT = Executors.newSingleThreadScheduledExecutor(
+            runnable -> Thread.ofPlatform().daemon().name("pool-retirement").unstarted(runnable));
 
     // CONFIGURACIÓN MEJORADA DE TIMEOUTS
     private static final int CONNECTIVITY_TIMEOUT_MS = 3000; // 3 segundos
     private static final int ORACLE_CONNECTION_TIMEOUT_MS = 10000; // 10 segundos
-    private static final int MAX_RECONNECTION_ATTEMPTS = 3;
+    // Cortacircuitos de la base online: 3 fallos seguidos (o 1 de red) lo abren; espera de 2 s a 2 min con jitter
+    private static final CircuitBreaker ONLINE_BREAKER = new CircuitBreaker("online", 3, 2000, 120000);
+    // Sin tráfico exitoso en este tiempo, isCurrentConnectionValid hace una prueba real
+    private static final long HEALTH_PROBE_IDLE_MS = 30000;
+    // Sentencias preparadas que cada conexión física conserva en el driver
+    private static final int STATEMENT_CACHE_SIZE = 250;
+    // Préstamos más largos que esto generan aviso de fuga en Hikari (db.pool.leakDetectionMs, 0 lo desactiva)
+    private static final long DEFAULT_LEAK_DETECTION_MS = 60000;
+    private static final long DEFAULT_TARGET_WAIT_MS = 50;
+    private static volatile AdaptivePoolSizer poolSizer;
+    // Espera máxima de la última sincronización incremental al pasar a offline
+    private static final long REPLICA_CATCH_UP_MS = 5000;
+
+    // SQLITE OFFLINE: un escritor y varios lectores sobre WAL
+    private static final String SQLITE_URL = "jdbc:sqlite:calendario_offline.db";
+    private static final int SQLITE_READ_POOL_SIZE = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final int SQLITE_BUSY_TIMEOUT_MS = 5000;
+    private static final long SQLITE_MMAP_SIZE = 256L * 1024 * 1024; // 256 MB
+    private static final int SQLITE_CACHE_SIZE_KB = 16 * 1024; // 16 MB por conexión
+    private static final int SQLITE_OPEN_READONLY = 0x00000001;
 
     public static Connection getConnection() throws SQLException {
         if (dataSource == null || dataSource.isClosed()) {
@@ -39,32 +88,50 @@ public class DatabaseConfig {
                 }
             }
         }
-        return dataSource.getConnection();
+        HikariDataSource active = dataSource;
+        if (isOfflineMode) {
+            return active.getConnection();
+        }
+        // En línea: con el circuito abierto se falla al instante en vez de esperar el timeout del pool
+        return ONLINE_BREAKER.call(active::getConnection);
+    }
+
+    /**
+     * Conexión para consultas. En modo offline sale del pool de lectores de SQLite, que
+     * con WAL no espera a la conexión escritora; en línea es la misma que getConnection().
+     */
+    public static Connection getReadConnection() throws SQLException {
+        HikariDataSource readers = readDataSource;
+        if (isOfflineMode && readers != null && !readers.isClosed()) {
+            return readers.getConnection();
+        }
+        return getConnection();
+    }
+
+    /**
+     * Conexión al archivo SQLite local aunque la base activa sea la online (cola pending_sync).
+     * En modo offline es la conexión escritora del pool
+     */
+    public static Connection getLocalConnection() throws SQLException {
+        if (isOfflineMode) {
+            return getConnection();
+        }
+        Properties local = new Properties();
+        local.setProperty("journal_mode", "WAL");
+        local.setProperty("busy_timeout", String.valueOf(SQLITE_BUSY_TIMEOUT_MS));
+        return java.sql.DriverManager.getConnection(SQLITE_URL, local);
     }
 
     private static void initializeDatabase() {
         try {
             loadProperties();
 
-            // LÓGICA CORREGIDA: Solo verificar conectividad si es Oracle
+            // Oracle: arrancar con SQLite local y conectar en segundo plano, sin bloquear al llamador
             if (isOracleConnection) {
-                System.out.println("Detectada configuración Oracle, verificando conectividad...");
-
-                if (checkOracleConnectivity()) {
-                    System.out.println("✅ Conectividad Oracle verificada, iniciando conexión online");
-                    try {
-                        initializeDataSource();
-                        hasBeenOnline = true;
-                        System.out.println("✅ Conexión Oracle establecida exitosamente");
-                        return; // ÉXITO - salir sin modo offline
-                    } catch (Exception e) {
-                        System.err.println("❌ Error conectando a Oracle: " + e.getMessage());
-                        fallbackToOfflineMode("Error de conexión Oracle: " + e.getMessage());
-                    }
-                } else {
-                    System.out.println("❌ Sin conectividad Oracle, iniciando modo offline");
-                    fallbackToOfflineMode("Sin conectividad a Oracle Cloud");
-                }
+                System.out.println("Detectada configuración Oracle, arrancando con SQLite mientras se conecta en segundo plano...");
+                fallbackToOfflineMode(BOOTSTRAP_REASON);
+                LocalReplica.getInstance(); // Queda suscrita para sincronizarse en cuanto Oracle responda
+                startOracleBootstrap();
             } else {
                 // MySQL u otra BD local - conectar directamente
                 System.out.println("Configuración local detectada, conectando directamente...");
@@ -242,7 +309,7 @@ public class DatabaseConfig {
         isOracleConnection = false; // Temporalmente para SQLite
 
         // Reconfigurar properties para SQLite
-        properties.setProperty("db.url", "jdbc:sqlite:calendario_offline.db");
+        properties.setProperty("db.url", SQLITE_URL);
         properties.setProperty("db.driver", "org.sqlite.JDBC");
         properties.setProperty("db.username", "");
         properties.setProperty("db.password", "");
@@ -326,6 +393,7 @@ public class DatabaseConfig {
             }
 
             Class.forName(driver);
+            closeReadDataSource();
             HikariConfig config = new HikariConfig();
 
             if (isOracleConnection && !isOfflineMode) {
@@ -336,6 +404,7 @@ public class DatabaseConfig {
                 configureMySQLDataSource(config);
             }
 
+            PoolTelemetry.getInstance().instrument(config);
             dataSource = new HikariDataSource(config);
 
             // Verificar conexión
@@ -344,10 +413,13 @@ public class DatabaseConfig {
                     if (isOfflineMode) {
                         System.out.println("Base de datos SQLite offline verificada");
                         initializeOfflineSchema(conn);
+                        initializeSQLiteReadDataSource();
                     } else {
                         System.out.println("Conexion a base de datos online verificada");
                         hasBeenOnline = true;
+                        startAdaptiveSizing(dataSource);
                     }
+                    validateSqlCatalog(conn, getDialect());
                 } else {
                     throw new SQLException("Conexion no valida");
                 }
@@ -378,56 +450,183 @@ public class DatabaseConfig {
         config.setUsername("ADMIN");
         config.setPassword("Ithera-2025#");
 
-        // CONFIGURACIÓN OPTIMIZADA PARA ORACLE
-        config.setMaximumPoolSize(5);
-        config.setMinimumIdle(1); // Al menos 1 conexión activa
+        // CONFIGURACIÓN OPTIMIZADA PARA ORACLE (tamaño y timeout ajustables con db.pool.*)
+        config.setPoolName("oracle");
+        applyPoolProperties(config, 5, 1, ORACLE_CONNECTION_TIMEOUT_MS);
         config.setIdleTimeout(300000); // 5 minutos
-        config.setConnectionTimeout(ORACLE_CONNECTION_TIMEOUT_MS);
         config.setValidationTimeout(5000);
         config.setMaxLifetime(600000); // 10 minutos
-        config.setConnectionTestQuery("SELECT 1 FROM DUAL");
+        config.setConnectionTestQuery(SqlDialect.ORACLE.connectionTestQuery());
 
-        // Propiedades Oracle específicas
-        config.addDataSourceProperty("cachePrepStmts", "true");
-        config.addDataSourceProperty("prepStmtCacheSize", "250");
-        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        // Propiedades Oracle específicas: caché implícita de sentencias por conexión física
+        config.addDataSourceProperty("oracle.jdbc.implicitStatementCacheSize", String.valueOf(STATEMENT_CACHE_SIZE));
         config.addDataSourceProperty("oracle.jdbc.ReadTimeout", "30000");
         config.addDataSourceProperty("oracle.net.READ_TIMEOUT", "30000");
 
         System.out.println("DataSource Oracle configurado");
     }
 
-    private static void configureSQLiteDataSource(HikariConfig config) {
-        String url = "jdbc:sqlite:calendario_offline.db";
+    /**
+     * Tamaño, timeout y detección de fugas del pool online desde db.pool.* (con los valores por defecto del backend)
+     */
+    private static void applyPoolProperties(HikariConfig config, int defaultMaxSize, int defaultMinIdle, long defaultTimeoutMs) {
+        int maxSize = Math.max(1, intProperty("db.pool.maxSize", defaultMaxSize));
+        if (booleanProperty("db.pool.adaptive")) {
+            // El ajuste adaptativo arranca en el máximo permitido y reduce si sobra capacidad
+            maxSize = Math.max(adaptiveMinSize(maxSize), Math.min(maxSize, intProperty("db.pool.adaptive.maxSize", maxSize)));
+        }
+        config.setMaximumPoolSize(maxSize);
+        config.setMinimumIdle(Math.min(maxSize, Math.max(0, intProperty("db.pool.initialSize", defaultMinIdle))));
+        config.setConnectionTimeout(longProperty("db.pool.timeout", defaultTimeoutMs));
+
+        long leakDetectionMs = longProperty("db.pool.leakDetectionMs", DEFAULT_LEAK_DETECTION_MS);
+        if (leakDetectionMs > 0) {
+            config.setLeakDetectionThreshold(leakDetectionMs);
+        }
+        System.out.printf("   Pool %s: %d-%d conexiones, timeout %dms%n", config.getPoolName(),
+                config.getMinimumIdle(), config.getMaximumPoolSize(), config.getConnectionTimeout());
+    }
+
+    /**
+     * Con db.pool.adaptive=true, ajusta el tamaño del pool online según la espera observada
+     */
+    private static void startAdaptiveSizing(HikariDataSource pool) {
+        AdaptivePoolSizer previous = poolSizer;
+        if (previous != null) {
+            previous.stop();
+            poolSizer = null;
+        }
+        if (!booleanProperty("db.pool.adaptive")) return;
+
+        PoolTelemetry.PoolMetrics metrics = PoolTelemetry.getInstance().metrics(pool.getPoolName());
+        if (metrics == null) return;
+
+        int upper = Math.max(1, intProperty("db.pool.adaptive.maxSize", intProperty("db.pool.maxSize", pool.getMaximumPoolSize())));
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(pool, metrics, adaptiveMinSize(upper), upper,
+                longProperty("db.pool.adaptive.targetWaitMs", DEFAULT_TARGET_WAIT_MS));
+        poolSizer = sizer;
+        sizer.start();
+    }
+
+    private static int adaptiveMinSize(int upper) {
+        return Math.min(upper, Math.max(1, intProperty("db.pool.adaptive.minSize", 2)));
+    }
+
+    static int intProperty(String key, int defaultValue) {
+        return (int) longProperty(key, defaultValue);
+    }
 
-        config.setJdbcUrl(url);
-        config.setMaximumPoolSize(1); // SQLite solo soporta 1 escritor
+    static long longProperty(String key, long defaultValue) {
+        String value = properties != null ? properties.getProperty(key) : null;
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Valor inválido para " + key + ": " + value + " (se usa " + defaultValue + ")");
+            return defaultValue;
+        }
+    }
+
+    static boolean booleanProperty(String key) {
+        return properties != null && Boolean.parseBoolean(properties.getProperty(key, "false").trim());
+    }
+
+    private static void configureSQLiteDataSource(HikariConfig config) {
+        config.setJdbcUrl(SQLITE_URL);
+        config.setPoolName("sqlite-writer");
+        config.setMaximumPoolSize(1); // SQLite solo soporta 1 escritor; las lecturas van al pool de lectores
         config.setMinimumIdle(0);
         config.setConnectionTimeout(30000);
         config.setValidationTimeout(5000);
         config.setConnectionTestQuery("SELECT 1");
+        applySQLitePragmas(config);
+
+        System.out.println("DataSource SQLite configurado: " + SQLITE_URL);
+    }
 
-        // Configuraciones SQLite específicas
+    /**
+     * Abre el pool de lectores una vez creado el esquema (WAL ya activo en el archivo)
+     */
+    private static void initializeSQLiteReadDataSource() {
+        try {
+            readDataSource = openSQLitePool("sqlite-readers", SQLITE_READ_POOL_SIZE, true, true);
+            System.out.println("Pool de lectura SQLite configurado: " + SQLITE_READ_POOL_SIZE + " conexiones");
+        } catch (Exception e) {
+            // Sin lectores todo sigue funcionando sobre la conexión escritora
+            System.err.println("⚠️ No se pudo abrir el pool de lectura SQLite: " + e.getMessage());
+            readDataSource = null;
+        }
+    }
+
+    /**
+     * Pool adicional sobre el archivo SQLite local (lectores offline, réplica local).
+     * Sin llaves foráneas las filas pueden reemplazarse sin borrados en cascada.
+     */
+    static HikariDataSource openSQLitePool(String poolName, int size, boolean readOnly, boolean foreignKeys) {
+        return openSQLitePool(SQLITE_URL, poolName, size, readOnly, foreignKeys);
+    }
+
+    /**
+     * Igual que openSQLitePool sobre otro archivo SQLite (pruebas y benchmarks)
+     */
+    static HikariDataSource openSQLitePool(String jdbcUrl, String poolName, int size, boolean readOnly, boolean foreignKeys) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(jdbcUrl);
+        config.setPoolName(poolName);
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(readOnly ? 1 : 0);
+        config.setConnectionTimeout(30000);
+        config.setValidationTimeout(5000);
+        config.setConnectionTestQuery("SELECT 1");
+        applySQLitePragmas(config);
+        config.addDataSourceProperty("foreign_keys", String.valueOf(foreignKeys));
+        if (readOnly) {
+            // sqlite-jdbc solo admite el modo lectura al abrir; Hikari debe declararlo igual
+            config.addDataSourceProperty("open_mode", String.valueOf(SQLITE_OPEN_READONLY));
+            config.setReadOnly(true);
+        }
+        PoolTelemetry.getInstance().instrument(config);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Pragmas por conexión: WAL deja leer mientras se escribe y synchronous=NORMAL
+     * solo sincroniza en los checkpoints
+     */
+    private static void applySQLitePragmas(HikariConfig config) {
         config.addDataSourceProperty("foreign_keys", "true");
         config.addDataSourceProperty("journal_mode", "WAL");
         config.addDataSourceProperty("synchronous", "NORMAL");
-        config.addDataSourceProperty("cache_size", "2000");
+        config.addDataSourceProperty("busy_timeout", String.valueOf(SQLITE_BUSY_TIMEOUT_MS));
+        config.addDataSourceProperty("mmap_size", String.valueOf(SQLITE_MMAP_SIZE));
+        config.addDataSourceProperty("cache_size", String.valueOf(-SQLITE_CACHE_SIZE_KB)); // Negativo = KiB
         config.addDataSourceProperty("temp_store", "memory");
+    }
 
-        System.out.println("DataSource SQLite configurado: " + url);
+    private static void closeReadDataSource() {
+        HikariDataSource readers = readDataSource;
+        readDataSource = null;
+        if (readers != null && !readers.isClosed()) {
+            readers.close();
+        }
     }
 
     private static void configureMySQLDataSource(HikariConfig config) {
         config.setJdbcUrl(properties.getProperty("db.url"));
         config.setUsername(properties.getProperty("db.username"));
         config.setPassword(properties.getProperty("db.password"));
-        config.setMaximumPoolSize(10);
-        config.setMinimumIdle(2);
+        config.setPoolName("mysql");
+        applyPoolProperties(config, 10, 2, 10000);
         config.setIdleTimeout(300000);
-        config.setConnectionTimeout(10000);
         config.setValidationTimeout(3000);
         config.setMaxLifetime(600000);
 
+        // Caché de sentencias por conexión en Connector/J
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(STATEMENT_CACHE_SIZE));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+
         System.out.println("DataSource MySQL configurado");
     }
 
@@ -440,347 +639,207 @@ public class DatabaseConfig {
             return true;
         }
 
-        System.out.println("\n🔄 INTENTANDO RECONEXIÓN A BASE DE DATOS ONLINE...");
-
         // Solo intentar reconexión si originalmente era Oracle
         if (!isOracleConnection) {
             System.out.println("❌ Configuración no es Oracle, no se puede reconectar");
             return false;
         }
 
-        int attempts = 0;
-        while (attempts < MAX_RECONNECTION_ATTEMPTS) {
-            attempts++;
-            System.out.printf("🔍 Intento %d/%d de reconexión...\n", attempts, MAX_RECONNECTION_ATTEMPTS);
-
-            if (checkOracleConnectivity()) {
-                try {
-                    // Cerrar conexión offline actual
-                    closeDataSource();
-                    dataSource = null;
-
-                    // Resetear flags
-                    isOfflineMode = false;
-                    offlineReason = "";
-
-                    // Recargar configuración Oracle
-                    loadProperties();
-
-                    // Intentar conexión online
-                    initializeDataSource();
+        // El arranque en segundo plano ya está intentando conectar
+        if (bootstrapInProgress.get()) {
+            System.out.println("⏳ Conexión a Oracle en curso en segundo plano");
+            return false;
+        }
 
-                    System.out.println("✅ RECONEXIÓN EXITOSA - Volviendo a modo online");
-                    hasBeenOnline = true;
-                    return true;
+        // Con el circuito abierto no se reintenta hasta que venza la espera (backoff con jitter)
+        if (!ONLINE_BREAKER.allowRequest()) {
+            System.out.printf("⏳ Reconexión en espera, siguiente intento en %d ms\n", ONLINE_BREAKER.getRemainingOpenMillis());
+            return false;
+        }
 
-                } catch (Exception e) {
-                    System.err.printf("❌ Error en intento %d: %s\n", attempts, e.getMessage());
-
-                    if (attempts < MAX_RECONNECTION_ATTEMPTS) {
-                        try {
-                            Thread.sleep(2000); // Esperar 2 segundos antes del siguiente intento
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                            break;
-                        }
-                    }
-                }
-            } else {
-                System.out.println("❌ Sin conectividad Oracle en intento " + attempts);
-                if (attempts < MAX_RECONNECTION_ATTEMPTS) {
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
+        System.out.println("\n🔄 INTENTANDO RECONEXIÓN A BASE DE DATOS ONLINE...");
+        try {
+            if (!checkOracleConnectivity()) {
+                throw new SQLTransientConnectionException("Sin conectividad Oracle", "08001");
             }
-        }
+            // SQLite sigue atendiendo mientras se abre el pool Oracle
+            HikariDataSource online = openOracleDataSource();
+            ONLINE_BREAKER.recordSuccess();
+            swapToOnline(online);
 
-        // Si falla, asegurar que vuelva a modo offline
-        System.out.println("Reconexion fallo despues de " + MAX_RECONNECTION_ATTEMPTS + " intentos");
-        fallbackToOfflineMode("Fallo en reconexion despues de " + MAX_RECONNECTION_ATTEMPTS + " intentos");
+            System.out.println("✅ RECONEXIÓN EXITOSA - Volviendo a modo online");
+            return true;
 
-        // Re-inicializar offline
-        try {
-            initializeDataSource();
         } catch (Exception e) {
-            System.err.println("Error critico re-inicializando offline: " + e.getMessage());
+            // SQLite nunca se cerró: se sigue en modo offline
+            System.err.println("❌ Reconexión fallida: " + e.getMessage());
+            ONLINE_BREAKER.recordFailure(e);
+            offlineReason = "Fallo en reconexion: " + e.getMessage();
+            return false;
         }
-
-        return false;
     }
 
-    private static void initializeOfflineSchema(Connection conn) {
-        try {
-            System.out.println("Inicializando esquema completo de base de datos offline...");
-
-            if (needsSchemaUpdate(conn)) {
-                System.out.println("Detectando esquema desactualizado, recreando tablas...");
-                dropExistingTables(conn);
-            }
+    /**
+     * Lanza la conexión a Oracle en un hilo aparte. Al terminar, swapToOnline cambia
+     * la base activa; si falla, la aplicación sigue con SQLite y el motivo queda en offlineReason.
+     */
+    private static void startOracleBootstrap() {
+        if (!bootstrapInProgress.compareAndSet(false, true)) return;
 
-            String[] createTables = {
-                    """
-                CREATE TABLE IF NOT EXISTS USERS (
-                    USER_ID TEXT PRIMARY KEY,
-                    MATRICULA TEXT UNIQUE,
-                    EMAIL TEXT UNIQUE NOT NULL,
-                    FIRST_NAME TEXT NOT NULL,
-                    LAST_NAME TEXT NOT NULL,
-                    PASSWORD TEXT NOT NULL,
-                    ROLE TEXT NOT NULL DEFAULT 'alumno',
-                    ACTIVE TEXT NOT NULL DEFAULT 'Y',
-                    CREATED_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
-                    LAST_LOGIN DATETIME
-                )
-                """,
-
-                    """
-                CREATE TABLE IF NOT EXISTS CALENDARS (
-                    CALENDAR_ID TEXT PRIMARY KEY,
-                    OWNER_ID TEXT NOT NULL,
-                    NAME TEXT NOT NULL,
-                    DESCRIPTION TEXT,
-                    COLOR TEXT DEFAULT '#3498db',
-                    ACTIVE TEXT DEFAULT 'Y',
-                    CREATED_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
-                    MODIFIED_DATE DATETIME,
-                    SHARE_CODE TEXT,
-                    SHARE_CODE_EXPIRY DATETIME,
-                    IS_SHARED TEXT DEFAULT 'N',
-                    FOREIGN KEY (OWNER_ID) REFERENCES USERS(USER_ID) ON DELETE CASCADE
-                )
-                """,
-
-                    """
-                CREATE TABLE IF NOT EXISTS EVENTS (
-                    EVENT_ID TEXT PRIMARY KEY,
-                    CALENDAR_ID TEXT NOT NULL,
-                    CREATOR_ID TEXT,
-                    TITLE TEXT NOT NULL,
-                    DESCRIPTION TEXT,
-                    START_DATE DATETIME NOT NULL,
-                    END_DATE DATETIME,
-                    ALL_DAY TEXT DEFAULT 'N',
-                    LOCATION TEXT,
-                    RECURRENCE TEXT,
-                    RECURRENCE_END_DATE DATETIME,
-                    ACTIVE TEXT DEFAULT 'Y',
-                    CREATED_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
-                    MODIFIED_DATE DATETIME,
-                    FOREIGN KEY (CALENDAR_ID) REFERENCES CALENDARS(CALENDAR_ID) ON DELETE CASCADE,
-                    FOREIGN KEY (CREATOR_ID) REFERENCES USERS(USER_ID)
-                )
-                """,
-
-                    """
-                CREATE TABLE IF NOT EXISTS CALENDAR_PERMISSIONS (
-                    PERMISSION_ID TEXT PRIMARY KEY,
-                    CALENDAR_ID TEXT NOT NULL,
-                    USER_ID TEXT NOT NULL,
-                    PERMISSION_LEVEL TEXT NOT NULL DEFAULT 'read',
-                    PERMISSION_TYPE TEXT NOT NULL DEFAULT 'shared',
-                    GRANTED_BY TEXT NOT NULL,
-                    GRANTED_AT DATETIME DEFAULT CURRENT_TIMESTAMP,
-                    SHARED_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
-                    ACTIVE TEXT DEFAULT 'Y',
-                    FOREIGN KEY (CALENDAR_ID) REFERENCES CALENDARS(CALENDAR_ID) ON DELETE CASCADE,
-                    FOREIGN KEY (USER_ID) REFERENCES USERS(USER_ID) ON DELETE CASCADE,
-                    FOREIGN KEY (GRANTED_BY) REFERENCES USERS(USER_ID)
-                )
-                """,
-
-                    """
-                CREATE TABLE IF NOT EXISTS INVITATIONS (
-                    INVITATION_ID TEXT PRIMARY KEY,
-                    CALENDAR_ID TEXT NOT NULL,
-                    INVITED_USER_ID TEXT NOT NULL,
-                    INVITER_USER_ID TEXT NOT NULL,
-                    PERMISSION_TYPE TEXT DEFAULT 'read',
-                    STATUS TEXT DEFAULT 'PENDING',
-                    INVITATION_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
-                    RESPONSE_DATE DATETIME,
-                    FOREIGN KEY (CALENDAR_ID) REFERENCES CALENDARS(CALENDAR_ID) ON DELETE CASCADE,
-                    FOREIGN KEY (INVITED_USER_ID) REFERENCES USERS(USER_ID) ON DELETE CASCADE,
-                    FOREIGN KEY (INVITER_USER_ID) REFERENCES USERS(USER_ID) ON DELETE CASCADE
-                )
-                """,
-
-                    """
-                CREATE TABLE IF NOT EXISTS CLASS_TEMPLATES (
-                    TEMPLATE_ID TEXT PRIMARY KEY,
-                    TEACHER_ID TEXT NOT NULL,
-                    TEMPLATE_NAME TEXT NOT NULL,
-                    SUBJECT TEXT,
-                    GROUP_NAME TEXT,
-                    DURATION_MINUTES INTEGER,
-                    WEEK_DAYS TEXT,
-                    START_TIME TIME,
-                    CREATED_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
-                    ACTIVE TEXT DEFAULT 'Y',
-                    FOREIGN KEY (TEACHER_ID) REFERENCES USERS(USER_ID) ON DELETE CASCADE
-                )
-                """,
-
-                    """
-                CREATE TABLE IF NOT EXISTS pending_sync (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    table_name TEXT NOT NULL,
-                    record_id TEXT NOT NULL,
-                    operation TEXT NOT NULL,
-                    data TEXT,
-                    created_at DATETIME DEFAULT CURRENT_TIMESTAMP
-                )
-                """
-            };
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        bootstrapResult = result;
 
-            for (String createTable : createTables) {
-                try {
-                    conn.createStatement().execute(createTable);
-                } catch (Exception e) {
-                    System.err.println("Error creando tabla: " + e.getMessage());
+        Thread.ofPlatform().daemon().name("oracle-bootstrap").start(() -> {
+            boolean online = false;
+            try {
+                if (!checkOracleConnectivity()) {
+                    System.out.println("❌ Sin conectividad Oracle, se continúa en modo offline");
+                    offlineReason = "Sin conectividad a Oracle Cloud";
+                    ONLINE_BREAKER.recordFailure(new SQLTransientConnectionException(offlineReason, "08001"));
+                } else {
+                    HikariDataSource oracle = openOracleDataSource();
+                    ONLINE_BREAKER.recordSuccess();
+                    online = swapToOnline(oracle);
+                    System.out.println("✅ Conexión Oracle establecida en segundo plano");
                 }
+            } catch (Exception e) {
+                System.err.println("❌ Error conectando a Oracle: " + e.getMessage());
+                offlineReason = "Error de conexión Oracle: " + e.getMessage();
+                ONLINE_BREAKER.recordFailure(e);
+            } finally {
+                bootstrapInProgress.set(false);
+                if (!online) notifyDataSourceListeners(false);
+                result.complete(online);
             }
+        });
+    }
 
-            createTestDataIfNeeded(conn);
-
-            String[] createIndexes = {
-                    "CREATE INDEX IF NOT EXISTS idx_calendars_owner_id ON CALENDARS(OWNER_ID)",
-                    "CREATE INDEX IF NOT EXISTS idx_events_calendar_id ON EVENTS(CALENDAR_ID)",
-                    "CREATE INDEX IF NOT EXISTS idx_events_creator_id ON EVENTS(CREATOR_ID)",
-                    "CREATE INDEX IF NOT EXISTS idx_events_start_date ON EVENTS(START_DATE)",
-                    "CREATE INDEX IF NOT EXISTS idx_permissions_calendar_id ON CALENDAR_PERMISSIONS(CALENDAR_ID)",
-                    "CREATE INDEX IF NOT EXISTS idx_permissions_user_id ON CALENDAR_PERMISSIONS(USER_ID)",
-                    "CREATE INDEX IF NOT EXISTS idx_invitations_calendar_id ON INVITATIONS(CALENDAR_ID)",
-                    "CREATE INDEX IF NOT EXISTS idx_invitations_invited_user ON INVITATIONS(INVITED_USER_ID)"
-            };
-
-            for (String createIndex : createIndexes) {
-                try {
-                    conn.createStatement().execute(createIndex);
-                } catch (Exception e) {
-                    // Indices pueden ya existir
-                }
+    /**
+     * Abre y verifica un pool Oracle sin tocar la base activa
+     */
+    private static HikariDataSource openOracleDataSource() throws Exception {
+        HikariConfig config = new HikariConfig();
+        configureOracleDataSource(config);
+        PoolTelemetry.getInstance().instrument(config);
+
+        HikariDataSource online = new HikariDataSource(config);
+        try (Connection conn = online.getConnection()) {
+            if (!conn.isValid(5)) {
+                throw new SQLException("Conexion no valida");
             }
-
-            System.out.println("Esquema completo de base de datos offline inicializado correctamente");
+            SchemaMigrator.migrate(conn, SqlDialect.ORACLE);
+            validateSqlCatalog(conn, SqlDialect.ORACLE);
         } catch (Exception e) {
-            System.err.println("Error inicializando esquema offline: " + e.getMessage());
-            e.printStackTrace();
+            online.close();
+            throw e;
         }
+        return online;
     }
 
-    private static void createTestDataIfNeeded(Connection conn) throws SQLException {
-        String checkUser = "SELECT COUNT(*) FROM USERS WHERE EMAIL = '20243ds076@utez.edu.mx'";
-        try (var stmt = conn.createStatement();
-             var rs = stmt.executeQuery(checkUser)) {
-
-            if (rs.next() && rs.getInt(1) == 0) {
-                String insertTestUser = """
-                    INSERT INTO USERS (USER_ID, MATRICULA, FIRST_NAME, LAST_NAME, EMAIL, PASSWORD, ROLE, ACTIVE) 
-                    VALUES ('USR0000001', '20243ds076', 'Usuario', 'Prueba', '20243ds076@utez.edu.mx', '123456', 'alumno', 'Y')
-                """;
-                stmt.execute(insertTestUser);
-                System.out.println("Usuario de prueba creado para modo offline");
-
-                String[] calendars = {
-                        "INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE) VALUES ('CAL0000001', 'USR0000001', 'Mis Clases', 'Calendario principal', '#1976D2', 'Y')",
-                        "INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE) VALUES ('CAL0000002', 'USR0000001', 'Personal', 'Eventos personales', '#4CAF50', 'Y')",
-                        "INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE) VALUES ('CAL0000003', 'USR0000001', 'Tareas y Proyectos', 'Tareas academicas', '#FF5722', 'Y')"
-                };
-
-                for (String calendarSql : calendars) {
-                    stmt.execute(calendarSql);
-                }
-                System.out.println("Calendarios por defecto creados");
-
-                String[] events = {
-                        "INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION, START_DATE, END_DATE, LOCATION, ACTIVE) VALUES ('EVE0000001', 'CAL0000001', 'USR0000001', 'Clase de Programacion', 'Clase de Java avanzado', datetime('now', '+1 day', '+8 hours'), datetime('now', '+1 day', '+10 hours'), 'Aula A101', 'Y')",
-                        "INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION, START_DATE, END_DATE, LOCATION, ACTIVE) VALUES ('EVE0000002', 'CAL0000001', 'USR0000001', 'Laboratorio BD', 'Practica de bases de datos', datetime('now', '+2 days', '+14 hours'), datetime('now', '+2 days', '+16 hours'), 'Lab Computo', 'Y')",
-                        "INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION, START_DATE, END_DATE, LOCATION, ACTIVE) VALUES ('EVE0000003', 'CAL0000002', 'USR0000001', 'Reunion Personal', 'Cita importante', datetime('now', '+3 days', '+16 hours'), datetime('now', '+3 days', '+17 hours'), 'Casa', 'Y')"
-                };
+    /**
+     * Cambia de forma atómica la base activa al pool Oracle. Las conexiones SQLite ya
+     * prestadas terminan su trabajo: los pools anteriores se cierran cuando se devuelven
+     * (o tras POOL_DRAIN_TIMEOUT_MS), sin cortar operaciones a medias.
+     */
+    private static boolean swapToOnline(HikariDataSource online) {
+        HikariDataSource retiredWriter;
+        HikariDataSource retiredReaders;
 
-                for (String eventSql : events) {
-                    stmt.execute(eventSql);
-                }
-                System.out.println("Eventos de ejemplo creados");
+        synchronized (LOCK) {
+            if (!isOfflineMode && dataSource != null && !dataSource.isClosed()) {
+                online.close(); // Otro hilo ya volvió a línea
+                return false;
             }
+            retiredWriter = dataSource;
+            retiredReaders = readDataSource;
+
+            loadProperties(); // Restaurar la configuración Oracle
+            readDataSource = null;
+            dataSource = online;
+            offlineReason = "";
+            hasBeenOnline = true;
+            isOfflineMode = false;
         }
-    }
-
-    private static boolean needsSchemaUpdate(Connection conn) {
-        try {
-            String checkColumnSql = "PRAGMA table_info(CALENDAR_PERMISSIONS)";
-            try (var stmt = conn.createStatement();
-                 var rs = stmt.executeQuery(checkColumnSql)) {
 
-                boolean hasSharedDate = false;
-                boolean hasPermissionType = false;
+        retirePool(retiredReaders);
+        retirePool(retiredWriter);
+        startAdaptiveSizing(online);
+        notifyDataSourceListeners(true);
+        return true;
+    }
 
-                while (rs.next()) {
-                    String columnName = rs.getString("name");
-                    if ("SHARED_DATE".equals(columnName)) {
-                        hasSharedDate = true;
-                    }
-                    if ("PERMISSION_TYPE".equals(columnName)) {
-                        hasPermissionType = true;
-                    }
-                }
+    static void retirePool(HikariDataSource pool) {
+        if (pool == null || pool.isClosed()) return;
+        scheduleRetirement(pool, System.currentTimeMillis() + POOL_DRAIN_TIMEOUT_MS);
+    }
 
-                return !hasSharedDate || !hasPermissionType;
+    /**
+     * Comprueba cada 100 ms si el pool retirado ya no tiene conexiones prestadas; no bloquea ningún hilo
+     */
+    private static void scheduleRetirement(HikariDataSource pool, long deadline) {
+        POOL_RETIREMENT.schedule(() -> {
+            boolean busy = pool.getHikariPoolMXBean() != null
+                    && pool.getHikariPoolMXBean().getActiveConnections() > 0;
+            if (busy && System.currentTimeMillis() < deadline) {
+                scheduleRetirement(pool, deadline);
+                return;
             }
-        } catch (Exception e) {
-            return true;
-        }
+            pool.close();
+            System.out.println("Pool " + pool.getPoolName() + " retirado");
+        }, 100, TimeUnit.MILLISECONDS);
     }
 
-    private static void dropExistingTables(Connection conn) {
-        String[] tables = {
-                "pending_sync", "CLASS_TEMPLATES", "INVITATIONS",
-                "CALENDAR_PERMISSIONS", "EVENTS", "CALENDARS", "USERS"
-        };
-
-        for (String table : tables) {
+    private static void notifyDataSourceListeners(boolean online) {
+        for (DataSourceListener listener : dataSourceListeners) {
             try {
-                conn.createStatement().execute("DROP TABLE IF EXISTS " + table);
-                System.out.println("Tabla " + table + " eliminada");
+                listener.onDataSourceChanged(online);
             } catch (Exception e) {
-                // No es critico
+                System.err.println("Error notificando cambio de base de datos: " + e.getMessage());
             }
         }
     }
 
-    public static Connection getConnectionWithRetry() throws SQLException {
-        int maxRetries = isOfflineMode ? 1 : 2;
-        int retryCount = 0;
-        int retryDelayMs = 500;
+    public static void addDataSourceListener(DataSourceListener listener) {
+        dataSourceListeners.add(listener);
+    }
 
-        while (retryCount < maxRetries) {
-            try {
-                return getConnection();
-            } catch (SQLException e) {
-                if (!isOfflineMode && e.getMessage().contains("ORA-00018") && retryCount < maxRetries - 1) {
-                    System.err.println("Error de maximo de sesiones, reintentando en " +
-                            retryDelayMs + "ms... (Intento " + (retryCount + 1) +
-                            " de " + maxRetries + ")");
-                    retryCount++;
-                    try {
-                        Thread.sleep(retryDelayMs);
-                        retryDelayMs *= 1.5;
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                    }
-                } else {
-                    throw e;
-                }
+    public static boolean isBootstrapping() {
+        return bootstrapInProgress.get();
+    }
+
+    /**
+     * Resultado del último arranque en segundo plano: true si terminó conectado a Oracle
+     */
+    public static CompletableFuture<Boolean> getBootstrapResult() {
+        return bootstrapResult;
+    }
+
+    /**
+     * Lleva el esquema SQLite a la última versión (ver SchemaMigrator); al día cuesta una lectura de user_version
+     */
+    private static void initializeOfflineSchema(Connection conn) {
+        try {
+            int applied = SchemaMigrator.migrate(conn, SqlDialect.SQLITE);
+            if (applied > 0) {
+                System.out.println("Esquema offline actualizado a v" + SchemaMigrator.latestVersion(SqlDialect.SQLITE) +
+                        " (" + applied + " migraciones)");
             }
+        } catch (SQLException e) {
+            System.err.println("Error inicializando esquema offline: " + e.getMessage());
+            e.printStackTrace();
         }
-        throw new SQLException("No se pudo obtener conexion despues de " + maxRetries + " intentos");
+    }
+
+    /**
+     * Igual que getConnection(): los reintentos ya no duermen al llamador, el cortacircuitos
+     * decide cuándo volver a intentar y el pool absorbe picos (ORA-00018) con su propio timeout
+     */
+    public static Connection getConnectionWithRetry() throws SQLException {
+        return getConnection();
     }
 
     public static void closeDataSource() {
+        closeReadDataSource();
         if (dataSource != null && !dataSource.isClosed()) {
             System.out.println("Cerrando pool de conexiones...");
             dataSource.close();
@@ -793,6 +852,28 @@ public class DatabaseConfig {
         return isOfflineMode;
     }
 
+    /**
+     * Dialecto SQL de la conexión activa (SQLite mientras se está offline)
+     */
+    public static SqlDialect getDialect() {
+        if (isOfflineMode) return SqlDialect.SQLITE;
+        return isOracleConnection ? SqlDialect.ORACLE : SqlDialect.MYSQL;
+    }
+
+    /**
+     * Compila el catálogo SQL contra el pool recién abierto para detectar sentencias
+     * incompatibles al arrancar y no a mitad de una operación
+     */
+    private static void validateSqlCatalog(Connection conn, SqlDialect dialect) {
+        List<String> failures = SqlCatalog.validate(conn, dialect);
+        if (failures.isEmpty()) {
+            System.out.println("✅ Catálogo SQL validado para " + dialect + " (" + SqlCatalog.values().length + " sentencias)");
+        } else {
+            System.err.println("⚠️ Catálogo SQL con " + failures.size() + " sentencias inválidas para " + dialect + ":");
+            failures.forEach(failure -> System.err.println("   - " + failure));
+        }
+    }
+
     public static String getOfflineReason() {
         return offlineReason;
     }
@@ -819,10 +900,39 @@ public class DatabaseConfig {
         }
     }
 
+    /**
+     * Métricas de todos los pools abiertos y del ajuste adaptativo, una línea por elemento
+     */
+    public static String getPoolDiagnostics() {
+        StringBuilder diagnostics = new StringBuilder();
+        for (PoolTelemetry.PoolSnapshot snapshot : PoolTelemetry.getInstance().snapshots()) {
+            diagnostics.append(snapshot).append("\n");
+        }
+        AdaptivePoolSizer sizer = poolSizer;
+        if (sizer != null) {
+            diagnostics.append(sizer).append("\n");
+        }
+        diagnostics.append(LocalReplica.getInstance()).append("\n");
+        return diagnostics.length() > 0 ? diagnostics.toString() : "sin pools abiertos\n";
+    }
+
     public static HikariDataSource getDataSource() {
         return dataSource;
     }
 
+    /**
+     * Conexiones que pueden usarse a la vez: escritor + lectores en offline, el pool completo en línea
+     */
+    public static int getMaxConcurrentConnections() {
+        HikariDataSource writers = dataSource;
+        HikariDataSource readers = readDataSource;
+        int total = writers != null && !writers.isClosed() ? writers.getMaximumPoolSize() : 0;
+        if (isOfflineMode && readers != null && !readers.isClosed()) {
+            total += readers.getMaximumPoolSize();
+        }
+        return total;
+    }
+
     public static boolean hasBeenOnline() {
         return hasBeenOnline;
     }
@@ -837,64 +947,93 @@ public class DatabaseConfig {
      * MÉTODO NUEVO: Verificar si la conexión actual sigue siendo válida
      */
     public static boolean isCurrentConnectionValid() {
-        if (dataSource == null || dataSource.isClosed()) {
+        HikariDataSource active = dataSource;
+        if (active == null || active.isClosed()) {
             return false;
         }
 
-        try (Connection conn = dataSource.getConnection()) {
-            return conn.isValid(3); // 3 segundos timeout
+        // El tráfico reciente ya demuestra que la conexión funciona: no hace falta otra consulta
+        if (ONLINE_BREAKER.getState() == CircuitBreaker.State.CLOSED
+                && System.currentTimeMillis() - ONLINE_BREAKER.getLastSuccessAt() < HEALTH_PROBE_IDLE_MS) {
+            return true;
+        }
+
+        // Prueba directa (sin pasar por el circuito) para poder cerrarlo si la base responde
+        try (Connection conn = active.getConnection()) {
+            if (conn.isValid(3)) { // 3 segundos timeout
+                ONLINE_BREAKER.recordSuccess();
+                return true;
+            }
+            ONLINE_BREAKER.recordFailure(new SQLTransientConnectionException("Conexion no valida", "08006"));
+            return false;
         } catch (Exception e) {
             System.out.println("Conexion actual no valida: " + e.getMessage());
+            ONLINE_BREAKER.recordFailure(e);
             return false;
         }
     }
 
+    /**
+     * Cortacircuitos de la base online, para observar su estado o suscribirse a cambios
+     */
+    public static CircuitBreaker getCircuitBreaker() {
+        return ONLINE_BREAKER;
+    }
+
     /**
      * MÉTODO NUEVO: Forzar transición a modo offline cuando se pierde conectividad
      */
-    public static synchronized boolean forceTransitionToOffline(String reason) {
+    public static boolean forceTransitionToOffline(String reason) {
         System.out.println("\n🔄 FORZANDO TRANSICIÓN A MODO OFFLINE");
         System.out.println("   Razón: " + reason);
 
         try {
-            // 1. Migrar datos críticos ANTES de cambiar a offline
+            // 1. Migrar datos críticos ANTES de cambiar a offline (con el pool online todavía activo)
             if (!isOfflineMode && dataSource != null) {
                 System.out.println("   Migrando datos críticos a SQLite...");
                 migrateDataToOffline();
             }
 
-            // 2. Cerrar conexión online
-            if (dataSource != null && !dataSource.isClosed()) {
-                try {
-                    dataSource.close();
-                    System.out.println("   Conexión online cerrada");
-                } catch (Exception e) {
-                    System.err.println("   Error cerrando conexión: " + e.getMessage());
-                }
-            }
-            dataSource = null;
+            HikariDataSource retiredWriter;
+            HikariDataSource retiredReaders;
 
-            // 3. Configurar flags de offline
-            isOfflineMode = true;
-            offlineReason = reason;
-            boolean wasOracleConnection = isOracleConnection;
-            isOracleConnection = false; // Temporalmente para SQLite
+            synchronized (LOCK) {
+                // 2. Retirar el pool online: las conexiones prestadas terminan su trabajo
+                retiredWriter = dataSource;
+                retiredReaders = readDataSource;
+                readDataSource = null;
+                dataSource = null;
 
-            // 4. Reconfigurar properties para SQLite
-            properties.setProperty("db.url", "jdbc:sqlite:calendario_offline.db");
-            properties.setProperty("db.driver", "org.sqlite.JDBC");
-            properties.setProperty("db.username", "");
-            properties.setProperty("db.password", "");
+                // 3. Configurar flags de offline
+                isOfflineMode = true;
+                offlineReason = reason;
+                boolean wasOracleConnection = isOracleConnection;
+                isOracleConnection = false; // Temporalmente para SQLite
 
-            // 5. Inicializar SQLite
-            initializeDataSource();
-            System.out.println("   ✅ Transición a offline completada");
+                // 4. Reconfigurar properties para SQLite
+                if (properties == null) {
+                    properties = new Properties();
+                }
+                properties.setProperty("db.url", SQLITE_URL);
+                properties.setProperty("db.driver", "org.sqlite.JDBC");
+                properties.setProperty("db.username", "");
+                properties.setProperty("db.password", "");
 
-            // 6. Restaurar flag de Oracle para futuras reconexiones
-            if (wasOracleConnection) {
-                isOracleConnection = true;
+                // 5. Inicializar SQLite
+                initializeDataSource();
+
+                // 6. Restaurar flag de Oracle para futuras reconexiones
+                if (wasOracleConnection) {
+                    isOracleConnection = true;
+                }
             }
 
+            retirePool(retiredReaders);
+            retirePool(retiredWriter);
+            System.out.println("   Conexión online retirada");
+            System.out.println("   ✅ Transición a offline completada");
+
+            notifyDataSourceListeners(false);
             return true;
 
         } catch (Exception e) {
@@ -905,9 +1044,17 @@ public class DatabaseConfig {
     }
 
     /**
-     * MÉTODO NUEVO: Migrar datos importantes de Oracle a SQLite
+     * MÉTODO NUEVO: Migrar datos importantes de Oracle a SQLite (ver OfflineMigration)
      */
     private static void migrateDataToOffline() {
+        // Con la réplica sincronizada basta traer los últimos cambios
+        LocalReplica replica = LocalReplica.getInstance();
+        if (replica.isWarm()) {
+            replica.catchUp(REPLICA_CATCH_UP_MS);
+            System.out.println("     ✅ Copia offline al día por sincronización incremental, sin copia masiva");
+            return;
+        }
+
         System.out.println("     Iniciando migración de datos a SQLite...");
 
         try (Connection onlineConn = dataSource.getConnection()) {
@@ -916,234 +1063,51 @@ public class DatabaseConfig {
                 System.out.println("     Conexión online no válida, saltando migración");
                 return;
             }
-
-            // Inicializar conexión SQLite temporal para migración
-            String sqliteUrl = "jdbc:sqlite:calendario_offline.db";
-            try (Connection offlineConn = java.sql.DriverManager.getConnection(sqliteUrl)) {
-
-                // Crear esquema si no existe
-                createOfflineSchemaForMigration(offlineConn);
-
-                // Migrar usuarios
-                migrateUsers(onlineConn, offlineConn);
-
-                // Migrar calendarios
-                migrateCalendars(onlineConn, offlineConn);
-
-                // Migrar eventos
-                migrateEvents(onlineConn, offlineConn);
-
-                // Migrar permisos
-                migratePermissions(onlineConn, offlineConn);
-
-                System.out.println("     ✅ Migración de datos completada");
-            }
-
         } catch (Exception e) {
             System.err.println("     ❌ Error en migración: " + e.getMessage());
-            // No es crítico - la app puede funcionar sin migrar
+            return;
         }
-    }
 
-    /**
-     * MÉTODO AUXILIAR: Crear esquema básico para migración
-     */
-    private static void createOfflineSchemaForMigration(Connection offlineConn) throws SQLException {
-        String[] createTables = {
-                """
-        CREATE TABLE IF NOT EXISTS USERS (
-            USER_ID TEXT PRIMARY KEY,
-            MATRICULA TEXT UNIQUE,
-            EMAIL TEXT UNIQUE NOT NULL,
-            FIRST_NAME TEXT NOT NULL,
-            LAST_NAME TEXT NOT NULL,
-            PASSWORD TEXT NOT NULL,
-            ROLE TEXT NOT NULL DEFAULT 'alumno',
-            ACTIVE TEXT NOT NULL DEFAULT 'Y',
-            CREATED_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
-            LAST_LOGIN DATETIME
-        )
-        """,
-
-                """
-        CREATE TABLE IF NOT EXISTS CALENDARS (
-            CALENDAR_ID TEXT PRIMARY KEY,
-            OWNER_ID TEXT NOT NULL,
-            NAME TEXT NOT NULL,
-            DESCRIPTION TEXT,
-            COLOR TEXT DEFAULT '#3498db',
-            ACTIVE TEXT DEFAULT 'Y',
-            CREATED_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
-            MODIFIED_DATE DATETIME
-        )
-        """,
-
-                """
-        CREATE TABLE IF NOT EXISTS EVENTS (
-            EVENT_ID TEXT PRIMARY KEY,
-            CALENDAR_ID TEXT NOT NULL,
-            CREATOR_ID TEXT,
-            TITLE TEXT NOT NULL,
-            DESCRIPTION TEXT,
-            START_DATE DATETIME NOT NULL,
-            END_DATE DATETIME,
-            LOCATION TEXT,
-            ACTIVE TEXT DEFAULT 'Y',
-            CREATED_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
-            MODIFIED_DATE DATETIME
-        )
-        """
-        };
-
-        for (String sql : createTables) {
-            offlineConn.createStatement().execute(sql);
-        }
-    }
-
-    /**
-     * MÉTODO AUXILIAR: Migrar usuarios
-     */
-    private static void migrateUsers(Connection onlineConn, Connection offlineConn) {
-        try {
-            String selectSql = "SELECT USER_ID, MATRICULA, EMAIL, FIRST_NAME, LAST_NAME, PASSWORD, ROLE, ACTIVE FROM USERS WHERE ACTIVE = 'Y'";
-            String insertSql = "INSERT OR REPLACE INTO USERS (USER_ID, MATRICULA, EMAIL, FIRST_NAME, LAST_NAME, PASSWORD, ROLE, ACTIVE) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-
-            try (PreparedStatement selectStmt = onlineConn.prepareStatement(selectSql);
-                 PreparedStatement insertStmt = offlineConn.prepareStatement(insertSql);
-                 ResultSet rs = selectStmt.executeQuery()) {
-
-                int count = 0;
-                while (rs.next()) {
-                    insertStmt.setString(1, rs.getString("USER_ID"));
-                    insertStmt.setString(2, rs.getString("MATRICULA"));
-                    insertStmt.setString(3, rs.getString("EMAIL"));
-                    insertStmt.setString(4, rs.getString("FIRST_NAME"));
-                    insertStmt.setString(5, rs.getString("LAST_NAME"));
-                    insertStmt.setString(6, rs.getString("PASSWORD"));
-                    insertStmt.setString(7, rs.getString("ROLE"));
-                    insertStmt.setString(8, rs.getString("ACTIVE"));
-                    insertStmt.executeUpdate();
-                    count++;
-                }
-                System.out.println("     Usuarios migrados: " + count);
+        // Conexión SQLite dedicada: los pools offline aún no existen
+        try (Connection offlineConn = java.sql.DriverManager.getConnection(SQLITE_URL)) {
+            try (java.sql.Statement pragmas = offlineConn.createStatement()) {
+                pragmas.execute("PRAGMA journal_mode=WAL");
+                pragmas.execute("PRAGMA synchronous=NORMAL");
             }
-        } catch (Exception e) {
-            System.err.println("     Error migrando usuarios: " + e.getMessage());
-        }
-    }
 
-    /**
-     * MÉTODO AUXILIAR: Migrar calendarios
-     */
-    private static void migrateCalendars(Connection onlineConn, Connection offlineConn) {
-        try {
-            String selectSql = "SELECT CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE FROM CALENDARS WHERE ACTIVE = 'Y'";
-            String insertSql = "INSERT OR REPLACE INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE) VALUES (?, ?, ?, ?, ?, ?)";
-
-            try (PreparedStatement selectStmt = onlineConn.prepareStatement(selectSql);
-                 PreparedStatement insertStmt = offlineConn.prepareStatement(insertSql);
-                 ResultSet rs = selectStmt.executeQuery()) {
-
-                int count = 0;
-                while (rs.next()) {
-                    insertStmt.setString(1, rs.getString("CALENDAR_ID"));
-                    insertStmt.setString(2, rs.getString("OWNER_ID"));
-                    insertStmt.setString(3, rs.getString("NAME"));
-                    insertStmt.setString(4, rs.getString("DESCRIPTION"));
-                    insertStmt.setString(5, rs.getString("COLOR"));
-                    insertStmt.setString(6, rs.getString("ACTIVE"));
-                    insertStmt.executeUpdate();
-                    count++;
-                }
-                System.out.println("     Calendarios migrados: " + count);
+            // Crear o actualizar el esquema antes de copiar
+            SchemaMigrator.migrate(offlineConn, SqlDialect.SQLITE);
+
+            OfflineMigration migration = new OfflineMigration(dataSource, offlineConn);
+            activeMigration = migration;
+            OfflineMigration.Result result;
+            try {
+                result = migration.run();
+            } finally {
+                activeMigration = null;
             }
-        } catch (Exception e) {
-            System.err.println("     Error migrando calendarios: " + e.getMessage());
-        }
-    }
 
-    /**
-     * MÉTODO AUXILIAR: Migrar eventos
-     */
-    private static void migrateEvents(Connection onlineConn, Connection offlineConn) {
-        try {
-            // Migrar solo eventos recientes y futuros
-            String selectSql = """
-            SELECT EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION, 
-                   START_DATE, END_DATE, LOCATION, ACTIVE 
-            FROM EVENTS 
-            WHERE ACTIVE = 'Y' 
-            AND START_DATE >= SYSDATE - 30
-            ORDER BY START_DATE DESC
-            """;
-
-            String insertSql = "INSERT OR REPLACE INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION, START_DATE, END_DATE, LOCATION, ACTIVE) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-            try (PreparedStatement selectStmt = onlineConn.prepareStatement(selectSql);
-                 PreparedStatement insertStmt = offlineConn.prepareStatement(insertSql);
-                 ResultSet rs = selectStmt.executeQuery()) {
-
-                int count = 0;
-                while (rs.next()) {
-                    insertStmt.setString(1, rs.getString("EVENT_ID"));
-                    insertStmt.setString(2, rs.getString("CALENDAR_ID"));
-                    insertStmt.setString(3, rs.getString("CREATOR_ID"));
-                    insertStmt.setString(4, rs.getString("TITLE"));
-                    insertStmt.setString(5, rs.getString("DESCRIPTION"));
-                    insertStmt.setTimestamp(6, rs.getTimestamp("START_DATE"));
-                    insertStmt.setTimestamp(7, rs.getTimestamp("END_DATE"));
-                    insertStmt.setString(8, rs.getString("LOCATION"));
-                    insertStmt.setString(9, rs.getString("ACTIVE"));
-                    insertStmt.executeUpdate();
-                    count++;
-                }
-                System.out.println("     Eventos migrados: " + count);
+            if (result.cancelled()) {
+                System.out.println("     ⛔ Migración cancelada tras " + result.rows() + " filas");
+            } else {
+                System.out.printf("     ✅ Migración de datos completada: %d filas en %dms (%.0f filas/s)%s%n",
+                        result.rows(), result.elapsedMillis(), result.rowsPerSecond(),
+                        result.failedTables().isEmpty() ? "" : " - con errores en " + result.failedTables());
             }
+
         } catch (Exception e) {
-            System.err.println("     Error migrando eventos: " + e.getMessage());
+            System.err.println("     ❌ Error en migración: " + e.getMessage());
+            // No es crítico - la app puede funcionar sin migrar
         }
     }
 
     /**
-     * MÉTODO AUXILIAR: Migrar permisos básicos
+     * Cancela la migración a SQLite en curso (si hay una); lo ya copiado se conserva
      */
-    private static void migratePermissions(Connection onlineConn, Connection offlineConn) {
-        try {
-            // Crear tabla de permisos si no existe
-            String createPermissions = """
-            CREATE TABLE IF NOT EXISTS CALENDAR_PERMISSIONS (
-                PERMISSION_ID TEXT PRIMARY KEY,
-                CALENDAR_ID TEXT NOT NULL,
-                USER_ID TEXT NOT NULL,
-                PERMISSION_LEVEL TEXT NOT NULL DEFAULT 'read',
-                ACTIVE TEXT DEFAULT 'Y'
-            )
-            """;
-            offlineConn.createStatement().execute(createPermissions);
-
-            String selectSql = "SELECT PERMISSION_ID, CALENDAR_ID, USER_ID, PERMISSION_LEVEL, ACTIVE FROM CALENDAR_PERMISSIONS WHERE ACTIVE = 'Y'";
-            String insertSql = "INSERT OR REPLACE INTO CALENDAR_PERMISSIONS (PERMISSION_ID, CALENDAR_ID, USER_ID, PERMISSION_LEVEL, ACTIVE) VALUES (?, ?, ?, ?, ?)";
-
-            try (PreparedStatement selectStmt = onlineConn.prepareStatement(selectSql);
-                 PreparedStatement insertStmt = offlineConn.prepareStatement(insertSql);
-                 ResultSet rs = selectStmt.executeQuery()) {
-
-                int count = 0;
-                while (rs.next()) {
-                    insertStmt.setString(1, rs.getString("PERMISSION_ID"));
-                    insertStmt.setString(2, rs.getString("CALENDAR_ID"));
-                    insertStmt.setString(3, rs.getString("USER_ID"));
-                    insertStmt.setString(4, rs.getString("PERMISSION_LEVEL"));
-                    insertStmt.setString(5, rs.getString("ACTIVE"));
-                    insertStmt.executeUpdate();
-                    count++;
-                }
-                System.out.println("     Permisos migrados: " + count);
-            }
-        } catch (Exception e) {
-            System.err.println("     Error migrando permisos: " + e.getMessage());
+    public static void abortOfflineMigration() {
+        OfflineMigration migration = activeMigration;
+        if (migration != null) {
+            migration.cancel();
         }
     }
-
-
 }
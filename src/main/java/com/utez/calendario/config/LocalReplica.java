@@ -0,0 +1,547 @@
+package com.utez.calendario.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Réplica local en SQLite de la base en línea, mantenida con cambios incrementales.
+ *
+ * Mientras Oracle es la base activa, un hilo trae cada db.replica.syncIntervalSeconds solo
+ * las filas cuyo último cambio (MODIFIED_DATE, o CREATED_DATE si nunca se modificaron) supera
+ * la marca de agua guardada por tabla en sync_watermarks, incluidas las bajas lógicas, y las
+ * inserta o reemplaza por lotes. La primera vez de cada tabla se copia completa.
+ *
+ * Las vistas leen de calendario_offline.db cuando cada tabla consultada está dentro de su
+ * límite de frescura (db.replica.maxAgeSeconds.TABLA) y el rango pedido está cubierto; si no,
+ * la lectura va a Oracle y se adelanta la sincronización. Las escrituras van primero a Oracle y,
+ * ya confirmadas, se aplican aquí en el mismo hilo que las sincronizaciones, así una copia vieja
+ * nunca pisa un cambio posterior. Con la copia al día, pasar a offline no requiere copia masiva.
+ */
+public final class LocalReplica {
+
+    /**
+     * Tablas replicadas, en orden de llaves foráneas, con su límite de frescura por defecto
+     */
+    public enum Table {
+        USERS(600), CALENDARS(300), CALENDAR_PERMISSIONS(120), EVENTS(60), EVENT_EXCEPTIONS(60);
+
+        private final long defaultMaxAgeSeconds;
+
+        Table(long defaultMaxAgeSeconds) {
+            this.defaultMaxAgeSeconds = defaultMaxAgeSeconds;
+        }
+    }
+
+    @FunctionalInterface
+    public interface StatementBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    private static final LocalReplica INSTANCE = new LocalReplica();
+
+    // Días hacia atrás que cubre la primera copia de eventos; rangos anteriores se leen en línea
+    private static final int DEFAULT_HISTORY_DAYS = 90;
+    private static final long DEFAULT_SYNC_INTERVAL_SECONDS = 30;
+    // Se vuelve a pedir este margen antes de la marca: cubre transacciones que confirmaron tarde
+    private static final long WATERMARK_LOOKBACK_MS = 120000;
+    private static final int READ_POOL_SIZE = 2;
+    private static final int FETCH_SIZE = 500;
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Cómo traer una tabla: columnas a copiar, expresión de último cambio, filtro de la copia
+     * inicial y sentencia de inserción local (las columnas van en el mismo orden)
+     */
+    private record Mirror(String columns, String from, String changedAt, String initialFilter,
+                          String upsertSql, OfflineMigration.ColumnType[] types) {
+        String initialSql() {
+            return "SELECT " + columns + ", " + changedAt + " FROM " + from + " WHERE " + initialFilter;
+        }
+
+        String deltaSql() {
+            return "SELECT " + columns + ", " + changedAt + " FROM " + from + " WHERE " + changedAt + " > CAST(? AS DATE)";
+        }
+    }
+
+    /**
+     * Marca de agua persistida: último cambio traído, inicio de la cobertura y hora de la última sincronización
+     */
+    private record Watermark(Timestamp changedAt, Timestamp coveredFrom, Timestamp pulledAt) {}
+
+    private static final Map<Table, Mirror> MIRRORS = mirrors();
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(
+            runnable -> Thread.ofPlatform().daemon().name("replica-sync").unstarted(runnable));
+    private final AtomicBoolean refreshQueued = new AtomicBoolean(false);
+    private final AtomicLongArray refreshedAt = new AtomicLongArray(Table.values().length);
+    private final AtomicIntegerArray pulledOnce = new AtomicIntegerArray(Table.values().length);
+    private final AtomicIntegerArray pendingWrites = new AtomicIntegerArray(Table.values().length);
+    private final long[] maxAgeMillis = new long[Table.values().length];
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong onlineReads = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong pulledRows = new AtomicLong();
+
+    private volatile HikariDataSource writer;
+    private volatile HikariDataSource readers;
+    private volatile ScheduledFuture<?> periodicSync;
+    private volatile LocalDate coveredFrom;
+    private volatile int historyDays = DEFAULT_HISTORY_DAYS;
+    private volatile boolean pendingSyncBlocked = false;
+
+    private LocalReplica() {
+        DatabaseConfig.addDataSourceListener(this::onDataSourceChanged);
+    }
+
+    public static LocalReplica getInstance() {
+        return INSTANCE;
+    }
+
+    private void onDataSourceChanged(boolean online) {
+        if (online) {
+            activate();
+            requestRefresh();
+        } else {
+            deactivate();
+        }
+    }
+
+    private synchronized void activate() {
+        if (writer != null || DatabaseConfig.isOfflineMode()) return;
+        if (!DatabaseConfig.booleanProperty("db.replica.enabled")) return;
+
+        historyDays = Math.max(1, DatabaseConfig.intProperty("db.replica.historyDays", DEFAULT_HISTORY_DAYS));
+        for (Table table : Table.values()) {
+            maxAgeMillis[table.ordinal()] = 1000 * DatabaseConfig.longProperty(
+                    "db.replica.maxAgeSeconds." + table.name(), table.defaultMaxAgeSeconds);
+        }
+        long interval = Math.max(1, DatabaseConfig.longProperty("db.replica.syncIntervalSeconds", DEFAULT_SYNC_INTERVAL_SECONDS));
+
+        HikariDataSource newWriter = null;
+        try {
+            newWriter = DatabaseConfig.openSQLitePool("replica-writer", 1, false, false);
+            try (Connection conn = newWriter.getConnection()) {
+                SchemaMigrator.migrate(conn, SqlDialect.SQLITE);
+                restoreWatermarks(conn);
+            }
+            readers = DatabaseConfig.openSQLitePool("replica-readers", READ_POOL_SIZE, true, false);
+            writer = newWriter;
+            periodicSync = worker.scheduleWithFixedDelay(this::refreshDueTables, interval, interval, TimeUnit.SECONDS);
+            System.out.println("📦 Réplica local activa (sincronización cada " + interval + "s, " +
+                    historyDays + " días de historial)");
+        } catch (Exception e) {
+            System.err.println("⚠️ No se pudo activar la réplica local: " + e.getMessage());
+            if (newWriter != null) newWriter.close();
+        }
+    }
+
+    private synchronized void deactivate() {
+        HikariDataSource retiredWriter = writer;
+        HikariDataSource retiredReaders = readers;
+        writer = null;
+        readers = null;
+        if (periodicSync != null) {
+            periodicSync.cancel(false);
+            periodicSync = null;
+        }
+        markStale(Table.values());
+        if (retiredWriter != null || retiredReaders != null) {
+            DatabaseConfig.retirePool(retiredReaders);
+            DatabaseConfig.retirePool(retiredWriter);
+            System.out.println("📦 Réplica local desactivada (modo offline)");
+        }
+    }
+
+    public boolean isActive() {
+        return writer != null && !DatabaseConfig.isOfflineMode();
+    }
+
+    /**
+     * true si todas las tablas se sincronizaron al menos una vez: el archivo sirve para trabajar offline
+     */
+    public boolean isWarm() {
+        for (Table table : Table.values()) {
+            if (pulledOnce.get(table.ordinal()) == 0) return false;
+        }
+        return true;
+    }
+
+    // ========== LECTURAS ==========
+    /**
+     * Conexión para leer las tablas dadas desde el inicio del rango: de la réplica si está
+     * fresca y cubre el rango, si no la de DatabaseConfig.getReadConnection(). Nunca espera una sincronización.
+     */
+    public Connection getReadConnection(LocalDate rangeStart, Table... tables) throws SQLException {
+        HikariDataSource pool = readers;
+        if (pool != null && canServe(rangeStart, tables)) {
+            try {
+                Connection conn = pool.getConnection();
+                replicaReads.incrementAndGet();
+                return conn;
+            } catch (SQLException e) {
+                System.err.println("⚠️ Réplica local no disponible, se lee en línea: " + e.getMessage());
+            }
+        }
+        onlineReads.incrementAndGet();
+        return DatabaseConfig.getReadConnection();
+    }
+
+    private boolean canServe(LocalDate rangeStart, Table... tables) {
+        if (!isActive()) return false;
+
+        long now = System.currentTimeMillis();
+        boolean servable = coveredFrom != null && rangeStart != null && !rangeStart.isBefore(coveredFrom);
+        boolean refreshSoon = false;
+        for (Table table : tables) {
+            int index = table.ordinal();
+            long age = now - refreshedAt.get(index);
+            if (age > maxAgeMillis[index] || pendingWrites.get(index) > 0) servable = false;
+            // Sincronización anticipada a mitad del límite para no caer en línea por vencimiento
+            if (age > maxAgeMillis[index] / 2) refreshSoon = true;
+        }
+        if (refreshSoon) requestRefresh();
+        return servable;
+    }
+
+    // ========== ESCRITURAS ==========
+    /**
+     * Aplica en la réplica una escritura ya confirmada en línea. Los INSERT se aplican como
+     * INSERT OR REPLACE; si falla, las tablas quedan vencidas hasta la siguiente sincronización.
+     */
+    public void writeThrough(SqlCatalog statement, StatementBinder binder, Table... touched) {
+        writeThrough(statement, List.of(binder), touched);
+    }
+
+    /**
+     * Igual que writeThrough para varias filas de la misma sentencia en una transacción
+     */
+    public void writeThrough(SqlCatalog statement, List<StatementBinder> rows, Table... touched) {
+        String sql = statement.sql(SqlDialect.SQLITE).strip().replaceFirst("^INSERT INTO", "INSERT OR REPLACE INTO");
+        enqueueWrite(statement.name(), sql, rows, touched);
+    }
+
+    /**
+     * Escritura con SQL propio válido en SQLite; para los borrados físicos, que la
+     * sincronización incremental no puede ver
+     */
+    public void writeThroughSql(String sql, StatementBinder binder, Table... touched) {
+        enqueueWrite("SQL", sql, List.of(binder), touched);
+    }
+
+    private void enqueueWrite(String name, String sql, List<StatementBinder> rows, Table... touched) {
+        if (!isActive() || rows.isEmpty()) return;
+
+        for (Table table : touched) pendingWrites.incrementAndGet(table.ordinal());
+        worker.execute(() -> {
+            try {
+                applyWrite(sql, rows);
+            } catch (Exception e) {
+                failedWrites.incrementAndGet();
+                markStale(touched);
+                System.err.println("⚠️ Réplica local: no se aplicó " + name + ": " + e.getMessage());
+            } finally {
+                for (Table table : touched) pendingWrites.decrementAndGet(table.ordinal());
+            }
+        });
+    }
+
+    private void applyWrite(String sql, List<StatementBinder> rows) throws SQLException {
+        HikariDataSource pool = writer;
+        if (pool == null) return; // Desactivada mientras esperaba: la sincronización la pone al día al volver
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (StatementBinder row : rows) {
+                    row.bind(stmt);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Las tablas dejan de servirse desde la réplica hasta la siguiente sincronización
+     */
+    public void markStale(Table... tables) {
+        for (Table table : tables) refreshedAt.set(table.ordinal(), 0);
+    }
+
+    // ========== SINCRONIZACIÓN ==========
+    /**
+     * Adelanta la sincronización de las tablas que ya pasaron la mitad de su límite
+     */
+    public void requestRefresh() {
+        if (!isActive()) return;
+        if (refreshQueued.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                refreshQueued.set(false);
+                refreshDueTables();
+            });
+        }
+    }
+
+    /**
+     * Trae los últimos cambios de todas las tablas esperando como mucho timeoutMs (antes de pasar a offline)
+     */
+    public void catchUp(long timeoutMs) {
+        if (!isActive()) return;
+        markStale(Table.values());
+        Future<?> sync = worker.submit(this::refreshDueTables);
+        try {
+            sync.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            System.out.println("📦 Réplica local: la última sincronización sigue en curso, se usa la copia actual");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("⚠️ Réplica local: " + e.getMessage());
+        }
+    }
+
+    private void refreshDueTables() {
+        HikariDataSource pool = writer;
+        if (pool == null || DatabaseConfig.isOfflineMode()) return;
+
+        long now = System.currentTimeMillis();
+        List<Table> due = new ArrayList<>();
+        for (Table table : Table.values()) {
+            if (now - refreshedAt.get(table.ordinal()) > maxAgeMillis[table.ordinal()] / 2) due.add(table);
+        }
+        if (due.isEmpty()) return;
+
+        try (Connection local = pool.getConnection()) {
+            // Cambios offline sin sincronizar: traer la versión en línea los pisaría
+            if (hasPendingSync(local)) {
+                if (!pendingSyncBlocked) {
+                    System.out.println("📦 Réplica local en pausa: hay cambios offline pendientes de sincronizar");
+                }
+                pendingSyncBlocked = true;
+                return;
+            }
+            pendingSyncBlocked = false;
+
+            try (Connection online = DatabaseConfig.getReadConnection()) {
+                if (DatabaseConfig.getDialect() == SqlDialect.SQLITE) return; // Se pasó a offline
+
+                Map<Table, Watermark> watermarks = readWatermarks(local);
+                long rows = 0;
+                for (Table table : due) {
+                    rows += pullTable(online, local, table, watermarks.get(table));
+                }
+                if (rows > 0) {
+                    System.out.println("📦 Réplica local: " + rows + " cambios de " + due + " en " +
+                            (System.currentTimeMillis() - now) + "ms");
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Error sincronizando la réplica local: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Trae los cambios de una tabla posteriores a su marca (o la tabla completa si no tiene)
+     * y los guarda junto con la nueva marca en una sola transacción local
+     */
+    private long pullTable(Connection online, Connection local, Table table, Watermark mark) throws SQLException {
+        Mirror mirror = MIRRORS.get(table);
+        long start = System.currentTimeMillis();
+        boolean initial = mark == null;
+        Timestamp cutoff = Timestamp.valueOf(LocalDate.now().minusDays(historyDays).atStartOfDay());
+        Timestamp coverage = mark != null && mark.coveredFrom() != null ? mark.coveredFrom() : cutoff;
+        Timestamp newMark = initial ? null : mark.changedAt();
+        // Una tabla vacía en la copia inicial no tiene marca: se pide todo desde el principio
+        long since = newMark != null ? newMark.getTime() - WATERMARK_LOOKBACK_MS : 0;
+        long rows = 0;
+
+        local.setAutoCommit(false);
+        try (PreparedStatement select = online.prepareStatement(initial ? mirror.initialSql() : mirror.deltaSql(),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             PreparedStatement upsert = local.prepareStatement(mirror.upsertSql())) {
+
+            select.setFetchSize(FETCH_SIZE);
+            if (!initial) {
+                select.setTimestamp(1, new Timestamp(since));
+            } else if (table == Table.EVENTS) {
+                select.setTimestamp(1, coverage);
+            }
+
+            OfflineMigration.ColumnType[] types = mirror.types();
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    for (int i = 0; i < types.length; i++) {
+                        upsert.setObject(i + 1, types[i].read(rs, i + 1));
+                    }
+                    upsert.addBatch();
+                    if (++rows % BATCH_SIZE == 0) upsert.executeBatch();
+
+                    Timestamp changedAt = rs.getTimestamp(types.length + 1);
+                    if (changedAt != null && (newMark == null || changedAt.after(newMark))) newMark = changedAt;
+                }
+            }
+            upsert.executeBatch();
+            saveWatermark(local, table, new Watermark(newMark, coverage, new Timestamp(start)));
+            local.commit();
+        } catch (SQLException e) {
+            local.rollback();
+            throw e;
+        } finally {
+            local.setAutoCommit(true);
+        }
+
+        refreshedAt.set(table.ordinal(), start);
+        pulledOnce.set(table.ordinal(), 1);
+        pulledRows.addAndGet(rows);
+        if (table == Table.EVENTS) coveredFrom = coverage.toLocalDateTime().toLocalDate();
+        if (initial) {
+            System.out.println("📦 Réplica local: copia inicial de " + table + " (" + rows + " filas, " +
+                    (System.currentTimeMillis() - start) + "ms)");
+        }
+        return rows;
+    }
+
+    private static boolean hasPendingSync(Connection local) throws SQLException {
+        try (Statement stmt = local.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1 FROM pending_sync LIMIT 1")) {
+            return rs.next();
+        }
+    }
+
+    private static Map<Table, Watermark> readWatermarks(Connection local) throws SQLException {
+        Map<Table, Watermark> watermarks = new EnumMap<>(Table.class);
+        try (Statement stmt = local.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT table_name, changed_at, covered_from, pulled_at FROM sync_watermarks")) {
+            while (rs.next()) {
+                try {
+                    watermarks.put(Table.valueOf(rs.getString(1)),
+                            new Watermark(rs.getTimestamp(2), rs.getTimestamp(3), rs.getTimestamp(4)));
+                } catch (IllegalArgumentException ignored) {
+                    // Tabla que ya no se replica
+                }
+            }
+        }
+        return watermarks;
+    }
+
+    private static void saveWatermark(Connection local, Table table, Watermark mark) throws SQLException {
+        try (PreparedStatement stmt = local.prepareStatement(
+                "INSERT OR REPLACE INTO sync_watermarks (table_name, changed_at, covered_from, pulled_at) VALUES (?, ?, ?, ?)")) {
+            stmt.setString(1, table.name());
+            stmt.setTimestamp(2, mark.changedAt());
+            stmt.setTimestamp(3, mark.coveredFrom());
+            stmt.setTimestamp(4, mark.pulledAt());
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Al activar, la frescura y la cobertura salen de las marcas de la sesión anterior
+     */
+    private void restoreWatermarks(Connection local) throws SQLException {
+        Map<Table, Watermark> watermarks = readWatermarks(local);
+        for (Table table : Table.values()) {
+            Watermark mark = watermarks.get(table);
+            boolean pulled = mark != null && mark.pulledAt() != null;
+            refreshedAt.set(table.ordinal(), pulled ? mark.pulledAt().getTime() : 0);
+            pulledOnce.set(table.ordinal(), pulled ? 1 : 0);
+            if (table == Table.EVENTS) {
+                coveredFrom = pulled && mark.coveredFrom() != null ? mark.coveredFrom().toLocalDateTime().toLocalDate() : null;
+            }
+        }
+    }
+
+    private static Map<Table, Mirror> mirrors() {
+        OfflineMigration.ColumnType text = OfflineMigration.ColumnType.STRING;
+        OfflineMigration.ColumnType time = OfflineMigration.ColumnType.TIMESTAMP;
+        OfflineMigration.ColumnType number = OfflineMigration.ColumnType.LONG;
+        Map<Table, Mirror> mirrors = new EnumMap<>(Table.class);
+
+        // Sin MODIFIED_DATE: el último inicio de sesión también trae al usuario
+        mirrors.put(Table.USERS, new Mirror(
+                "t.USER_ID, t.MATRICULA, t.EMAIL, t.FIRST_NAME, t.LAST_NAME, t.PASSWORD, t.ROLE, t.ACTIVE",
+                "USERS t", "COALESCE(t.LAST_LOGIN, t.CREATED_DATE)", "t.ACTIVE = 'Y'",
+                "INSERT OR REPLACE INTO USERS (USER_ID, MATRICULA, EMAIL, FIRST_NAME, LAST_NAME, PASSWORD, ROLE, ACTIVE) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                new OfflineMigration.ColumnType[]{text, text, text, text, text, text, text, text}));
+
+        mirrors.put(Table.CALENDARS, new Mirror(
+                "t.CALENDAR_ID, t.OWNER_ID, t.NAME, t.DESCRIPTION, t.COLOR, t.ACTIVE, t.CREATED_DATE, t.MODIFIED_DATE, t.ROW_VERSION",
+                "CALENDARS t", "COALESCE(t.MODIFIED_DATE, t.CREATED_DATE)", "t.ACTIVE = 'Y'",
+                "INSERT OR REPLACE INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE, CREATED_DATE, MODIFIED_DATE, ROW_VERSION) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                new OfflineMigration.ColumnType[]{text, text, text, text, text, text, time, time, number}));
+
+        // GRANTED_BY no existe en línea: quien comparte es el dueño del calendario
+        mirrors.put(Table.CALENDAR_PERMISSIONS, new Mirror(
+                "t.PERMISSION_ID, t.CALENDAR_ID, t.USER_ID, t.PERMISSION_TYPE, c.OWNER_ID, t.SHARED_DATE, t.MODIFIED_DATE, t.ACTIVE",
+                "CALENDAR_PERMISSIONS t JOIN CALENDARS c ON c.CALENDAR_ID = t.CALENDAR_ID",
+                "COALESCE(t.MODIFIED_DATE, t.SHARED_DATE)", "t.ACTIVE = 'Y'",
+                "INSERT OR REPLACE INTO CALENDAR_PERMISSIONS (PERMISSION_ID, CALENDAR_ID, USER_ID, PERMISSION_TYPE, GRANTED_BY, SHARED_DATE, MODIFIED_DATE, ACTIVE) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                new OfflineMigration.ColumnType[]{text, text, text, text, text, time, time, text}));
+
+        // Copia inicial: eventos que terminan dentro de la cobertura y series recurrentes
+        mirrors.put(Table.EVENTS, new Mirror(
+                "t.EVENT_ID, t.CALENDAR_ID, t.CREATOR_ID, t.TITLE, t.DESCRIPTION, t.START_DATE, t.END_DATE, t.ALL_DAY, " +
+                        "t.LOCATION, t.RECURRENCE, t.RECURRENCE_END_DATE, t.ACTIVE, t.CREATED_DATE, t.MODIFIED_DATE, t.ROW_VERSION",
+                "EVENTS t", "COALESCE(t.MODIFIED_DATE, t.CREATED_DATE)",
+                "t.ACTIVE = 'Y' AND (COALESCE(t.END_DATE, t.START_DATE) >= ? OR t.RECURRENCE IS NOT NULL)",
+                "INSERT OR REPLACE INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION, START_DATE, END_DATE, " +
+                        "ALL_DAY, LOCATION, RECURRENCE, RECURRENCE_END_DATE, ACTIVE, CREATED_DATE, MODIFIED_DATE, ROW_VERSION) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                new OfflineMigration.ColumnType[]{text, text, text, text, text, time, time, text, text, text, time, text, time, time, number}));
+
+        mirrors.put(Table.EVENT_EXCEPTIONS, new Mirror(
+                "t.EVENT_ID, t.OCCURRENCE_DATE",
+                "EVENT_EXCEPTIONS t", "t.CREATED_DATE",
+                "EXISTS (SELECT 1 FROM EVENTS e WHERE e.EVENT_ID = t.EVENT_ID AND e.ACTIVE = 'Y' AND e.RECURRENCE IS NOT NULL)",
+                "INSERT OR REPLACE INTO EVENT_EXCEPTIONS (EVENT_ID, OCCURRENCE_DATE) VALUES (?, ?)",
+                new OfflineMigration.ColumnType[]{text, OfflineMigration.ColumnType.DATE}));
+        return mirrors;
+    }
+
+    @Override
+    public String toString() {
+        if (!isActive()) {
+            return "réplica local: inactiva";
+        }
+        long now = System.currentTimeMillis();
+        StringBuilder status = new StringBuilder("réplica local: desde=").append(coveredFrom);
+        for (Table table : Table.values()) {
+            long refreshed = refreshedAt.get(table.ordinal());
+            status.append(" | ").append(table.name()).append(' ')
+                    .append(refreshed == 0 ? "vencida" : ((now - refreshed) / 1000) + "s")
+                    .append("/").append(maxAgeMillis[table.ordinal()] / 1000).append("s");
+        }
+        status.append(" | lecturas réplica=").append(replicaReads.get())
+                .append(" en línea=").append(onlineReads.get())
+                .append(" | filas sincronizadas=").append(pulledRows.get())
+                .append(" | escrituras fallidas=").append(failedWrites.get());
+        if (pendingSyncBlocked) status.append(" | en pausa por cambios offline pendientes");
+        return status.toString();
+    }
+}
@@ -0,0 +1,324 @@
+package com.utez.calendario.config;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copia de datos online → SQLite en forma de tubería.
+ *
+ * Varios lectores leen las tablas desde Oracle en paralelo con fetch grande y dejan
+ * lotes en una cola acotada por tabla. Un único escritor (SQLite admite uno) vacía
+ * las colas en orden de llaves foráneas con executeBatch y commits cada CHUNK_ROWS filas.
+ * cancel() detiene lectores y escritor; lo ya confirmado queda y se reemplaza en la siguiente
+ * migración (INSERT OR REPLACE).
+ */
+final class OfflineMigration {
+
+    // Filas por viaje de red al leer desde Oracle
+    private static final int FETCH_SIZE = 1000;
+    // Filas por executeBatch en SQLite
+    private static final int BATCH_SIZE = 500;
+    // Filas por transacción en SQLite
+    private static final int CHUNK_ROWS = 5000;
+    // Lotes en memoria por tabla antes de frenar al lector
+    private static final int QUEUE_CAPACITY = 4;
+    // Conexiones online usadas a la vez (el pool de Oracle tiene 5)
+    private static final int MAX_PARALLEL_READERS = 3;
+    // Eventos pasados que se copian
+    private static final int EVENT_HISTORY_DAYS = 30;
+    private static final long POLL_MILLIS = 200;
+
+    /**
+     * Tipo con que se lee cada columna; SQLite lo guarda igual que las escrituras de la app
+     */
+    enum ColumnType {
+        STRING, TIMESTAMP, DATE, LONG;
+
+        Object read(ResultSet rs, int index) throws SQLException {
+            return switch (this) {
+                case STRING -> rs.getString(index);
+                case TIMESTAMP -> rs.getTimestamp(index);
+                case DATE -> rs.getDate(index);
+                case LONG -> rs.getLong(index);
+            };
+        }
+    }
+
+    /**
+     * Qué leer de la base online y cómo insertarlo en SQLite
+     */
+    private record TableCopy(String table, String selectSql, String insertSql, ColumnType[] columns, List<Object> parameters) {}
+
+    /**
+     * Avance de una tabla; done indica que terminó (bien, con error o cancelada)
+     */
+    record Progress(String table, long rows, double rowsPerSecond, boolean done) {
+        @Override
+        public String toString() {
+            return String.format("%s: %d filas (%.0f filas/s)%s", table, rows, rowsPerSecond, done ? " ✓" : "");
+        }
+    }
+
+    /**
+     * Resumen de la migración
+     */
+    record Result(long rows, long elapsedMillis, boolean cancelled, List<String> failedTables) {
+        double rowsPerSecond() {
+            return elapsedMillis > 0 ? rows * 1000.0 / elapsedMillis : rows;
+        }
+    }
+
+    // Marcadores de fin de tabla en la cola (se comparan por identidad)
+    private static final List<Object[]> END = new ArrayList<>(0);
+    private static final List<Object[]> FAILED = new ArrayList<>(0);
+
+    private final DataSource onlineDataSource;
+    private final Connection offlineConn;
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    // Tablas que el escritor dejó de consumir: su lector debe terminar para liberar el hilo
+    private final Set<String> abandonedTables = ConcurrentHashMap.newKeySet();
+
+    OfflineMigration(DataSource onlineDataSource, Connection offlineConn) {
+        this.onlineDataSource = onlineDataSource;
+        this.offlineConn = offlineConn;
+    }
+
+    /**
+     * Tablas en orden de llaves foráneas: el escritor las vacía en este orden
+     */
+    private static List<TableCopy> tables() {
+        Timestamp eventCutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(EVENT_HISTORY_DAYS));
+        ColumnType text = ColumnType.STRING;
+        ColumnType time = ColumnType.TIMESTAMP;
+        ColumnType number = ColumnType.LONG;
+
+        return List.of(
+                new TableCopy("USERS",
+                        "SELECT USER_ID, MATRICULA, EMAIL, FIRST_NAME, LAST_NAME, PASSWORD, ROLE, ACTIVE FROM USERS WHERE ACTIVE = 'Y'",
+                        "INSERT OR REPLACE INTO USERS (USER_ID, MATRICULA, EMAIL, FIRST_NAME, LAST_NAME, PASSWORD, ROLE, ACTIVE) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                        new ColumnType[]{text, text, text, text, text, text, text, text}, List.of()),
+                new TableCopy("CALENDARS",
+                        "SELECT CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE, ROW_VERSION FROM CALENDARS WHERE ACTIVE = 'Y'",
+                        "INSERT OR REPLACE INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE, ROW_VERSION) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                        new ColumnType[]{text, text, text, text, text, text, number}, List.of()),
+                // Solo eventos recientes y futuros, más las series recurrentes que siguen vigentes
+                new TableCopy("EVENTS",
+                        """
+                        SELECT EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION,
+                               START_DATE, END_DATE, ALL_DAY, LOCATION, RECURRENCE, RECURRENCE_END_DATE, ACTIVE, ROW_VERSION
+                        FROM EVENTS
+                        WHERE ACTIVE = 'Y'
+                        AND (START_DATE >= ?
+                             OR (RECURRENCE IS NOT NULL AND (RECURRENCE_END_DATE IS NULL OR RECURRENCE_END_DATE >= ?)))
+                        """,
+                        "INSERT OR REPLACE INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION, START_DATE, END_DATE, ALL_DAY, LOCATION, RECURRENCE, RECURRENCE_END_DATE, ACTIVE, ROW_VERSION) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                        new ColumnType[]{text, text, text, text, text, time, time, text, text, text, time, text, number}, List.of(eventCutoff, eventCutoff)),
+                new TableCopy("EVENT_EXCEPTIONS",
+                        "SELECT EVENT_ID, OCCURRENCE_DATE FROM EVENT_EXCEPTIONS",
+                        "INSERT OR REPLACE INTO EVENT_EXCEPTIONS (EVENT_ID, OCCURRENCE_DATE) VALUES (?, ?)",
+                        new ColumnType[]{text, ColumnType.DATE}, List.of()),
+                new TableCopy("CALENDAR_PERMISSIONS",
+                        "SELECT PERMISSION_ID, CALENDAR_ID, USER_ID, PERMISSION_LEVEL, ACTIVE FROM CALENDAR_PERMISSIONS WHERE ACTIVE = 'Y'",
+                        "INSERT OR REPLACE INTO CALENDAR_PERMISSIONS (PERMISSION_ID, CALENDAR_ID, USER_ID, PERMISSION_LEVEL, ACTIVE) VALUES (?, ?, ?, ?, ?)",
+                        new ColumnType[]{text, text, text, text, text}, List.of())
+        );
+    }
+
+    /**
+     * Ejecuta la migración completa; bloquea hasta terminar o ser cancelada
+     */
+    Result run() throws SQLException {
+        List<TableCopy> tables = tables();
+        Map<TableCopy, BlockingQueue<List<Object[]>>> queues = new LinkedHashMap<>();
+        for (TableCopy table : tables) {
+            queues.put(table, new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+        }
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService readers = Executors.newFixedThreadPool(MAX_PARALLEL_READERS, runnable -> {
+            Thread thread = new Thread(runnable, "offline-migration-reader-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.currentTimeMillis();
+        long totalRows = 0;
+        List<String> failedTables = new ArrayList<>();
+        boolean previousAutoCommit = offlineConn.getAutoCommit();
+
+        try {
+            // Los lectores arrancan en orden FK: la tabla que el escritor espera siempre tiene lector activo
+            queues.forEach((table, queue) -> readers.execute(() -> readTable(table, queue)));
+
+            offlineConn.setAutoCommit(false);
+            for (Map.Entry<TableCopy, BlockingQueue<List<Object[]>>> entry : queues.entrySet()) {
+                if (cancelled.get()) break;
+                long rows = writeTable(entry.getKey(), entry.getValue());
+                if (rows < 0) {
+                    failedTables.add(entry.getKey().table());
+                } else {
+                    totalRows += rows;
+                }
+            }
+        } finally {
+            readers.shutdownNow();
+            try {
+                offlineConn.setAutoCommit(previousAutoCommit);
+            } catch (SQLException e) {
+                System.err.println("     Error restaurando autocommit de SQLite: " + e.getMessage());
+            }
+        }
+
+        return new Result(totalRows, System.currentTimeMillis() - start, cancelled.get(), failedTables);
+    }
+
+    /**
+     * Detiene la migración en el siguiente lote
+     */
+    void cancel() {
+        if (cancelled.compareAndSet(false, true)) {
+            System.out.println("     ⛔ Migración a SQLite cancelada");
+        }
+    }
+
+    boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    private void readTable(TableCopy table, BlockingQueue<List<Object[]>> queue) {
+        boolean failed = false;
+        try (Connection onlineConn = onlineDataSource.getConnection();
+             PreparedStatement stmt = onlineConn.prepareStatement(table.selectSql(),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            stmt.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < table.parameters().size(); i++) {
+                stmt.setObject(i + 1, table.parameters().get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                ColumnType[] columns = table.columns();
+                List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+                while (!cancelled.get() && rs.next()) {
+                    Object[] row = new Object[columns.length];
+                    for (int i = 0; i < columns.length; i++) {
+                        row[i] = columns[i].read(rs, i + 1);
+                    }
+                    batch.add(row);
+                    if (batch.size() == BATCH_SIZE) {
+                        if (!offer(table, queue, batch)) return;
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!batch.isEmpty() && !offer(table, queue, batch)) return;
+            }
+        } catch (Exception e) {
+            failed = true;
+            System.err.println("     Error leyendo " + table.table() + " para migrar: " + e.getMessage());
+        }
+        offer(table, queue, failed ? FAILED : END);
+    }
+
+    /**
+     * Encola respetando la cancelación; false si se canceló o el escritor abandonó la tabla
+     */
+    private boolean offer(TableCopy table, BlockingQueue<List<Object[]>> queue, List<Object[]> batch) {
+        try {
+            while (!queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (cancelled.get() || abandonedTables.contains(table.table())) return false;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Inserta los lotes de una tabla; devuelve las filas copiadas o -1 si falló
+     */
+    private long writeTable(TableCopy table, BlockingQueue<List<Object[]>> queue) throws SQLException {
+        long tableStart = System.currentTimeMillis();
+        long lastReport = tableStart;
+        long rows = 0;
+        long uncommitted = 0;
+
+        try (PreparedStatement insert = offlineConn.prepareStatement(table.insertSql())) {
+            while (true) {
+                List<Object[]> batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (cancelled.get()) {
+                    offlineConn.rollback();
+                    report(table, rows, tableStart, true);
+                    return rows - uncommitted;
+                }
+                if (batch == null) continue;
+                if (batch == END) break;
+                if (batch == FAILED) {
+                    offlineConn.commit(); // Conservar lo leído antes del error
+                    report(table, rows, tableStart, true);
+                    return -1;
+                }
+
+                for (Object[] row : batch) {
+                    for (int i = 0; i < row.length; i++) {
+                        insert.setObject(i + 1, row[i]);
+                    }
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                rows += batch.size();
+                uncommitted += batch.size();
+
+                if (uncommitted >= CHUNK_ROWS) {
+                    offlineConn.commit();
+                    uncommitted = 0;
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - lastReport >= 1000) {
+                    report(table, rows, tableStart, false);
+                    lastReport = now;
+                }
+            }
+            offlineConn.commit();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            offlineConn.rollback();
+            return rows - uncommitted;
+        } catch (SQLException e) {
+            System.err.println("     Error escribiendo " + table.table() + " en SQLite: " + e.getMessage());
+            abandonedTables.add(table.table());
+            offlineConn.rollback();
+            report(table, rows - uncommitted, tableStart, true);
+            return -1;
+        }
+
+        report(table, rows, tableStart, true);
+        return rows;
+    }
+
+    private void report(TableCopy table, long rows, long tableStart, boolean done) {
+        long elapsed = Math.max(1, System.currentTimeMillis() - tableStart);
+        Progress progress = new Progress(table.table(), rows, rows * 1000.0 / elapsed, done);
+        System.out.println("     " + progress);
+    }
+}
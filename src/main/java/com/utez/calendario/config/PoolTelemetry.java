@@ -0,0 +1,227 @@
+package com.utez.calendario.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Métricas de los pools Hikari sin dependencias externas.
+ *
+ * Hikari informa cada préstamo (tiempo de espera), cada devolución (tiempo de uso),
+ * cada conexión creada y cada timeout; aquí se acumulan en histogramas de cubetas fijas
+ * por pool. Junto con los contadores del propio pool (activas, libres, hilos esperando)
+ * permiten ver si las vistas esperan conexión y alimentan a AdaptivePoolSizer.
+ */
+public final class PoolTelemetry implements MetricsTrackerFactory {
+    private static final PoolTelemetry INSTANCE = new PoolTelemetry();
+
+    // Usos más largos que esto cuentan como retención sospechosa si el pool no define leakDetectionThreshold
+    private static final long DEFAULT_LONG_HOLD_MS = 60000;
+
+    private final Map<String, PoolMetrics> pools = new ConcurrentHashMap<>();
+    private final Map<String, Long> longHoldThresholds = new ConcurrentHashMap<>();
+
+    private PoolTelemetry() {}
+
+    public static PoolTelemetry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registra la telemetría en la configuración antes de crear el pool
+     */
+    void instrument(HikariConfig config) {
+        long leakThreshold = config.getLeakDetectionThreshold();
+        longHoldThresholds.put(config.getPoolName(), leakThreshold > 0 ? leakThreshold : DEFAULT_LONG_HOLD_MS);
+        config.setMetricsTrackerFactory(this);
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        PoolMetrics metrics = new PoolMetrics(poolName, poolStats,
+                longHoldThresholds.getOrDefault(poolName, DEFAULT_LONG_HOLD_MS));
+        pools.put(poolName, metrics); // Un pool recreado con el mismo nombre reemplaza al anterior
+        return metrics;
+    }
+
+    PoolMetrics metrics(String poolName) {
+        return pools.get(poolName);
+    }
+
+    public PoolSnapshot snapshot(String poolName) {
+        PoolMetrics metrics = pools.get(poolName);
+        return metrics != null ? metrics.snapshot() : null;
+    }
+
+    /**
+     * Estado de todos los pools abiertos, ordenados por nombre
+     */
+    public List<PoolSnapshot> snapshots() {
+        List<PoolSnapshot> result = new ArrayList<>();
+        for (PoolMetrics metrics : pools.values()) {
+            result.add(metrics.snapshot());
+        }
+        result.sort(Comparator.comparing(PoolSnapshot::pool));
+        return result;
+    }
+
+    /**
+     * Métricas de un pool. Hikari la cierra al cerrar el pool
+     */
+    final class PoolMetrics implements IMetricsTracker {
+        final String poolName;
+        final PoolStats stats;
+        final LatencyHistogram acquire = new LatencyHistogram();
+        final LatencyHistogram usage = new LatencyHistogram();
+        final LatencyHistogram creation = new LatencyHistogram();
+        final AtomicLong timeouts = new AtomicLong();
+        final AtomicLong longHolds = new AtomicLong();
+        private final long longHoldMs;
+
+        PoolMetrics(String poolName, PoolStats stats, long longHoldMs) {
+            this.poolName = poolName;
+            this.stats = stats;
+            this.longHoldMs = longHoldMs;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquire.record(TimeUnit.NANOSECONDS.toMicros(elapsedAcquiredNanos));
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usage.record(TimeUnit.MILLISECONDS.toMicros(elapsedBorrowedMillis));
+            if (elapsedBorrowedMillis >= longHoldMs) {
+                longHolds.incrementAndGet();
+                System.out.println("⚠️ Pool " + poolName + ": conexión retenida " + elapsedBorrowedMillis +
+                        "ms (posible fuga)");
+            }
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            creation.record(TimeUnit.MILLISECONDS.toMicros(connectionCreatedMillis));
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.incrementAndGet();
+        }
+
+        @Override
+        public void close() {
+            pools.remove(poolName, this);
+        }
+
+        PoolSnapshot snapshot() {
+            long[] acquireCounts = acquire.counts();
+            long[] usageCounts = usage.counts();
+            double acquireMax = acquire.maxMillis();
+            double usageMax = usage.maxMillis();
+            // El límite de la cubeta puede superar el máximo real observado
+            return new PoolSnapshot(poolName,
+                    stats.getActiveConnections(), stats.getIdleConnections(), stats.getPendingThreads(),
+                    stats.getTotalConnections(), stats.getMaxConnections(), stats.getMinConnections(),
+                    LatencyHistogram.total(acquireCounts),
+                    Math.min(acquireMax, LatencyHistogram.percentileMillis(acquireCounts, 0.50)),
+                    Math.min(acquireMax, LatencyHistogram.percentileMillis(acquireCounts, 0.95)),
+                    Math.min(acquireMax, LatencyHistogram.percentileMillis(acquireCounts, 0.99)),
+                    acquireMax,
+                    Math.min(usageMax, LatencyHistogram.percentileMillis(usageCounts, 0.95)),
+                    usageMax,
+                    Math.min(creation.maxMillis(), LatencyHistogram.percentileMillis(creation.counts(), 0.95)),
+                    timeouts.get(), longHolds.get());
+        }
+    }
+
+    /**
+     * Histograma de latencias en microsegundos con cubetas fijas; los percentiles
+     * devuelven el límite superior de la cubeta (precisión suficiente para diagnosticar)
+     */
+    static final class LatencyHistogram {
+        // Límites superiores en microsegundos: 100µs … 30s, la última cubeta es "más de 30s"
+        private static final long[] BOUNDS_MICROS = {
+                100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000,
+                250_000, 500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000, 30_000_000
+        };
+
+        private final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        void record(long micros) {
+            int bucket = 0;
+            while (bucket < BOUNDS_MICROS.length && micros > BOUNDS_MICROS[bucket]) bucket++;
+            counts.incrementAndGet(bucket);
+            maxMicros.accumulateAndGet(micros, Math::max);
+        }
+
+        long[] counts() {
+            long[] copy = new long[counts.length()];
+            for (int i = 0; i < copy.length; i++) copy[i] = counts.get(i);
+            return copy;
+        }
+
+        double maxMillis() {
+            return maxMicros.get() / 1000.0;
+        }
+
+        /**
+         * Diferencia entre dos lecturas de counts(), para mirar solo una ventana de tiempo
+         */
+        static long[] delta(long[] current, long[] previous) {
+            long[] delta = new long[current.length];
+            for (int i = 0; i < current.length; i++) delta[i] = current[i] - (previous != null ? previous[i] : 0);
+            return delta;
+        }
+
+        static long total(long[] counts) {
+            long total = 0;
+            for (long count : counts) total += count;
+            return total;
+        }
+
+        static double percentileMillis(long[] counts, double quantile) {
+            long total = total(counts);
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    long bound = i < BOUNDS_MICROS.length ? BOUNDS_MICROS[i] : BOUNDS_MICROS[BOUNDS_MICROS.length - 1];
+                    return bound / 1000.0;
+                }
+            }
+            return BOUNDS_MICROS[BOUNDS_MICROS.length - 1] / 1000.0;
+        }
+    }
+
+    /**
+     * Foto de un pool: conexiones, espera para obtener una, tiempo de uso y alertas
+     */
+    public record PoolSnapshot(String pool, int active, int idle, int pendingThreads, int total, int max, int min,
+                               long acquisitions, double acquireP50Ms, double acquireP95Ms, double acquireP99Ms,
+                               double acquireMaxMs, double usageP95Ms, double usageMaxMs, double creationP95Ms,
+                               long timeouts, long longHolds) {
+
+        @Override
+        public String toString() {
+            return String.format("%s: activas=%d libres=%d esperando=%d total=%d/%d | espera p50=%.1fms p95=%.1fms " +
+                            "p99=%.1fms max=%.1fms (%d préstamos) | uso p95=%.0fms max=%.0fms | creación p95=%.0fms " +
+                            "| timeouts=%d retenciones=%d",
+                    pool, active, idle, pendingThreads, total, max, acquireP50Ms, acquireP95Ms, acquireP99Ms,
+                    acquireMaxMs, acquisitions, usageP95Ms, usageMaxMs, creationP95Ms, timeouts, longHolds);
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.utez.calendario.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Migraciones de esquema versionadas e incrementales.
+ *
+ * SQLite guarda la versión en PRAGMA user_version y aplica cada migración en una
+ * transacción junto con el nuevo número de versión: un esquema al día cuesta una sola
+ * lectura al arrancar y una actualización nunca borra la caché offline.
+ * Oracle guarda la versión en SCHEMA_VERSION; su DDL confirma de forma implícita,
+ * así que las sentencias toleran objetos ya existentes y la versión se registra al final.
+ * Las migraciones nuevas se agregan al final de la lista de su dialecto, nunca se editan.
+ */
+final class SchemaMigrator {
+
+    @FunctionalInterface
+    interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    record Migration(int version, String description, Step step) {}
+
+    // ORA-00955: nombre ya usado; ORA-01408: columnas ya indexadas; ORA-01430: columna ya agregada;
+    // ORA-00001: versión ya registrada por otro cliente
+    private static final int ORA_NAME_IN_USE = 955;
+    private static final int ORA_ALREADY_INDEXED = 1408;
+    private static final int ORA_COLUMN_EXISTS = 1430;
+    private static final int ORA_UNIQUE_VIOLATED = 1;
+    private static final int ORA_TABLE_NOT_FOUND = 942;
+
+    private static final List<Migration> SQLITE_MIGRATIONS = List.of(
+            new Migration(1, "Esquema base offline", statements(
+                    """
+                    CREATE TABLE IF NOT EXISTS USERS (
+                        USER_ID TEXT PRIMARY KEY,
+                        MATRICULA TEXT UNIQUE,
+                        EMAIL TEXT UNIQUE NOT NULL,
+                        FIRST_NAME TEXT NOT NULL,
+                        LAST_NAME TEXT NOT NULL,
+                        PASSWORD TEXT NOT NULL,
+                        ROLE TEXT NOT NULL DEFAULT 'alumno',
+                        ACTIVE TEXT NOT NULL DEFAULT 'Y',
+                        CREATED_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
+                        LAST_LOGIN DATETIME
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS CALENDARS (
+                        CALENDAR_ID TEXT PRIMARY KEY,
+                        OWNER_ID TEXT NOT NULL,
+                        NAME TEXT NOT NULL,
+                        DESCRIPTION TEXT,
+                        COLOR TEXT DEFAULT '#3498db',
+                        ACTIVE TEXT DEFAULT 'Y',
+                        CREATED_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
+                        MODIFIED_DATE DATETIME,
+                        SHARE_CODE TEXT,
+                        SHARE_CODE_EXPIRY DATETIME,
+                        IS_SHARED TEXT DEFAULT 'N',
+                        FOREIGN KEY (OWNER_ID) REFERENCES USERS(USER_ID) ON DELETE CASCADE
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS EVENTS (
+                        EVENT_ID TEXT PRIMARY KEY,
+                        CALENDAR_ID TEXT NOT NULL,
+                        CREATOR_ID TEXT,
+                        TITLE TEXT NOT NULL,
+                        DESCRIPTION TEXT,
+                        START_DATE DATETIME NOT NULL,
+                        END_DATE DATETIME,
+                        ALL_DAY TEXT DEFAULT 'N',
+                        LOCATION TEXT,
+                        RECURRENCE TEXT,
+                        RECURRENCE_END_DATE DATETIME,
+                        ACTIVE TEXT DEFAULT 'Y',
+                        CREATED_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
+                        MODIFIED_DATE DATETIME,
+                        FOREIGN KEY (CALENDAR_ID) REFERENCES CALENDARS(CALENDAR_ID) ON DELETE CASCADE,
+                        FOREIGN KEY (CREATOR_ID) REFERENCES USERS(USER_ID)
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS CALENDAR_PERMISSIONS (
+                        PERMISSION_ID TEXT PRIMARY KEY,
+                        CALENDAR_ID TEXT NOT NULL,
+                        USER_ID TEXT NOT NULL,
+                        PERMISSION_LEVEL TEXT NOT NULL DEFAULT 'read',
+                        PERMISSION_TYPE TEXT NOT NULL DEFAULT 'shared',
+                        GRANTED_BY TEXT NOT NULL,
+                        GRANTED_AT DATETIME DEFAULT CURRENT_TIMESTAMP,
+                        SHARED_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
+                        ACTIVE TEXT DEFAULT 'Y',
+                        FOREIGN KEY (CALENDAR_ID) REFERENCES CALENDARS(CALENDAR_ID) ON DELETE CASCADE,
+                        FOREIGN KEY (USER_ID) REFERENCES USERS(USER_ID) ON DELETE CASCADE,
+                        FOREIGN KEY (GRANTED_BY) REFERENCES USERS(USER_ID)
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS EVENT_EXCEPTIONS (
+                        EVENT_ID TEXT NOT NULL,
+                        OCCURRENCE_DATE DATE NOT NULL,
+                        CREATED_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
+                        PRIMARY KEY (EVENT_ID, OCCURRENCE_DATE),
+                        FOREIGN KEY (EVENT_ID) REFERENCES EVENTS(EVENT_ID) ON DELETE CASCADE
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS INVITATIONS (
+                        INVITATION_ID TEXT PRIMARY KEY,
+                        CALENDAR_ID TEXT NOT NULL,
+                        INVITED_USER_ID TEXT NOT NULL,
+                        INVITER_USER_ID TEXT NOT NULL,
+                        PERMISSION_TYPE TEXT DEFAULT 'read',
+                        STATUS TEXT DEFAULT 'PENDING',
+                        INVITATION_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
+                        RESPONSE_DATE DATETIME,
+                        FOREIGN KEY (CALENDAR_ID) REFERENCES CALENDARS(CALENDAR_ID) ON DELETE CASCADE,
+                        FOREIGN KEY (INVITED_USER_ID) REFERENCES USERS(USER_ID) ON DELETE CASCADE,
+                        FOREIGN KEY (INVITER_USER_ID) REFERENCES USERS(USER_ID) ON DELETE CASCADE
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS CLASS_TEMPLATES (
+                        TEMPLATE_ID TEXT PRIMARY KEY,
+                        TEACHER_ID TEXT NOT NULL,
+                        TEMPLATE_NAME TEXT NOT NULL,
+                        SUBJECT TEXT,
+                        GROUP_NAME TEXT,
+                        DURATION_MINUTES INTEGER,
+                        WEEK_DAYS TEXT,
+                        START_TIME TIME,
+                        CREATED_DATE DATETIME DEFAULT CURRENT_TIMESTAMP,
+                        ACTIVE TEXT DEFAULT 'Y',
+                        FOREIGN KEY (TEACHER_ID) REFERENCES USERS(USER_ID) ON DELETE CASCADE
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS pending_sync (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        table_name TEXT NOT NULL,
+                        record_id TEXT NOT NULL,
+                        operation TEXT NOT NULL,
+                        data TEXT,
+                        created_at DATETIME DEFAULT CURRENT_TIMESTAMP
+                    )
+                    """)),
+
+            // Bases creadas por versiones anteriores (o por la migración mínima) sin las columnas de compartir
+            new Migration(2, "Columnas de calendarios compartidos", conn -> {
+                addColumnIfMissing(conn, "CALENDARS", "SHARE_CODE", "TEXT");
+                addColumnIfMissing(conn, "CALENDARS", "SHARE_CODE_EXPIRY", "DATETIME");
+                addColumnIfMissing(conn, "CALENDARS", "IS_SHARED", "TEXT DEFAULT 'N'");
+                addColumnIfMissing(conn, "CALENDAR_PERMISSIONS", "PERMISSION_TYPE", "TEXT NOT NULL DEFAULT 'shared'");
+                addColumnIfMissing(conn, "CALENDAR_PERMISSIONS", "GRANTED_BY", "TEXT");
+                addColumnIfMissing(conn, "CALENDAR_PERMISSIONS", "GRANTED_AT", "DATETIME");
+                addColumnIfMissing(conn, "CALENDAR_PERMISSIONS", "SHARED_DATE", "DATETIME");
+            }),
+
+            new Migration(3, "Índices de consulta", statements(
+                    "CREATE INDEX IF NOT EXISTS idx_calendars_owner_id ON CALENDARS(OWNER_ID)",
+                    "CREATE INDEX IF NOT EXISTS idx_events_calendar_id ON EVENTS(CALENDAR_ID)",
+                    "CREATE INDEX IF NOT EXISTS idx_events_creator_id ON EVENTS(CREATOR_ID)",
+                    "CREATE INDEX IF NOT EXISTS idx_events_start_date ON EVENTS(START_DATE)",
+                    // Índices compuestos para las consultas por rango semiabierto de EventService
+                    "CREATE INDEX IF NOT EXISTS idx_events_cal_active_start ON EVENTS(CALENDAR_ID, ACTIVE, START_DATE)",
+                    // Recorrido por keyset (START_DATE, EVENT_ID) de EventService.openEventCursor
+                    "CREATE INDEX IF NOT EXISTS idx_events_cal_active_start_id ON EVENTS(CALENDAR_ID, ACTIVE, START_DATE, EVENT_ID)",
+                    "CREATE INDEX IF NOT EXISTS idx_calendars_owner_active ON CALENDARS(OWNER_ID, ACTIVE)",
+                    "CREATE INDEX IF NOT EXISTS idx_permissions_user_active ON CALENDAR_PERMISSIONS(USER_ID, ACTIVE)",
+                    "CREATE INDEX IF NOT EXISTS idx_permissions_calendar_id ON CALENDAR_PERMISSIONS(CALENDAR_ID)",
+                    "CREATE INDEX IF NOT EXISTS idx_permissions_user_id ON CALENDAR_PERMISSIONS(USER_ID)",
+                    "CREATE INDEX IF NOT EXISTS idx_invitations_calendar_id ON INVITATIONS(CALENDAR_ID)",
+                    "CREATE INDEX IF NOT EXISTS idx_invitations_invited_user ON INVITATIONS(INVITED_USER_ID)")),
+
+            new Migration(4, "Datos de prueba offline", SchemaMigrator::createTestDataIfNeeded),
+
+            // Marcas de agua de LocalReplica: último cambio traído de la base en línea por tabla
+            new Migration(5, "Sincronización incremental", conn -> {
+                addColumnIfMissing(conn, "CALENDAR_PERMISSIONS", "MODIFIED_DATE", "DATETIME");
+                statements("""
+                        CREATE TABLE IF NOT EXISTS sync_watermarks (
+                            table_name TEXT PRIMARY KEY,
+                            changed_at DATETIME,
+                            covered_from DATETIME,
+                            pulled_at DATETIME
+                        )""").apply(conn);
+            }),
+
+            // El diario de cambios busca la entrada pendiente de cada registro al encolar
+            new Migration(6, "Índice del diario de cambios", statements(
+                    "CREATE INDEX IF NOT EXISTS idx_pending_sync_record ON pending_sync(table_name, record_id)")),
+
+            // Última entrada de OfflineChangeLog ya volcada a pending_sync (una sola fila)
+            new Migration(7, "Punto de control del registro offline", statements("""
+                    CREATE TABLE IF NOT EXISTS offline_log_checkpoint (
+                        id INTEGER PRIMARY KEY CHECK (id = 1),
+                        applied_seq INTEGER NOT NULL
+                    )""")),
+
+            // Versión de fila para la sincronización optimista y cola de conflictos por resolver
+            new Migration(8, "Versiones de fila y conflictos", conn -> {
+                addColumnIfMissing(conn, "EVENTS", "ROW_VERSION", "INTEGER NOT NULL DEFAULT 0");
+                addColumnIfMissing(conn, "CALENDARS", "ROW_VERSION", "INTEGER NOT NULL DEFAULT 0");
+                statements("""
+                        CREATE TABLE IF NOT EXISTS sync_conflicts (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            table_name TEXT NOT NULL,
+                            record_id TEXT NOT NULL,
+                            operation TEXT NOT NULL,
+                            base_version INTEGER,
+                            data TEXT,
+                            detected_at DATETIME DEFAULT CURRENT_TIMESTAMP
+                        )""").apply(conn);
+            })
+    );
+
+    private static final List<Migration> ORACLE_MIGRATIONS = List.of(
+            // El esquema base de Oracle Cloud ya existe: solo se registra como punto de partida
+            new Migration(1, "Esquema base Oracle", conn -> {}),
+
+            new Migration(2, "Excepciones de series recurrentes", statements("""
+                    CREATE TABLE EVENT_EXCEPTIONS (
+                        EVENT_ID VARCHAR2(50) NOT NULL,
+                        OCCURRENCE_DATE DATE NOT NULL,
+                        CREATED_DATE DATE DEFAULT SYSDATE,
+                        CONSTRAINT PK_EVENT_EXCEPTIONS PRIMARY KEY (EVENT_ID, OCCURRENCE_DATE),
+                        CONSTRAINT FK_EVENT_EXCEPTIONS_EVENT FOREIGN KEY (EVENT_ID) REFERENCES EVENTS(EVENT_ID) ON DELETE CASCADE
+                    )""")),
+
+            new Migration(3, "Índice keyset de eventos", statements(
+                    "CREATE INDEX IDX_EVENTS_CAL_ACTIVE_START_ID ON EVENTS(CALENDAR_ID, ACTIVE, START_DATE, EVENT_ID)")),
+
+            // Expresión idéntica a la de LocalReplica para que la consulta incremental use el índice
+            new Migration(4, "Índices de último cambio", statements(
+                    "CREATE INDEX IDX_EVENTS_CHANGED ON EVENTS(COALESCE(MODIFIED_DATE, CREATED_DATE))",
+                    "CREATE INDEX IDX_CALENDARS_CHANGED ON CALENDARS(COALESCE(MODIFIED_DATE, CREATED_DATE))")),
+
+            // Cada UPDATE la incrementa; la sincronización offline condiciona sus cambios a ella
+            new Migration(5, "Versiones de fila", statements(
+                    "ALTER TABLE EVENTS ADD ROW_VERSION NUMBER(19) DEFAULT 0 NOT NULL",
+                    "ALTER TABLE CALENDARS ADD ROW_VERSION NUMBER(19) DEFAULT 0 NOT NULL"))
+    );
+
+    private SchemaMigrator() {}
+
+    /**
+     * Aplica las migraciones pendientes del dialecto y devuelve cuántas se aplicaron
+     */
+    static int migrate(Connection conn, SqlDialect dialect) throws SQLException {
+        return switch (dialect) {
+            case SQLITE -> migrateSQLite(conn);
+            case ORACLE -> migrateOracle(conn);
+            case MYSQL -> 0; // El esquema MySQL local se administra a mano
+        };
+    }
+
+    static int latestVersion(SqlDialect dialect) {
+        List<Migration> migrations = switch (dialect) {
+            case SQLITE -> SQLITE_MIGRATIONS;
+            case ORACLE -> ORACLE_MIGRATIONS;
+            case MYSQL -> List.of();
+        };
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+    }
+
+    private static int migrateSQLite(Connection conn) throws SQLException {
+        int current = readUserVersion(conn);
+        if (current >= latestVersion(SqlDialect.SQLITE)) {
+            return 0;
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        int applied = 0;
+        try {
+            conn.setAutoCommit(false);
+            for (Migration migration : SQLITE_MIGRATIONS) {
+                if (migration.version() <= current) continue;
+                try {
+                    migration.step().apply(conn);
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute("PRAGMA user_version = " + migration.version());
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw new SQLException("Migración SQLite " + migration.version() + " (" +
+                            migration.description() + ") fallida: " + e.getMessage(), e);
+                }
+                System.out.println("   Esquema SQLite v" + migration.version() + ": " + migration.description());
+                applied++;
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return applied;
+    }
+
+    private static int migrateOracle(Connection conn) throws SQLException {
+        int current = readOracleVersion(conn);
+        if (current >= latestVersion(SqlDialect.ORACLE)) {
+            return 0;
+        }
+        if (current == 0) {
+            ignoreIfExists(conn, """
+                    CREATE TABLE SCHEMA_VERSION (
+                        VERSION NUMBER(10) PRIMARY KEY,
+                        DESCRIPTION VARCHAR2(200),
+                        APPLIED_DATE DATE DEFAULT SYSDATE
+                    )""");
+        }
+
+        int applied = 0;
+        for (Migration migration : ORACLE_MIGRATIONS) {
+            if (migration.version() <= current) continue;
+            try {
+                migration.step().apply(conn);
+                recordOracleVersion(conn, migration);
+            } catch (SQLException e) {
+                if (!conn.getAutoCommit()) conn.rollback();
+                throw new SQLException("Migración Oracle " + migration.version() + " (" +
+                        migration.description() + ") fallida: " + e.getMessage(), e);
+            }
+            System.out.println("   Esquema Oracle v" + migration.version() + ": " + migration.description());
+            applied++;
+        }
+        return applied;
+    }
+
+    private static int readUserVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static int readOracleVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT NVL(MAX(VERSION), 0) FROM SCHEMA_VERSION")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            if (e.getErrorCode() == ORA_TABLE_NOT_FOUND) return 0;
+            throw e;
+        }
+    }
+
+    private static void recordOracleVersion(Connection conn, Migration migration) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO SCHEMA_VERSION (VERSION, DESCRIPTION) VALUES (?, ?)")) {
+            stmt.setInt(1, migration.version());
+            stmt.setString(2, migration.description());
+            stmt.executeUpdate();
+            if (!conn.getAutoCommit()) conn.commit();
+        } catch (SQLException e) {
+            // Otro cliente la aplicó al mismo tiempo
+            if (e.getErrorCode() != ORA_UNIQUE_VIOLATED) throw e;
+        }
+    }
+
+    /**
+     * Paso que ejecuta las sentencias en orden con un solo Statement. En Oracle se
+     * ignoran los objetos que ya existen, así un reintento tras un fallo a medias avanza
+     */
+    private static Step statements(String... sql) {
+        return conn -> {
+            for (String statement : sql) {
+                ignoreIfExists(conn, statement);
+            }
+        };
+    }
+
+    private static void ignoreIfExists(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            int code = e.getErrorCode();
+            if (code != ORA_NAME_IN_USE && code != ORA_ALREADY_INDEXED && code != ORA_COLUMN_EXISTS) throw e;
+        }
+    }
+
+    private static void addColumnIfMissing(Connection conn, String table, String column, String definition) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("name"))) return;
+                }
+            }
+            stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        }
+    }
+
+    private static void createTestDataIfNeeded(Connection conn) throws SQLException {
+        String checkUser = "SELECT COUNT(*) FROM USERS WHERE EMAIL = '20243ds076@utez.edu.mx'";
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(checkUser)) {
+
+            if (rs.next() && rs.getInt(1) == 0) {
+                String insertTestUser = """
+                    INSERT INTO USERS (USER_ID, MATRICULA, FIRST_NAME, LAST_NAME, EMAIL, PASSWORD, ROLE, ACTIVE)
+                    VALUES ('USR0000001', '20243ds076', 'Usuario', 'Prueba', '20243ds076@utez.edu.mx', '123456', 'alumno', 'Y')
+                """;
+                stmt.execute(insertTestUser);
+                System.out.println("Usuario de prueba creado para modo offline");
+
+                String[] calendars = {
+                        "INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE) VALUES ('CAL0000001', 'USR0000001', 'Mis Clases', 'Calendario principal', '#1976D2', 'Y')",
+                        "INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE) VALUES ('CAL0000002', 'USR0000001', 'Personal', 'Eventos personales', '#4CAF50', 'Y')",
+                        "INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE) VALUES ('CAL0000003', 'USR0000001', 'Tareas y Proyectos', 'Tareas academicas', '#FF5722', 'Y')"
+                };
+
+                for (String calendarSql : calendars) {
+                    stmt.execute(calendarSql);
+                }
+                System.out.println("Calendarios por defecto creados");
+
+                String[] events = {
+                        "INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION, START_DATE, END_DATE, LOCATION, ACTIVE) VALUES ('EVE0000001', 'CAL0000001', 'USR0000001', 'Clase de Programacion', 'Clase de Java avanzado', datetime('now', '+1 day', '+8 hours'), datetime('now', '+1 day', '+10 hours'), 'Aula A101', 'Y')",
+                        "INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION, START_DATE, END_DATE, LOCATION, ACTIVE) VALUES ('EVE0000002', 'CAL0000001', 'USR0000001', 'Laboratorio BD', 'Practica de bases de datos', datetime('now', '+2 days', '+14 hours'), datetime('now', '+2 days', '+16 hours'), 'Lab Computo', 'Y')",
+                        "INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION, START_DATE, END_DATE, LOCATION, ACTIVE) VALUES ('EVE0000003', 'CAL0000002', 'USR0000001', 'Reunion Personal', 'Cita importante', datetime('now', '+3 days', '+16 hours'), datetime('now', '+3 days', '+17 hours'), 'Casa', 'Y')"
+                };
+
+                for (String eventSql : events) {
+                    stmt.execute(eventSql);
+                }
+                System.out.println("Eventos de ejemplo creados");
+            }
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.utez.calendario.config;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Catálogo de sentencias SQL por operación, generadas por adelantado para cada dialecto.
+ *
+ * Las plantillas usan marcadores que SqlDialect resuelve:
+ * {now}, {dual}, {first}, {hint:...} y {num:expresión}. Así el mismo código corre
+ * contra Oracle en línea y contra SQLite en modo offline sin SYSDATE, ROWNUM ni DUAL.
+ * DatabaseConfig valida el catálogo al abrir cada pool.
+ */
+public enum SqlCatalog {
+
+    CONNECTION_TEST("SELECT 1{dual}"),
+
+    // ===== Eventos =====
+    EVENT_INSERT("""
+            INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION,
+                                START_DATE, END_DATE, ALL_DAY, LOCATION, RECURRENCE, RECURRENCE_END_DATE, ACTIVE, CREATED_DATE)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'Y', {now})"""),
+
+    EVENT_UPDATE("""
+            UPDATE EVENTS SET TITLE = ?, DESCRIPTION = ?, START_DATE = ?, END_DATE = ?,
+                   ALL_DAY = ?, LOCATION = ?, RECURRENCE = ?, RECURRENCE_END_DATE = ?, MODIFIED_DATE = {now},
+                   ROW_VERSION = ROW_VERSION + 1
+            WHERE EVENT_ID = ? AND ACTIVE = 'Y'"""),
+
+    EVENT_SOFT_DELETE(
+            "UPDATE EVENTS SET ACTIVE = 'N', MODIFIED_DATE = {now}, ROW_VERSION = ROW_VERSION + 1 WHERE EVENT_ID = ?"),
+
+    EVENT_EXCEPTION_INSERT("INSERT INTO EVENT_EXCEPTIONS (EVENT_ID, OCCURRENCE_DATE) VALUES (?, ?)"),
+
+    // Versión base de un cambio offline (lectura local antes de escribir)
+    EVENT_ROW_VERSION("SELECT ROW_VERSION FROM EVENTS WHERE EVENT_ID = ?"),
+
+    EVENTS_FOR_CALENDAR("""
+            SELECT {hint:FIRST_ROWS(100)}
+                   e.EVENT_ID, e.TITLE, e.DESCRIPTION, e.START_DATE, e.END_DATE,
+                   e.LOCATION, e.CALENDAR_ID, e.ACTIVE, e.CREATED_DATE, e.MODIFIED_DATE,
+                   e.RECURRENCE, e.RECURRENCE_END_DATE
+            FROM EVENTS e
+            WHERE e.CALENDAR_ID = ?
+            AND e.ACTIVE = 'Y'
+            AND %s
+            ORDER BY e.START_DATE""".formatted(Fragments.EVENT_OVERLAP)),
+
+    // ===== Calendarios =====
+    CALENDAR_FIND_BY_OWNER_AND_NAME(
+            "SELECT CALENDAR_ID FROM CALENDARS WHERE OWNER_ID = ? AND NAME = ? AND ACTIVE = 'Y' {first}"),
+
+    CALENDAR_ROW_VERSION("SELECT ROW_VERSION FROM CALENDARS WHERE CALENDAR_ID = ?"),
+
+    // Estado local de un calendario inactivo antes de reactivarlo sin conexión
+    CALENDAR_SNAPSHOT("SELECT OWNER_ID, NAME, DESCRIPTION, COLOR, ROW_VERSION FROM CALENDARS WHERE CALENDAR_ID = ?"),
+
+    CALENDAR_INSERT("""
+            INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE, CREATED_DATE)
+            VALUES (?, ?, ?, ?, ?, 'Y', {now})"""),
+
+    // Los cuatro calendarios predeterminados en una sentencia; solo se insertan los que falten
+    CALENDAR_PROVISION_DEFAULTS("""
+            MERGE INTO CALENDARS c
+            USING (%s) d
+            ON (c.OWNER_ID = d.OWNER_ID AND c.NAME = d.NAME AND c.ACTIVE = 'Y')
+            WHEN NOT MATCHED THEN INSERT (CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE, CREATED_DATE)
+            VALUES (d.CALENDAR_ID, d.OWNER_ID, d.NAME, d.DESCRIPTION, d.COLOR, 'Y', {now})""".formatted(calendarRows(4)),
+            Map.of(SqlDialect.SQLITE, provisionBySelect("INSERT OR IGNORE", 4),
+                    SqlDialect.MYSQL, provisionBySelect("INSERT IGNORE", 4))),
+
+    // Reenvío de la cola pending_sync a la base online (altas de eventos y calendarios: EVENT_INSERT, CALENDAR_INSERT)
+    // Cambios y bajas condicionados a la versión que vio el cliente offline (NULL: sin condición).
+    // Un conteo 0 en el lote es un conflicto; no se lee la fila antes de escribirla
+    SYNC_EVENT_UPDATE("""
+            UPDATE EVENTS SET TITLE = ?, DESCRIPTION = ?, START_DATE = ?, END_DATE = ?,
+                   ALL_DAY = ?, LOCATION = ?, RECURRENCE = ?, RECURRENCE_END_DATE = ?, MODIFIED_DATE = {now},
+                   ROW_VERSION = ROW_VERSION + 1
+            WHERE EVENT_ID = ? AND ROW_VERSION = COALESCE(?, ROW_VERSION) AND ACTIVE = 'Y'"""),
+
+    SYNC_EVENT_DELETE("""
+            UPDATE EVENTS SET ACTIVE = 'N', MODIFIED_DATE = {now}, ROW_VERSION = ROW_VERSION + 1
+            WHERE EVENT_ID = ? AND ROW_VERSION = COALESCE(?, ROW_VERSION) AND ACTIVE = 'Y'"""),
+
+    SYNC_CALENDAR_UPDATE("""
+            UPDATE CALENDARS SET NAME = ?, DESCRIPTION = ?, COLOR = ?, MODIFIED_DATE = {now}, ROW_VERSION = ROW_VERSION + 1
+            WHERE CALENDAR_ID = ? AND ROW_VERSION = COALESCE(?, ROW_VERSION) AND ACTIVE = 'Y'"""),
+
+    SYNC_CALENDAR_DELETE("""
+            UPDATE CALENDARS SET ACTIVE = 'N', MODIFIED_DATE = {now}, ROW_VERSION = ROW_VERSION + 1
+            WHERE CALENDAR_ID = ? AND ROW_VERSION = COALESCE(?, ROW_VERSION) AND ACTIVE = 'Y'"""),
+
+    // Reactivación offline: la fila debe seguir inactiva y en la versión que vio el cliente
+    SYNC_CALENDAR_REACTIVATE("""
+            UPDATE CALENDARS SET NAME = ?, DESCRIPTION = ?, COLOR = ?, ACTIVE = 'Y', MODIFIED_DATE = {now},
+                   ROW_VERSION = ROW_VERSION + 1
+            WHERE CALENDAR_ID = ? AND ROW_VERSION = COALESCE(?, ROW_VERSION) AND ACTIVE = 'N'"""),
+
+    SYNC_PERMISSION_INSERT("""
+            INSERT INTO CALENDAR_PERMISSIONS (PERMISSION_ID, CALENDAR_ID, USER_ID, PERMISSION_TYPE, SHARED_DATE, ACTIVE)
+            VALUES (?, ?, ?, ?, {now}, 'Y')""",
+            Map.of(SqlDialect.SQLITE, localPermissionInsert("?4"))),
+
+    SYNC_PERMISSION_UPDATE(
+            "UPDATE CALENDAR_PERMISSIONS SET PERMISSION_TYPE = ?, ACTIVE = 'Y', MODIFIED_DATE = {now} WHERE PERMISSION_ID = ?"),
+
+    SYNC_USER_INSERT("""
+            INSERT INTO USERS (USER_ID, MATRICULA, FIRST_NAME, LAST_NAME, EMAIL, PASSWORD, ROLE, ACTIVE)
+            VALUES (?, ?, ?, ?, ?, ?, ?, 'Y')"""),
+
+    SYNC_USER_UPDATE("UPDATE USERS SET MATRICULA = ?, FIRST_NAME = ?, LAST_NAME = ?, EMAIL = ?, ROLE = ? WHERE USER_ID = ?"),
+
+    SYNC_PERMISSION_DELETE(
+            "UPDATE CALENDAR_PERMISSIONS SET ACTIVE = 'N', MODIFIED_DATE = {now} WHERE PERMISSION_ID = ? AND ACTIVE = 'Y'"),
+
+    SYNC_USER_DELETE("UPDATE USERS SET ACTIVE = 'N' WHERE USER_ID = ? AND ACTIVE = 'Y'"),
+
+    // EVENT_EXCEPTIONS no tiene ACTIVE: la baja de una excepción restaura la ocurrencia
+    SYNC_EVENT_EXCEPTION_DELETE("DELETE FROM EVENT_EXCEPTIONS WHERE EVENT_ID = ? AND OCCURRENCE_DATE = ?"),
+
+    // Conflicto detectado al reenviar: pasa de pending_sync a sync_conflicts (solo en la base local)
+    SYNC_CONFLICT_INSERT("""
+            INSERT INTO sync_conflicts (table_name, record_id, operation, base_version, data, detected_at)
+            VALUES (?, ?, ?, ?, ?, {now})""", true),
+
+    CALENDAR_IDS_BY_OWNER_AND_NAMES(
+            "SELECT NAME, CALENDAR_ID FROM CALENDARS WHERE OWNER_ID = ? AND ACTIVE = 'Y' AND NAME IN (?, ?, ?, ?)"),
+
+    SHARED_CALENDARS_FOR_USER("""
+            SELECT {hint:FIRST_ROWS(10) INDEX(c PK_CALENDARS) INDEX(cp PK_CALENDAR_PERMISSIONS)}
+                   c.CALENDAR_ID, c.NAME, c.DESCRIPTION, c.COLOR, c.OWNER_ID,
+                   c.ACTIVE, c.CREATED_DATE, c.MODIFIED_DATE, c.IS_SHARED,
+                   cp.PERMISSION_TYPE, cp.SHARED_DATE
+            FROM CALENDARS c
+            JOIN CALENDAR_PERMISSIONS cp ON c.CALENDAR_ID = cp.CALENDAR_ID
+            WHERE cp.USER_ID = ? AND cp.ACTIVE = 'Y' AND c.ACTIVE = 'Y'
+            ORDER BY c.NAME"""),
+
+    PERMISSION_INSERT_VIEW("""
+            INSERT INTO CALENDAR_PERMISSIONS (
+                PERMISSION_ID, CALENDAR_ID, USER_ID,
+                PERMISSION_TYPE, SHARED_DATE, ACTIVE
+            ) VALUES (?, ?, ?, 'VIEW', {now}, 'Y')""",
+            Map.of(SqlDialect.SQLITE, localPermissionInsert("'VIEW'"))),
+
+    // ===== Usuarios y panel de administración =====
+    // Parámetros: inicio del mes, inicio del mes siguiente y ahora
+    DASHBOARD_COUNTS("""
+            SELECT
+                (SELECT COUNT(*) FROM USERS WHERE ROLE != 'admin') as total_users,
+                (SELECT COUNT(*) FROM USERS WHERE ROLE = 'alumno' AND ACTIVE = 'Y') as active_students,
+                (SELECT COUNT(*) FROM EVENTS WHERE ACTIVE = 'Y'
+                 AND START_DATE >= ? AND START_DATE < ?) as events_month,
+                (SELECT COUNT(*) FROM EVENTS WHERE ACTIVE = 'Y'
+                 AND START_DATE > ?) as upcoming_events,
+                (SELECT COUNT(*) FROM CALENDARS WHERE ACTIVE = 'Y') as active_calendars
+            {dual}"""),
+
+    // Parámetros: incluir administradores ('Y'/'N'), primera y última fila (1-based)
+    USERS_PAGE("""
+            SELECT * FROM (
+                SELECT u.*, ROW_NUMBER() OVER (ORDER BY CREATED_DATE DESC) as rn
+                FROM USERS u
+                WHERE (? = 'Y' OR u.ROLE != 'admin')
+            ) paged
+            WHERE rn BETWEEN ? AND ?"""),
+
+    USER_LAST_ID_WITH_PREFIX("""
+            SELECT USER_ID FROM USERS
+            WHERE USER_ID LIKE ?
+            ORDER BY {num:SUBSTR(USER_ID, 4)} DESC
+            {first}"""),
+
+    USER_LAST_DOCENTE_CODE("""
+            SELECT MATRICULA FROM USERS
+            WHERE MATRICULA LIKE 'DOC%'
+            ORDER BY {num:SUBSTR(MATRICULA, 4)} DESC
+            {first}""");
+
+    /**
+     * Piezas compartidas con consultas que se arman fuera del catálogo
+     */
+    public static final class Fragments {
+        // Solapamiento con el rango [inicio, fin): usable por los índices (CALENDAR_ID, ACTIVE, START_DATE).
+        // Las filas maestras de series recurrentes entran mientras la serie siga vigente y se expanden en memoria
+        public static final String EVENT_OVERLAP =
+                "e.START_DATE < ? AND (e.END_DATE >= ? OR (e.RECURRENCE IS NOT NULL " +
+                        "AND (e.RECURRENCE_END_DATE IS NULL OR e.RECURRENCE_END_DATE >= ?)))";
+
+        private Fragments() {}
+    }
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{(\\w+)(?::([^}]*))?}");
+
+    private final String template;
+    // Plantillas propias de un dialecto cuando la sintaxis cambia más que un marcador (MERGE)
+    private final Map<SqlDialect, String> overrides;
+    // Tablas que solo existen en SQLite (cola de sincronización): no se validan contra la base online
+    private final boolean localOnly;
+    private final Map<SqlDialect, String> rendered = new EnumMap<>(SqlDialect.class);
+
+    SqlCatalog(String template) {
+        this(template, Map.of());
+    }
+
+    SqlCatalog(String template, boolean localOnly) {
+        this(template, Map.of(), localOnly);
+    }
+
+    SqlCatalog(String template, Map<SqlDialect, String> overrides) {
+        this(template, overrides, false);
+    }
+
+    SqlCatalog(String template, Map<SqlDialect, String> overrides, boolean localOnly) {
+        this.template = template;
+        this.overrides = overrides;
+        this.localOnly = localOnly;
+    }
+
+    // Generar todas las variantes al cargar la clase (después de compilar PLACEHOLDER)
+    static {
+        for (SqlCatalog entry : values()) {
+            for (SqlDialect dialect : SqlDialect.values()) {
+                entry.rendered.put(dialect, render(entry.overrides.getOrDefault(dialect, entry.template), dialect));
+            }
+        }
+    }
+
+    /**
+     * Sentencia para el dialecto de la conexión activa
+     */
+    public String sql() {
+        return sql(DatabaseConfig.getDialect());
+    }
+
+    public String sql(SqlDialect dialect) {
+        return rendered.get(dialect);
+    }
+
+    public String template() {
+        return template;
+    }
+
+    // Análisis en el servidor sin ejecutar: DBMS_SQL.PARSE solo ejecuta DDL, y el catálogo no tiene DDL
+    private static final String ORACLE_PARSE = """
+            DECLARE
+                c INTEGER := DBMS_SQL.OPEN_CURSOR;
+            BEGIN
+                DBMS_SQL.PARSE(c, ?, DBMS_SQL.NATIVE);
+                DBMS_SQL.CLOSE_CURSOR(c);
+            EXCEPTION
+                WHEN OTHERS THEN
+                    DBMS_SQL.CLOSE_CURSOR(c);
+                    RAISE;
+            END;""";
+
+    /**
+     * Hace que el servidor analice cada sentencia (tablas, columnas y sintaxis) sin ejecutarla
+     * y devuelve las que fallaron:
+     * SQLite compila en el prepare; Oracle usa DBMS_SQL.PARSE; MySQL usa PREPARE del lado del servidor.
+     */
+    public static List<String> validate(Connection conn, SqlDialect dialect) {
+        List<String> failures = new ArrayList<>();
+        for (SqlCatalog entry : values()) {
+            if (entry.localOnly && dialect != SqlDialect.SQLITE) continue;
+            String sql = entry.sql(dialect);
+            if (PLACEHOLDER.matcher(sql).find()) {
+                failures.add(entry.name() + ": marcador sin resolver");
+                continue;
+            }
+            try {
+                parse(conn, dialect, sql);
+            } catch (SQLException e) {
+                failures.add(entry.name() + ": " + e.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    private static void parse(Connection conn, SqlDialect dialect, String sql) throws SQLException {
+        switch (dialect) {
+            case SQLITE -> conn.prepareStatement(sql).close(); // sqlite3_prepare compila la sentencia
+            case ORACLE -> {
+                try (CallableStatement call = conn.prepareCall(ORACLE_PARSE)) {
+                    call.setString(1, toNumberedBinds(sql));
+                    call.execute();
+                }
+            }
+            case MYSQL -> {
+                try (PreparedStatement prepare = conn.prepareStatement("PREPARE catalog_check FROM ?");
+                     Statement deallocate = conn.createStatement()) {
+                    prepare.setString(1, sql);
+                    prepare.execute();
+                    deallocate.execute("DEALLOCATE PREPARE catalog_check");
+                }
+            }
+        }
+    }
+
+    /**
+     * Cambia los "?" de JDBC por ":1", ":2"... (el SQL dinámico de Oracle no acepta "?"),
+     * respetando literales y comentarios
+     */
+    static String toNumberedBinds(String sql) {
+        StringBuilder out = new StringBuilder(sql.length() + 16);
+        int bind = 0;
+        boolean inLiteral = false;
+        boolean inComment = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char ch = sql.charAt(i);
+            if (inComment) {
+                if (ch == '*' && i + 1 < sql.length() && sql.charAt(i + 1) == '/') {
+                    out.append("*/");
+                    i++;
+                    inComment = false;
+                } else {
+                    out.append(ch);
+                }
+            } else if (inLiteral) {
+                out.append(ch);
+                if (ch == '\'') inLiteral = false; // '' dentro del literal cierra y reabre
+            } else if (ch == '\'') {
+                out.append(ch);
+                inLiteral = true;
+            } else if (ch == '/' && i + 1 < sql.length() && sql.charAt(i + 1) == '*') {
+                out.append("/*");
+                i++;
+                inComment = true;
+            } else if (ch == '?') {
+                out.append(':').append(++bind);
+            } else {
+                out.append(ch);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Filas literales (CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR) unidas con UNION ALL
+     */
+    private static String calendarRows(int count) {
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) rows.append(" UNION ALL ");
+            rows.append("SELECT ? AS CALENDAR_ID, ? AS OWNER_ID, ? AS NAME, ? AS DESCRIPTION, ? AS COLOR{dual}");
+        }
+        return rows.toString();
+    }
+
+    /**
+     * INSERT ... SELECT de las filas que no existen; el prefijo ignora además los choques de llave
+     */
+    private static String provisionBySelect(String insert, int count) {
+        return """
+                %s INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE, CREATED_DATE)
+                SELECT d.CALENDAR_ID, d.OWNER_ID, d.NAME, d.DESCRIPTION, d.COLOR, 'Y', {now}
+                FROM (%s) d
+                WHERE NOT EXISTS (SELECT 1 FROM CALENDARS c WHERE c.OWNER_ID = d.OWNER_ID AND c.NAME = d.NAME AND c.ACTIVE = 'Y')"""
+                .formatted(insert, calendarRows(count));
+    }
+
+    /**
+     * Alta de permiso en SQLite, donde GRANTED_BY es obligatorio y no existe en línea: lo concede el
+     * dueño del calendario. ?2 reutiliza el CALENDAR_ID, así se enlaza igual que la versión en línea
+     */
+    private static String localPermissionInsert(String permissionType) {
+        return """
+                INSERT INTO CALENDAR_PERMISSIONS (PERMISSION_ID, CALENDAR_ID, USER_ID, PERMISSION_TYPE, GRANTED_BY, SHARED_DATE, ACTIVE)
+                VALUES (?1, ?2, ?3, %s, (SELECT OWNER_ID FROM CALENDARS WHERE CALENDAR_ID = ?2), {now}, 'Y')"""
+                .formatted(permissionType);
+    }
+
+    private static String render(String template, SqlDialect dialect) {
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        StringBuilder sql = new StringBuilder(template.length());
+        while (matcher.find()) {
+            String argument = matcher.group(2);
+            String replacement = switch (matcher.group(1)) {
+                case "now" -> dialect.now();
+                case "dual" -> dialect.fromDual();
+                case "first" -> dialect.firstRowOnly();
+                case "hint" -> dialect.hint(argument);
+                case "num" -> dialect.toNumber(argument);
+                default -> throw new IllegalArgumentException("Marcador SQL desconocido: " + matcher.group());
+            };
+            matcher.appendReplacement(sql, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(sql);
+        return sql.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.utez.calendario.config;
+
+/**
+ * Dialectos SQL soportados y las piezas de sintaxis que cambian entre ellos.
+ * SqlCatalog usa estas piezas para generar cada sentencia por dialecto.
+ */
+public enum SqlDialect {
+    ORACLE("SYSDATE", " FROM DUAL", "FETCH FIRST 1 ROWS ONLY", "TO_NUMBER(%s)", true),
+    SQLITE("CURRENT_TIMESTAMP", "", "LIMIT 1", "CAST(%s AS INTEGER)", false),
+    MYSQL("NOW()", "", "LIMIT 1", "CAST(%s AS UNSIGNED)", false);
+
+    private final String now;
+    private final String fromDual;
+    private final String firstRowOnly;
+    private final String toNumberPattern;
+    private final boolean supportsHints;
+
+    SqlDialect(String now, String fromDual, String firstRowOnly, String toNumberPattern, boolean supportsHints) {
+        this.now = now;
+        this.fromDual = fromDual;
+        this.firstRowOnly = firstRowOnly;
+        this.toNumberPattern = toNumberPattern;
+        this.supportsHints = supportsHints;
+    }
+
+    /**
+     * Fecha y hora actual del servidor
+     */
+    public String now() {
+        return now;
+    }
+
+    /**
+     * Sufijo para un SELECT sin tabla (vacío fuera de Oracle)
+     */
+    public String fromDual() {
+        return fromDual;
+    }
+
+    /**
+     * Cláusula final para quedarse con la primera fila
+     */
+    public String firstRowOnly() {
+        return firstRowOnly;
+    }
+
+    public String toNumber(String expression) {
+        return String.format(toNumberPattern, expression);
+    }
+
+    /**
+     * Hint del optimizador; los demás dialectos lo omiten
+     */
+    public String hint(String hint) {
+        return supportsHints ? "/*+ " + hint + " */" : "";
+    }
+
+    public String connectionTestQuery() {
+        return "SELECT 1" + fromDual;
+    }
+}
@@ -3,6 +3,7 @@ package com.utez.calendario.controllers;
 import com.utez.calendario.models.Calendar;
 import com.utez.calendario.models.Event;
 import com.utez.calendario.services.AuthService;
+import com.utez.calendario.services.DatabaseExecutor;
 import com.utez.calendario.models.User;
 import com.utez.calendario.services.TimeService;
 
@@ -59,6 +60,7 @@ import java.util.ResourceBundle;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class AdminOverviewController implements Initializable {
 
@@ -350,7 +352,7 @@ public class AdminOverviewController implements Initializable {
                 pane.setAlignment(Pos.CENTER);
                 toggleButton.setOnAction(event -> {
                     User user = getTableView().getItems().get(getIndex());
-                    CompletableFuture.runAsync(() -> {
+                    DatabaseExecutor.getInstance().runAsync(() -> {
                         boolean success = user.toggleActive();
                         Platform.runLater(() -> {
                             if (success) {
@@ -564,7 +566,7 @@ public class AdminOverviewController implements Initializable {
     private CompletableFuture<List<Calendar>> loadCalendarDataAsync() {
         setStatus("Cargando calendarios...");
 
-        return CompletableFuture.supplyAsync(Calendar::getAllActiveCalendars)
+        return DatabaseExecutor.getInstance().supplyAsync(Calendar::getAllActiveCalendars)
                 .whenComplete((calendars, throwable) -> {
                     Platform.runLater(() -> {
                         if (throwable != null) {
@@ -730,20 +732,19 @@ public class AdminOverviewController implements Initializable {
 
     // ✅ CARGA ULTRA OPTIMIZADA DE EVENTOS
     private void loadAndDisplayCalendarEvents(Calendar calendar, VBox calendarView) {
-        CompletableFuture.runAsync(() -> {
-            try {
-                // ✅ USAR el método del modelo Calendar
-                List<Event> events = calendar.getCurrentMonthEvents();
-
+        DatabaseExecutor.getInstance().runAsync(() -> {
+            // ✅ Agrupar directo desde el cursor, sin lista intermedia
+            try (Stream<Event> events = calendar.streamCurrentMonthEvents()) {
                 Map<LocalDate, List<Event>> eventsByDate = new HashMap<>();
-                for (Event event : events) {
-                    LocalDate eventDate = event.getStartDate().toLocalDate();
-                    eventsByDate.computeIfAbsent(eventDate, k -> new ArrayList<>()).add(event);
-                }
+                int[] loaded = {0};
+                events.forEach(event -> {
+                    eventsByDate.computeIfAbsent(event.getStartDate().toLocalDate(), k -> new ArrayList<>()).add(event);
+                    loaded[0]++;
+                });
 
                 Platform.runLater(() -> {
                     updateOptimizedCalendarView(calendarView, YearMonth.from(TimeService.getInstance().now()), eventsByDate);
-                    updateCalendarStatusLabel(calendarView, "Eventos cargados: " + events.size());
+                    updateCalendarStatusLabel(calendarView, "Eventos cargados: " + loaded[0]);
                 });
 
             } catch (Exception e) {
@@ -1019,7 +1020,7 @@ public class AdminOverviewController implements Initializable {
     }
 
     public void refreshDashboard() {
-        CompletableFuture.runAsync(() -> {
+        DatabaseExecutor.getInstance().runAsync(() -> {
             try {
                 User.DashboardData data = User.getDashboardData();
                 cachedTotalUsers = data.totalUsers - 1;
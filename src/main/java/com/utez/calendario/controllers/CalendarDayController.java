@@ -2,9 +2,12 @@ package com.utez.calendario.controllers;
 
 import com.utez.calendario.models.Calendar;
 import com.utez.calendario.models.Event;
+import com.utez.calendario.models.EventSummary;
 import com.utez.calendario.models.User;
 import com.utez.calendario.services.AuthService;
 import com.utez.calendario.services.CalendarSharingService;
+import com.utez.calendario.services.DatabaseExecutor;
+import com.utez.calendario.services.EventPrefetchService;
 import com.utez.calendario.services.EventService;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
@@ -72,7 +75,7 @@ public class CalendarDayController implements Initializable {
     // Variables de clase existentes
     private Timeline clockTimeline;
     private LocalDate currentDate;
-    private List<Event> events;
+    private List<EventSummary> events;
 
     private EventService eventService;
     private AuthService authService;
@@ -160,10 +163,10 @@ public class CalendarDayController implements Initializable {
     }
 
     // Método actualizado para determinar si mostrar un evento (igual que en semana)
-    private boolean shouldShowEvent(Event event) {
-        String calendarId = event.getCalendarId();
+    private boolean shouldShowEvent(EventSummary event) {
+        String calendarId = event.calendarId();
 
-        System.out.println("🔍 Verificando visibilidad para evento: " + event.getTitle());
+        System.out.println("🔍 Verificando visibilidad para evento: " + event.title());
         System.out.println("   📋 Calendario ID: " + calendarId);
 
         // Buscar el calendario en todos los caches
@@ -255,7 +258,7 @@ public class CalendarDayController implements Initializable {
 
     // Método asíncrono para cargar calendarios personalizados (igual que en semana)
     private void loadCustomCalendarsAsync() {
-        CompletableFuture.supplyAsync(() -> {
+        DatabaseExecutor.getInstance().supplyAsync(() -> {
             if (authService.getCurrentUser() != null) {
                 String userId = authService.getCurrentUser().getUserId();
                 // Cargar TODOS los calendarios del usuario (predeterminados + personalizados)
@@ -417,7 +420,7 @@ public class CalendarDayController implements Initializable {
      * Elimina un calendario personalizado de forma asíncrona
      */
     private void deleteCustomCalendarAsync(String calendarId) {
-        CompletableFuture.supplyAsync(() -> {
+        DatabaseExecutor.getInstance().supplyAsync(() -> {
             return Calendar.deleteCalendar(calendarId);
         }).thenAccept(deleted -> {
             Platform.runLater(() -> {
@@ -455,6 +458,8 @@ public class CalendarDayController implements Initializable {
 
         isLoadingEvents = true;
         String userId = authService.getCurrentUser().getUserId();
+        LocalDate loadingDate = currentDate;
+        EventPrefetchService.getInstance().cancelPending(userId);
 
         System.out.println("\n[" + TimeService.getInstance().now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "] " +
                 "Cargando eventos desde BD de forma asíncrona...");
@@ -462,15 +467,15 @@ public class CalendarDayController implements Initializable {
         System.out.println("Día actual: " + currentDate);
 
         // Usar Task para operación en background
-        Task<List<Event>> loadEventsTask = new Task<List<Event>>() {
+        Task<List<EventSummary>> loadEventsTask = new Task<List<EventSummary>>() {
             @Override
-            protected List<Event> call() throws Exception {
-                return eventService.getEventsForDay(userId, currentDate);
+            protected List<EventSummary> call() throws Exception {
+                return eventService.getEventSummariesForDateRange(userId, currentDate, currentDate);
             }
         };
 
         loadEventsTask.setOnSucceeded(e -> {
-            List<Event> dayEvents = loadEventsTask.getValue();
+            List<EventSummary> dayEvents = loadEventsTask.getValue();
 
             Platform.runLater(() -> {
                 try {
@@ -478,7 +483,7 @@ public class CalendarDayController implements Initializable {
 
                     // Filtrar eventos según la configuración de visibilidad de calendarios
                     if (dayEvents != null) {
-                        for (Event event : dayEvents) {
+                        for (EventSummary event : dayEvents) {
                             if (shouldShowEvent(event)) {
                                 events.add(event);
                             }
@@ -489,6 +494,9 @@ public class CalendarDayController implements Initializable {
                     System.out.println("[" + TimeService.getInstance().now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "] " +
                             "Eventos cargados correctamente desde BD (Asíncrono)");
 
+                    // Con el día ya pintado, precargar el anterior y el siguiente
+                    EventPrefetchService.getInstance().prefetchAdjacentDays(userId, loadingDate);
+
                 } finally {
                     isLoadingEvents = false;
                 }
@@ -511,10 +519,8 @@ public class CalendarDayController implements Initializable {
             });
         });
 
-        // Ejecutar la tarea en un hilo separado
-        Thread backgroundThread = new Thread(loadEventsTask);
-        backgroundThread.setDaemon(true);
-        backgroundThread.start();
+        // Ejecutar la tarea en el ejecutor compartido de BD (limitado al tamaño del pool)
+        DatabaseExecutor.getInstance().execute(loadEventsTask);
     }
 
     private void setupScrollPane() {
@@ -608,9 +614,9 @@ public class CalendarDayController implements Initializable {
         }
 
         // Mostrar eventos (incluyendo todo el día)
-        for (Event event : events) {
+        for (EventSummary event : events) {
             if (!shouldShowEvent(event)) continue;
-            if (!event.getStartDate().toLocalDate().equals(currentDate)) continue;
+            if (!event.startDate().toLocalDate().equals(currentDate)) continue;
 
             if (isAllDay(event)) {
                 // === EVENTO DE TODO EL DÍA ===
@@ -629,8 +635,8 @@ public class CalendarDayController implements Initializable {
             }
             else {
                 // === EVENTO NORMAL ===
-                int startHour = event.getStartDate().getHour();
-                int endHour = event.getEndDate().getHour();
+                int startHour = event.startDate().getHour();
+                int endHour = event.endDate().getHour();
                 int rowIndex = startHour + 1;
                 int rowSpan = Math.max(1, endHour - startHour);
 
@@ -748,9 +754,9 @@ public class CalendarDayController implements Initializable {
         }
     }
 
-    private boolean isAllDay(Event event) {
-        LocalTime start = event.getStartDate().toLocalTime();
-        LocalTime end = event.getEndDate().toLocalTime();
+    private boolean isAllDay(EventSummary event) {
+        LocalTime start = event.startDate().toLocalTime();
+        LocalTime end = event.endDate().toLocalTime();
         return start.equals(LocalTime.MIDNIGHT) && end.equals(LocalTime.MIDNIGHT);
     }
 
@@ -855,13 +861,13 @@ public class CalendarDayController implements Initializable {
     }
 
     // Método actualizado para aplicar colores personalizados (igual que en semana)
-    private Label createEventLabel(Event event) {
+    private Label createEventLabel(EventSummary event) {
         // Formatear hora de inicio y fin
         DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
-        String startTime = event.getStartDate().toLocalTime().format(timeFormatter);
-        String endTime = event.getEndDate().toLocalTime().format(timeFormatter);
+        String startTime = event.startDate().toLocalTime().format(timeFormatter);
+        String endTime = event.endDate().toLocalTime().format(timeFormatter);
 
-        String labelText = event.getTitle() + " (" + startTime + " - " + endTime + ")";
+        String labelText = event.title() + " (" + startTime + " - " + endTime + ")";
 
         Label eventLabel = new Label(labelText);
         eventLabel.getStyleClass().add("event-label");
@@ -869,7 +875,7 @@ public class CalendarDayController implements Initializable {
         eventLabel.setWrapText(true);
 
         // Aplicar color según el calendario
-        String calendarId = event.getCalendarId();
+        String calendarId = event.calendarId();
         String backgroundColor = getCalendarColor(calendarId);
 
         if (backgroundColor != null) {
@@ -900,7 +906,7 @@ public class CalendarDayController implements Initializable {
         }
 
         // Click para abrir evento específico
-        final Event currentEvent = event;
+        final EventSummary currentEvent = event;
         eventLabel.setOnMouseClicked(e -> {
             if (e.getClickCount() == 1) {
                 openSpecificEvent(currentEvent);
@@ -1022,6 +1028,20 @@ public class CalendarDayController implements Initializable {
         }
     }
 
+    /**
+     * Carga el detalle del evento de la cuadrícula y abre el diálogo
+     */
+    private void openSpecificEvent(EventSummary summary) {
+        eventService.getEventDetailsAsync(summary.eventId()).thenAccept(event -> Platform.runLater(() -> {
+            if (event != null) {
+                openSpecificEvent(event);
+            } else {
+                showAlert("Evento no disponible", "El evento ya no existe o fue eliminado.", Alert.AlertType.WARNING);
+                loadEventsFromDatabaseAsync();
+            }
+        }));
+    }
+
     public void openSpecificEvent(Event event) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/event-dialog.fxml"));
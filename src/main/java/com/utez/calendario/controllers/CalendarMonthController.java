@@ -3,9 +3,12 @@ package com.utez.calendario.controllers;
 import com.utez.calendario.MainApp;
 import com.utez.calendario.models.Calendar;
 import com.utez.calendario.models.Event;
+import com.utez.calendario.models.EventSummary;
 import com.utez.calendario.models.User;
 import com.utez.calendario.services.AuthService;
 import com.utez.calendario.services.CalendarSharingService;
+import com.utez.calendario.services.DatabaseExecutor;
+import com.utez.calendario.services.EventPrefetchService;
 import com.utez.calendario.services.EventService;
 import com.utez.calendario.services.MailService;
 import javafx.animation.FadeTransition;
@@ -83,7 +86,7 @@ public class CalendarMonthController implements Initializable {
 
     private YearMonth currentYearMonth;
     private LocalDate selectedDate;
-    private Map<LocalDate, List<Event>> eventCache = new HashMap<>(); // Cambiado para almacenar objetos Event
+    private Map<LocalDate, List<EventSummary>> eventCache = new HashMap<>(); // Proyecciones ligeras por día
     private Map<String, CheckBox> customCalendarCheckboxes = new HashMap<>();
     private Map<String, Button> customCalendarDeleteButtons = new HashMap<>();
     private List<String> viewModes = Arrays.asList("Día", "Semana", "Mes", "Año");
@@ -202,10 +205,10 @@ public class CalendarMonthController implements Initializable {
     }
 
     // Método actualizado para determinar si mostrar un evento
-    private boolean shouldShowEvent(Event event) {
-        String calendarId = event.getCalendarId();
+    private boolean shouldShowEvent(EventSummary event) {
+        String calendarId = event.calendarId();
 
-        System.out.println("🔍 Verificando visibilidad para evento: " + event.getTitle());
+        System.out.println("🔍 Verificando visibilidad para evento: " + event.title());
         System.out.println("   📋 Calendario ID: " + calendarId);
 
         // Buscar el calendario en todos los caches
@@ -297,7 +300,7 @@ public class CalendarMonthController implements Initializable {
 
     // Método asíncrono para cargar calendarios personalizados
     private void loadCustomCalendarsAsync() {
-        CompletableFuture.supplyAsync(() -> {
+        DatabaseExecutor.getInstance().supplyAsync(() -> {
             if (authService.getCurrentUser() != null) {
                 String userId = authService.getCurrentUser().getUserId();
                 Map<String, Object> result = new HashMap<>();
@@ -504,7 +507,7 @@ public class CalendarMonthController implements Initializable {
      * Elimina un calendario personalizado de forma asíncrona
      */
     private void deleteCustomCalendarAsync(String calendarId) {
-        CompletableFuture.supplyAsync(() -> {
+        DatabaseExecutor.getInstance().supplyAsync(() -> {
             return Calendar.deleteCalendar(calendarId);
         }).thenAccept(deleted -> {
             Platform.runLater(() -> {
@@ -542,6 +545,8 @@ public class CalendarMonthController implements Initializable {
 
         isLoadingEvents = true;
         String userId = authService.getCurrentUser().getUserId();
+        YearMonth loadingMonth = currentYearMonth;
+        EventPrefetchService.getInstance().cancelPending(userId);
 
         System.out.println("\n[" + TimeService.getInstance().now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "] " +
                 "Cargando eventos mensuales (incluyendo compartidos) de forma asíncrona...");
@@ -549,9 +554,9 @@ public class CalendarMonthController implements Initializable {
         System.out.println("Mes actual: " + currentYearMonth.getMonth() + " " + currentYearMonth.getYear());
 
         // Usar Task para operación en background
-        Task<List<Event>> loadEventsTask = new Task<List<Event>>() {
+        Task<List<EventSummary>> loadEventsTask = new Task<List<EventSummary>>() {
             @Override
-            protected List<Event> call() throws Exception {
+            protected List<EventSummary> call() throws Exception {
                 System.out.println("[Background Thread] Iniciando carga de eventos mensuales...");
 
                 // Calcular rango del mes actual
@@ -560,7 +565,7 @@ public class CalendarMonthController implements Initializable {
 
                 System.out.println(" [Background Thread] Rango mensual: " + startOfMonth + " a " + endOfMonth);
 
-                List<Event> monthEvents = eventService.getEventsForDateRangeIncludingShared(userId, startOfMonth, endOfMonth);
+                List<EventSummary> monthEvents = eventService.getEventSummariesForDateRangeIncludingShared(userId, startOfMonth, endOfMonth);
 
                 System.out.println(" [Background Thread] Eventos mensuales cargados: " + monthEvents.size());
                 return monthEvents;
@@ -568,7 +573,7 @@ public class CalendarMonthController implements Initializable {
         };
 
         loadEventsTask.setOnSucceeded(e -> {
-            List<Event> monthEvents = loadEventsTask.getValue();
+            List<EventSummary> monthEvents = loadEventsTask.getValue();
 
             Platform.runLater(() -> {
                 try {
@@ -580,9 +585,9 @@ public class CalendarMonthController implements Initializable {
                     int shownEvents = 0;
                     int hiddenEvents = 0;
 
-                    for (Event event : monthEvents) {
+                    for (EventSummary event : monthEvents) {
                         if (shouldShowEvent(event)) {
-                            LocalDate eventDate = event.getStartDate().toLocalDate();
+                            LocalDate eventDate = event.startDate().toLocalDate();
                             eventCache.computeIfAbsent(eventDate, k -> new ArrayList<>()).add(event);
                             shownEvents++;
                         } else {
@@ -597,6 +602,9 @@ public class CalendarMonthController implements Initializable {
                     System.out.println("[" + TimeService.getInstance().now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "] " +
                             " Eventos mensuales cargados correctamente (Asíncrono) - Total: " + monthEvents.size());
 
+                    // Con el mes ya pintado, precargar el anterior y el siguiente
+                    EventPrefetchService.getInstance().prefetchAdjacentMonths(userId, loadingMonth);
+
                 } finally {
                     isLoadingEvents = false;
                 }
@@ -621,10 +629,8 @@ public class CalendarMonthController implements Initializable {
             });
         });
 
-        // Ejecutar la tarea en un hilo separado
-        Thread backgroundThread = new Thread(loadEventsTask);
-        backgroundThread.setDaemon(true);
-        backgroundThread.start();
+        // Ejecutar la tarea en el ejecutor compartido de BD (limitado al tamaño del pool)
+        DatabaseExecutor.getInstance().execute(loadEventsTask);
     }
 
     private void setupAnimations() {
@@ -736,7 +742,7 @@ public class CalendarMonthController implements Initializable {
         cell.getChildren().add(dayNumber);
 
         // Eventos del día desde cache
-        List<Event> dayEvents = eventCache.getOrDefault(date, new ArrayList<>());
+        List<EventSummary> dayEvents = eventCache.getOrDefault(date, new ArrayList<>());
         int maxEventsToShow = 3;
 
         // Variable para controlar si hay eventos clickeables
@@ -744,12 +750,12 @@ public class CalendarMonthController implements Initializable {
 
         // Mostrar eventos - TODOS son clickeables individualmente
         for (int i = 0; i < Math.min(dayEvents.size(), maxEventsToShow); i++) {
-            Event event = dayEvents.get(i);
-            Label eventLabel = new Label(event.getTitle());
+            EventSummary event = dayEvents.get(i);
+            Label eventLabel = new Label(event.title());
             eventLabel.getStyleClass().add("event-item");
 
             // Aplicar color según el calendario
-            String calendarId = event.getCalendarId();
+            String calendarId = event.calendarId();
             String backgroundColor = getCalendarColor(calendarId);
 
             String baseStyle;
@@ -838,10 +844,18 @@ public class CalendarMonthController implements Initializable {
     }
 
     /**
-     * Abre un diálogo que muestra todos los eventos de un día específico
+     * Abre un diálogo que muestra todos los eventos de un día específico.
+     * La cuadrícula solo tiene proyecciones: el detalle (descripción, etc.) se carga al abrirlo.
      */
-    private void openDayEventsDialog(LocalDate date, List<Event> dayEvents) {
-        createCustomDayEventsDialog(date, dayEvents);
+    private void openDayEventsDialog(LocalDate date, List<EventSummary> dayEvents) {
+        List<String> eventIds = dayEvents.stream().map(EventSummary::eventId).toList();
+        eventService.getEventDetailsAsync(eventIds).thenAccept(details ->
+                Platform.runLater(() -> createCustomDayEventsDialog(date, details))
+        ).exceptionally(throwable -> {
+            Platform.runLater(() -> showAlert("Error", "No se pudieron cargar los eventos del día:\n" +
+                    throwable.getMessage(), Alert.AlertType.ERROR));
+            return null;
+        });
     }
 
     /**
@@ -1906,6 +1920,20 @@ public class CalendarMonthController implements Initializable {
         openEventInReadOnlyMode(event);
     }
 
+    /**
+     * Carga el detalle del evento de la cuadrícula y lo abre en modo de solo lectura
+     */
+    private void openSpecificEvent(EventSummary summary) {
+        eventService.getEventDetailsAsync(summary.eventId()).thenAccept(event -> Platform.runLater(() -> {
+            if (event != null) {
+                openSpecificEvent(event);
+            } else {
+                showAlert("Evento no disponible", "El evento ya no existe o fue eliminado.", Alert.AlertType.WARNING);
+                loadEventsFromDatabaseAsync();
+            }
+        }));
+    }
+
     // ========== MÉTODOS PÚBLICOS ==========
 
     public void addEvent(LocalDate date, String eventName) {
@@ -1919,8 +1947,8 @@ public class CalendarMonthController implements Initializable {
     }
 
     public List<String> getEventsForDate(LocalDate date) {
-        List<Event> events = eventCache.getOrDefault(date, new ArrayList<>());
-        return events.stream().map(Event::getTitle).collect(java.util.stream.Collectors.toList());
+        List<EventSummary> events = eventCache.getOrDefault(date, new ArrayList<>());
+        return events.stream().map(EventSummary::title).collect(java.util.stream.Collectors.toList());
     }
 
     public void navigateToDate(LocalDate date) {
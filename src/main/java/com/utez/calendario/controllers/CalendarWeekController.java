@@ -3,9 +3,12 @@ package com.utez.calendario.controllers;
 import com.utez.calendario.MainApp;
 import com.utez.calendario.models.Calendar;
 import com.utez.calendario.models.Event;
+import com.utez.calendario.models.EventSummary;
 import com.utez.calendario.models.User;
 import com.utez.calendario.services.AuthService;
 import com.utez.calendario.services.CalendarSharingService;
+import com.utez.calendario.services.DatabaseExecutor;
+import com.utez.calendario.services.EventPrefetchService;
 import com.utez.calendario.services.EventService;
 import com.utez.calendario.services.MailService;
 import javafx.application.Platform;
@@ -82,7 +85,7 @@ public class CalendarWeekController implements Initializable {
     private Timeline clockTimeline;
     private LocalDate selectedDate;
     private LocalDate startOfWeek;
-    private Map<LocalDate, List<Event>> events;
+    private Map<LocalDate, List<EventSummary>> events;
 
     private EventService eventService;
     private AuthService authService;
@@ -191,10 +194,10 @@ public class CalendarWeekController implements Initializable {
     }
 
     // Método actualizado para determinar si mostrar un evento
-    private boolean shouldShowEvent(Event event) {
-        String calendarId = event.getCalendarId();
+    private boolean shouldShowEvent(EventSummary event) {
+        String calendarId = event.calendarId();
 
-        System.out.println("🔍 Verificando visibilidad para evento: " + event.getTitle());
+        System.out.println("🔍 Verificando visibilidad para evento: " + event.title());
         System.out.println("   📋 Calendario ID: " + calendarId);
 
         // Buscar el calendario en todos los caches
@@ -287,7 +290,7 @@ public class CalendarWeekController implements Initializable {
 
     // Método asíncrono para cargar calendarios personalizados
     private void loadCustomCalendarsAsync() {
-        CompletableFuture.supplyAsync(() -> {
+        DatabaseExecutor.getInstance().supplyAsync(() -> {
             if (authService.getCurrentUser() != null) {
                 String userId = authService.getCurrentUser().getUserId();
                 Map<String, Object> result = new HashMap<>();
@@ -496,7 +499,7 @@ public class CalendarWeekController implements Initializable {
      * Elimina un calendario personalizado de forma asíncrona
      */
     private void deleteCustomCalendarAsync(String calendarId) {
-        CompletableFuture.supplyAsync(() -> {
+        DatabaseExecutor.getInstance().supplyAsync(() -> {
             return Calendar.deleteCalendar(calendarId);
         }).thenAccept(deleted -> {
             Platform.runLater(() -> {
@@ -534,6 +537,8 @@ public class CalendarWeekController implements Initializable {
 
         isLoadingEvents = true;
         String userId = authService.getCurrentUser().getUserId();
+        LocalDate loadingWeek = startOfWeek;
+        EventPrefetchService.getInstance().cancelPending(userId);
 
         System.out.println("\n[" + TimeService.getInstance().now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "] " +
                 "Cargando eventos semanales (incluyendo compartidos) de forma asíncrona...");
@@ -541,9 +546,9 @@ public class CalendarWeekController implements Initializable {
         System.out.println("Semana actual: " + startOfWeek + " a " + startOfWeek.plusDays(6));
 
         // Usar Task para operación en background
-        Task<List<Event>> loadEventsTask = new Task<List<Event>>() {
+        Task<List<EventSummary>> loadEventsTask = new Task<List<EventSummary>>() {
             @Override
-            protected List<Event> call() throws Exception {
+            protected List<EventSummary> call() throws Exception {
                 System.out.println("📋 [Background Thread] Iniciando carga de eventos semanales...");
 
                 // Calcular rango de la semana actual
@@ -553,7 +558,7 @@ public class CalendarWeekController implements Initializable {
                 System.out.println("📅 [Background Thread] Rango semanal: " + startOfWeekRange + " a " + endOfWeekRange);
 
                 // ¡CAMBIO IMPORTANTE! Usar el método que incluye eventos compartidos
-                List<Event> weekEvents = eventService.getEventsForDateRangeIncludingShared(userId, startOfWeekRange, endOfWeekRange);
+                List<EventSummary> weekEvents = eventService.getEventSummariesForDateRangeIncludingShared(userId, startOfWeekRange, endOfWeekRange);
 
                 System.out.println("✅ [Background Thread] Eventos semanales cargados: " + weekEvents.size());
                 return weekEvents;
@@ -561,7 +566,7 @@ public class CalendarWeekController implements Initializable {
         };
 
         loadEventsTask.setOnSucceeded(e -> {
-            List<Event> weekEvents = loadEventsTask.getValue();
+            List<EventSummary> weekEvents = loadEventsTask.getValue();
 
             Platform.runLater(() -> {
                 try {
@@ -573,9 +578,9 @@ public class CalendarWeekController implements Initializable {
                     int shownEvents = 0;
                     int hiddenEvents = 0;
 
-                    for (Event event : weekEvents) {
+                    for (EventSummary event : weekEvents) {
                         if (shouldShowEvent(event)) {
-                            LocalDate eventDate = event.getStartDate().toLocalDate();
+                            LocalDate eventDate = event.startDate().toLocalDate();
                             events.computeIfAbsent(eventDate, k -> new ArrayList<>()).add(event);
                             shownEvents++;
                         } else {
@@ -590,6 +595,9 @@ public class CalendarWeekController implements Initializable {
                     System.out.println("[" + TimeService.getInstance().now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "] " +
                             "✅ Eventos semanales cargados correctamente (Asíncrono) - Total: " + weekEvents.size());
 
+                    // Con la semana ya pintada, precargar la anterior y la siguiente
+                    EventPrefetchService.getInstance().prefetchAdjacentWeeks(userId, loadingWeek);
+
                 } finally {
                     isLoadingEvents = false;
                 }
@@ -614,10 +622,8 @@ public class CalendarWeekController implements Initializable {
             });
         });
 
-        // Ejecutar la tarea en un hilo separado
-        Thread backgroundThread = new Thread(loadEventsTask);
-        backgroundThread.setDaemon(true);
-        backgroundThread.start();
+        // Ejecutar la tarea en el ejecutor compartido de BD (limitado al tamaño del pool)
+        DatabaseExecutor.getInstance().execute(loadEventsTask);
     }
 
     private void setupScrollPane() {
@@ -716,25 +722,25 @@ public class CalendarWeekController implements Initializable {
 
         for (int day = 0; day < 7; day++) {
             LocalDate date = startOfWeek.plusDays(day);
-            List<Event> dayEvents = events.get(date);
+            List<EventSummary> dayEvents = events.get(date);
             if (dayEvents == null) continue;
 
-            for (Event event : dayEvents) {
+            for (EventSummary event : dayEvents) {
                 if (!shouldShowEvent(event)) continue; // Verificar visibilidad según calendario
                 if (isAllDay(event)) {
                     // Crear contenedor para evento de todo el día
                     StackPane allDayEvent = new StackPane();
                     allDayEvent.getStyleClass().add("event-all-day");
 
-                    String startStr = event.getStartDate().toLocalTime()
+                    String startStr = event.startDate().toLocalTime()
                             .format(DateTimeFormatter.ofPattern("HH:mm"));
-                    String endStr = event.getEndDate().toLocalTime()
+                    String endStr = event.endDate().toLocalTime()
                             .format(DateTimeFormatter.ofPattern("HH:mm"));
 
-                    Label eventLabel = new Label(event.getTitle() + " (" + startStr + " - " + endStr + ")");
+                    Label eventLabel = new Label(event.title() + " (" + startStr + " - " + endStr + ")");
                     eventLabel.getStyleClass().add("event-label-bold");
 
-                    String calendarId = event.getCalendarId();
+                    String calendarId = event.calendarId();
                     String backgroundColor = getCalendarColor(calendarId);
 
                     if (backgroundColor != null) {
@@ -757,7 +763,7 @@ public class CalendarWeekController implements Initializable {
                     // Sin efecto hover - color consistente
 
                     // Añadir evento de clic para abrir el evento específico
-                    final Event currentEvent = event;
+                    final EventSummary currentEvent = event;
                     allDayEvent.setOnMouseClicked(e -> openSpecificEvent(currentEvent));
 
                     // Agregar a la columna correspondiente y que abarque todas las filas de horas
@@ -867,9 +873,9 @@ public class CalendarWeekController implements Initializable {
         }
     }
 
-    private boolean isAllDay(Event event) {
-        LocalTime start = event.getStartDate().toLocalTime();
-        LocalTime end = event.getEndDate().toLocalTime();
+    private boolean isAllDay(EventSummary event) {
+        LocalTime start = event.startDate().toLocalTime();
+        LocalTime end = event.endDate().toLocalTime();
         return start.equals(LocalTime.MIDNIGHT) && end.equals(LocalTime.MIDNIGHT);
     }
 
@@ -937,15 +943,15 @@ public class CalendarWeekController implements Initializable {
 
         for (int day = 0; day < 7; day++) {
             LocalDate date = startOfWeek.plusDays(day);
-            List<Event> dayEvents = events.get(date);
+            List<EventSummary> dayEvents = events.get(date);
             if (dayEvents == null) continue;
 
-            for (Event event : dayEvents) {
+            for (EventSummary event : dayEvents) {
                 if (!shouldShowEvent(event)) continue;
                 if (isAllDay(event)) continue;
 
-                LocalTime start = event.getStartDate().toLocalTime();
-                LocalTime end = event.getEndDate().toLocalTime();
+                LocalTime start = event.startDate().toLocalTime();
+                LocalTime end = event.endDate().toLocalTime();
 
                 // convertir hora a píxeles
                 double startY = start.getHour() * rowHeight +
@@ -965,12 +971,12 @@ public class CalendarWeekController implements Initializable {
                 eventContainer.setPrefHeight(height);
                 eventContainer.getStyleClass().addAll("event-container");
 
-                Label eventBlock = new Label(event.getTitle() + " (" +
+                Label eventBlock = new Label(event.title() + " (" +
                         start.format(DateTimeFormatter.ofPattern("HH:mm")) + " - " +
                         end.format(DateTimeFormatter.ofPattern("HH:mm")) + ")");
 
                 // Aplicar color según el calendario
-                String calendarId = event.getCalendarId();
+                String calendarId = event.calendarId();
                 String backgroundColor = getCalendarColor(calendarId);
 
                 if (backgroundColor != null) {
@@ -1004,7 +1010,7 @@ public class CalendarWeekController implements Initializable {
                 eventBlock.setPrefHeight(height);
 
                 //Añadir evento de clic para abrir el evento específico
-                final Event currentEvent = event;
+                final EventSummary currentEvent = event;
                 eventContainer.setOnMouseClicked(e -> {
                     openSpecificEvent(currentEvent);
                 });
@@ -1141,6 +1147,20 @@ public class CalendarWeekController implements Initializable {
         }
     }
 
+    /**
+     * Carga el detalle del evento de la cuadrícula y abre el diálogo
+     */
+    private void openSpecificEvent(EventSummary summary) {
+        eventService.getEventDetailsAsync(summary.eventId()).thenAccept(event -> Platform.runLater(() -> {
+            if (event != null) {
+                openSpecificEvent(event);
+            } else {
+                showAlert("Evento no disponible", "El evento ya no existe o fue eliminado.", Alert.AlertType.WARNING);
+                loadEventsFromDatabaseAsync();
+            }
+        }));
+    }
+
     public void openSpecificEvent(Event event) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/event-dialog.fxml"));
@@ -2,13 +2,14 @@ package com.utez.calendario.controllers;
 
 import com.utez.calendario.MainApp;
 import com.utez.calendario.models.Calendar;
-import com.utez.calendario.models.Event;
+import com.utez.calendario.models.EventSummary;
 import com.utez.calendario.models.User;
 import com.utez.calendario.services.AuthService;
 import com.utez.calendario.services.CalendarSharingService;
 import com.utez.calendario.services.EventService;
 import com.utez.calendario.services.TimeService;
 import com.utez.calendario.services.MailService;
+import com.utez.calendario.services.DatabaseExecutor;
 import javafx.animation.FadeTransition;
 import javafx.animation.ScaleTransition;
 import javafx.animation.Timeline;
@@ -88,7 +89,7 @@ public class CalendarYearController implements Initializable {
     // ========== VARIABLES DE ESTADO ==========
     private int currentYear;
     private LocalDate selectedDate;
-    private Map<LocalDate, List<Event>> events; // Cambiado para almacenar objetos Event
+    private Map<LocalDate, List<EventSummary>> events; // Proyecciones ligeras por día
     private List<String> viewModes = Arrays.asList("Día", "Semana", "Mes", "Año");
     private int currentViewMode = 3; // Año por defecto
 
@@ -209,10 +210,10 @@ public class CalendarYearController implements Initializable {
     }
 
     // Método actualizado para determinar si mostrar un evento
-    private boolean shouldShowEvent(Event event) {
-        String calendarId = event.getCalendarId();
+    private boolean shouldShowEvent(EventSummary event) {
+        String calendarId = event.calendarId();
 
-        System.out.println("🔍 Verificando visibilidad para evento: " + event.getTitle());
+        System.out.println("🔍 Verificando visibilidad para evento: " + event.title());
         System.out.println("   📋 Calendario ID: " + calendarId);
 
         // Buscar el calendario en todos los caches
@@ -305,7 +306,7 @@ public class CalendarYearController implements Initializable {
 
     // Método asíncrono para cargar calendarios personalizados
     private void loadCustomCalendarsAsync() {
-        CompletableFuture.supplyAsync(() -> {
+        DatabaseExecutor.getInstance().supplyAsync(() -> {
             if (authService.getCurrentUser() != null) {
                 String userId = authService.getCurrentUser().getUserId();
                 Map<String, Object> result = new HashMap<>();
@@ -512,7 +513,7 @@ public class CalendarYearController implements Initializable {
      * Elimina un calendario personalizado de forma asíncrona
      */
     private void deleteCustomCalendarAsync(String calendarId) {
-        CompletableFuture.supplyAsync(() -> {
+        DatabaseExecutor.getInstance().supplyAsync(() -> {
             return Calendar.deleteCalendar(calendarId);
         }).thenAccept(deleted -> {
             Platform.runLater(() -> {
@@ -548,13 +549,13 @@ public class CalendarYearController implements Initializable {
                 LocalDate endOfYear = LocalDate.of(currentYear, 12, 31);
 
                 // ¡CAMBIO IMPORTANTE! Usar el nuevo método que incluye eventos compartidos
-                List<Event> yearEvents = eventService.getEventsForDateRangeIncludingShared(userId, startOfYear, endOfYear);
+                List<EventSummary> yearEvents = eventService.getEventSummariesForDateRangeIncludingShared(userId, startOfYear, endOfYear);
                 events.clear();
 
                 // Filtrar eventos según la configuración de visibilidad de calendarios
-                for (Event event : yearEvents) {
+                for (EventSummary event : yearEvents) {
                     if (shouldShowEvent(event)) {
-                        LocalDate eventDate = event.getStartDate().toLocalDate();
+                        LocalDate eventDate = event.startDate().toLocalDate();
                         events.computeIfAbsent(eventDate, k -> new ArrayList<>()).add(event);
                     }
                 }
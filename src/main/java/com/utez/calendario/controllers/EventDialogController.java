@@ -4,8 +4,12 @@ import com.utez.calendario.models.Calendar;
 import com.utez.calendario.models.Event;
 import com.utez.calendario.models.User;
 import com.utez.calendario.services.AuthService;
+import com.utez.calendario.services.EventConflictDetector;
 import com.utez.calendario.services.EventService;
 import com.utez.calendario.services.TimeService;
+import com.utez.calendario.services.DatabaseExecutor;
+import com.utez.calendario.utils.RecurrenceExpander;
+import com.utez.calendario.utils.RecurrenceRule;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -23,7 +27,6 @@ import java.net.URL;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 
 public class EventDialogController implements Initializable {
 
@@ -121,7 +124,7 @@ public class EventDialogController implements Initializable {
      * Carga los calendarios del usuario de forma asíncrona
      */
     private void loadUserCalendarsAsync(String userId) {
-        CompletableFuture.supplyAsync(() -> {
+        DatabaseExecutor.getInstance().supplyAsync(() -> {
             try {
                 // Cargar todos los calendarios del usuario
                 List<Calendar> calendars = Calendar.getAllUserCalendars(userId);
@@ -716,14 +719,12 @@ public class EventDialogController implements Initializable {
 
     /**
      * Método para crear un evento desde el formulario considerando recurrencia
+     * (una serie recurrente es una sola fila maestra)
      */
-    private List<Event> createRecurringEventsFromForm() {
-        List<Event> events = new ArrayList<>();
-
+    private Event createRecurringEventFromForm() {
         // Si no es evento recurrente o no es docente, crear un solo evento
         if (!isTeacher || cuatrimestreCheckBox == null || !cuatrimestreCheckBox.isSelected()) {
-            events.add(createEventFromForm());
-            return events;
+            return createEventFromForm();
         }
 
         // Obtener días seleccionados para recurrencia
@@ -737,30 +738,32 @@ public class EventDialogController implements Initializable {
 
         // Si no hay días seleccionados, crear un solo evento en la fecha elegida
         if (selectedDays.isEmpty()) {
-            events.add(createEventFromForm());
-            return events;
+            return createEventFromForm();
         }
 
-        // Crear eventos para cada día seleccionado en un periodo de 4 meses (16 semanas)
+        // Una sola fila maestra con la regla semanal durante 4 meses (16 semanas);
+        // las ocurrencias se generan al consultar cada periodo
         LocalDate baseDate = datePicker.getValue();
         LocalTime startTime = parseTime(startTimeComboBox.getValue());
         LocalTime endTime = parseTime(endTimeComboBox.getValue());
 
-        for (int week = 0; week < 16; week++) {
-            for (Integer dayValue : selectedDays) {
-                LocalDate targetDate = baseDate.with(java.time.temporal.TemporalAdjusters.nextOrSame(DayOfWeek.of(dayValue)));
-                targetDate = targetDate.plusWeeks(week);
-
-                Event event = createBaseEventFromForm();
-                event.setEventId(generateEventId() + "-" + week + "-" + dayValue);
-                event.setStartDate(LocalDateTime.of(targetDate, startTime));
-                event.setEndDate(LocalDateTime.of(targetDate, endTime));
-
-                events.add(event);
-            }
+        List<DayOfWeek> days = new ArrayList<>();
+        LocalDate firstDate = null;
+        for (Integer dayValue : selectedDays) {
+            DayOfWeek day = DayOfWeek.of(dayValue);
+            days.add(day);
+            LocalDate candidate = baseDate.with(java.time.temporal.TemporalAdjusters.nextOrSame(day));
+            if (firstDate == null || candidate.isBefore(firstDate)) firstDate = candidate;
         }
 
-        return events;
+        Event series = createBaseEventFromForm();
+        series.setEventId(generateEventId());
+        series.setStartDate(LocalDateTime.of(firstDate, startTime));
+        series.setEndDate(LocalDateTime.of(firstDate, endTime));
+        series.setRecurrence(RecurrenceRule.weekly(days).toString());
+        series.setRecurrenceEndDate(baseDate.plusWeeks(16).minusDays(1).atTime(LocalTime.MAX.withNano(0)));
+
+        return series;
     }
 
     /**
@@ -774,7 +777,7 @@ public class EventDialogController implements Initializable {
 
         String userId = authService.getCurrentUser().getUserId();
 
-        CompletableFuture.supplyAsync(() -> {
+        DatabaseExecutor.getInstance().supplyAsync(() -> {
             try {
                 return eventService.getEventsForDate(userId, date);
             } catch (Exception e) {
@@ -1086,38 +1089,29 @@ public class EventDialogController implements Initializable {
         if (!validateForm()) return;
 
         try {
-            // Obtener eventos (uno o varios si es recurrente)
-            List<Event> newEvents = createRecurringEventsFromForm();
-
-            // Verificar si hay conflictos para cada evento
-            boolean hasConflicts = false;
-            for (Event event : newEvents) {
-                if (!isTimeSlotAvailable(event)) {
-                    hasConflicts = true;
-                    break;
-                }
-            }
-
-            if (hasConflicts) {
+            // Obtener el evento (o la serie si es recurrente)
+            Event newEvent = createRecurringEventFromForm();
+
+            // Verificar conflictos de todas las ocurrencias con una sola carga de eventos
+            List<Event> occurrences = expandSeries(newEvent);
+            List<EventConflictDetector.Conflict> conflicts = findConflicts(occurrences);
+            if (!conflicts.isEmpty()) {
+                String message = conflicts.size() == 1
+                        ? "Ya hay un evento en alguno de los horarios seleccionados."
+                        : "Ya hay eventos en " + conflicts.size() + " de los horarios seleccionados.";
+                EventConflictDetector.Conflict first = conflicts.get(0);
                 showAlert("Conflicto de horario",
-                        "Ya hay un evento en alguno de los horarios seleccionados.",
+                        message + "\nPrimer choque: " + first.candidate().getStartDate().toLocalDate() +
+                                " con \"" + first.existing().title() + "\"",
                         Alert.AlertType.WARNING);
                 return;
             }
 
             // Crear eventos de forma asíncrona
-            CompletableFuture.supplyAsync(() -> {
-                boolean allSuccess = true;
-                for (Event event : newEvents) {
-                    if (!eventService.createEvent(event)) {
-                        allSuccess = false;
-                    }
-                }
-                return allSuccess;
-            }).thenAccept(success -> {
+            DatabaseExecutor.getInstance().supplyAsync(() -> eventService.createEvent(newEvent)).thenAccept(success -> {
                 Platform.runLater(() -> {
                     if (success) {
-                        int count = newEvents.size();
+                        int count = occurrences.size();
                         String message = count > 1 ?
                                 count + " eventos creados exitosamente" :
                                 "Evento creado exitosamente";
@@ -1125,7 +1119,7 @@ public class EventDialogController implements Initializable {
                         if (onEventChanged != null) onEventChanged.run();
                         closeDialog();
                     } else {
-                        showAlert("Error", "No se pudieron crear todos los eventos", Alert.AlertType.ERROR);
+                        showAlert("Error", "No se pudieron crear los eventos; no se guardó ninguno", Alert.AlertType.ERROR);
                     }
                 });
             }).exceptionally(throwable -> {
@@ -1159,7 +1153,7 @@ public class EventDialogController implements Initializable {
             }
 
             // Actualizar evento de forma asíncrona
-            CompletableFuture.supplyAsync(() -> {
+            DatabaseExecutor.getInstance().supplyAsync(() -> {
                 return eventService.updateEvent(currentEvent);
             }).thenAccept(success -> {
                 Platform.runLater(() -> {
@@ -1203,7 +1197,7 @@ public class EventDialogController implements Initializable {
         Optional<ButtonType> result = confirmation.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
             // Eliminar evento de forma asíncrona
-            CompletableFuture.supplyAsync(() -> {
+            DatabaseExecutor.getInstance().supplyAsync(() -> {
                 return eventService.deleteEvent(currentEvent.getEventId());
             }).thenAccept(success -> {
                 Platform.runLater(() -> {
@@ -1423,31 +1417,41 @@ public class EventDialogController implements Initializable {
      * Verifica si el horario está disponible
      */
     private boolean isTimeSlotAvailable(Event newEvent) {
+        return findConflicts(List.of(newEvent)).isEmpty();
+    }
+
+    /**
+     * Sustituye una serie recurrente por todas sus ocurrencias (para validar choques antes de guardar)
+     */
+    private List<Event> expandSeries(Event event) {
+        List<Event> expanded = new ArrayList<>();
+        if (!event.hasRecurrence() || event.getRecurrenceEndDate() == null) {
+            expanded.add(event);
+            return expanded;
+        }
+        int emitted = RecurrenceExpander.expand(event, null, event.getStartDate().toLocalDate(),
+                event.getRecurrenceEndDate().toLocalDate(), expanded::add);
+        if (emitted < 0) expanded.add(event);
+        return expanded;
+    }
+
+    /**
+     * Busca choques de horario de los eventos dados contra los eventos del usuario
+     */
+    private List<EventConflictDetector.Conflict> findConflicts(List<Event> newEvents) {
         try {
             if (authService.getCurrentUser() == null) {
-                return true; // Si no hay usuario, no verificar
+                return List.of(); // Si no hay usuario, no verificar
             }
 
             String userId = authService.getCurrentUser().getUserId();
-            List<Event> events = eventService.getEventsForDate(userId, newEvent.getStartDate().toLocalDate());
-
-            for (Event e : events) {
-                // Omitir el evento actual al editar
-                if ("EDIT".equals(mode) && currentEvent != null &&
-                        e.getEventId().equals(currentEvent.getEventId())) {
-                    continue;
-                }
+            // Omitir el evento actual al editar
+            String excludedEventId = "EDIT".equals(mode) && currentEvent != null ? currentEvent.getEventId() : null;
 
-                // Verificar solapamiento
-                if (newEvent.getStartDate().isBefore(e.getEndDate()) &&
-                        newEvent.getEndDate().isAfter(e.getStartDate())) {
-                    return false;
-                }
-            }
-            return true;
+            return EventConflictDetector.forCandidates(userId, newEvents, excludedEventId).findConflicts(newEvents);
         } catch (Exception e) {
             System.err.println("Error validando solapamiento: " + e.getMessage());
-            return true; // En caso de error, permitir la creación
+            return List.of(); // En caso de error, permitir la creación
         }
     }
 
@@ -125,38 +125,35 @@ public class LoginController implements Initializable {
 
         setLoginInProgress(true);
 
-        Platform.runLater(() -> {
-            try {
-                System.out.println("\n--- PROCESANDO LOGIN ---");
-                System.out.println("Email: " + email);
-                System.out.println("Hora: " + TimeService.getInstance().now());
-
-                // Verificar si las credenciales son correctas pero la cuenta está desactivada
-                if (authService.authenticateOnly(email, password)) {
-                    User user = authService.findUserByEmail(email);
-                    if (user != null && !user.isActive()) {
-                        showError("Tu cuenta está desactivada, favor de contactar con un administrador.");
-                        setLoginInProgress(false);
-                        return;
-                    }
-
-                    // Si las credenciales son correctas y la cuenta está activa
-                    if (authService.login(email, password)) {
-                        handleSuccessfulLogin();
-                    } else {
-                        showError("Credenciales incorrectas. Verifica tu correo y contraseña.");
-                        setLoginInProgress(false);
-                    }
-                } else {
+        System.out.println("\n--- PROCESANDO LOGIN ---");
+        System.out.println("Email: " + email);
+        System.out.println("Hora: " + TimeService.getInstance().now());
+
+        // La consulta (y el reintento tras el arranque online) corre fuera del hilo de JavaFX
+        authService.loginAsync(email, password).thenAccept(result -> Platform.runLater(() -> {
+            switch (result) {
+                case SUCCESS -> handleSuccessfulLogin();
+                case INACTIVE -> {
+                    showError("Tu cuenta está desactivada, favor de contactar con un administrador.");
+                    setLoginInProgress(false);
+                }
+                case ERROR -> {
+                    showError("Error de conexión. Verifica la base de datos.");
+                    setLoginInProgress(false);
+                }
+                default -> {
                     showError("Credenciales incorrectas. Verifica tu correo y contraseña.");
                     setLoginInProgress(false);
                 }
-            } catch (Exception e) {
-                System.err.println("Error durante la autenticación: " + e.getMessage());
-                e.printStackTrace();
+            }
+        })).exceptionally(throwable -> {
+            Platform.runLater(() -> {
+                System.err.println("Error durante la autenticación: " + throwable.getMessage());
+                throwable.printStackTrace();
                 showError("Error de conexión. Verifica la base de datos.");
                 setLoginInProgress(false);
-            }
+            });
+            return null;
         });
     }
 
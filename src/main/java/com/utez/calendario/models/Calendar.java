@@ -1,7 +1,12 @@
 package com.utez.calendario.models;
 
 import com.utez.calendario.config.DatabaseConfig;
+import com.utez.calendario.config.LocalReplica;
+import com.utez.calendario.config.SqlCatalog;
 import com.utez.calendario.services.CalendarSharingService;
+import com.utez.calendario.services.EventService;
+import com.utez.calendario.services.OfflineSyncService;
+import com.utez.calendario.services.TimeService;
 
 import java.util.List;
 import java.util.ArrayList;
@@ -12,7 +17,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Modelo que representa un calendario en el sistema
@@ -28,11 +36,16 @@ public class Calendar {
     private LocalDateTime modifiedDate;
     private boolean isDefault; // Añadido para marcar si es calendario predeterminado
     private boolean isShared;
+    private long rowVersion; // ROW_VERSION leído: base de la baja condicional al sincronizar
 
     private static Connection getConnection() throws SQLException {
         return com.utez.calendario.config.DatabaseConfig.getConnection();
     }
 
+    private static Connection getReadConnection() throws SQLException {
+        return com.utez.calendario.config.DatabaseConfig.getReadConnection();
+    }
+
     // Constructores
     public Calendar() {}
 
@@ -59,44 +72,21 @@ public class Calendar {
 
     // Funciones para el administrador de calendarios (pronto xd)
     public List<Event> getCurrentMonthEvents() {
-        List<Event> events = new ArrayList<>();
-
-        String sql = """
-            SELECT EVENT_ID, TITLE, START_DATE, END_DATE, LOCATION, ALL_DAY, DESCRIPTION
-            FROM EVENTS 
-            WHERE CALENDAR_ID = ? 
-            AND START_DATE >= TRUNC(SYSDATE, 'MM') 
-            AND START_DATE < ADD_MONTHS(TRUNC(SYSDATE, 'MM'), 1)
-            AND ACTIVE = 'Y'
-            ORDER BY START_DATE
-        """;
-
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, this.calendarId);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Event event = new Event();
-                    event.setEventId(rs.getString("EVENT_ID"));
-                    event.setCalendarId(this.calendarId);
-                    event.setTitle(rs.getString("TITLE"));
-                    event.setStartDate(rs.getObject("START_DATE", LocalDateTime.class));
-                    event.setEndDate(rs.getObject("END_DATE", LocalDateTime.class));
-                    event.setLocation(rs.getString("LOCATION"));
-                    event.setAllDay(rs.getString("ALL_DAY").charAt(0));
-                    event.setDescription(rs.getString("DESCRIPTION"));
-                    event.setActive('Y');
-
-                    events.add(event);
-                }
-            }
+        try (Stream<Event> events = streamCurrentMonthEvents()) {
+            return events.collect(Collectors.toList());
         } catch (Exception e) {
             System.err.println("Error obteniendo eventos del calendario " + this.calendarId + ": " + e.getMessage());
+            return new ArrayList<>();
         }
+    }
 
-        return events;
+    /**
+     * Eventos que se solapan con el mes actual, leídos con cursor y con las series recurrentes
+     * ya expandidas; cerrar el Stream libera la conexión
+     */
+    public Stream<Event> streamCurrentMonthEvents() throws SQLException {
+        YearMonth month = YearMonth.from(TimeService.getInstance().now());
+        return EventService.getInstance().streamEventsForCalendar(this.calendarId, month.atDay(1), month.atEndOfMonth());
     }
 
     public String getDisplayName() {
@@ -108,13 +98,13 @@ public class Calendar {
 
         String sql = """
             SELECT CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, 
-                   CREATED_DATE, MODIFIED_DATE 
+                   CREATED_DATE, MODIFIED_DATE, ROW_VERSION 
             FROM CALENDARS 
             WHERE ACTIVE = 'Y'
             ORDER BY MODIFIED_DATE DESC
         """;
 
-        try (Connection conn = getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -127,6 +117,7 @@ public class Calendar {
                 calendar.setColor(rs.getString("COLOR"));
                 calendar.setCreatedDate(rs.getObject("CREATED_DATE", LocalDateTime.class));
                 calendar.setModifiedDate(rs.getObject("MODIFIED_DATE", LocalDateTime.class));
+                calendar.setRowVersion(rs.getLong("ROW_VERSION"));
                 calendar.setActive('Y');
 
                 // Determinar si es un calendario predeterminado
@@ -151,7 +142,7 @@ public class Calendar {
         List<Calendar> calendars = new ArrayList<>();
         String sql = "SELECT * FROM CALENDARS WHERE OWNER_ID = ? AND ACTIVE = 'Y'";
 
-        try (Connection conn = getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, ownerId);
@@ -169,6 +160,7 @@ public class Calendar {
                 calendar.setCreatedDate(rs.getTimestamp("CREATED_DATE").toLocalDateTime());
                 calendar.setModifiedDate(rs.getTimestamp("MODIFIED_DATE") != null ?
                         rs.getTimestamp("MODIFIED_DATE").toLocalDateTime() : null);
+                calendar.setRowVersion(rs.getLong("ROW_VERSION"));
                 calendar.setDefault(rs.getBoolean("IS_DEFAULT"));
 
                 calendars.add(calendar);
@@ -198,7 +190,7 @@ public class Calendar {
 
         String sql = """
             SELECT CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, 
-                   CREATED_DATE, MODIFIED_DATE 
+                   CREATED_DATE, MODIFIED_DATE, ROW_VERSION 
             FROM CALENDARS 
             WHERE OWNER_ID = ? 
             AND ACTIVE = 'Y'
@@ -217,7 +209,7 @@ public class Calendar {
             CREATED_DATE DESC
         """;
 
-        try (Connection conn = getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, userId);
@@ -232,6 +224,7 @@ public class Calendar {
                     calendar.setColor(rs.getString("COLOR"));
                     calendar.setCreatedDate(rs.getObject("CREATED_DATE", LocalDateTime.class));
                     calendar.setModifiedDate(rs.getObject("MODIFIED_DATE", LocalDateTime.class));
+                    calendar.setRowVersion(rs.getLong("ROW_VERSION"));
                     calendar.setActive('Y');
 
                     // Determinar si es predeterminado o personalizado
@@ -260,13 +253,13 @@ public class Calendar {
     public static Calendar getCalendarById(String calendarId) {
         String sql = """
             SELECT CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, 
-                   CREATED_DATE, MODIFIED_DATE 
+                   CREATED_DATE, MODIFIED_DATE, ROW_VERSION 
             FROM CALENDARS 
             WHERE CALENDAR_ID = ? 
             AND ACTIVE = 'Y'
         """;
 
-        try (Connection conn = getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, calendarId);
@@ -281,6 +274,7 @@ public class Calendar {
                     calendar.setColor(rs.getString("COLOR"));
                     calendar.setCreatedDate(rs.getObject("CREATED_DATE", LocalDateTime.class));
                     calendar.setModifiedDate(rs.getObject("MODIFIED_DATE", LocalDateTime.class));
+                    calendar.setRowVersion(rs.getLong("ROW_VERSION"));
                     calendar.setActive('Y');
 
                     // Determinar si es predeterminado
@@ -306,7 +300,7 @@ public class Calendar {
     public int getActiveEventsCount() {
         String sql = "SELECT COUNT(*) FROM EVENTS WHERE CALENDAR_ID = ? AND ACTIVE = 'Y'";
 
-        try (Connection conn = getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, this.calendarId);
@@ -401,6 +395,14 @@ public class Calendar {
         this.isDefault = isDefault;
     }
 
+    public long getRowVersion() {
+        return rowVersion;
+    }
+
+    public void setRowVersion(long rowVersion) {
+        this.rowVersion = rowVersion;
+    }
+
     public boolean isShared() {
         return isShared;
     }
@@ -422,7 +424,7 @@ public class Calendar {
         AND ACTIVE = 'Y'
     """;
 
-        try (Connection conn = getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, userId);
@@ -482,6 +484,12 @@ public class Calendar {
             stmt.setString(5, color);
 
             int result = stmt.executeUpdate();
+            if (result > 0) {
+                // Sin conexión el alta solo llegó a SQLite: sus eventos dependen de que se reenvíe
+                OfflineSyncService.getInstance().addPendingCalendar("INSERT",
+                        new Calendar(calendarId, userId, name, description, color));
+                LocalReplica.getInstance().markStale(LocalReplica.Table.CALENDARS);
+            }
             return result > 0;
 
         } catch (SQLException e) {
@@ -498,7 +506,7 @@ public class Calendar {
 
         String sql = """
         SELECT CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, 
-               CREATED_DATE, MODIFIED_DATE 
+               CREATED_DATE, MODIFIED_DATE, ROW_VERSION 
         FROM CALENDARS 
         WHERE OWNER_ID = ?
         AND NAME NOT IN ('Mis Clases', 'Tareas y Proyectos', 'Personal', 'Exámenes')
@@ -506,7 +514,7 @@ public class Calendar {
         ORDER BY CREATED_DATE DESC
     """;
 
-        try (Connection conn = getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, userId);
@@ -521,6 +529,7 @@ public class Calendar {
                     calendar.setColor(rs.getString("COLOR"));
                     calendar.setCreatedDate(rs.getObject("CREATED_DATE", LocalDateTime.class));
                     calendar.setModifiedDate(rs.getObject("MODIFIED_DATE", LocalDateTime.class));
+                    calendar.setRowVersion(rs.getLong("ROW_VERSION"));
                     calendar.setActive('Y');
                     calendar.setDefault(false); // No es predeterminado
 
@@ -542,7 +551,7 @@ public class Calendar {
 
         String sql = """
         SELECT CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, 
-               CREATED_DATE, MODIFIED_DATE 
+               CREATED_DATE, MODIFIED_DATE, ROW_VERSION 
         FROM CALENDARS 
         WHERE OWNER_ID = ?
         AND NAME IN ('Mis Clases', 'Tareas y Proyectos', 'Personal', 'Exámenes')
@@ -556,7 +565,7 @@ public class Calendar {
         END
     """;
 
-        try (Connection conn = getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, userId);
@@ -571,6 +580,7 @@ public class Calendar {
                     calendar.setColor(rs.getString("COLOR"));
                     calendar.setCreatedDate(rs.getObject("CREATED_DATE", LocalDateTime.class));
                     calendar.setModifiedDate(rs.getObject("MODIFIED_DATE", LocalDateTime.class));
+                    calendar.setRowVersion(rs.getLong("ROW_VERSION"));
                     calendar.setActive('Y');
                     calendar.setDefault(true); // Es predeterminado
 
@@ -597,7 +607,7 @@ public class Calendar {
 
         String sql = """
         UPDATE CALENDARS 
-        SET ACTIVE = 'N', MODIFIED_DATE = CURRENT_TIMESTAMP 
+        SET ACTIVE = 'N', MODIFIED_DATE = CURRENT_TIMESTAMP, ROW_VERSION = ROW_VERSION + 1 
         WHERE CALENDAR_ID = ? 
         AND ACTIVE = 'Y'
         AND NAME NOT IN ('Mis Clases', 'Tareas y Proyectos', 'Personal', 'Exámenes')
@@ -606,12 +616,17 @@ public class Calendar {
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
+            Long baseVersion = DatabaseConfig.isOfflineMode() ? readRowVersion(conn, calendarId) : null;
             stmt.setString(1, calendarId);
 
             int rowsAffected = stmt.executeUpdate();
 
             if (rowsAffected > 0) {
                 System.out.println("Calendario " + calendarId + " marcado como inactivo");
+                // Sin conexión la baja solo llegó a SQLite: se reenvía condicionada a la versión leída
+                OfflineSyncService.getInstance().addPendingDelete("CALENDARS", calendarId, baseVersion);
+                LocalReplica.getInstance().markStale(LocalReplica.Table.CALENDARS);
+                EventService.getInstance().clearEventCache(); // Sus eventos ya no deben mostrarse
                 return true;
             } else {
                 System.err.println("No se pudo eliminar el calendario " + calendarId +
@@ -626,6 +641,34 @@ public class Calendar {
         }
     }
 
+    /**
+     * ROW_VERSION actual del calendario en SQLite (lectura local, solo offline), o null si no existe
+     */
+    private static Long readRowVersion(Connection conn, String calendarId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SqlCatalog.CALENDAR_ROW_VERSION.sql())) {
+            stmt.setString(1, calendarId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Calendario tal como está en SQLite (lectura local, solo offline), o null si no existe
+     */
+    private static Calendar readSnapshot(Connection conn, String calendarId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SqlCatalog.CALENDAR_SNAPSHOT.sql())) {
+            stmt.setString(1, calendarId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) return null;
+                Calendar calendar = new Calendar(calendarId, rs.getString("OWNER_ID"), rs.getString("NAME"),
+                        rs.getString("DESCRIPTION"), rs.getString("COLOR"));
+                calendar.setRowVersion(rs.getLong("ROW_VERSION"));
+                return calendar;
+            }
+        }
+    }
+
     /**
      * Elimina permanentemente un calendario personalizado de la base de datos
      * CUIDADO: Esta operación no se puede deshacer
@@ -669,6 +712,10 @@ public class Calendar {
 
                     if (calendarsDeleted > 0) {
                         conn.commit(); // Confirmar transacción
+                        // Los borrados físicos no llegan por la sincronización incremental
+                        LocalReplica replica = LocalReplica.getInstance();
+                        replica.writeThroughSql(deleteEventsSQL, stmt -> stmt.setString(1, calendarId), LocalReplica.Table.EVENTS);
+                        replica.writeThroughSql(deleteCalendarSQL, stmt -> stmt.setString(1, calendarId), LocalReplica.Table.CALENDARS);
                         System.out.println("Calendario " + calendarId + " eliminado permanentemente");
                         return true;
                     } else {
@@ -698,7 +745,7 @@ public class Calendar {
     public static boolean reactivateCalendar(String calendarId) {
         String sql = """
         UPDATE CALENDARS 
-        SET ACTIVE = 'Y', MODIFIED_DATE = CURRENT_TIMESTAMP 
+        SET ACTIVE = 'Y', MODIFIED_DATE = CURRENT_TIMESTAMP, ROW_VERSION = ROW_VERSION + 1 
         WHERE CALENDAR_ID = ? 
         AND ACTIVE = 'N'
     """;
@@ -706,12 +753,16 @@ public class Calendar {
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
+            Calendar snapshot = DatabaseConfig.isOfflineMode() ? readSnapshot(conn, calendarId) : null;
             stmt.setString(1, calendarId);
 
             int rowsAffected = stmt.executeUpdate();
 
             if (rowsAffected > 0) {
                 System.out.println("Calendario " + calendarId + " reactivado");
+                // Sin conexión se reenvía condicionada a la versión inactiva que había en SQLite
+                if (snapshot != null) OfflineSyncService.getInstance().addPendingCalendar("REACTIVATE", snapshot);
+                LocalReplica.getInstance().markStale(LocalReplica.Table.CALENDARS);
                 return true;
             } else {
                 System.err.println("No se pudo reactivar el calendario " + calendarId);
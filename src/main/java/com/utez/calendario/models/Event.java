@@ -22,7 +22,9 @@ public class Event {
     private char active;
     private LocalDateTime createdDate;
     private LocalDateTime modifiedDate;
+    private long rowVersion; // ROW_VERSION leído: base de la actualización condicional al sincronizar
     private String calendarColor;
+    private boolean shared; // true si proviene de un calendario compartido con el usuario
 
 
 
@@ -194,10 +196,22 @@ public class Event {
         this.modifiedDate = modifiedDate;
     }
 
+    public long getRowVersion() {
+        return rowVersion;
+    }
+
+    public void setRowVersion(long rowVersion) {
+        this.rowVersion = rowVersion;
+    }
+
     public String getCalendarColor() { return calendarColor; }
 
     public void setCalendarColor(String calendarColor) { this.calendarColor = calendarColor; }
 
+    public boolean isShared() { return shared; }
+
+    public void setShared(boolean shared) { this.shared = shared; }
+
     // Métodos utilitarios
     public boolean isAllDay() {
         return allDay == 'Y';
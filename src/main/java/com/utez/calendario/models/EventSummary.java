@@ -0,0 +1,42 @@
+package com.utez.calendario.models;
+
+import com.utez.calendario.utils.RecurrenceExpander;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección ligera de un evento para las cuadrículas (mes, semana, día y año).
+ * Solo lleva lo que se pinta en la celda; la descripción, ubicación y demás
+ * detalles se cargan con EventService.getEventDetails al abrir el diálogo.
+ */
+public record EventSummary(String eventId,
+                           String calendarId,
+                           String title,
+                           LocalDateTime startDate,
+                           LocalDateTime endDate,
+                           boolean allDay,
+                           String recurrence,
+                           LocalDateTime recurrenceEndDate,
+                           String calendarColor,
+                           boolean shared) {
+
+    public static EventSummary of(Event event) {
+        return new EventSummary(event.getEventId(), event.getCalendarId(), event.getTitle(),
+                event.getStartDate(), event.getEndDate(), event.isAllDay(),
+                event.getRecurrence(), event.getRecurrenceEndDate(),
+                event.getCalendarColor(), event.isShared());
+    }
+
+    public boolean hasRecurrence() {
+        return recurrence != null && !recurrence.isBlank();
+    }
+
+    /**
+     * Ocurrencia de esta serie en la fecha dada
+     */
+    public EventSummary occurrence(LocalDate date, LocalDateTime start, LocalDateTime end) {
+        return new EventSummary(RecurrenceExpander.occurrenceId(eventId, date), calendarId, title,
+                start, end, allDay, recurrence, recurrenceEndDate, calendarColor, shared);
+    }
+}
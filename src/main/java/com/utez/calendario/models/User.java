@@ -1,5 +1,6 @@
 package com.utez.calendario.models;
 import com.utez.calendario.config.DatabaseConfig;
+import com.utez.calendario.config.SqlCatalog;
 import com.utez.calendario.controllers.AdminOverviewController;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -32,6 +33,10 @@ public class User {
 
     }
 
+    private static Connection getReadConnection() throws SQLException {
+        return com.utez.calendario.config.DatabaseConfig.getReadConnection();
+    }
+
     private static AdminOverviewController dashboardController;
 
     // Datos para la consulta
@@ -47,30 +52,25 @@ public class User {
     public static DashboardData getDashboardData() {
         DashboardData data = new DashboardData();
 
-        // ✅ Consulta optimizada usando las tablas que SÍ existen
-        String sql = """
-        SELECT 
-                (SELECT COUNT(*) FROM users WHERE role != 'admin') as total_users,
-                (SELECT COUNT(*) FROM users WHERE role = 'alumno' AND active = 'Y') as active_students,
-                (SELECT COUNT(*) FROM EVENTS WHERE ACTIVE = 'Y' 
-                 AND EXTRACT(MONTH FROM START_DATE) = EXTRACT(MONTH FROM SYSDATE) 
-                 AND EXTRACT(YEAR FROM START_DATE) = EXTRACT(YEAR FROM SYSDATE)) as events_month,
-                (SELECT COUNT(*) FROM EVENTS WHERE ACTIVE = 'Y' 
-                 AND START_DATE > SYSDATE) as upcoming_events,
-                (SELECT COUNT(*) FROM CALENDARS WHERE ACTIVE = 'Y') as active_calendars
-            FROM DUAL
-        """;
+        // ✅ Límites del mes calculados en Java: la misma consulta sirve en Oracle y en SQLite
+        LocalDateTime now = TimeService.getInstance().now();
+        LocalDateTime monthStart = now.toLocalDate().withDayOfMonth(1).atStartOfDay();
 
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+        try (Connection conn = getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(SqlCatalog.DASHBOARD_COUNTS.sql())) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(monthStart));
+            stmt.setTimestamp(2, Timestamp.valueOf(monthStart.plusMonths(1)));
+            stmt.setTimestamp(3, Timestamp.valueOf(now));
 
-            if (rs.next()) {
-                data.totalUsers = rs.getInt("total_users");
-                data.activeStudents = rs.getInt("active_students");
-                data.eventsThisMonth = rs.getInt("events_month");
-                data.upcomingEvents = rs.getInt("upcoming_events");
-                data.activeCalendars = rs.getInt("active_calendars");
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    data.totalUsers = rs.getInt("total_users");
+                    data.activeStudents = rs.getInt("active_students");
+                    data.eventsThisMonth = rs.getInt("events_month");
+                    data.upcomingEvents = rs.getInt("upcoming_events");
+                    data.activeCalendars = rs.getInt("active_calendars");
+                }
             }
         } catch (SQLException e) {
             System.err.println("Error al obtener datos del dashboard: " + e.getMessage());
@@ -83,27 +83,15 @@ public class User {
         List<User> users = new ArrayList<>();
         int offset = page * pageSize;
 
-        String filterClause = includeAdmins ? "" : "WHERE u.role != 'admin'";
-        String limitClause = (page >= 0 && pageSize > 0) ?
-                "WHERE rn BETWEEN ? AND ?" : "WHERE ROWNUM <= 1000";
+        // Sin paginación se devuelven las primeras 1000 filas, como antes
+        boolean paged = page >= 0 && pageSize > 0;
 
-        String sql = String.format("""
-            SELECT * FROM (
-                SELECT u.*, ROW_NUMBER() OVER (ORDER BY CREATED_DATE DESC) as rn
-                FROM users u
-                %s
-            ) %s
-            """, filterClause, limitClause);
-
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(SqlCatalog.USERS_PAGE.sql())) {
 
-            if (page >= 0 && pageSize > 0) {
-
-                stmt.setInt(1, offset + 1);
-                stmt.setInt(2, offset + pageSize);
-
-            }
+            stmt.setString(1, includeAdmins ? "Y" : "N");
+            stmt.setInt(2, paged ? offset + 1 : 1);
+            stmt.setInt(3, paged ? offset + pageSize : 1000);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
@@ -122,7 +110,7 @@ public class User {
     public boolean searchEmail(String email) {
         String sql = "SELECT email FROM users WHERE email = ?";
 
-        try (Connection conn = getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, email);
@@ -438,7 +426,7 @@ public class User {
         /// /todos menos el admin xd
         String sql = "SELECT ROLE, COUNT(*) AS cantidad FROM USERS WHERE LOWER(ROLE) != 'admin' GROUP BY ROLE";
 
-        try (Connection conn = getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -469,7 +457,7 @@ public class User {
         ORDER BY eventos_activos DESC
         """;
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -1,15 +1,20 @@
 package com.utez.calendario.services;
 
 import com.utez.calendario.config.DatabaseConfig;
+import com.utez.calendario.config.LocalReplica;
+import com.utez.calendario.config.SqlCatalog;
 import com.utez.calendario.models.User;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class AuthService {
 
     private static final String USER_ID_PREFIX = "USR";
     private static final int ID_DIGITS = 7;
+    private static final long BOOTSTRAP_WAIT_SECONDS = 5;
 
     private static AuthService instance;
     private User currentUser;
@@ -29,6 +34,10 @@ public class AuthService {
 
     }
 
+    private static Connection getReadConnection() throws SQLException {
+        return com.utez.calendario.config.DatabaseConfig.getReadConnection();
+    }
+
     public boolean login(String email, String password) {
         System.out.println("=== INTENTO DE LOGIN ===");
         System.out.println("Email: " + email);
@@ -40,9 +49,78 @@ public class AuthService {
             return false;
         }
 
+        if (attemptLogin(email, password) == LoginResult.SUCCESS) {
+            return true;
+        }
+
+        System.out.println("✗ LOGIN FALLIDO");
+        return false;
+    }
+
+    public enum LoginResult { SUCCESS, WRONG_PASSWORD, USER_NOT_FOUND, INACTIVE, ERROR }
+
+    /**
+     * Verifica credenciales e inicia sesión en DatabaseExecutor, sin ocupar el hilo de quien llama.
+     * Durante el arranque solo se lee SQLite: si el usuario aún no está en la réplica se reintenta una vez
+     * cuando el arranque termina conectado a Oracle (como máximo BOOTSTRAP_WAIT_SECONDS después).
+     * Una contraseña incorrecta nunca se reintenta.
+     */
+    public CompletableFuture<LoginResult> loginAsync(String email, String password) {
+        CompletableFuture<Boolean> bootstrap = DatabaseConfig.isBootstrapping() ? DatabaseConfig.getBootstrapResult() : null;
+
+        return DatabaseExecutor.getInstance().supplyAsync(() -> verifyAndLogin(email, password))
+                .thenCompose(result -> {
+                    if (result != LoginResult.USER_NOT_FOUND || bootstrap == null) {
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    System.out.println("⏳ Usuario no encontrado en la base local, reintentando al conectar con Oracle...");
+                    return bootstrap.copy()
+                            .completeOnTimeout(false, BOOTSTRAP_WAIT_SECONDS, TimeUnit.SECONDS)
+                            .exceptionally(e -> false)
+                            .thenCompose(online -> online
+                                    ? DatabaseExecutor.getInstance().supplyAsync(() -> verifyAndLogin(email, password))
+                                    : CompletableFuture.completedFuture(result));
+                });
+    }
+
+    private LoginResult verifyAndLogin(String email, String password) {
+        LoginResult check = checkCredentials(email, password);
+        if (check != LoginResult.SUCCESS) {
+            System.out.println("✗ LOGIN FALLIDO: " + check);
+            return check;
+        }
+        return attemptLogin(email, password);
+    }
+
+    /**
+     * Distingue usuario inexistente, contraseña incorrecta y cuenta desactivada con una sola lectura
+     */
+    private static LoginResult checkCredentials(String email, String password) {
+        String sql = "SELECT PASSWORD, ACTIVE FROM USERS WHERE EMAIL = ?";
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, email);
+            ResultSet rs = pstmt.executeQuery();
+
+            if (!rs.next()) {
+                return LoginResult.USER_NOT_FOUND;
+            }
+            if (!password.equals(rs.getString("PASSWORD"))) {
+                return LoginResult.WRONG_PASSWORD;
+            }
+            return "Y".equals(rs.getString("ACTIVE")) ? LoginResult.SUCCESS : LoginResult.INACTIVE;
+
+        } catch (SQLException e) {
+            System.err.println("Error al verificar credenciales: " + e.getMessage());
+            return LoginResult.ERROR;
+        }
+    }
+
+    private LoginResult attemptLogin(String email, String password) {
         String sql = "SELECT * FROM USERS WHERE EMAIL = ? AND ACTIVE = 'Y'";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, email);
@@ -64,18 +142,19 @@ public class AuthService {
 
                     // Actualizar último login
                     updateLastLogin(currentUser.getUserId());
+                    LocalReplica.getInstance().requestRefresh(); // Calendarios al día antes de abrir la vista
 
                     System.out.println("✓ LOGIN EXITOSO: " + currentUser.getFullName());
-                    return true;
+                    return LoginResult.SUCCESS;
                 }
+                return LoginResult.WRONG_PASSWORD;
             }
+            return LoginResult.USER_NOT_FOUND;
 
         } catch (SQLException e) {
             System.err.println("Error en login: " + e.getMessage());
+            return LoginResult.ERROR;
         }
-
-        System.out.println("✗ LOGIN FALLIDO");
-        return false;
     }
 
     /**
@@ -83,7 +162,7 @@ public class AuthService {
      */
     public boolean authenticateOnly(String email, String password) {
         String sql = "SELECT COUNT(*) FROM USERS WHERE EMAIL = ? AND PASSWORD = ? AND ACTIVE = 'Y'";
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, email);
@@ -106,7 +185,7 @@ public class AuthService {
      */
     public User findUserByEmail(String email) {
         String sql = "SELECT * FROM USERS WHERE EMAIL = ?";
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, email);
@@ -217,14 +296,8 @@ public class AuthService {
 
     // Obtiene el último USER_ID
     private static String getLastUserIdFromDatabase(String prefix) {
-        String sql = "SELECT USER_ID FROM ("
-                + "SELECT USER_ID FROM USERS "
-                + "WHERE USER_ID LIKE ? "
-                + "ORDER BY TO_NUMBER(SUBSTR(USER_ID, 4)) DESC"
-                + ") WHERE ROWNUM = 1";
-
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(SqlCatalog.USER_LAST_ID_WITH_PREFIX.sql())) {
 
             stmt.setString(1, prefix + "%");
             try (ResultSet rs = stmt.executeQuery()) {
@@ -237,15 +310,9 @@ public class AuthService {
 
     // Obtiene el último código de docente de la columna MATRICULA
     private static String getLastDocenteCodeFromDatabase() {
-        String sql = "SELECT MATRICULA FROM ("
-                + "SELECT MATRICULA FROM USERS "
-                + "WHERE MATRICULA LIKE 'DOC%' "
-                + "ORDER BY TO_NUMBER(SUBSTR(MATRICULA, 4)) DESC"
-                + ") WHERE ROWNUM = 1";
-
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(SqlCatalog.USER_LAST_DOCENTE_CODE.sql());
+             ResultSet rs = stmt.executeQuery()) {
 
             return rs.next() ? rs.getString("MATRICULA") : null;
         } catch (SQLException e) {
@@ -258,6 +325,7 @@ public class AuthService {
             System.out.println("Logout: " + currentUser.getFullName());
         }
         currentUser = null;
+        EventService.getInstance().clearCalendarCache();
     }
 
     public User getCurrentUser() {
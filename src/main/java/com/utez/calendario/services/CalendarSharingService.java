@@ -1,5 +1,8 @@
 package com.utez.calendario.services;
 
+import com.utez.calendario.config.DatabaseConfig;
+import com.utez.calendario.config.LocalReplica;
+import com.utez.calendario.config.SqlCatalog;
 import com.utez.calendario.models.Calendar;
 import com.utez.calendario.services.TimeService;
 import java.sql.Connection;
@@ -17,12 +20,8 @@ public class CalendarSharingService {
     // Singleton instance
     private static CalendarSharingService instance;
 
-    // ✅ Pool de threads optimizado para BD
-    private static final ExecutorService DATABASE_EXECUTOR =
-            ForkJoinPool.commonPool();
-
-    // ✅ Connection pooling simulado con ThreadLocal para evitar conflictos
-    private static final ThreadLocal<Connection> CONNECTION_CACHE = new ThreadLocal<>();
+    // ✅ Ejecutor compartido de BD: hilos virtuales limitados al tamaño del pool
+    private static final Executor DATABASE_EXECUTOR = DatabaseExecutor.getInstance();
 
     // ✅ Cache de validaciones para evitar consultas repetidas
     private final ConcurrentHashMap<String, Boolean> calendarExistsCache = new ConcurrentHashMap<>();
@@ -136,20 +135,9 @@ public class CalendarSharingService {
 
             List<Calendar> calendars = new ArrayList<>();
 
-            // ✅ CONSULTA SÚPER OPTIMIZADA con HINTS de Oracle
-            String sql = """
-                SELECT /*+ FIRST_ROWS(10) INDEX(c PK_CALENDARS) INDEX(cp PK_CALENDAR_PERMISSIONS) */
-                       c.CALENDAR_ID, c.NAME, c.DESCRIPTION, c.COLOR, c.OWNER_ID, 
-                       c.ACTIVE, c.CREATED_DATE, c.MODIFIED_DATE, c.IS_SHARED,
-                       cp.PERMISSION_TYPE, cp.SHARED_DATE
-                FROM CALENDARS c
-                JOIN CALENDAR_PERMISSIONS cp ON c.CALENDAR_ID = cp.CALENDAR_ID
-                WHERE cp.USER_ID = ? AND cp.ACTIVE = 'Y' AND c.ACTIVE = 'Y'
-                ORDER BY c.NAME
-            """;
-
-            try (Connection conn = getOptimizedConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+            // ✅ Hints de Oracle solo cuando el dialecto los admite (ver SqlCatalog)
+            try (Connection conn = getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(SqlCatalog.SHARED_CALENDARS_FOR_USER.sql())) {
 
                 stmt.setFetchSize(100); // ✅ Optimización de fetch
                 stmt.setString(1, userId);
@@ -186,6 +174,9 @@ public class CalendarSharingService {
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
+            // Sin conexión la baja se reenvía por PERMISSION_ID: se leen antes de desactivarlos
+            List<String> permissionIds = DatabaseConfig.isOfflineMode()
+                    ? findActivePermissionIds(conn, calendarId, userId) : List.of();
             stmt.setTimestamp(1, Timestamp.valueOf(now));
             stmt.setString(2, calendarId);
             stmt.setString(3, userId);
@@ -194,6 +185,11 @@ public class CalendarSharingService {
             if (rowsAffected == 0) {
                 throw new RuntimeException("No se encontró el permiso a revocar");
             }
+            for (String permissionId : permissionIds) {
+                OfflineSyncService.getInstance().addPendingDelete("CALENDAR_PERMISSIONS", permissionId, null);
+            }
+            LocalReplica.getInstance().markStale(LocalReplica.Table.CALENDAR_PERMISSIONS);
+            EventService.getInstance().clearEventCache();
         }
     }
 
@@ -240,7 +236,7 @@ public class CalendarSharingService {
         String placeholders = emails.stream().map(e -> "?").collect(Collectors.joining(","));
         String sql = "SELECT EMAIL, USER_ID FROM USERS WHERE LOWER(EMAIL) IN (" + placeholders + ") AND ACTIVE = 'Y'";
 
-        try (Connection conn = getOptimizedConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             // Set parameters
@@ -288,7 +284,7 @@ public class CalendarSharingService {
         String ownerSql = "SELECT OWNER_ID FROM CALENDARS WHERE CALENDAR_ID = ? AND OWNER_ID IN (" + placeholders + ")";
         Set<String> ownerIds = new HashSet<>();
 
-        try (Connection conn = getOptimizedConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(ownerSql)) {
 
             stmt.setString(1, calendarId);
@@ -309,7 +305,7 @@ public class CalendarSharingService {
         String permSql = "SELECT USER_ID FROM CALENDAR_PERMISSIONS WHERE CALENDAR_ID = ? AND USER_ID IN (" + placeholders + ") AND ACTIVE = 'Y'";
         Set<String> existingPermissions = new HashSet<>();
 
-        try (Connection conn = getOptimizedConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(permSql)) {
 
             stmt.setString(1, calendarId);
@@ -358,30 +354,29 @@ public class CalendarSharingService {
 
         if (emails.isEmpty()) return;
 
-        String sql = """
-            INSERT INTO CALENDAR_PERMISSIONS (
-                PERMISSION_ID, CALENDAR_ID, USER_ID, 
-                PERMISSION_TYPE, SHARED_DATE, ACTIVE
-            ) VALUES (?, ?, ?, 'VIEW', SYSTIMESTAMP, 'Y')
-        """;
-
         try (Connection conn = getOptimizedConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SqlCatalog.PERMISSION_INSERT_VIEW.sql())) {
 
             conn.setAutoCommit(false); // ✅ Transacción para mejor performance
 
+            Map<String, String> userIdByPermissionId = new LinkedHashMap<>();
             for (String email : emails) {
                 String userId = emailToUserIdMap.get(email);
                 if (userId != null) {
-                    stmt.setString(1, generatePermissionId());
+                    String permissionId = generatePermissionId();
+                    stmt.setString(1, permissionId);
                     stmt.setString(2, calendarId);
                     stmt.setString(3, userId);
                     stmt.addBatch(); // ✅ Batch insert
+                    userIdByPermissionId.put(permissionId, userId);
                 }
             }
 
             int[] results = stmt.executeBatch();
             conn.commit();
+            userIdByPermissionId.forEach((permissionId, userId) -> OfflineSyncService.getInstance()
+                    .addPendingPermission(permissionId, calendarId, userId, "VIEW", null));
+            LocalReplica.getInstance().markStale(LocalReplica.Table.CALENDAR_PERMISSIONS);
 
             System.out.println("⚡ Insertados " + results.length + " permisos en lote");
 
@@ -396,7 +391,7 @@ public class CalendarSharingService {
     private boolean permissionExists(String calendarId, String userId) throws SQLException {
         String sql = "SELECT COUNT(*) FROM CALENDAR_PERMISSIONS " +
                 "WHERE CALENDAR_ID = ? AND USER_ID = ? AND ACTIVE = 'Y'";
-        try (Connection conn = getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, calendarId);
@@ -406,31 +401,46 @@ public class CalendarSharingService {
         }
     }
 
+    private static List<String> findActivePermissionIds(Connection conn, String calendarId, String userId)
+            throws SQLException {
+        String sql = "SELECT PERMISSION_ID FROM CALENDAR_PERMISSIONS " +
+                "WHERE CALENDAR_ID = ? AND USER_ID = ? AND ACTIVE = 'Y'";
+        List<String> permissionIds = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, calendarId);
+            stmt.setString(2, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    permissionIds.add(rs.getString(1));
+                }
+            }
+        }
+        return permissionIds;
+    }
+
     private void insertCalendarPermission(String calendarId, String userId) throws SQLException {
         String permissionId = generatePermissionId();
 
-        // Usar fecha actual
-        LocalDateTime now = LocalDateTime.now(); // Cambia por TimeService.getInstance().now() si tienes la clase
-        String sql = "INSERT INTO CALENDAR_PERMISSIONS (PERMISSION_ID, CALENDAR_ID, USER_ID, PERMISSION_TYPE, SHARED_DATE, ACTIVE) VALUES (?, ?, ?, 'VIEW', ?, 'Y')";
-
+        // La variante SQLite del catálogo llena GRANTED_BY, obligatorio en la base local
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SqlCatalog.PERMISSION_INSERT_VIEW.sql())) {
 
             stmt.setString(1, permissionId);
             stmt.setString(2, calendarId);
             stmt.setString(3, userId);
-            stmt.setTimestamp(4, Timestamp.valueOf(now));
             int rowsAffected = stmt.executeUpdate();
 
             if (rowsAffected == 0) {
                 throw new SQLException("No se pudo insertar el permiso");
             }
+            OfflineSyncService.getInstance().addPendingPermission(permissionId, calendarId, userId, "VIEW", null);
+            LocalReplica.getInstance().markStale(LocalReplica.Table.CALENDAR_PERMISSIONS);
         }
     }
 
     private String getUserIdByEmail(String email) throws SQLException {
         String sql = "SELECT USER_ID FROM USERS WHERE LOWER(EMAIL) = ? AND ACTIVE = 'Y'";
-        try (Connection conn = getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, email.toLowerCase());
@@ -445,7 +455,7 @@ public class CalendarSharingService {
 
     private boolean isOwner(String calendarId, String userId) throws SQLException {
         String sql = "SELECT COUNT(*) FROM CALENDARS WHERE CALENDAR_ID = ? AND OWNER_ID = ?";
-        try (Connection conn = getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, calendarId);
@@ -469,12 +479,15 @@ public class CalendarSharingService {
     }
 
     private Connection getOptimizedConnection() throws SQLException {
-        Connection conn = CONNECTION_CACHE.get();
-        if (conn == null || conn.isClosed()) {
-            conn = com.utez.calendario.config.DatabaseConfig.getConnection();
-            CONNECTION_CACHE.set(conn);
-        }
-        return conn;
+        // Cada hilo virtual es nuevo: una caché por hilo no reutilizaría nada, el pool de Hikari ya lo hace
+        return com.utez.calendario.config.DatabaseConfig.getConnection();
+    }
+
+    /**
+     * Conexión para consultas (pool de lectores en modo offline)
+     */
+    private Connection getReadConnection() throws SQLException {
+        return com.utez.calendario.config.DatabaseConfig.getReadConnection();
     }
 
     private Calendar createCalendarFromResultSetOptimized(ResultSet rs) throws SQLException {
@@ -565,7 +578,7 @@ public class CalendarSharingService {
 
     private boolean calendarExists(String calendarId) throws SQLException {
         String sql = "SELECT ACTIVE FROM CALENDARS WHERE CALENDAR_ID = ?";
-        try (Connection conn = getOptimizedConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, calendarId);
             try (ResultSet rs = stmt.executeQuery()) {
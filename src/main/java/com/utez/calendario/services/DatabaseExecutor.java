@@ -0,0 +1,211 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.config.DatabaseConfig;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Ejecutor compartido para todo el trabajo de base de datos.
+ *
+ * Cada tarea corre en su propio hilo virtual, pero solo entran a la BD tantas tareas
+ * como conexiones tiene el pool activo (Oracle 5, SQLite 1 escritor + lectores, MySQL 10). El resto espera
+ * en un semáforo justo en lugar de bloquearse dentro de Hikari, y se mide cuántas
+ * esperan y cuánto tiempo.
+ *
+ * Una tarea que ya tiene permiso y encola otra (p. ej. un método síncrono que hace join)
+ * la ejecuta en el mismo hilo, para no bloquearse con un pool de una sola conexión.
+ */
+public class DatabaseExecutor implements Executor {
+    private static DatabaseExecutor instance;
+
+    // Permisos usados mientras no hay pool configurado
+    private static final int DEFAULT_PERMITS = 1;
+    // Esperas más largas que esto se registran en consola como saturación
+    private static final long SLOW_WAIT_MILLIS = 500;
+
+    private final ExecutorService threads =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("db-worker-", 0).factory());
+    private final ResizableSemaphore permits = new ResizableSemaphore(DEFAULT_PERMITS);
+    private final ThreadLocal<Boolean> holdsPermit = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private int configuredPermits = DEFAULT_PERMITS;
+
+    // Métricas
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private DatabaseExecutor() {}
+
+    public static synchronized DatabaseExecutor getInstance() {
+        if (instance == null) {
+            instance = new DatabaseExecutor();
+        }
+        return instance;
+    }
+
+    /**
+     * Ejecuta una consulta de forma asíncrona respetando el tamaño del pool
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, this);
+    }
+
+    /**
+     * Ejecuta una operación sin resultado de forma asíncrona respetando el tamaño del pool
+     */
+    public CompletableFuture<Void> runAsync(Runnable task) {
+        return CompletableFuture.runAsync(task, this);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (holdsPermit.get()) {
+            task.run(); // Tarea anidada: ya cuenta con un permiso
+            return;
+        }
+        if (threads.isShutdown()) {
+            throw new RejectedExecutionException("DatabaseExecutor detenido");
+        }
+
+        submitted.incrementAndGet();
+        threads.execute(() -> runWithPermit(task));
+    }
+
+    private void runWithPermit(Runnable task) {
+        syncPermitsWithPool();
+
+        long waitStart = System.nanoTime();
+        queued.incrementAndGet();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+            return;
+        } finally {
+            queued.decrementAndGet();
+        }
+        recordWait(System.nanoTime() - waitStart);
+
+        running.incrementAndGet();
+        holdsPermit.set(Boolean.TRUE);
+        try {
+            task.run();
+            completed.incrementAndGet();
+        } catch (RuntimeException | Error e) {
+            failed.incrementAndGet();
+            throw e;
+        } finally {
+            holdsPermit.remove();
+            running.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        if (waitMillis >= SLOW_WAIT_MILLIS) {
+            System.out.println("⏳ Tarea de BD esperó " + waitMillis + "ms por conexión (en cola: " + queued.get() + ")");
+        }
+    }
+
+    /**
+     * Ajusta los permisos a las conexiones disponibles (cambia al pasar de online a offline)
+     */
+    private synchronized void syncPermitsWithPool() {
+        int connections = DatabaseConfig.getMaxConcurrentConnections();
+        int poolSize = connections > 0 ? connections : DEFAULT_PERMITS;
+        if (poolSize == configuredPermits) return;
+
+        int delta = poolSize - configuredPermits;
+        if (delta > 0) {
+            permits.release(delta);
+        } else {
+            permits.reducePermits(-delta);
+        }
+        System.out.println("🔧 DatabaseExecutor: permisos " + configuredPermits + " → " + poolSize);
+        configuredPermits = poolSize;
+    }
+
+    public DatabaseExecutorStats getStats() {
+        long done = completed.get() + failed.get();
+        long avgWaitMillis = done > 0 ? TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / done) : 0;
+        int limit;
+        synchronized (this) {
+            limit = configuredPermits;
+        }
+        return new DatabaseExecutorStats(limit, queued.get(), running.get(), submitted.get(),
+                completed.get(), failed.get(), avgWaitMillis, TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+    }
+
+    public void shutdown() {
+        threads.shutdown();
+        try {
+            if (!threads.awaitTermination(5, TimeUnit.SECONDS)) {
+                threads.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            threads.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Semáforo cuyo número de permisos puede reducirse en caliente
+     */
+    private static class ResizableSemaphore extends Semaphore {
+        private static final long serialVersionUID = 1L;
+
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+    /**
+     * Estado del ejecutor para diagnosticar saturación del pool
+     */
+    public static class DatabaseExecutorStats {
+        public final int permits;
+        public final int queueDepth;
+        public final int running;
+        public final long submitted;
+        public final long completed;
+        public final long failed;
+        public final long avgWaitMillis;
+        public final long maxWaitMillis;
+
+        public DatabaseExecutorStats(int permits, int queueDepth, int running, long submitted,
+                                     long completed, long failed, long avgWaitMillis, long maxWaitMillis) {
+            this.permits = permits;
+            this.queueDepth = queueDepth;
+            this.running = running;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.failed = failed;
+            this.avgWaitMillis = avgWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Permisos: %d, en ejecución: %d, en cola: %d, completadas: %d, fallidas: %d, " +
+                            "espera promedio: %dms, espera máxima: %dms",
+                    permits, running, queueDepth, completed, failed, avgWaitMillis, maxWaitMillis);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.models.Event;
+import com.utez.calendario.models.EventSummary;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Detecta choques de horario entre eventos nuevos (o editados) y los eventos existentes del usuario.
+ *
+ * Los eventos existentes se cargan una sola vez para todo el periodo, se ordenan por inicio y se
+ * indexan con un árbol de segmentos del fin máximo. Cada candidato se resuelve con una búsqueda
+ * binaria y un descenso por el árbol, por lo que verificar m candidatos contra n eventos cuesta
+ * O((n + m) log n) en lugar de una consulta por candidato.
+ */
+public class EventConflictDetector {
+
+    /**
+     * Un candidato que choca con un evento existente
+     */
+    public record Conflict(Event candidate, EventSummary existing) {}
+
+    private final EventSummary[] byStart;
+    // Árbol de segmentos: maxEnd[1] es la raíz, las hojas empiezan en leaves; null equivale a -infinito
+    private final LocalDateTime[] maxEnd;
+    private final int leaves;
+
+    /**
+     * @param existingEvents eventos ya guardados del usuario
+     * @param excludedEventId evento a ignorar (el que se está editando), puede ser null
+     */
+    public EventConflictDetector(List<EventSummary> existingEvents, String excludedEventId) {
+        List<EventSummary> filtered = new ArrayList<>(existingEvents.size());
+        for (EventSummary event : existingEvents) {
+            if (event.startDate() == null) continue;
+            if (excludedEventId != null && excludedEventId.equals(event.eventId())) continue;
+            filtered.add(event);
+        }
+        filtered.sort(Comparator.comparing(EventSummary::startDate));
+
+        byStart = filtered.toArray(new EventSummary[0]);
+        int size = 1;
+        while (size < byStart.length) size <<= 1;
+        leaves = size;
+        maxEnd = new LocalDateTime[2 * size];
+        for (int i = 0; i < byStart.length; i++) {
+            maxEnd[size + i] = endOf(byStart[i]);
+        }
+        for (int node = size - 1; node >= 1; node--) {
+            maxEnd[node] = later(maxEnd[2 * node], maxEnd[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Carga con una sola consulta los eventos del usuario que cubren el periodo de todos los candidatos
+     */
+    public static EventConflictDetector forCandidates(String userId, List<Event> candidates, String excludedEventId) {
+        LocalDate from = null;
+        LocalDate to = null;
+        for (Event candidate : candidates) {
+            if (candidate.getStartDate() == null) continue;
+            LocalDate start = candidate.getStartDate().toLocalDate();
+            LocalDate end = endOf(candidate).toLocalDate();
+            if (from == null || start.isBefore(from)) from = start;
+            if (to == null || end.isAfter(to)) to = end;
+        }
+
+        if (from == null) {
+            return new EventConflictDetector(List.of(), excludedEventId);
+        }
+        try {
+            List<EventSummary> existing = EventService.getInstance().getEventSummariesForDateRange(userId, from, to);
+            return new EventConflictDetector(existing, excludedEventId);
+        } catch (SQLException e) {
+            System.err.println("Error cargando eventos para validar choques: " + e.getMessage());
+            return new EventConflictDetector(List.of(), excludedEventId);
+        }
+    }
+
+    /**
+     * Devuelve todos los candidatos que chocan, cada uno con un evento existente con el que se solapa
+     */
+    public List<Conflict> findConflicts(List<Event> candidates) {
+        List<Conflict> conflicts = new ArrayList<>();
+        for (Event candidate : candidates) {
+            EventSummary existing = findConflict(candidate);
+            if (existing != null) {
+                conflicts.add(new Conflict(candidate, existing));
+            }
+        }
+        return conflicts;
+    }
+
+    public boolean hasConflict(Event candidate) {
+        return findConflict(candidate) != null;
+    }
+
+    /**
+     * Devuelve un evento existente que se solapa con el candidato, o null si el horario está libre
+     */
+    public EventSummary findConflict(Event candidate) {
+        if (candidate.getStartDate() == null || byStart.length == 0) return null;
+
+        LocalDateTime start = candidate.getStartDate();
+        LocalDateTime end = endOf(candidate);
+
+        // Eventos [0, limit) empiezan antes de que termine el candidato
+        int limit = firstStartingAtOrAfter(end);
+        if (limit == 0) return null;
+
+        // De ellos, el de inicio más tardío que termina después del inicio del candidato
+        int index = lastEndingAfter(1, 0, leaves, limit, start);
+        return index < 0 ? null : byStart[index];
+    }
+
+    /**
+     * Índice más alto en [0, limit) dentro del nodo [low, high) cuyo fin es posterior a instant, o -1.
+     * Un nodo completamente dentro del límite con fin máximo posterior siempre tiene respuesta, así que
+     * solo se retrocede en los nodos que cruzan el límite: O(log n).
+     */
+    private int lastEndingAfter(int node, int low, int high, int limit, LocalDateTime instant) {
+        if (low >= limit || maxEnd[node] == null || !maxEnd[node].isAfter(instant)) return -1;
+        if (high - low == 1) return low;
+
+        int mid = (low + high) >>> 1;
+        int right = lastEndingAfter(2 * node + 1, mid, high, limit, instant);
+        return right >= 0 ? right : lastEndingAfter(2 * node, low, mid, limit, instant);
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isAfter(b) ? a : b;
+    }
+
+    private int firstStartingAtOrAfter(LocalDateTime instant) {
+        int low = 0;
+        int high = byStart.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (byStart[mid].startDate().isBefore(instant)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static LocalDateTime endOf(Event event) {
+        return event.getEndDate() != null ? event.getEndDate() : event.getStartDate();
+    }
+
+    private static LocalDateTime endOf(EventSummary event) {
+        return event.endDate() != null ? event.endDate() : event.startDate();
+    }
+}
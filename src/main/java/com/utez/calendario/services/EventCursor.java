@@ -0,0 +1,155 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.models.Event;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Cursor de solo avance sobre EVENTS ordenado por (START_DATE, EVENT_ID).
+ *
+ * Mantiene abiertos la conexión, la sentencia y el ResultSet mientras se recorre y
+ * trae las filas en bloques de fetchSize, así que la memoria no crece con el tamaño
+ * del calendario. Se cierra solo al agotarse, al cerrar el Stream o con close().
+ * Solo recorre eventos simples; EventService.streamEventsForCalendar intercala las ocurrencias
+ * de las series recurrentes.
+ */
+public final class EventCursor implements Iterator<Event>, AutoCloseable {
+
+    /**
+     * Posición de continuación (keyset): la siguiente página empieza después de esta fila
+     */
+    public record ContinuationToken(LocalDateTime startDate, String eventId) {
+
+        private static final char SEPARATOR = '|';
+
+        /**
+         * Token opaco para enviar a la UI o guardar entre páginas
+         */
+        public String encode() {
+            String raw = startDate + String.valueOf(SEPARATOR) + eventId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static ContinuationToken decode(String token) {
+            if (token == null || token.isBlank()) return null;
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(SEPARATOR);
+                if (separator <= 0) throw new IllegalArgumentException("Token de continuación inválido");
+                return new ContinuationToken(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Token de continuación inválido: " + token, e);
+            }
+        }
+    }
+
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+
+    private Event next;
+    private boolean exhausted;
+    private boolean closed;
+    private ContinuationToken lastPosition;
+    private long rowsRead;
+
+    /**
+     * Toma posesión de los recursos: los cierra aunque la lectura falle
+     */
+    EventCursor(Connection connection, PreparedStatement statement, ResultSet resultSet) {
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) return true;
+        if (exhausted) return false;
+
+        try {
+            if (resultSet.next()) {
+                next = EventRowMapper.mapDetail(resultSet);
+                return true;
+            }
+        } catch (SQLException e) {
+            close();
+            throw new IllegalStateException("Error leyendo el cursor de eventos: " + e.getMessage(), e);
+        }
+
+        exhausted = true;
+        close(); // Liberar la conexión en cuanto se agota
+        return false;
+    }
+
+    @Override
+    public Event next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        Event event = next;
+        next = null;
+        lastPosition = new ContinuationToken(event.getStartDate(), event.getEventId());
+        rowsRead++;
+        return event;
+    }
+
+    /**
+     * Siguiente evento sin consumirlo
+     */
+    Event peek() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return next;
+    }
+
+    /**
+     * Posición de la última fila entregada, o null si aún no se leyó ninguna
+     */
+    public ContinuationToken getContinuationToken() {
+        return lastPosition;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Stream secuencial sobre el cursor; cerrarlo (try-with-resources) cierra la conexión
+     */
+    public Stream<Event> stream() {
+        Spliterator<Event> spliterator = Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        exhausted = true;
+        next = null;
+
+        closeQuietly(resultSet);
+        closeQuietly(statement);
+        closeQuietly(connection);
+    }
+
+    private static void closeQuietly(AutoCloseable resource) {
+        if (resource == null) return;
+        try {
+            resource.close();
+        } catch (Exception e) {
+            System.err.println("Error cerrando recurso del cursor de eventos: " + e.getMessage());
+        }
+    }
+}
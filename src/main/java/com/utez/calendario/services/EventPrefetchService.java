@@ -0,0 +1,143 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.config.DatabaseConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Precarga en segundo plano el periodo anterior y siguiente al que se acaba de mostrar,
+ * dejando los eventos en la caché de ventanas de EventService.
+ *
+ * - Una nueva navegación cancela las precargas del usuario: las que no empezaron ya no corren y las
+ *   que están consultando descartan su resultado sin llenar la caché.
+ * - Nunca compite con las cargas en primer plano: solo usa conexiones libres del pool
+ *   y se omite si hay hilos esperando conexión.
+ * - Corre en DatabaseExecutor, así que cuenta contra los mismos permisos que el resto del trabajo de BD.
+ */
+public class EventPrefetchService {
+    private static EventPrefetchService instance;
+
+    // Máximo de precargas simultáneas, siempre dejando al menos una conexión para primer plano
+    private static final int MAX_CONCURRENT_PREFETCHES = 2;
+
+    private final Semaphore budget = new Semaphore(MAX_CONCURRENT_PREFETCHES);
+    private final Map<String, Batch> inFlight = new ConcurrentHashMap<>();
+    private volatile boolean stopped;
+
+    private EventPrefetchService() {}
+
+    public static synchronized EventPrefetchService getInstance() {
+        if (instance == null) {
+            instance = new EventPrefetchService();
+        }
+        return instance;
+    }
+
+    /**
+     * Precarga el mes anterior y el siguiente al mes mostrado
+     */
+    public void prefetchAdjacentMonths(String userId, YearMonth month) {
+        YearMonth previous = month.minusMonths(1);
+        YearMonth next = month.plusMonths(1);
+        schedule(userId, List.of(
+                new LocalDate[]{next.atDay(1), next.atEndOfMonth()},
+                new LocalDate[]{previous.atDay(1), previous.atEndOfMonth()}));
+    }
+
+    /**
+     * Precarga la semana anterior y la siguiente a la semana mostrada
+     */
+    public void prefetchAdjacentWeeks(String userId, LocalDate startOfWeek) {
+        schedule(userId, List.of(
+                new LocalDate[]{startOfWeek.plusWeeks(1), startOfWeek.plusWeeks(1).plusDays(6)},
+                new LocalDate[]{startOfWeek.minusWeeks(1), startOfWeek.minusWeeks(1).plusDays(6)}));
+    }
+
+    /**
+     * Precarga el día anterior y el siguiente al día mostrado
+     */
+    public void prefetchAdjacentDays(String userId, LocalDate date) {
+        schedule(userId, List.of(
+                new LocalDate[]{date.plusDays(1), date.plusDays(1)},
+                new LocalDate[]{date.minusDays(1), date.minusDays(1)}));
+    }
+
+    /**
+     * Cancela las precargas pendientes del usuario (llamar al iniciar una carga en primer plano)
+     */
+    public void cancelPending(String userId) {
+        Batch previous = inFlight.remove(userId);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    public void shutdown() {
+        inFlight.values().forEach(Batch::cancel);
+        inFlight.clear();
+        stopped = true; // DatabaseExecutor es compartido: solo se dejan de programar precargas
+    }
+
+    private void schedule(String userId, List<LocalDate[]> ranges) {
+        if (userId == null || stopped) return;
+
+        cancelPending(userId);
+
+        Batch batch = new Batch(new AtomicBoolean(), new ArrayList<>());
+        for (LocalDate[] range : ranges) {
+            // Una precarga cancelada antes de obtener permiso ya no llega a ejecutarse
+            batch.futures().add(DatabaseExecutor.getInstance().runAsync(
+                    () -> prefetch(userId, range[0], range[1], batch.cancelled())));
+        }
+        inFlight.put(userId, batch);
+    }
+
+    private void prefetch(String userId, LocalDate startDate, LocalDate endDate, AtomicBoolean cancelled) {
+        if (stopped || cancelled.get() || !hasSpareConnection()) return;
+        if (!budget.tryAcquire()) return;
+
+        try {
+            // cancel(true) no interrumpe una consulta JDBC: la bandera se revisa antes de llenar la caché
+            EventService.getInstance().prefetchEventSummaries(userId, startDate, endDate, cancelled::get);
+        } catch (CancellationException e) {
+            // El usuario ya navegó a otro periodo
+        } catch (Exception e) {
+            // Una precarga fallida solo significa un fallo de caché más adelante
+            System.err.println("Precarga omitida (" + startDate + " a " + endDate + "): " + e.getMessage());
+        } finally {
+            budget.release();
+        }
+    }
+
+    /**
+     * Solo precargar si el pool tiene conexiones de sobra y nadie espera por una
+     */
+    private boolean hasSpareConnection() {
+        HikariDataSource dataSource = DatabaseConfig.getDataSource();
+        if (dataSource == null || dataSource.isClosed()) return false;
+        if (dataSource.getMaximumPoolSize() <= 1) return false; // SQLite: una sola conexión, reservada a primer plano
+
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) return false;
+        return pool.getThreadsAwaitingConnection() == 0
+                && pool.getActiveConnections() < dataSource.getMaximumPoolSize() - 1;
+    }
+
+    /**
+     * Precargas programadas en una misma navegación y la bandera que las cancela
+     */
+    private record Batch(AtomicBoolean cancelled, List<Future<?>> futures) {
+        void cancel() {
+            cancelled.set(true);
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.models.Event;
+import com.utez.calendario.models.EventSummary;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Proyecciones de EVENTS con orden de columnas fijo y lectura por índice.
+ *
+ * Leer por posición evita la búsqueda del nombre de columna en cada fila; las consultas
+ * deben listar las columnas exactamente en el orden de SUMMARY_COLUMNS / DETAIL_COLUMNS
+ * y añadir sus columnas extra a continuación.
+ */
+final class EventRowMapper {
+
+    // Proyección para cuadrículas: seguida de COLOR y SHARED
+    static final String SUMMARY_COLUMNS =
+            "e.EVENT_ID, e.CALENDAR_ID, e.TITLE, e.START_DATE, e.END_DATE, e.ALL_DAY, " +
+                    "e.RECURRENCE, e.RECURRENCE_END_DATE";
+    static final int SUMMARY_COLOR = 9;
+    static final int SUMMARY_SHARED = 10;
+
+    // Proyección completa para diálogos y notificaciones
+    static final String DETAIL_COLUMNS =
+            "e.EVENT_ID, e.CALENDAR_ID, e.CREATOR_ID, e.TITLE, e.DESCRIPTION, e.START_DATE, e.END_DATE, " +
+                    "e.ALL_DAY, e.LOCATION, e.RECURRENCE, e.RECURRENCE_END_DATE, e.ROW_VERSION";
+    static final int DETAIL_COLUMN_COUNT = 12;
+
+    private EventRowMapper() {}
+
+    /**
+     * Lee una fila de SUMMARY_COLUMNS + COLOR + SHARED
+     */
+    static EventSummary mapSummary(ResultSet rs) throws SQLException {
+        return new EventSummary(
+                rs.getString(1),
+                rs.getString(2),
+                rs.getString(3),
+                toLocalDateTime(rs.getTimestamp(4)),
+                toLocalDateTime(rs.getTimestamp(5)),
+                "Y".equals(rs.getString(6)),
+                rs.getString(7),
+                toLocalDateTime(rs.getTimestamp(8)),
+                rs.getString(SUMMARY_COLOR),
+                "Y".equals(rs.getString(SUMMARY_SHARED)));
+    }
+
+    /**
+     * Lee una fila de DETAIL_COLUMNS
+     */
+    static Event mapDetail(ResultSet rs) throws SQLException {
+        Event event = new Event();
+        event.setEventId(rs.getString(1));
+        event.setCalendarId(rs.getString(2));
+        event.setCreatorId(rs.getString(3));
+        event.setTitle(rs.getString(4));
+        event.setDescription(rs.getString(5));
+        event.setStartDate(toLocalDateTime(rs.getTimestamp(6)));
+        event.setEndDate(toLocalDateTime(rs.getTimestamp(7)));
+
+        String allDay = rs.getString(8);
+        if (allDay != null && !allDay.isEmpty()) event.setAllDay(allDay.charAt(0));
+
+        event.setLocation(rs.getString(9));
+        event.setRecurrence(rs.getString(10));
+        event.setRecurrenceEndDate(toLocalDateTime(rs.getTimestamp(11)));
+        event.setRowVersion(rs.getLong(12));
+        return event;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -1,28 +1,72 @@
 package com.utez.calendario.services;
 
 import com.utez.calendario.config.DatabaseConfig;
-import com.utez.calendario.models.Calendar;
+import com.utez.calendario.config.LocalReplica;
+import com.utez.calendario.config.SqlCatalog;
 import com.utez.calendario.models.Event;
+import com.utez.calendario.models.EventSummary;
+import com.utez.calendario.utils.RecurrenceExpander;
 import java.sql.*;
-import java.sql.Date;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class EventService {
     private static EventService instance;
-    // Pool de hilos dedicado para operaciones de BD
-    private final ExecutorService executor = Executors.newFixedThreadPool(5);
-    // Caché de calendarios por usuario {userId -> {calendarName -> calendarId}}
-    private final Map<String, Map<String, String>> userCalendars = new HashMap<>();
+    // Ejecutor compartido de BD (hilos virtuales limitados al tamaño del pool)
+    private final DatabaseExecutor executor = DatabaseExecutor.getInstance();
+    // Caché de calendarios de la sesión {userId -> {calendarName -> calendarId}}; la usan varios hilos del ejecutor
+    private final Map<String, Map<String, String>> userCalendars = new ConcurrentHashMap<>();
+    // Calendarios predeterminados {nombre, descripción, color}, en el orden de CALENDAR_PROVISION_DEFAULTS
+    private static final String[][] DEFAULT_CALENDARS = {
+            {"Mis Clases", "Calendario principal", "#1976D2"},
+            {"Tareas y Proyectos", "Calendario para tareas académicas", "#FF5722"},
+            {"Personal", "Calendario de eventos personales", "#4CAF50"},
+            {"Exámenes", "Calendario de exámenes", "#9C27B0"}
+    };
+    // Caché de ventanas de eventos por usuario y mes (propios + compartidos)
+    private final EventWindowCache eventWindowCache = new EventWindowCache();
+    // Réplica SQLite de la base en línea: lecturas de rango sin ir a Oracle
+    private final LocalReplica replica = LocalReplica.getInstance();
+    private static final LocalReplica.Table[] RANGE_TABLES = {
+            LocalReplica.Table.CALENDARS, LocalReplica.Table.CALENDAR_PERMISSIONS,
+            LocalReplica.Table.EVENTS, LocalReplica.Table.EVENT_EXCEPTIONS
+    };
     private static final String DATE_TIME_FORMAT = "yyyy-MM-dd HH:mm:ss";
-
-    private EventService() {}
+    // Solapamiento con el rango [inicio, fin) compartido con SqlCatalog
+    private static final String OVERLAP_CONDITION = SqlCatalog.Fragments.EVENT_OVERLAP;
+    static final String CALENDAR_MONTH_SQL = """
+        SELECT e.EVENT_ID, e.CALENDAR_ID, e.CREATOR_ID, e.TITLE, e.DESCRIPTION,
+               e.START_DATE, e.END_DATE, e.ALL_DAY, e.LOCATION, e.RECURRENCE,
+               e.RECURRENCE_END_DATE, c.COLOR
+        FROM EVENTS e
+        JOIN CALENDARS c ON e.CALENDAR_ID = c.CALENDAR_ID
+        WHERE e.CALENDAR_ID = ?
+        AND e.ACTIVE = 'Y'
+        AND %s
+        ORDER BY e.START_DATE
+    """.formatted(OVERLAP_CONDITION);
+    // Máximo de IDs por cláusula IN al leer excepciones (Oracle admite hasta 1000)
+    private static final int EXCEPTION_LOOKUP_CHUNK = 500;
+    // Filas por viaje de red al leer eventos propios + compartidos (un mes típico cabe en un solo fetch)
+    private static final int SHARED_RANGE_FETCH_SIZE = 250;
+    // Filas por viaje de red en los cursores de eventos (la memoria no depende del total)
+    public static final int DEFAULT_CURSOR_FETCH_SIZE = 500;
+    // Filas por executeBatch al crear eventos en lote
+    static final int BATCH_CHUNK_SIZE = 50;
+
+    private EventService() {
+        // Al cambiar entre SQLite y Oracle los datos en caché pueden no corresponder a la nueva base
+        DatabaseConfig.addDataSourceListener(online -> eventWindowCache.clear());
+    }
 
     public static EventService getInstance() {
         if (instance == null) instance = new EventService();
@@ -148,30 +192,11 @@ public class EventService {
         LocalDate startDate = yearMonth.atDay(1);
         LocalDate endDate = yearMonth.atEndOfMonth();
 
-        String sql = """
-        SELECT e.EVENT_ID, e.CALENDAR_ID, e.CREATOR_ID, e.TITLE, e.DESCRIPTION, 
-               e.START_DATE, e.END_DATE, e.ALL_DAY, e.LOCATION, e.RECURRENCE,
-               e.RECURRENCE_END_DATE, c.COLOR
-        FROM EVENTS e
-        JOIN CALENDARS c ON e.CALENDAR_ID = c.CALENDAR_ID
-        WHERE e.CALENDAR_ID = ?
-        AND e.ACTIVE = 'Y'
-        AND ((e.START_DATE BETWEEN ? AND ?) OR
-             (e.END_DATE BETWEEN ? AND ?) OR
-             (e.START_DATE <= ? AND e.END_DATE >= ?))
-        ORDER BY e.START_DATE
-    """;
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(CALENDAR_MONTH_SQL)) {
 
             stmt.setString(1, calendarId);
-            stmt.setObject(2, startDate.atStartOfDay());
-            stmt.setObject(3, endDate.atTime(23, 59, 59));
-            stmt.setObject(4, startDate.atStartOfDay());
-            stmt.setObject(5, endDate.atTime(23, 59, 59));
-            stmt.setObject(6, endDate.atTime(23, 59, 59));
-            stmt.setObject(7, startDate.atStartOfDay());
+            bindOverlapRange(stmt, 2, startDate, endDate);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
@@ -193,6 +218,7 @@ public class EventService {
                     events.add(event);
                 }
             }
+            return expandRecurring(conn, events, startDate, endDate);
         } catch (SQLException e) {
             logError("Error obteniendo eventos para el calendario " + calendarId + ": " + e.getMessage());
         }
@@ -212,29 +238,20 @@ public class EventService {
         }
 
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION, " +
-                             "START_DATE, END_DATE, ALL_DAY, LOCATION, RECURRENCE, ACTIVE, CREATED_DATE) " +
-                             "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'Y', SYSDATE)")) {
+             PreparedStatement pstmt = conn.prepareStatement(SqlCatalog.EVENT_INSERT.sql())) {
 
             // Generar ID único corto para el evento
             if (event.getEventId() == null || event.getEventId().isEmpty()) {
                 event.setEventId(generateShortId("E"));
             }
 
-            pstmt.setString(1, event.getEventId());
-            pstmt.setString(2, event.getCalendarId());
-            pstmt.setString(3, event.getCreatorId());
-            pstmt.setString(4, event.getTitle());
-            pstmt.setString(5, event.getDescription());
-            pstmt.setTimestamp(6, Timestamp.valueOf(event.getStartDate()));
-            pstmt.setTimestamp(7, Timestamp.valueOf(event.getEndDate()));
-            pstmt.setString(8, String.valueOf(event.getAllDay()));
-            pstmt.setString(9, event.getLocation());
-            pstmt.setString(10, event.getRecurrence());
+            bindInsertEvent(pstmt, event);
 
             int result = pstmt.executeUpdate();
             if (result > 0) {
+                replica.writeThrough(SqlCatalog.EVENT_INSERT, stmt -> bindInsertEvent(stmt, event), LocalReplica.Table.EVENTS);
+                captureOffline("EVENTS", event.getEventId(), "INSERT", SyncPayloadCodec.EventPayload.from(event));
+                eventWindowCache.invalidate(event);
                 log("Evento creado: '" + event.getTitle() + "' (ID: " + event.getEventId() + ")");
                 return true;
             }
@@ -247,27 +264,103 @@ public class EventService {
         }
     }
 
+    /**
+     * Crea varios eventos independientes en una sola transacción (altas masivas; una serie recurrente
+     * se guarda con createEvent como una sola fila maestra).
+     * Usa addBatch/executeBatch por bloques de BATCH_CHUNK_SIZE; si algún bloque falla se revierte todo.
+     */
+    public boolean createEventsBatch(List<Event> events) {
+        if (events == null || events.isEmpty()) return true;
+
+        // Resolver calendario e IDs antes de abrir la transacción
+        Set<String> batchIds = new HashSet<>();
+        for (Event event : events) {
+            if (event.getCalendarId() == null || event.getCalendarId().isEmpty()) {
+                initializeUserCalendars(event.getCreatorId());
+                event.setCalendarId(getDefaultCalendarId(event.getCreatorId()));
+            }
+            if (event.getEventId() == null || event.getEventId().isEmpty()) {
+                String id;
+                do {
+                    id = generateShortId("E");
+                } while (!batchIds.add(id)); // Mismo segundo, mismo prefijo: evitar colisiones dentro del lote
+                event.setEventId(id);
+            } else {
+                batchIds.add(event.getEventId());
+            }
+        }
+
+        long startTime = System.currentTimeMillis();
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            insertBatch(conn, events, SqlCatalog.EVENT_INSERT.sql());
+
+            List<LocalReplica.StatementBinder> rows = new ArrayList<>(events.size());
+            for (Event event : events) {
+                rows.add(stmt -> bindInsertEvent(stmt, event));
+            }
+            replica.writeThrough(SqlCatalog.EVENT_INSERT, rows, LocalReplica.Table.EVENTS);
+            for (Event event : events) {
+                captureOffline("EVENTS", event.getEventId(), "INSERT", SyncPayloadCodec.EventPayload.from(event));
+            }
+            events.forEach(eventWindowCache::invalidate);
+            log("Lote de " + events.size() + " eventos creado en " + (System.currentTimeMillis() - startTime) + "ms");
+            return true;
+        } catch (SQLException e) {
+            logError("Error creando lote de eventos (transacción revertida): " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Inserta los eventos en una sola transacción, en lotes de BATCH_CHUNK_SIZE filas;
+     * cualquier fallo revierte todo el lote
+     */
+    static void insertBatch(Connection conn, List<Event> events, String insertSql) throws SQLException {
+        boolean previousAutoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+
+        try (PreparedStatement pstmt = conn.prepareStatement(insertSql)) {
+            int pending = 0;
+            for (Event event : events) {
+                bindInsertEvent(pstmt, event);
+                pstmt.addBatch();
+                if (++pending == BATCH_CHUNK_SIZE) {
+                    checkBatchResult(pstmt.executeBatch());
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                checkBatchResult(pstmt.executeBatch());
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(previousAutoCommit);
+        }
+    }
+
     /**
      * Actualizar un evento existente
      */
     public boolean updateEvent(Event event) {
+        if (RecurrenceExpander.isOccurrenceId(event.getEventId())) {
+            return detachOccurrence(event);
+        }
+
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "UPDATE EVENTS SET TITLE = ?, DESCRIPTION = ?, START_DATE = ?, END_DATE = ?, " +
-                             "ALL_DAY = ?, LOCATION = ?, RECURRENCE = ?, MODIFIED_DATE = SYSDATE " +
-                             "WHERE EVENT_ID = ? AND ACTIVE = 'Y'")) {
-
-            pstmt.setString(1, event.getTitle());
-            pstmt.setString(2, event.getDescription());
-            pstmt.setTimestamp(3, Timestamp.valueOf(event.getStartDate()));
-            pstmt.setTimestamp(4, Timestamp.valueOf(event.getEndDate()));
-            pstmt.setString(5, String.valueOf(event.getAllDay()));
-            pstmt.setString(6, event.getLocation());
-            pstmt.setString(7, event.getRecurrence());
-            pstmt.setString(8, event.getEventId());
+             PreparedStatement pstmt = conn.prepareStatement(SqlCatalog.EVENT_UPDATE.sql())) {
+
+            bindUpdateEvent(pstmt, event);
 
             int result = pstmt.executeUpdate();
             if (result > 0) {
+                replica.writeThrough(SqlCatalog.EVENT_UPDATE, stmt -> bindUpdateEvent(stmt, event), LocalReplica.Table.EVENTS);
+                captureOffline("EVENTS", event.getEventId(), "UPDATE", SyncPayloadCodec.EventPayload.from(event));
+                event.setRowVersion(event.getRowVersion() + 1); // Igual que ROW_VERSION en la fila
+                eventWindowCache.invalidate(event);
                 log("Evento actualizado: '" + event.getTitle() + "'");
                 return true;
             }
@@ -284,14 +377,22 @@ public class EventService {
      * Eliminar un evento (cambiar ACTIVE a 'N')
      */
     public boolean deleteEvent(String eventId) {
+        if (RecurrenceExpander.isOccurrenceId(eventId)) {
+            return deleteOccurrence(eventId);
+        }
+
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "UPDATE EVENTS SET ACTIVE = 'N', MODIFIED_DATE = SYSDATE WHERE EVENT_ID = ?")) {
+             PreparedStatement pstmt = conn.prepareStatement(SqlCatalog.EVENT_SOFT_DELETE.sql())) {
 
+            Long baseVersion = DatabaseConfig.isOfflineMode() ? readRowVersion(conn, eventId) : null;
             pstmt.setString(1, eventId);
             int result = pstmt.executeUpdate();
 
             if (result > 0) {
+                replica.writeThrough(SqlCatalog.EVENT_SOFT_DELETE, stmt -> stmt.setString(1, eventId), LocalReplica.Table.EVENTS);
+                captureOffline("EVENTS", eventId, "DELETE",
+                        new SyncPayloadCodec.DeletePayload(SyncPayloadCodec.CURRENT_VERSION, baseVersion));
+                eventWindowCache.invalidate(eventId);
                 log("Evento eliminado: " + eventId);
                 return true;
             }
@@ -304,54 +405,309 @@ public class EventService {
         }
     }
 
+    // ========== SERIES RECURRENTES ==========
+    /**
+     * Elimina una sola ocurrencia de una serie registrándola en EVENT_EXCEPTIONS
+     */
+    private boolean deleteOccurrence(String occurrenceId) {
+        String masterId = RecurrenceExpander.masterIdOf(occurrenceId);
+        LocalDate occurrenceDate = RecurrenceExpander.occurrenceDateOf(occurrenceId);
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            insertException(conn, masterId, occurrenceDate);
+            replica.writeThrough(SqlCatalog.EVENT_EXCEPTION_INSERT,
+                    stmt -> bindException(stmt, masterId, occurrenceDate), LocalReplica.Table.EVENT_EXCEPTIONS);
+            captureException(masterId, occurrenceDate);
+            eventWindowCache.invalidate(occurrenceId);
+            log("Ocurrencia eliminada: " + occurrenceId);
+            return true;
+        } catch (SQLException e) {
+            logError("Error eliminando ocurrencia " + occurrenceId + ": " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Edita una sola ocurrencia: en una transacción la excluye de la serie y la guarda como evento independiente
+     */
+    private boolean detachOccurrence(Event occurrence) {
+        String occurrenceId = occurrence.getEventId();
+        String masterId = RecurrenceExpander.masterIdOf(occurrenceId);
+        LocalDate occurrenceDate = RecurrenceExpander.occurrenceDateOf(occurrenceId);
+
+        Event detached = new Event();
+        detached.setEventId(generateShortId("E"));
+        detached.setCalendarId(occurrence.getCalendarId());
+        detached.setCreatorId(occurrence.getCreatorId());
+        detached.setTitle(occurrence.getTitle());
+        detached.setDescription(occurrence.getDescription());
+        detached.setStartDate(occurrence.getStartDate());
+        detached.setEndDate(occurrence.getEndDate());
+        detached.setAllDay(occurrence.getAllDay());
+        detached.setLocation(occurrence.getLocation());
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            boolean previousAutoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(SqlCatalog.EVENT_INSERT.sql())) {
+                insertException(conn, masterId, occurrenceDate);
+                bindInsertEvent(pstmt, detached);
+                pstmt.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(previousAutoCommit);
+            }
+
+            replica.writeThrough(SqlCatalog.EVENT_EXCEPTION_INSERT,
+                    stmt -> bindException(stmt, masterId, occurrenceDate), LocalReplica.Table.EVENT_EXCEPTIONS);
+            replica.writeThrough(SqlCatalog.EVENT_INSERT, stmt -> bindInsertEvent(stmt, detached), LocalReplica.Table.EVENTS);
+            captureException(masterId, occurrenceDate);
+            captureOffline("EVENTS", detached.getEventId(), "INSERT", SyncPayloadCodec.EventPayload.from(detached));
+            eventWindowCache.invalidate(occurrenceId);
+            eventWindowCache.invalidate(detached);
+            occurrence.setEventId(detached.getEventId());
+            occurrence.setRecurrence(null);
+            occurrence.setRecurrenceEndDate(null);
+            log("Ocurrencia " + occurrenceId + " separada de la serie como " + detached.getEventId());
+            return true;
+        } catch (SQLException e) {
+            logError("Error actualizando ocurrencia " + occurrenceId + ": " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static void insertException(Connection conn, String masterId, LocalDate occurrenceDate) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SqlCatalog.EVENT_EXCEPTION_INSERT.sql())) {
+            bindException(pstmt, masterId, occurrenceDate);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Sin conexión la escritura solo llegó a SQLite: se registra para subirla al reconectar
+     */
+    private static void captureOffline(String tableName, String recordId, String operation, SyncPayloadCodec.Payload payload) {
+        if (DatabaseConfig.isOfflineMode()) {
+            OfflineSyncService.getInstance().addPendingChange(tableName, recordId, operation,
+                    payload != null ? SyncPayloadCodec.encode(payload) : null);
+        }
+    }
+
+    /**
+     * ROW_VERSION actual del evento en SQLite (lectura local, solo offline), o null si no existe
+     */
+    private static Long readRowVersion(Connection conn, String eventId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SqlCatalog.EVENT_ROW_VERSION.sql())) {
+            pstmt.setString(1, eventId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+        }
+    }
+
+    private static void captureException(String masterId, LocalDate occurrenceDate) {
+        SyncPayloadCodec.ExceptionPayload exception =
+                new SyncPayloadCodec.ExceptionPayload(SyncPayloadCodec.CURRENT_VERSION, masterId, occurrenceDate);
+        captureOffline("EVENT_EXCEPTIONS", exception.recordId(), "INSERT", exception);
+    }
+
+    private static void bindException(PreparedStatement pstmt, String masterId, LocalDate occurrenceDate) throws SQLException {
+        pstmt.setString(1, masterId);
+        pstmt.setDate(2, java.sql.Date.valueOf(occurrenceDate));
+    }
+
+    /**
+     * Sustituye las filas maestras recurrentes por sus ocurrencias dentro de [startDate, endDate].
+     * Las excepciones de todas las series se leen con la misma conexión y solo si hay series en el resultado.
+     */
+    private static List<Event> expandRecurring(Connection conn, List<Event> rows, LocalDate startDate, LocalDate endDate) {
+        List<Event> masters = new ArrayList<>();
+        for (Event row : rows) {
+            if (row.hasRecurrence()) masters.add(row);
+        }
+        if (masters.isEmpty()) return rows;
+
+        Map<String, Set<LocalDate>> exceptions = loadExceptions(conn, masters.stream().map(Event::getEventId).toList());
+        List<Event> expanded = new ArrayList<>(rows.size() + masters.size() * 4);
+        for (Event row : rows) {
+            if (!row.hasRecurrence()) {
+                expanded.add(row);
+                continue;
+            }
+            int emitted = RecurrenceExpander.expand(row, exceptions.get(row.getEventId()), startDate, endDate, expanded::add);
+            if (emitted < 0 && row.getEndDate() != null && !row.getEndDate().toLocalDate().isBefore(startDate)) {
+                expanded.add(row); // Regla no soportada: se muestra como evento simple
+            }
+        }
+        expanded.sort(Comparator.comparing(Event::getStartDate));
+        return expanded;
+    }
+
+    /**
+     * Igual que expandRecurring, para las proyecciones de las cuadrículas
+     */
+    private static List<EventSummary> expandRecurringSummaries(Connection conn, List<EventSummary> rows,
+                                                        LocalDate startDate, LocalDate endDate) {
+        List<String> masterIds = new ArrayList<>();
+        for (EventSummary row : rows) {
+            if (row.hasRecurrence()) masterIds.add(row.eventId());
+        }
+        if (masterIds.isEmpty()) return rows;
+
+        Map<String, Set<LocalDate>> exceptions = loadExceptions(conn, masterIds);
+        List<EventSummary> expanded = new ArrayList<>(rows.size() + masterIds.size() * 4);
+        for (EventSummary row : rows) {
+            if (!row.hasRecurrence()) {
+                expanded.add(row);
+                continue;
+            }
+            int emitted = RecurrenceExpander.expand(row.recurrence(), row.startDate(), row.endDate(),
+                    row.recurrenceEndDate(), exceptions.get(row.eventId()), startDate, endDate,
+                    (date, start, end) -> expanded.add(row.occurrence(date, start, end)));
+            if (emitted < 0 && row.endDate() != null && !row.endDate().toLocalDate().isBefore(startDate)) {
+                expanded.add(row); // Regla no soportada: se muestra como evento simple
+            }
+        }
+        expanded.sort(Comparator.comparing(EventSummary::startDate));
+        return expanded;
+    }
+
+    private static Map<String, Set<LocalDate>> loadExceptions(Connection conn, List<String> masterIds) {
+        Map<String, Set<LocalDate>> exceptions = new HashMap<>();
+        for (int from = 0; from < masterIds.size(); from += EXCEPTION_LOOKUP_CHUNK) {
+            List<String> chunk = masterIds.subList(from, Math.min(masterIds.size(), from + EXCEPTION_LOOKUP_CHUNK));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT EVENT_ID, OCCURRENCE_DATE FROM EVENT_EXCEPTIONS WHERE EVENT_ID IN (" + placeholders + ")")) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setString(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        java.sql.Date date = rs.getDate("OCCURRENCE_DATE");
+                        if (date == null) continue;
+                        exceptions.computeIfAbsent(rs.getString("EVENT_ID"), id -> new HashSet<>()).add(date.toLocalDate());
+                    }
+                }
+            } catch (SQLException e) {
+                // Sin tabla de excepciones (esquema anterior) las series se muestran completas
+                logError("No se pudieron leer excepciones de series: " + e.getMessage());
+                return exceptions;
+            }
+        }
+        return exceptions;
+    }
+
     // ========== GESTIÓN DE CALENDARIOS ==========
     /**
      * Inicializa los calendarios para un usuario
      * Crea los calendarios predeterminados si no existen
      */
     public void initializeUserCalendars(String userId) {
-        if (userCalendars.containsKey(userId)) return;
-
-        Map<String, String> calendarsMap = new HashMap<>();
-        // Definición de calendarios predeterminados con sus colores
-        String[][] calendarData = {
-                {"Mis Clases", "Calendario principal", "#1976D2"},
-                {"Tareas y Proyectos", "Calendario para tareas académicas", "#FF5722"},
-                {"Personal", "Calendario de eventos personales", "#4CAF50"},
-                {"Exámenes", "Calendario de exámenes", "#9C27B0"}
-        };
+        userCalendars.computeIfAbsent(userId, this::provisionDefaultCalendars);
+    }
 
+    /**
+     * Devuelve {nombre -> ID} de los calendarios predeterminados creando los que falten.
+     * Usuario existente: una consulta. Primer inicio: consulta, MERGE (INSERT OR IGNORE en SQLite)
+     * de los cuatro y consulta. null si falla, así no se guarda en caché y se reintenta
+     */
+    private Map<String, String> provisionDefaultCalendars(String userId) {
         try (Connection conn = DatabaseConfig.getConnection()) {
-            for (String[] calData : calendarData) {
-                String calId = createCalendarIfNotExists(userId, calData[0], calData[1], calData[2], conn);
-                calendarsMap.put(calData[0], calId);
+            Map<String, String> calendars = findDefaultCalendars(conn, userId);
+            if (calendars.size() < DEFAULT_CALENDARS.length) {
+                Set<String> existing = Set.copyOf(calendars.keySet());
+                try (PreparedStatement stmt = conn.prepareStatement(SqlCatalog.CALENDAR_PROVISION_DEFAULTS.sql())) {
+                    int index = 1;
+                    for (String[] calendar : DEFAULT_CALENDARS) {
+                        stmt.setString(index++, defaultCalendarId(userId, calendar[0]));
+                        stmt.setString(index++, userId);
+                        stmt.setString(index++, calendar[0]);
+                        stmt.setString(index++, calendar[1]);
+                        stmt.setString(index++, calendar[2]);
+                    }
+                    int created = stmt.executeUpdate();
+                    if (created > 0) {
+                        replica.markStale(LocalReplica.Table.CALENDARS);
+                        log(created + " calendarios predeterminados creados para el usuario " + userId);
+                    }
+                } catch (SQLException e) {
+                    // El ID derivado choca con el de otro usuario (ORA-00001): los que falten se crean uno por uno
+                    logError("Alta conjunta de calendarios fallida, se crean por separado: " + e.getMessage());
+                }
+
+                calendars = findDefaultCalendars(conn, userId);
+                // Sin conexión las altas del MERGE se registran; las de createCalendarIfNotExists se registran allí
+                for (String[] calendar : DEFAULT_CALENDARS) {
+                    String calendarId = calendars.get(calendar[0]);
+                    if (calendarId != null && !existing.contains(calendar[0])) {
+                        captureOffline("CALENDARS", calendarId, "INSERT", new SyncPayloadCodec.CalendarPayload(
+                                SyncPayloadCodec.CURRENT_VERSION, userId, calendar[0], calendar[1], calendar[2], null));
+                    }
+                }
+                for (String[] calendar : DEFAULT_CALENDARS) {
+                    if (!calendars.containsKey(calendar[0])) {
+                        calendars.put(calendar[0], createCalendarIfNotExists(userId, calendar[0], calendar[1], calendar[2], conn));
+                    }
+                }
             }
-            userCalendars.put(userId, calendarsMap);
             log("Calendarios inicializados para el usuario " + userId);
+            return calendars;
         } catch (SQLException e) {
             logError("Error inicializando calendarios: " + e.getMessage());
             e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static Map<String, String> findDefaultCalendars(Connection conn, String userId) throws SQLException {
+        Map<String, String> calendars = new ConcurrentHashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(SqlCatalog.CALENDAR_IDS_BY_OWNER_AND_NAMES.sql())) {
+            stmt.setString(1, userId);
+            for (int i = 0; i < DEFAULT_CALENDARS.length; i++) {
+                stmt.setString(i + 2, DEFAULT_CALENDARS[i][0]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    calendars.putIfAbsent(rs.getString(1), rs.getString(2));
+                }
+            }
         }
+        return calendars;
     }
 
     /**
-     * Crea un calendario si no existe y devuelve su ID
+     * ID estable de un calendario predeterminado - LIMITADO A 10 CARACTERES MÁXIMO
+     * Formato: C + 4 dígitos del hash de userId + 4 dígitos del hash del nombre
      */
-    private String createCalendarIfNotExists(String userId, String name, String description, String color, Connection conn) throws SQLException {
-        // Generar ID único y estable para el calendario - LIMITADO A 10 CARACTERES MÁXIMO
-        // Formato: C + primeros 4 dígitos del hash de userId + primeros 5 dígitos del hash del nombre
-        String userPart = String.valueOf(Math.abs(userId.hashCode()) % 10000);
-        String namePart = String.valueOf(Math.abs(name.hashCode()) % 10000);
+    private static String defaultCalendarId(String userId, String name) {
+        String userPart = String.format("%04d", Math.abs(userId.hashCode()) % 10000);
+        String namePart = String.format("%04d", Math.abs(name.hashCode()) % 10000);
+        return "C" + userPart + namePart;
+    }
 
-        // Asegurar que tenga 4 dígitos rellenando con ceros a la izquierda si es necesario
-        userPart = String.format("%04d", Integer.parseInt(userPart));
-        namePart = String.format("%04d", Integer.parseInt(namePart));
+    /**
+     * Descarta los calendarios en caché (fin de sesión)
+     */
+    public void clearCalendarCache() {
+        userCalendars.clear();
+    }
 
-        // Combinamos para formar un ID de 9 caracteres
-        String calendarId = "C" + userPart + namePart;
+    /**
+     * Crea un calendario si no existe y devuelve su ID
+     */
+    private String createCalendarIfNotExists(String userId, String name, String description, String color, Connection conn) throws SQLException {
+        String calendarId = defaultCalendarId(userId, name);
 
         // Verificar si ya existe
-        try (PreparedStatement checkStmt = conn.prepareStatement("SELECT CALENDAR_ID FROM CALENDARS WHERE OWNER_ID = ? AND NAME = ? AND ACTIVE = 'Y' AND ROWNUM = 1")) {
+        try (PreparedStatement checkStmt = conn.prepareStatement(SqlCatalog.CALENDAR_FIND_BY_OWNER_AND_NAME.sql())) {
             checkStmt.setString(1, userId);
             checkStmt.setString(2, name);
             ResultSet rs = checkStmt.executeQuery();
@@ -381,9 +737,7 @@ public class EventService {
         }
 
         // Si no existe, crear uno nuevo
-        try (PreparedStatement insertStmt = conn.prepareStatement(
-                "INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE, CREATED_DATE) " +
-                        "VALUES (?, ?, ?, ?, ?, 'Y', SYSDATE)")) {
+        try (PreparedStatement insertStmt = conn.prepareStatement(SqlCatalog.CALENDAR_INSERT.sql())) {
 
             insertStmt.setString(1, calendarId);
             insertStmt.setString(2, userId);
@@ -391,6 +745,9 @@ public class EventService {
             insertStmt.setString(4, description);
             insertStmt.setString(5, color);
             insertStmt.executeUpdate();
+            captureOffline("CALENDARS", calendarId, "INSERT", new SyncPayloadCodec.CalendarPayload(
+                    SyncPayloadCodec.CURRENT_VERSION, userId, name, description, color, null));
+            replica.markStale(LocalReplica.Table.CALENDARS);
 
             log("Calendario creado: " + name + " (ID: " + calendarId + ")");
         }
@@ -416,12 +773,7 @@ public class EventService {
         // Como respaldo, intentamos buscar o crear en la base de datos
         try (Connection conn = DatabaseConfig.getConnection()) {
             String calendarId = createCalendarIfNotExists(userId, "Mis Clases", "Calendario principal", "#1976D2", conn);
-
-            if (userCalendarMap == null) {
-                userCalendarMap = new HashMap<>();
-                userCalendars.put(userId, userCalendarMap);
-            }
-            userCalendarMap.put("Mis Clases", calendarId);
+            userCalendars.computeIfAbsent(userId, id -> new ConcurrentHashMap<>()).put("Mis Clases", calendarId);
 
             return calendarId;
         } catch (SQLException e) {
@@ -454,7 +806,7 @@ public class EventService {
             return userCalendarMap.get(calendarName);
         }
 
-        // No está en caché, buscar o crear en la base de datos
+        // No está en caché, buscar o crear en la base de datos (puede escribir: conexión de escritura)
         try (Connection conn = DatabaseConfig.getConnection()) {
             // Seleccionar el color según el tipo de calendario
             String color =
@@ -467,11 +819,7 @@ public class EventService {
                     userId, calendarName, "Calendario " + calendarName, color, conn);
 
             // Actualizar caché
-            if (userCalendarMap == null) {
-                userCalendarMap = new HashMap<>();
-                userCalendars.put(userId, userCalendarMap);
-            }
-            userCalendarMap.put(calendarName, calendarId);
+            userCalendars.computeIfAbsent(userId, id -> new ConcurrentHashMap<>()).put(calendarName, calendarId);
 
             return calendarId;
         } catch (SQLException e) {
@@ -485,7 +833,7 @@ public class EventService {
      */
     public boolean canCreateCustomCalendar(String userId) {
         // Usamos un método directo para contar los calendarios personalizados
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(
                      "SELECT COUNT(*) FROM CALENDARS " +
                              "WHERE OWNER_ID = ? " +
@@ -521,10 +869,7 @@ public class EventService {
         String description = "Calendario personalizado";
 
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "INSERT INTO CALENDARS " +
-                             "(CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE, CREATED_DATE) " +
-                             "VALUES (?, ?, ?, ?, ?, 'Y', SYSDATE)")) {
+             PreparedStatement stmt = conn.prepareStatement(SqlCatalog.CALENDAR_INSERT.sql())) {
 
             stmt.setString(1, calendarId);
             stmt.setString(2, userId);
@@ -535,9 +880,13 @@ public class EventService {
             int result = stmt.executeUpdate();
 
             if (result > 0) {
+                captureOffline("CALENDARS", calendarId, "INSERT", new SyncPayloadCodec.CalendarPayload(
+                        SyncPayloadCodec.CURRENT_VERSION, userId, name, description, color, null));
+                replica.markStale(LocalReplica.Table.CALENDARS);
                 // Actualizar la caché de calendarios
-                if (userCalendars.containsKey(userId)) {
-                    userCalendars.get(userId).put(name, calendarId);
+                Map<String, String> cached = userCalendars.get(userId);
+                if (cached != null) {
+                    cached.put(name, calendarId);
                 }
 
                 log("Calendario personalizado creado para el usuario " + userId + ": " + name);
@@ -557,10 +906,10 @@ public class EventService {
     public List<com.utez.calendario.models.Calendar> getUserCustomCalendars(String userId) {
         List<com.utez.calendario.models.Calendar> customCalendars = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(
                      "SELECT CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, " +
-                             "CREATED_DATE, MODIFIED_DATE " +
+                             "CREATED_DATE, MODIFIED_DATE, ROW_VERSION " +
                              "FROM CALENDARS " +
                              "WHERE OWNER_ID = ? " +
                              "AND NAME NOT IN ('Mis Clases', 'Tareas y Proyectos', 'Personal', 'Exámenes') " +
@@ -579,6 +928,7 @@ public class EventService {
                     calendar.setColor(rs.getString("COLOR"));
                     calendar.setCreatedDate(rs.getObject("CREATED_DATE", LocalDateTime.class));
                     calendar.setModifiedDate(rs.getObject("MODIFIED_DATE", LocalDateTime.class));
+                    calendar.setRowVersion(rs.getLong("ROW_VERSION"));
                     calendar.setActive('Y');
 
                     customCalendars.add(calendar);
@@ -594,29 +944,13 @@ public class EventService {
 
     // ========== MÉTODOS AUXILIARES ==========
     /**
-     * Método unificado para obtener eventos por rango de fechas
+     * Método unificado para obtener eventos propios completos por rango de fechas.
+     * Las cuadrículas usan las proyecciones en caché (getEventSummariesForDateRange).
      */
     private List<Event> getEventsByDateRange(String userId, LocalDate startDate, LocalDate endDate, String logFormat) {
         List<Event> events = new ArrayList<>();
-        // Ajustar la condición SQL según si es un día específico o un rango
-        String dateCondition = startDate.equals(endDate) ? "TRUNC(e.START_DATE) = ?" : "TRUNC(e.START_DATE) >= ? AND TRUNC(e.START_DATE) <= ?";
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT e.* FROM EVENTS e INNER JOIN CALENDARS c ON e.CALENDAR_ID = c.CALENDAR_ID " +
-                             "WHERE c.OWNER_ID = ? AND e.ACTIVE = 'Y' AND c.ACTIVE = 'Y' AND " + dateCondition + " ORDER BY e.START_DATE")) {
-
-            pstmt.setString(1, userId);
-            pstmt.setDate(2, Date.valueOf(startDate));
-            if (!startDate.equals(endDate)) {
-                pstmt.setDate(3, Date.valueOf(endDate));
-            }
-
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                events.add(mapResultSetToEvent(rs));
-            }
-
+        try {
+            events = queryEvents(userId, startDate, endDate, false);
             log(String.format(logFormat, events.size()));
         } catch (SQLException e) {
             logError("Error obteniendo eventos: " + e.getMessage());
@@ -625,6 +959,58 @@ public class EventService {
         return events;
     }
 
+    /**
+     * Vincula los parámetros de SqlCatalog.EVENT_INSERT
+     */
+    static void bindInsertEvent(PreparedStatement pstmt, Event event) throws SQLException {
+        pstmt.setString(1, event.getEventId());
+        pstmt.setString(2, event.getCalendarId());
+        pstmt.setString(3, event.getCreatorId());
+        pstmt.setString(4, event.getTitle());
+        pstmt.setString(5, event.getDescription());
+        pstmt.setTimestamp(6, Timestamp.valueOf(event.getStartDate()));
+        pstmt.setTimestamp(7, Timestamp.valueOf(event.getEndDate()));
+        pstmt.setString(8, String.valueOf(event.getAllDay()));
+        pstmt.setString(9, event.getLocation());
+        pstmt.setString(10, event.getRecurrence());
+        pstmt.setTimestamp(11, event.getRecurrenceEndDate() != null ? Timestamp.valueOf(event.getRecurrenceEndDate()) : null);
+    }
+
+    private static void bindUpdateEvent(PreparedStatement pstmt, Event event) throws SQLException {
+        pstmt.setString(1, event.getTitle());
+        pstmt.setString(2, event.getDescription());
+        pstmt.setTimestamp(3, Timestamp.valueOf(event.getStartDate()));
+        pstmt.setTimestamp(4, Timestamp.valueOf(event.getEndDate()));
+        pstmt.setString(5, String.valueOf(event.getAllDay()));
+        pstmt.setString(6, event.getLocation());
+        pstmt.setString(7, event.getRecurrence());
+        pstmt.setTimestamp(8, event.getRecurrenceEndDate() != null ? Timestamp.valueOf(event.getRecurrenceEndDate()) : null);
+        pstmt.setString(9, event.getEventId());
+    }
+
+    /**
+     * Verifica que ninguna fila del lote haya fallado (SUCCESS_NO_INFO cuenta como éxito)
+     */
+    private static void checkBatchResult(int[] results) throws SQLException {
+        for (int result : results) {
+            if (result == Statement.EXECUTE_FAILED || result == 0) {
+                throw new SQLException("Una fila del lote no se insertó");
+            }
+        }
+    }
+
+    /**
+     * Vincula los límites del rango semiabierto usado por OVERLAP_CONDITION a partir del índice dado
+     * y devuelve el siguiente índice libre
+     */
+    static int bindOverlapRange(PreparedStatement stmt, int index, LocalDate startDate, LocalDate endDate) throws SQLException {
+        Timestamp rangeStart = Timestamp.valueOf(startDate.atStartOfDay());
+        stmt.setTimestamp(index, Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
+        stmt.setTimestamp(index + 1, rangeStart);
+        stmt.setTimestamp(index + 2, rangeStart);
+        return index + 3;
+    }
+
     /**
      * Genera un ID para eventos con el formato E + fecha (YYYYMMDD) + hora (HHMMSS) + número aleatorio
      * Por ejemplo: E20250713235030123
@@ -638,37 +1024,11 @@ public class EventService {
         return id;
     }
 
-    /**
-     * Mapea un ResultSet a un objeto Event
-     */
-    private Event mapResultSetToEvent(ResultSet rs) throws SQLException {
-        Event event = new Event();
-        event.setEventId(rs.getString("EVENT_ID"));
-        event.setCalendarId(rs.getString("CALENDAR_ID"));
-        event.setCreatorId(rs.getString("CREATOR_ID"));
-        event.setTitle(rs.getString("TITLE"));
-        event.setDescription(rs.getString("DESCRIPTION"));
-
-        Timestamp startDate = rs.getTimestamp("START_DATE");
-        if (startDate != null) event.setStartDate(startDate.toLocalDateTime());
-
-        Timestamp endDate = rs.getTimestamp("END_DATE");
-        if (endDate != null) event.setEndDate(endDate.toLocalDateTime());
-
-        String allDay = rs.getString("ALL_DAY");
-        if (allDay != null && !allDay.isEmpty()) event.setAllDay(allDay.charAt(0));
-
-        event.setLocation(rs.getString("LOCATION"));
-        event.setRecurrence(rs.getString("RECURRENCE"));
-
-        return event;
-    }
-
     /**
      * Obtiene el email de un usuario desde la base de datos
      */
     public String getUserEmail(String userId) {
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(
                      "SELECT EMAIL FROM USERS WHERE USER_ID = ? AND ACTIVE = 'Y'")) {
 
@@ -696,15 +1056,20 @@ public class EventService {
     public List<String> getUsersWithUpcomingEvents(LocalDateTime startDate, LocalDateTime endDate) {
         List<String> userIds = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(
                      "SELECT DISTINCT c.OWNER_ID FROM EVENTS e " +
                              "INNER JOIN CALENDARS c ON e.CALENDAR_ID = c.CALENDAR_ID " +
-                             "WHERE e.START_DATE >= ? AND e.START_DATE <= ? " +
+                             "WHERE ((e.START_DATE >= ? AND e.START_DATE <= ?) " +
+                             "OR (e.RECURRENCE IS NOT NULL AND e.START_DATE <= ? " +
+                             "AND (e.RECURRENCE_END_DATE IS NULL OR e.RECURRENCE_END_DATE >= ?))) " +
                              "AND e.ACTIVE = 'Y' AND c.ACTIVE = 'Y'")) {
 
+            // Las series vigentes se incluyen aunque su fila maestra haya empezado antes del rango
             pstmt.setTimestamp(1, Timestamp.valueOf(startDate));
             pstmt.setTimestamp(2, Timestamp.valueOf(endDate));
+            pstmt.setTimestamp(3, Timestamp.valueOf(endDate));
+            pstmt.setTimestamp(4, Timestamp.valueOf(startDate));
 
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
@@ -727,9 +1092,16 @@ public class EventService {
      * Busca un evento específico por ID y usuario
      */
     public Event getEventById(String userId, String eventId) {
-        try (Connection conn = DatabaseConfig.getConnection();
+        // Las ocurrencias no tienen fila propia: se reconstruyen a partir de la serie
+        LocalDate occurrenceDate = RecurrenceExpander.occurrenceDateOf(eventId);
+        if (occurrenceDate != null) {
+            Event master = getEventById(userId, RecurrenceExpander.masterIdOf(eventId));
+            return master != null && master.hasRecurrence() ? RecurrenceExpander.occurrence(master, occurrenceDate) : null;
+        }
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT e.* FROM EVENTS e " +
+                     "SELECT " + EventRowMapper.DETAIL_COLUMNS + " FROM EVENTS e " +
                              "INNER JOIN CALENDARS c ON e.CALENDAR_ID = c.CALENDAR_ID " +
                              "WHERE c.OWNER_ID = ? AND e.EVENT_ID = ? AND e.ACTIVE = 'Y' AND c.ACTIVE = 'Y'")) {
 
@@ -738,7 +1110,7 @@ public class EventService {
 
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
-                return mapResultSetToEvent(rs);
+                return EventRowMapper.mapDetail(rs);
             }
 
         } catch (SQLException e) {
@@ -748,41 +1120,249 @@ public class EventService {
         return null;
     }
 
+    /**
+     * Carga el detalle completo de un evento visible en las cuadrículas (propio o compartido).
+     * Las ocurrencias se reconstruyen a partir de su serie.
+     */
+    public Event getEventDetails(String eventId) {
+        Map<String, Event> details = getEventDetails(List.of(eventId));
+        return details.get(eventId);
+    }
+
+    /**
+     * Carga el detalle completo de varios eventos con una consulta, indexado por el ID pedido
+     */
+    public Map<String, Event> getEventDetails(Collection<String> eventIds) {
+        Map<String, Event> details = new LinkedHashMap<>();
+        if (eventIds == null || eventIds.isEmpty()) return details;
+
+        Set<String> rowIds = new LinkedHashSet<>();
+        for (String eventId : eventIds) {
+            rowIds.add(RecurrenceExpander.masterIdOf(eventId));
+        }
+
+        Map<String, Event> rows = new HashMap<>();
+        List<String> ids = new ArrayList<>(rowIds);
+        try (Connection conn = DatabaseConfig.getReadConnection()) {
+            for (int from = 0; from < ids.size(); from += EXCEPTION_LOOKUP_CHUNK) {
+                List<String> chunk = ids.subList(from, Math.min(ids.size(), from + EXCEPTION_LOOKUP_CHUNK));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT " + EventRowMapper.DETAIL_COLUMNS + ", c.COLOR FROM EVENTS e " +
+                                "JOIN CALENDARS c ON e.CALENDAR_ID = c.CALENDAR_ID " +
+                                "WHERE e.EVENT_ID IN (" + placeholders + ") AND e.ACTIVE = 'Y'")) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            Event event = EventRowMapper.mapDetail(rs);
+                            event.setCalendarColor(rs.getString(EventRowMapper.DETAIL_COLUMN_COUNT + 1));
+                            rows.put(event.getEventId(), event);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logError("Error cargando detalle de eventos: " + e.getMessage());
+            e.printStackTrace();
+            return details;
+        }
+
+        for (String eventId : eventIds) {
+            Event row = rows.get(RecurrenceExpander.masterIdOf(eventId));
+            if (row == null) continue;
+
+            LocalDate occurrenceDate = RecurrenceExpander.occurrenceDateOf(eventId);
+            details.put(eventId, occurrenceDate != null && row.hasRecurrence()
+                    ? RecurrenceExpander.occurrence(row, occurrenceDate)
+                    : row);
+        }
+        return details;
+    }
+
+    /**
+     * Carga el detalle completo de un evento en el ejecutor de BD (para abrir el diálogo)
+     */
+    public CompletableFuture<Event> getEventDetailsAsync(String eventId) {
+        return executor.supplyAsync(() -> getEventDetails(eventId));
+    }
+
+    /**
+     * Carga el detalle completo de varios eventos en el ejecutor de BD, en el orden pedido
+     */
+    public CompletableFuture<List<Event>> getEventDetailsAsync(List<String> eventIds) {
+        return executor.supplyAsync(() -> new ArrayList<>(getEventDetails(eventIds).values()));
+    }
+
+    /**
+     * Obtiene eventos completos propios y de calendarios compartidos para un rango.
+     * Cada evento queda marcado con su origen (Event.isShared) y el color de su calendario.
+     */
     public List<Event> getEventsForDateRangeIncludingShared(String userId, LocalDate startDate, LocalDate endDate) throws SQLException {
         System.out.println("🔍 [EventService] Iniciando getEventsForDateRangeIncludingShared");
         System.out.println("   📋 Usuario: " + userId);
         System.out.println("   📅 Rango: " + startDate + " a " + endDate);
 
-        List<Event> allEvents = new ArrayList<>();
+        List<Event> allEvents = queryEvents(userId, startDate, endDate, true);
+        System.out.println("✅ Total eventos (propios + compartidos): " + allEvents.size());
+        return allEvents;
+    }
 
-        try {
-            // Obtener eventos de calendarios propios
-            List<Event> ownEvents = getEventsForDateRange(userId, startDate, endDate);
-            allEvents.addAll(ownEvents);
-            System.out.println("✅ Eventos propios obtenidos: " + ownEvents.size());
-
-            // ✅ CORRECCIÓN: Usar getInstance() en lugar de new
-            CalendarSharingService sharingService = CalendarSharingService.getInstance();
-            List<com.utez.calendario.models.Calendar> sharedCalendars = sharingService.getSharedCalendarsForUser(userId);
-            System.out.println("✅ Calendarios compartidos encontrados: " + sharedCalendars.size());
-
-            // Obtener eventos de calendarios compartidos
-            for (Calendar sharedCalendar : sharedCalendars) {
-                try {
-                    List<Event> sharedEvents = getEventsForCalendar(sharedCalendar.getCalendarId(), startDate, endDate);
-                    allEvents.addAll(sharedEvents);
-                    System.out.println("✅ Eventos del calendario compartido '" + sharedCalendar.getName() + "': " + sharedEvents.size());
-                } catch (SQLException e) {
-                    System.err.println("❌ Error obteniendo eventos del calendario " + sharedCalendar.getName() + ": " + e.getMessage());
-                    // No lanzar excepción aquí, solo registrar el error y continuar
+    /**
+     * Proyecciones para las cuadrículas (propias y compartidas), servidas desde la caché de ventanas
+     */
+    public List<EventSummary> getEventSummariesForDateRangeIncludingShared(String userId, LocalDate startDate, LocalDate endDate) throws SQLException {
+        List<EventSummary> summaries = eventWindowCache.getRange(userId, startDate, endDate,
+                (from, to) -> querySummariesIncludingShared(userId, from, to));
+        System.out.println("✅ Eventos para cuadrícula " + startDate + " a " + endDate + ": " + summaries.size());
+        return summaries;
+    }
+
+    /**
+     * Igual que getEventSummariesForDateRangeIncludingShared, pero si la precarga se canceló mientras
+     * corría la consulta el resultado se descarta sin llenar la caché
+     */
+    void prefetchEventSummaries(String userId, LocalDate startDate, LocalDate endDate, BooleanSupplier cancelled) throws SQLException {
+        eventWindowCache.getRange(userId, startDate, endDate, (from, to) -> {
+            List<EventSummary> loaded = querySummariesIncludingShared(userId, from, to);
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException("Precarga cancelada");
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * Proyecciones de los eventos propios del usuario, servidas desde la caché de ventanas
+     */
+    public List<EventSummary> getEventSummariesForDateRange(String userId, LocalDate startDate, LocalDate endDate) throws SQLException {
+        List<EventSummary> own = new ArrayList<>();
+        for (EventSummary summary : getEventSummariesForDateRangeIncludingShared(userId, startDate, endDate)) {
+            if (!summary.shared()) own.add(summary);
+        }
+        return own;
+    }
+
+    /**
+     * Estadísticas de aciertos, fallos y desalojos de la caché de ventanas de eventos
+     */
+    public EventWindowCache.CacheStats getEventCacheStats() {
+        return eventWindowCache.getStats();
+    }
+
+    /**
+     * Descarta todas las ventanas de eventos en caché
+     */
+    public void clearEventCache() {
+        eventWindowCache.clear();
+    }
+
+    /**
+     * Consulta de rango con las columnas dadas; con includeShared agrega por UNION ALL la rama
+     * de calendarios compartidos para que cada una use su propio índice
+     * (CALENDARS.OWNER_ID en la propia, CALENDAR_PERMISSIONS.USER_ID en la compartida)
+     */
+    static String rangeSql(String columns, boolean includeShared) {
+        String own = """
+        SELECT %1$s, c.COLOR, 'N' AS SHARED
+        FROM EVENTS e
+        JOIN CALENDARS c ON e.CALENDAR_ID = c.CALENDAR_ID
+        WHERE c.OWNER_ID = ?
+        AND c.ACTIVE = 'Y'
+        AND e.ACTIVE = 'Y'
+        AND %2$s
+    """.formatted(columns, OVERLAP_CONDITION);
+        if (!includeShared) {
+            return own + "ORDER BY START_DATE";
+        }
+        return own + """
+        UNION ALL
+        SELECT %1$s, c.COLOR, 'Y' AS SHARED
+        FROM CALENDAR_PERMISSIONS cp
+        JOIN CALENDARS c ON cp.CALENDAR_ID = c.CALENDAR_ID
+        JOIN EVENTS e ON e.CALENDAR_ID = c.CALENDAR_ID
+        WHERE cp.USER_ID = ?
+        AND cp.ACTIVE = 'Y'
+        AND c.ACTIVE = 'Y'
+        AND c.OWNER_ID <> ?
+        AND e.ACTIVE = 'Y'
+        AND %2$s
+        ORDER BY START_DATE
+    """.formatted(columns, OVERLAP_CONDITION);
+    }
+
+    static void bindRange(PreparedStatement stmt, String userId, LocalDate startDate, LocalDate endDate,
+                                  boolean includeShared) throws SQLException {
+        stmt.setString(1, userId);
+        int index = bindOverlapRange(stmt, 2, startDate, endDate);
+        if (includeShared) {
+            stmt.setString(index++, userId);
+            stmt.setString(index++, userId);
+            bindOverlapRange(stmt, index, startDate, endDate);
+        }
+    }
+
+    /**
+     * Consulta en un solo viaje los eventos completos que se solapan con el rango
+     */
+    private List<Event> queryEvents(String userId, LocalDate startDate, LocalDate endDate, boolean includeShared) throws SQLException {
+        List<Event> events = new ArrayList<>();
+        int colorIndex = EventRowMapper.DETAIL_COLUMN_COUNT + 1;
+
+        try (Connection conn = replica.getReadConnection(startDate, RANGE_TABLES);
+             PreparedStatement stmt = conn.prepareStatement(rangeSql(EventRowMapper.DETAIL_COLUMNS, includeShared))) {
+
+            stmt.setFetchSize(SHARED_RANGE_FETCH_SIZE);
+            bindRange(stmt, userId, startDate, endDate, includeShared);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Event event = EventRowMapper.mapDetail(rs);
+                    event.setCalendarColor(rs.getString(colorIndex));
+                    event.setShared("Y".equals(rs.getString(colorIndex + 1)));
+                    events.add(event);
+                }
+            }
+            return expandRecurring(conn, events, startDate, endDate);
+
+        } catch (SQLException e) {
+            System.err.println("❌ Error en queryEvents: " + e.getMessage());
+            throw new SQLException("Error obteniendo eventos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Consulta en un solo viaje las proyecciones propias y compartidas que se solapan con el rango
+     */
+    private List<EventSummary> querySummariesIncludingShared(String userId, LocalDate startDate, LocalDate endDate) throws SQLException {
+        List<EventSummary> summaries = new ArrayList<>();
+
+        try (Connection conn = replica.getReadConnection(startDate, RANGE_TABLES);
+             PreparedStatement stmt = conn.prepareStatement(rangeSql(EventRowMapper.SUMMARY_COLUMNS, true))) {
+
+            stmt.setFetchSize(SHARED_RANGE_FETCH_SIZE);
+            bindRange(stmt, userId, startDate, endDate, true);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(EventRowMapper.mapSummary(rs));
                 }
             }
+            summaries = expandRecurringSummaries(conn, summaries, startDate, endDate);
+
+            int sharedCount = 0;
+            for (EventSummary summary : summaries) {
+                if (summary.shared()) sharedCount++;
+            }
 
-            System.out.println("✅ Total eventos cargados (propios + compartidos): " + allEvents.size());
-            return allEvents;
+            System.out.println("✅ Eventos cargados en 1 consulta para " + startDate + " a " + endDate +
+                    " (propios: " + (summaries.size() - sharedCount) + ", compartidos: " + sharedCount + ")");
+            return summaries;
 
-        } catch (Exception e) {
-            System.err.println("❌ Error en getEventsForDateRangeIncludingShared: " + e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("❌ Error en getEventSummariesForDateRangeIncludingShared: " + e.getMessage());
             throw new SQLException("Error obteniendo eventos compartidos: " + e.getMessage(), e);
         }
     }
@@ -791,25 +1371,13 @@ public class EventService {
     public List<Event> getEventsForCalendar(String calendarId, LocalDate startDate, LocalDate endDate) throws SQLException {
         List<Event> events = new ArrayList<>();
 
-        // ✅ SQL OPTIMIZADO con hints de Oracle
-        String sql = """
-        SELECT /*+ FIRST_ROWS(100) INDEX(e PK_EVENTS) */
-               e.EVENT_ID, e.TITLE, e.DESCRIPTION, e.START_DATE, e.END_DATE, 
-               e.LOCATION, e.CALENDAR_ID, e.ACTIVE, e.CREATED_DATE, e.MODIFIED_DATE
-        FROM EVENTS e
-        WHERE e.CALENDAR_ID = ? 
-        AND e.ACTIVE = 'Y'
-        AND TRUNC(e.START_DATE) BETWEEN ? AND ?
-        ORDER BY e.START_DATE
-    """;
-
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        // ✅ Rango semiabierto sobre (CALENDAR_ID, ACTIVE, START_DATE), sin forzar PK_EVENTS
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(SqlCatalog.EVENTS_FOR_CALENDAR.sql())) {
 
             stmt.setFetchSize(100); // ✅ Optimización de fetch
             stmt.setString(1, calendarId);
-            stmt.setDate(2, java.sql.Date.valueOf(startDate));
-            stmt.setDate(3, java.sql.Date.valueOf(endDate));
+            bindOverlapRange(stmt, 2, startDate, endDate);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
@@ -829,28 +1397,184 @@ public class EventService {
                         event.setModifiedDate(modifiedDate.toLocalDateTime());
                     }
 
+                    event.setRecurrence(rs.getString("RECURRENCE"));
+                    Timestamp recurrenceEndDate = rs.getTimestamp("RECURRENCE_END_DATE");
+                    if (recurrenceEndDate != null) {
+                        event.setRecurrenceEndDate(recurrenceEndDate.toLocalDateTime());
+                    }
+
                     events.add(event);
                 }
             }
+            return expandRecurring(conn, events, startDate, endDate);
         } catch (SQLException e) {
             System.err.println("❌ Error SQL en getEventsForCalendar(" + calendarId + "): " + e.getMessage());
             throw e;
         }
+    }
 
-        return events;
+    // Orden del cursor (keyset) y de la mezcla con las ocurrencias de series
+    private static final Comparator<Event> CURSOR_ORDER =
+            Comparator.comparing(Event::getStartDate).thenComparing(Event::getEventId);
+
+    // Series activas de un calendario que pueden tener ocurrencias en el rango (pocas filas: una por serie)
+    static final String CALENDAR_SERIES_SQL = """
+            SELECT %s
+            FROM EVENTS e
+            WHERE e.CALENDAR_ID = ?
+            AND e.ACTIVE = 'Y'
+            AND TRIM(e.RECURRENCE) <> ''
+            AND e.START_DATE < ?
+            AND (e.RECURRENCE_END_DATE IS NULL OR e.RECURRENCE_END_DATE >= ?)
+        """.formatted(EventRowMapper.DETAIL_COLUMNS);
+
+    /**
+     * Recorre los eventos activos de un calendario que se solapan con [startDate, endDate], en orden
+     * (START_DATE, EVENT_ID), sin cargarlos todos en memoria. Las series recurrentes se expanden
+     * con RecurrenceExpander y se intercalan en orden; solo sus ocurrencias del rango quedan en memoria.
+     * El Stream debe cerrarse (try-with-resources) para liberar la conexión si no se consume completo.
+     */
+    public Stream<Event> streamEventsForCalendar(String calendarId, LocalDate startDate, LocalDate endDate) throws SQLException {
+        List<Event> occurrences;
+        try (Connection conn = DatabaseConfig.getReadConnection()) {
+            occurrences = loadSeriesOccurrences(conn, calendarId, startDate, endDate);
+        }
+        EventCursor cursor = openEventCursor(calendarId, startDate, endDate, null, DEFAULT_CURSOR_FETCH_SIZE);
+        return mergeWithOccurrences(cursor, occurrences);
+    }
+
+    /**
+     * Ocurrencias de las series del calendario dentro del rango, en el orden del cursor
+     */
+    static List<Event> loadSeriesOccurrences(Connection conn, String calendarId, LocalDate startDate,
+                                             LocalDate endDate) throws SQLException {
+        List<Event> masters = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(CALENDAR_SERIES_SQL)) {
+            Timestamp rangeStart = Timestamp.valueOf(startDate.atStartOfDay());
+            stmt.setString(1, calendarId);
+            stmt.setTimestamp(2, Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
+            stmt.setTimestamp(3, rangeStart);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Event master = EventRowMapper.mapDetail(rs);
+                    if (master.hasRecurrence()) masters.add(master);
+                }
+            }
+        }
+        if (masters.isEmpty()) return masters;
+
+        List<Event> occurrences = new ArrayList<>(expandRecurring(conn, masters, startDate, endDate));
+        occurrences.sort(CURSOR_ORDER);
+        return occurrences;
+    }
+
+    /**
+     * Intercala el cursor y las ocurrencias (ambos ya ordenados); cerrar el Stream cierra el cursor
+     */
+    static Stream<Event> mergeWithOccurrences(EventCursor cursor, List<Event> occurrences) {
+        if (occurrences.isEmpty()) return cursor.stream();
+
+        Iterator<Event> series = occurrences.iterator();
+        Iterator<Event> merged = new Iterator<>() {
+            private Event nextOccurrence = series.next();
+
+            @Override
+            public boolean hasNext() {
+                return nextOccurrence != null || cursor.hasNext();
+            }
+
+            @Override
+            public Event next() {
+                if (nextOccurrence == null) return cursor.next();
+                if (cursor.hasNext() && CURSOR_ORDER.compare(cursor.peek(), nextOccurrence) <= 0) {
+                    return cursor.next();
+                }
+                Event occurrence = nextOccurrence;
+                nextOccurrence = series.hasNext() ? series.next() : null;
+                return occurrence;
+            }
+        };
+        Spliterator<Event> spliterator = Spliterators.spliteratorUnknownSize(merged,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(cursor::close);
+    }
+
+    /**
+     * Consulta del cursor: eventos simples (sin RECURRENCE) que se solapan con el rango;
+     * con continuation agrega la condición de keyset tras la última fila
+     */
+    static String cursorSql(boolean continuation) {
+        String keyset = continuation
+                ? "AND (e.START_DATE > ? OR (e.START_DATE = ? AND e.EVENT_ID > ?))"
+                : "";
+        return """
+            SELECT %s
+            FROM EVENTS e
+            WHERE e.CALENDAR_ID = ?
+            AND e.ACTIVE = 'Y'
+            AND (e.RECURRENCE IS NULL OR TRIM(e.RECURRENCE) = '')
+            AND e.START_DATE < ? AND e.END_DATE >= ?
+            %s
+            ORDER BY e.START_DATE, e.EVENT_ID
+        """.formatted(EventRowMapper.DETAIL_COLUMNS, keyset);
+    }
+
+    /**
+     * Abre un cursor por keyset (START_DATE, EVENT_ID) sobre los eventos simples de un calendario que se
+     * solapan con el rango. Con un token de continuación la lectura sigue justo después de la última fila
+     * entregada, sin OFFSET. Las series recurrentes no pasan por el cursor: streamEventsForCalendar
+     * las expande e intercala.
+     */
+    public EventCursor openEventCursor(String calendarId, LocalDate startDate, LocalDate endDate,
+                                       EventCursor.ContinuationToken after, int fetchSize) throws SQLException {
+        return openEventCursor(DatabaseConfig.getReadConnection(), calendarId, startDate, endDate, after, fetchSize);
+    }
+
+    /**
+     * Igual que openEventCursor sobre una conexión dada; el cursor toma posesión de ella
+     */
+    static EventCursor openEventCursor(Connection conn, String calendarId, LocalDate startDate, LocalDate endDate,
+                                       EventCursor.ContinuationToken after, int fetchSize) throws SQLException {
+        String sql = cursorSql(after != null);
+
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize > 0 ? fetchSize : DEFAULT_CURSOR_FETCH_SIZE);
+
+            int index = 1;
+            stmt.setString(index++, calendarId);
+            stmt.setTimestamp(index++, Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
+            stmt.setTimestamp(index++, Timestamp.valueOf(startDate.atStartOfDay()));
+            if (after != null) {
+                Timestamp afterStart = Timestamp.valueOf(after.startDate());
+                stmt.setTimestamp(index++, afterStart);
+                stmt.setTimestamp(index++, afterStart);
+                stmt.setString(index, after.eventId());
+            }
+
+            return new EventCursor(conn, stmt, stmt.executeQuery());
+        } catch (SQLException | RuntimeException e) {
+            if (stmt != null) {
+                try { stmt.close(); } catch (SQLException ignored) {}
+            }
+            try { conn.close(); } catch (SQLException ignored) {}
+            System.err.println("❌ Error abriendo cursor de eventos (" + calendarId + "): " + e.getMessage());
+            throw e;
+        }
     }
 
     /**
      * Registra un mensaje de éxito en la consola
      */
-    private void log(String message) {
+    private static void log(String message) {
         System.out.println("✓ [" + LocalDateTime.now().format(DateTimeFormatter.ofPattern(DATE_TIME_FORMAT)) + "] " + message);
     }
 
     /**
      * Registra un mensaje de error en la consola
      */
-    private void logError(String message) {
+    private static void logError(String message) {
         System.err.println("✗ [" + LocalDateTime.now().format(DateTimeFormatter.ofPattern(DATE_TIME_FORMAT)) + "] " + message);
     }
 
@@ -859,7 +1583,7 @@ public class EventService {
      */
     public List<String> getUserCalendarNames(String userId) {
         List<String> calendarNames = new ArrayList<>();
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement("SELECT NAME FROM CALENDARS WHERE OWNER_ID = ? AND ACTIVE = 'Y'")) {
             pstmt.setString(1, userId);
             ResultSet rs = pstmt.executeQuery();
@@ -871,13 +1595,4 @@ public class EventService {
         }
         return calendarNames;
     }
-
-    /**
-     * Cierra el ExecutorService cuando la aplicación se cierra
-     */
-    public void shutdown() {
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,237 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.models.Event;
+import com.utez.calendario.models.EventSummary;
+import com.utez.calendario.utils.RecurrenceExpander;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché acotada de ventanas de eventos por usuario, en cubetas de un mes (YearMonth).
+ * Los rangos (día, semana, mes, año) se responden componiendo cubetas; las que faltan
+ * se cargan en una sola consulta por tramo contiguo de meses.
+ */
+public class EventWindowCache {
+
+    /**
+     * Carga desde la base de datos las proyecciones de eventos (propios y compartidos) que se solapan con [startDate, endDate]
+     */
+    @FunctionalInterface
+    public interface WindowLoader {
+        List<EventSummary> load(LocalDate startDate, LocalDate endDate) throws SQLException;
+    }
+
+    private static final int DEFAULT_MAX_BUCKETS = 48; // ~ 4 años de un usuario o 1 año de 4 usuarios
+    private static final long DEFAULT_TTL_MS = 120_000; // Cambios hechos por otros clientes caducan en 2 minutos
+
+    private final int maxBuckets;
+    private final long ttlMs;
+    private final Object lock = new Object();
+    private final LinkedHashMap<BucketKey, Bucket> buckets;
+
+    // Se incrementa en cada invalidación para descartar cargas que compitieron con una escritura
+    private long generation = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public EventWindowCache() {
+        this(DEFAULT_MAX_BUCKETS, DEFAULT_TTL_MS);
+    }
+
+    public EventWindowCache(int maxBuckets, long ttlMs) {
+        this.maxBuckets = maxBuckets;
+        this.ttlMs = ttlMs;
+        this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BucketKey, Bucket> eldest) {
+                if (size() > EventWindowCache.this.maxBuckets) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Devuelve los eventos del usuario que se solapan con [startDate, endDate], ordenados por fecha de inicio
+     */
+    public List<EventSummary> getRange(String userId, LocalDate startDate, LocalDate endDate, WindowLoader loader) throws SQLException {
+        YearMonth first = YearMonth.from(startDate);
+        YearMonth last = YearMonth.from(endDate);
+
+        Map<YearMonth, List<EventSummary>> resolved = new TreeMap<>();
+        List<YearMonth> missing = new ArrayList<>();
+        long loadGeneration;
+
+        synchronized (lock) {
+            long now = System.currentTimeMillis();
+            for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+                BucketKey key = new BucketKey(userId, month);
+                Bucket bucket = buckets.get(key);
+                if (bucket != null && now - bucket.loadedAt <= ttlMs) {
+                    hits.incrementAndGet();
+                    resolved.put(month, bucket.events);
+                } else {
+                    if (bucket != null) buckets.remove(key);
+                    misses.incrementAndGet();
+                    missing.add(month);
+                }
+            }
+            loadGeneration = generation;
+        }
+
+        // Cargar cada tramo contiguo de meses faltantes con una sola consulta
+        int i = 0;
+        while (i < missing.size()) {
+            int j = i;
+            while (j + 1 < missing.size() && missing.get(j + 1).equals(missing.get(j).plusMonths(1))) j++;
+
+            YearMonth runStart = missing.get(i);
+            YearMonth runEnd = missing.get(j);
+            List<EventSummary> loaded = loader.load(runStart.atDay(1), runEnd.atEndOfMonth());
+
+            Map<YearMonth, List<EventSummary>> split = new HashMap<>();
+            for (YearMonth month = runStart; !month.isAfter(runEnd); month = month.plusMonths(1)) {
+                split.put(month, new ArrayList<>());
+            }
+            for (EventSummary event : loaded) {
+                for (YearMonth month = runStart; !month.isAfter(runEnd); month = month.plusMonths(1)) {
+                    if (overlaps(event, month.atDay(1), month.atEndOfMonth())) {
+                        split.get(month).add(event);
+                    }
+                }
+            }
+
+            synchronized (lock) {
+                long now = System.currentTimeMillis();
+                for (Map.Entry<YearMonth, List<EventSummary>> entry : split.entrySet()) {
+                    List<EventSummary> events = List.copyOf(entry.getValue());
+                    resolved.put(entry.getKey(), events);
+                    if (generation == loadGeneration) {
+                        buckets.put(new BucketKey(userId, entry.getKey()), new Bucket(events, now));
+                    }
+                }
+            }
+            i = j + 1;
+        }
+
+        // Componer: un evento de varios días puede aparecer en más de una cubeta
+        List<EventSummary> result = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (List<EventSummary> events : resolved.values()) {
+            for (EventSummary event : events) {
+                if (overlaps(event, startDate, endDate) && seen.add(event.eventId())) {
+                    result.add(event);
+                }
+            }
+        }
+        result.sort(Comparator.comparing(EventSummary::startDate, Comparator.nullsLast(Comparator.naturalOrder())));
+        return result;
+    }
+
+    /**
+     * Invalida, para todos los usuarios, los meses que cubre el evento y las cubetas que ya lo contenían
+     */
+    public void invalidate(Event event) {
+        if (event == null) return;
+
+        synchronized (lock) {
+            generation++;
+            if (event.hasRecurrence() && event.getRecurrenceEndDate() == null) {
+                buckets.clear(); // Serie sin fin: puede aparecer en cualquier mes posterior
+                return;
+            }
+            if (event.getStartDate() != null) {
+                YearMonth first = YearMonth.from(event.getStartDate());
+                LocalDateTime lastInstant = event.hasRecurrence() ? event.getRecurrenceEndDate() : event.getEndDate();
+                YearMonth last = lastInstant != null && lastInstant.isAfter(event.getStartDate())
+                        ? YearMonth.from(lastInstant) : first;
+                buckets.keySet().removeIf(key -> !key.month.isBefore(first) && !key.month.isAfter(last));
+            }
+            removeBucketsContaining(event.getEventId());
+        }
+    }
+
+    /**
+     * Invalida las cubetas que contienen el evento indicado
+     */
+    public void invalidate(String eventId) {
+        synchronized (lock) {
+            generation++;
+            removeBucketsContaining(eventId);
+        }
+    }
+
+    /**
+     * Vacía la caché (p. ej. al cambiar de usuario o de base de datos)
+     */
+    public void clear() {
+        synchronized (lock) {
+            generation++;
+            buckets.clear();
+        }
+    }
+
+    public CacheStats getStats() {
+        synchronized (lock) {
+            return new CacheStats(hits.get(), misses.get(), evictions.get(), buckets.size(), maxBuckets);
+        }
+    }
+
+    private void removeBucketsContaining(String eventId) {
+        if (eventId == null) return;
+        // Las ocurrencias de una serie comparten el ID de la fila maestra antes del separador
+        String masterId = RecurrenceExpander.masterIdOf(eventId);
+        buckets.values().removeIf(bucket ->
+                bucket.events.stream().anyMatch(e -> masterId.equals(RecurrenceExpander.masterIdOf(e.eventId()))));
+    }
+
+    private static boolean overlaps(EventSummary event, LocalDate startDate, LocalDate endDate) {
+        LocalDateTime start = event.startDate();
+        if (start == null) return false;
+        LocalDateTime end = event.endDate() != null ? event.endDate() : start;
+        return start.isBefore(endDate.plusDays(1).atStartOfDay()) && !end.isBefore(startDate.atStartOfDay());
+    }
+
+    private record BucketKey(String userId, YearMonth month) {}
+
+    private record Bucket(List<EventSummary> events, long loadedAt) {}
+
+    /**
+     * Contadores de la caché para dimensionarla con datos de producción
+     */
+    public static class CacheStats {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final int size;
+        public final int capacity;
+
+        public CacheStats(long hits, long misses, long evictions, int size, int capacity) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.capacity = capacity;
+        }
+
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("EventWindowCache{hits=%d, misses=%d, evictions=%d, size=%d/%d, hitRate=%.1f%%}",
+                    hits, misses, evictions, size, capacity, getHitRate() * 100);
+        }
+    }
+}
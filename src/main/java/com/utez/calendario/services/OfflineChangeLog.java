@@ -0,0 +1,509 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.config.CircuitBreaker;
+import com.utez.calendario.config.DatabaseConfig;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Registro de escritura (WAL) de los cambios hechos sin conexión.
+ *
+ * Cada cambio se añade a un segmento mapeado en memoria, sin tocar SQLite: el
+ * llamador solo copia bytes bajo un candado. Un hilo hace fsync del tramo nuevo cada
+ * FLUSH_INTERVAL_MS para todos los cambios acumulados (group commit); ante un cierre
+ * abrupto del proceso las páginas mapeadas ya están en el sistema operativo, el fsync
+ * cubre además un apagado del equipo. Cada DRAIN_INTERVAL_MS las entradas nuevas se
+ * vuelcan a pending_sync por medio de PendingChangeJournal, junto con el punto de
+ * control (offline_log_checkpoint) en la misma transacción; los segmentos ya volcados
+ * se borran. Al arrancar se recorren los segmentos validando el CRC de cada entrada
+ * y el volcado retoma desde el punto de control. La secuencia nunca vuelve por detrás
+ * del punto de control, aunque falte la carpeta de segmentos.
+ *
+ * Entrada: [longitud int][crc32 int][secuencia long][tabla][registro][operación][datos],
+ * cada texto como [longitud int][UTF-8] (-1 = null). Longitud 0 marca el final.
+ */
+public final class OfflineChangeLog {
+    private static OfflineChangeLog instance;
+
+    private static final Path LOG_DIR = Path.of("calendario_offline_wal");
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int SEGMENT_BYTES = 4 * 1024 * 1024;
+    private static final int HEADER_BYTES = 16;
+    private static final long FLUSH_INTERVAL_MS = 10;
+    private static final long DRAIN_INTERVAL_MS = 1000;
+    private static final int DRAIN_CHUNK_SIZE = 500;
+
+    /**
+     * Cambio registrado
+     */
+    record Entry(long seq, String tableName, String recordId, String operation, String data) {}
+
+    private static final class Segment {
+        final Path path;
+        final long firstSeq;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int writePos;
+        int flushedPos;
+        long lastSeq;
+
+        Segment(Path path, long firstSeq, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.firstSeq = firstSeq;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.lastSeq = firstSeq - 1;
+        }
+    }
+
+    // Vista de un segmento para leer fuera del candado: hasta writePos todo está escrito
+    private record SegmentView(ByteBuffer buffer, int limit, long lastSeq) {}
+
+    // Entradas válidas de un segmento y la posición donde termina la última
+    private record Scan(List<Entry> entries, int end) {}
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final CircuitBreaker.SqlSupplier<Connection> connections;
+    private final Object lock = new Object();
+    private final Object drainLock = new Object();
+    private final List<Segment> segments = new ArrayList<>(); // Protegida por lock; la última es la activa
+    private final List<Path> undeletedSegments = new ArrayList<>(); // Windows no borra archivos aún mapeados
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(
+            runnable -> Thread.ofPlatform().daemon().name("offline-wal").unstarted(runnable));
+    private long nextSeq;
+    private volatile long appliedSeq = -1; // -1: aún no se leyó el punto de control
+    private volatile boolean started = false;
+    private volatile boolean drainFailing = false;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong drained = new AtomicLong();
+    private final AtomicLong fsyncs = new AtomicLong();
+
+    private OfflineChangeLog() throws IOException {
+        this(LOG_DIR, SEGMENT_BYTES, DatabaseConfig::getLocalConnection);
+    }
+
+    /**
+     * Registro sobre otra carpeta, tamaño de segmento y base local (pruebas)
+     */
+    OfflineChangeLog(Path dir, int segmentBytes, CircuitBreaker.SqlSupplier<Connection> connections) throws IOException {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.connections = connections;
+        Files.createDirectories(dir);
+        recover();
+    }
+
+    public static synchronized OfflineChangeLog getInstance() throws IOException {
+        if (instance == null) {
+            instance = new OfflineChangeLog();
+        }
+        return instance;
+    }
+
+    /**
+     * Inicia el fsync periódico y el volcado a pending_sync (el primero recupera lo pendiente)
+     */
+    public synchronized void start() {
+        if (started) return;
+        started = true;
+        worker.scheduleWithFixedDelay(this::flushSafely, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        worker.scheduleWithFixedDelay(this::drainSafely, 0, DRAIN_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // ========== ESCRITURA ==========
+    /**
+     * Añade un cambio y devuelve su número de secuencia. No espera al fsync
+     */
+    public long append(String tableName, String recordId, String operation, String data) throws IOException {
+        byte[] body = encodeBody(tableName, recordId, operation, data);
+        synchronized (lock) {
+            Segment active = segments.get(segments.size() - 1);
+            if (active.buffer.capacity() - active.writePos < HEADER_BYTES + body.length + 4) {
+                active = roll(HEADER_BYTES + body.length + 4);
+            }
+            long seq = nextSeq++;
+            ByteBuffer buffer = active.buffer;
+            int pos = active.writePos;
+            buffer.putLong(pos + 8, seq);
+            buffer.put(pos + HEADER_BYTES, body);
+            buffer.putInt(pos + 4, checksum(seq, body));
+            buffer.putInt(pos, body.length); // Al final: una entrada a medias se lee como fin del registro
+            active.writePos = pos + HEADER_BYTES + body.length;
+            active.lastSeq = seq;
+            appended.incrementAndGet();
+            return seq;
+        }
+    }
+
+    /**
+     * Cierra el segmento activo (fsync completo) y abre uno nuevo con espacio para minBytes
+     */
+    private Segment roll(int minBytes) throws IOException {
+        Segment full = segments.get(segments.size() - 1);
+        if (full.writePos > full.flushedPos) {
+            full.buffer.force(full.flushedPos, full.writePos - full.flushedPos);
+            full.flushedPos = full.writePos;
+            fsyncs.incrementAndGet();
+        }
+        Segment next = openSegment(nextSeq, Math.max(segmentBytes, minBytes));
+        segments.add(next);
+        return next;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            System.err.println("Error sincronizando el registro offline a disco: " + e.getMessage());
+        }
+    }
+
+    /**
+     * fsync del tramo escrito desde el último, para todos los cambios acumulados a la vez
+     */
+    void flush() {
+        Segment active;
+        int from;
+        int to;
+        synchronized (lock) {
+            active = segments.get(segments.size() - 1);
+            from = active.flushedPos;
+            to = active.writePos;
+        }
+        if (to <= from) return;
+        active.buffer.force(from, to - from);
+        fsyncs.incrementAndGet();
+        synchronized (lock) {
+            active.flushedPos = Math.max(active.flushedPos, to);
+        }
+    }
+
+    // ========== VOLCADO A pending_sync ==========
+    private void drainSafely() {
+        try {
+            drain();
+        } catch (Exception e) {
+            System.err.println("Error volcando el registro offline: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Vuelca a pending_sync las entradas posteriores al punto de control y compacta los
+     * segmentos ya volcados. Devuelve cuántas entradas se volcaron
+     */
+    public int drain() {
+        synchronized (drainLock) {
+            List<SegmentView> views = new ArrayList<>();
+            long lastSeq;
+            synchronized (lock) {
+                lastSeq = nextSeq - 1;
+                if (appliedSeq >= lastSeq) {
+                    compact();
+                    return 0;
+                }
+                for (Segment segment : segments) {
+                    views.add(new SegmentView(segment.buffer.duplicate(), segment.writePos, segment.lastSeq));
+                }
+            }
+
+            int count = 0;
+            try (Connection conn = connections.get()) {
+                long applied = readCheckpoint(conn);
+                List<Entry> chunk = new ArrayList<>(DRAIN_CHUNK_SIZE);
+                for (SegmentView view : views) {
+                    if (view.lastSeq() <= applied) continue;
+                    for (Entry entry : scan(view.buffer(), view.limit()).entries()) {
+                        if (entry.seq() <= applied) continue;
+                        chunk.add(entry);
+                        if (chunk.size() == DRAIN_CHUNK_SIZE) {
+                            applied = applyChunk(conn, chunk);
+                            count += chunk.size();
+                            chunk.clear();
+                        }
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    applied = applyChunk(conn, chunk);
+                    count += chunk.size();
+                }
+                appliedSeq = applied;
+                drainFailing = false;
+            } catch (SQLException e) {
+                // Se reintenta en el siguiente ciclo; se avisa una sola vez por racha de fallos
+                if (!drainFailing) {
+                    System.err.println("No se pudo volcar el registro offline a pending_sync: " + e.getMessage());
+                }
+                drainFailing = true;
+                return count;
+            }
+
+            drained.addAndGet(count);
+            if (count > 0) {
+                System.out.println("Registro offline: " + count + " cambios volcados a la cola de sincronizacion");
+            }
+            synchronized (lock) {
+                compact();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Un bloque de entradas y el nuevo punto de control en una sola transacción
+     */
+    private static long applyChunk(Connection conn, List<Entry> chunk) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (Entry entry : chunk) {
+                PendingChangeJournal.merge(conn, entry.tableName(), entry.recordId(), entry.operation(), entry.data());
+            }
+            long applied = chunk.get(chunk.size() - 1).seq();
+            try (PreparedStatement stmt = conn.prepareStatement("""
+                    INSERT INTO offline_log_checkpoint (id, applied_seq) VALUES (1, ?)
+                    ON CONFLICT(id) DO UPDATE SET applied_seq = excluded.applied_seq""")) {
+                stmt.setLong(1, applied);
+                stmt.executeUpdate();
+            }
+            conn.commit();
+            return applied;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static long readCheckpoint(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT applied_seq FROM offline_log_checkpoint WHERE id = 1");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Borra los segmentos cerrados cuyas entradas ya están todas en pending_sync (con lock tomado)
+     */
+    private void compact() {
+        undeletedSegments.removeIf(OfflineChangeLog::deleteQuietly);
+        long applied = appliedSeq;
+        while (segments.size() > 1 && segments.get(0).lastSeq <= applied) {
+            Segment old = segments.remove(0);
+            try {
+                old.channel.close();
+            } catch (IOException ignored) {
+                // El archivo se borra igual
+            }
+            if (!deleteQuietly(old.path)) {
+                undeletedSegments.add(old.path);
+            }
+        }
+    }
+
+    private static boolean deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * fsync y volcado finales al cerrar la aplicación
+     */
+    public void close() {
+        worker.shutdown();
+        try {
+            worker.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushSafely();
+        drainSafely();
+    }
+
+    /**
+     * Entradas escritas que aún no están en pending_sync (0 hasta leer el punto de control)
+     */
+    public long getUndrainedCount() {
+        long applied = appliedSeq;
+        if (applied < 0) return 0;
+        synchronized (lock) {
+            return Math.max(0, nextSeq - 1 - applied);
+        }
+    }
+
+    // ========== RECUPERACIÓN ==========
+    /**
+     * Abre los segmentos existentes y deja la escritura tras la última entrada válida
+     */
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(Comparator.comparingLong(OfflineChangeLog::firstSeqOf));
+
+        long recovered = 0;
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            long firstSeq = firstSeqOf(file);
+            if (firstSeq < 0) continue;
+            Segment segment = openSegment(file, firstSeq, 0);
+            Scan scan = scan(segment.buffer.duplicate(), segment.buffer.capacity());
+            List<Entry> entries = scan.entries();
+            int end = scan.end();
+            segment.writePos = end;
+            segment.flushedPos = end;
+            segment.lastSeq = entries.isEmpty() ? firstSeq - 1 : entries.get(entries.size() - 1).seq();
+            recovered += entries.size();
+
+            if (end + 4 <= segment.buffer.capacity() && segment.buffer.getInt(end) != 0) {
+                // Entrada incompleta por un cierre abrupto: se limpia para no confundirla con una nueva
+                System.out.println("Registro offline: entrada incompleta descartada en " + file.getFileName());
+                for (int pos = end; pos < segment.buffer.capacity(); pos++) segment.buffer.put(pos, (byte) 0);
+                segment.buffer.force();
+            }
+            segments.add(segment);
+        }
+
+        // Sin segmentos (carpeta borrada) la secuencia empezaría en 1 y drain saltaría todo hasta el punto de control
+        long checkpoint = recoverCheckpoint();
+        if (segments.isEmpty()) {
+            segments.add(openSegment(checkpoint + 1, segmentBytes));
+        }
+        Segment last = segments.get(segments.size() - 1);
+        nextSeq = Math.max(Math.max(last.firstSeq, last.lastSeq + 1), checkpoint + 1);
+        if (recovered > 0) {
+            System.out.println("Registro offline: " + recovered + " entradas recuperadas en " + segments.size() + " segmentos");
+        }
+    }
+
+    /**
+     * Punto de control guardado en SQLite; 0 si la base aún no está disponible
+     */
+    private long recoverCheckpoint() {
+        try (Connection conn = connections.get()) {
+            return readCheckpoint(conn);
+        } catch (SQLException e) {
+            System.err.println("Registro offline: no se pudo leer el punto de control: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private static long firstSeqOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private Segment openSegment(long firstSeq, int size) throws IOException {
+        Path path = dir.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+        return openSegment(path, firstSeq, size);
+    }
+
+    /**
+     * Mapea el archivo completo; size > 0 lo crea (disperso) con ese tamaño
+     */
+    private static Segment openSegment(Path path, long firstSeq, int size) throws IOException {
+        if (size > 0) {
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                file.setLength(size);
+            }
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        return new Segment(path, firstSeq, channel, buffer);
+    }
+
+    // ========== FORMATO ==========
+    /**
+     * Entradas válidas desde el inicio hasta limit; se detiene en la primera vacía o con CRC incorrecto
+     */
+    private static Scan scan(ByteBuffer buffer, int limit) {
+        List<Entry> entries = new ArrayList<>();
+        int pos = 0;
+        while (pos + HEADER_BYTES <= limit) {
+            int length = buffer.getInt(pos);
+            if (length <= 0 || pos + HEADER_BYTES + length > limit) break;
+            int crc = buffer.getInt(pos + 4);
+            long seq = buffer.getLong(pos + 8);
+            byte[] body = new byte[length];
+            buffer.get(pos + HEADER_BYTES, body);
+            if (checksum(seq, body) != crc) break;
+
+            ByteBuffer in = ByteBuffer.wrap(body);
+            entries.add(new Entry(seq, readString(in), readString(in), readString(in), readString(in)));
+            pos += HEADER_BYTES + length;
+        }
+        return new Scan(entries, pos);
+    }
+
+    private static byte[] encodeBody(String tableName, String recordId, String operation, String data) {
+        byte[][] parts = {bytes(tableName), bytes(recordId), bytes(operation), bytes(data)};
+        int size = 0;
+        for (byte[] part : parts) size += 4 + (part != null ? part.length : 0);
+        ByteBuffer out = ByteBuffer.allocate(size);
+        for (byte[] part : parts) {
+            out.putInt(part != null ? part.length : -1);
+            if (part != null) out.put(part);
+        }
+        return out.array();
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static int checksum(long seq, byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putLong(0, seq));
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return String.format("Registro offline: %d segmentos, secuencia=%d, volcada=%d, añadidas=%d, volcadas=%d, fsync=%d",
+                    segments.size(), nextSeq - 1, appliedSeq, appended.get(), drained.get(), fsyncs.get());
+        }
+    }
+}
@@ -1,7 +1,20 @@
 package com.utez.calendario.services;
 
+import com.utez.calendario.config.CircuitBreaker;
 import com.utez.calendario.config.DatabaseConfig;
+import com.utez.calendario.config.LocalReplica;
+import com.utez.calendario.config.SqlCatalog;
+import com.utez.calendario.config.SqlDialect;
+import java.io.IOException;
 import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -18,7 +31,19 @@ public class OfflineSyncService {
     private static final int INITIAL_DELAY_SECONDS = 15; // Delay inicial más largo
     private static final int FAST_CHECK_SECONDS = 10; // Verificación rápida cuando hay datos pendientes
 
+    // Registros de pending_sync por bloque: un commit online y un borrado por rangos en la cola
+    private static final int REPLAY_CHUNK_SIZE = 500;
+    private static final Set<String> SUPPORTED_OPERATIONS = Set.of("INSERT", "UPDATE", "REACTIVATE", "DELETE");
+    // Calendario y usuario que recibían las altas con datos v0, sin dueño ni creador
+    private static final String LEGACY_CALENDAR_ID = "DEFAULT_CAL";
+    private static final String LEGACY_USER_ID = "DEFAULT_USER";
+
+    private static final long PAUSE_BASE_MS = 30000;
+    private static final long PAUSE_MAX_MS = 300000;
+
     private boolean wasOfflineBefore = false; // Track del estado anterior
+    private long pausedUntil = 0;
+    private int pauseCount = 0;
     private long lastConnectionCheck = 0;
     private int consecutiveFailures = 0;
     private static final int MAX_CONSECUTIVE_FAILURES = 3;
@@ -35,6 +60,7 @@ public class OfflineSyncService {
     public void startSyncMonitoring() {
         if (isRunning.compareAndSet(false, true)) {
             wasOfflineBefore = DatabaseConfig.isOfflineMode();
+            startChangeLog();
 
             scheduler.scheduleAtFixedRate(() -> {
                 try {
@@ -43,21 +69,37 @@ public class OfflineSyncService {
                     System.err.println("Error en monitoreo de sincronizacion: " + e.getMessage());
                     consecutiveFailures++;
                     if (consecutiveFailures > MAX_CONSECUTIVE_FAILURES) {
-                        System.err.println("Demasiados errores consecutivos en sincronizacion, pausando temporalmente");
-                        try {
-                            Thread.sleep(30000); // Pausa 30 segundos
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                        }
+                        // Saltar los siguientes ciclos en lugar de dormir el hilo del scheduler
+                        long pause = CircuitBreaker.backoffWithJitter(pauseCount++, PAUSE_BASE_MS, PAUSE_MAX_MS);
+                        pausedUntil = System.currentTimeMillis() + pause;
+                        System.err.printf("Demasiados errores consecutivos en sincronizacion, pausando %d ms\n", pause);
                         consecutiveFailures = 0;
                     }
                 }
             }, INITIAL_DELAY_SECONDS, getCheckInterval(), TimeUnit.SECONDS);
 
+            // Si el circuito se abre estando en línea, revisar la conexión ya en vez de esperar al siguiente ciclo
+            DatabaseConfig.getCircuitBreaker().addListener((from, to) -> {
+                if (to == CircuitBreaker.State.OPEN && !DatabaseConfig.isOfflineMode()) {
+                    scheduler.execute(this::checkAndSyncSafely);
+                }
+            });
+
             System.out.printf("Monitoreo de sincronizacion iniciado (cada %d segundos)\n", getCheckInterval());
         }
     }
 
+    /**
+     * Recupera y empieza a volcar el registro de cambios offline (lo que quedó de la sesión anterior)
+     */
+    private void startChangeLog() {
+        try {
+            OfflineChangeLog.getInstance().start();
+        } catch (IOException e) {
+            System.err.println("Registro offline no disponible, los cambios irán directo a pending_sync: " + e.getMessage());
+        }
+    }
+
     /**
      * MÉTODO MEJORADO: Intervalo dinámico basado en estado y datos pendientes
      */
@@ -76,8 +118,19 @@ public class OfflineSyncService {
     /**
      * MÉTODO de sincronización
      */
+    private void checkAndSyncSafely() {
+        try {
+            checkAndSync();
+        } catch (Exception e) {
+            System.err.println("Error en monitoreo de sincronizacion: " + e.getMessage());
+        }
+    }
+
     private void checkAndSync() {
         long currentTime = System.currentTimeMillis();
+        if (currentTime < pausedUntil) {
+            return;
+        }
         boolean currentlyOffline = DatabaseConfig.isOfflineMode();
 
         // Log periódico del estado (cada 2 minutos para más info)
@@ -93,6 +146,7 @@ public class OfflineSyncService {
             if (DatabaseConfig.attemptReconnection()) {
                 System.out.println("🔄 CONECTIVIDAD RESTAURADA - Iniciando sincronización automática");
                 consecutiveFailures = 0;
+                pauseCount = 0;
                 syncPendingChanges();
                 wasOfflineBefore = false;
             }
@@ -141,27 +195,14 @@ public class OfflineSyncService {
 // AGREGAR ESTOS MÉTODOS NUEVOS AL OfflineSyncService:
 
     /**
-     * MÉTODO NUEVO: Verificar conectividad de manera más robusta
+     * MÉTODO NUEVO: Verificar conectividad de manera más robusta.
+     * Con tráfico reciente no se consulta la base; el cortacircuitos ya conoce su estado
      */
     private boolean isConnectionHealthy() {
         if (DatabaseConfig.isOfflineMode()) {
             return false;
         }
-
-        try (Connection conn = DatabaseConfig.getConnection()) {
-            if (!conn.isValid(3)) {
-                return false;
-            }
-
-            // Test simple de query
-            try (PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM DUAL");
-                 ResultSet rs = stmt.executeQuery()) {
-                return rs.next();
-            }
-        } catch (Exception e) {
-            System.out.println("Conexión no saludable: " + e.getMessage());
-            return false;
-        }
+        return DatabaseConfig.isCurrentConnectionValid();
     }
 
     /**
@@ -210,7 +251,8 @@ public class OfflineSyncService {
     }
 
     /**
-     * MÉTODO MEJORADO: Sincronización más robusta
+     * MÉTODO MEJORADO: Sincronización más robusta.
+     * La cola vive en el SQLite local y se reenvía a la base online en bloques
      */
     private boolean performSync() {
         // Verificar que realmente estemos online
@@ -220,15 +262,16 @@ public class OfflineSyncService {
         }
 
         System.out.println("Iniciando sincronizacion de datos pendientes...");
+        drainChangeLog();
 
-        try (Connection conn = DatabaseConfig.getConnection()) {
-            if (!tableExists(conn, "pending_sync")) {
+        try (Connection queue = DatabaseConfig.getLocalConnection()) {
+            if (!tableExists(queue, "pending_sync")) {
                 System.out.println("No hay datos pendientes de sincronizacion");
                 return true;
             }
 
             // Contar total de registros pendientes
-            int totalPending = countPendingRecords(conn);
+            int totalPending = countPendingRecords(queue);
             if (totalPending == 0) {
                 System.out.println("No hay registros pendientes de sincronizacion");
                 return true;
@@ -236,46 +279,14 @@ public class OfflineSyncService {
 
             System.out.printf("Sincronizando %d registros pendientes...\n", totalPending);
 
-            String selectPendingSql = "SELECT * FROM pending_sync ORDER BY created_at ASC";
-
-            try (PreparedStatement selectStmt = conn.prepareStatement(selectPendingSql);
-                 ResultSet rs = selectStmt.executeQuery()) {
-
-                int syncedCount = 0;
-                int errorCount = 0;
-
-                while (rs.next()) {
-                    try {
-                        int id = rs.getInt("id");
-                        String tableName = rs.getString("table_name");
-                        String recordId = rs.getString("record_id");
-                        String operation = rs.getString("operation");
-                        String data = rs.getString("data");
-
-                        boolean success = syncRecord(conn, tableName, recordId, operation, data);
-
-                        if (success) {
-                            deletePendingSync(conn, id);
-                            syncedCount++;
-                            System.out.printf("Sincronizado [%d/%d]: %s (ID: %s)\n",
-                                    syncedCount, totalPending, tableName, recordId);
-                        } else {
-                            errorCount++;
-                            System.err.printf("Error sincronizando [%d]: %s (ID: %s)\n",
-                                    errorCount, tableName, recordId);
-                        }
-
-                    } catch (Exception e) {
-                        errorCount++;
-                        System.err.println("Error procesando registro pendiente: " + e.getMessage());
-                    }
-                }
-
-                System.out.printf("Sincronizacion completada. Exitosos: %d, Errores: %d\n",
-                        syncedCount, errorCount);
+            try (Connection online = DatabaseConfig.getConnection()) {
+                ReplayResult result = replayQueue(queue, online, DatabaseConfig.getDialect());
+                System.out.printf("Sincronizacion completada. Exitosos: %d, Errores: %d, Conflictos: %d (%d bloques, %dms)\n",
+                        result.synced, result.failed, result.conflicts, result.chunks, result.elapsedMillis);
 
+                markReplicaStale(result.tables);
                 consecutiveFailures = 0; // Reset en caso de éxito
-                return errorCount == 0;
+                return result.failed == 0;
             }
 
         } catch (Exception e) {
@@ -286,269 +297,517 @@ public class OfflineSyncService {
     }
 
     /**
-     * MÉTODO NUEVO: Contar registros pendientes
+     * Pasa a pending_sync lo que siga en el registro offline antes de reenviar la cola
      */
-    private int countPendingRecords(Connection conn) throws SQLException {
-        String countSql = "SELECT COUNT(*) FROM pending_sync";
-        try (PreparedStatement stmt = conn.prepareStatement(countSql);
-             ResultSet rs = stmt.executeQuery()) {
-            return rs.next() ? rs.getInt(1) : 0;
+    private static void drainChangeLog() {
+        try {
+            OfflineChangeLog.getInstance().drain();
+        } catch (IOException e) {
+            System.err.println("Registro offline no disponible: " + e.getMessage());
         }
     }
 
-    private boolean tableExists(Connection conn, String tableName) {
+    /**
+     * Reenvía la cola en bloques de REPLAY_CHUNK_SIZE. Cada bloque agrupa sus filas por
+     * tabla y operación (un executeBatch por grupo), se confirma con un solo commit y
+     * después se borran de la cola los ids reconocidos por rangos. Si un lote falla se
+     * repite fila por fila para aislar la que falla; esa se queda en la cola.
+     * Los cambios y bajas condicionados a ROW_VERSION que no afectan ninguna fila son
+     * conflictos: otro cliente cambió el registro. Se detectan por el conteo del lote, sin
+     * leer antes la fila, y pasan de la cola a sync_conflicts en la misma transacción local
+     */
+    ReplayResult replayQueue(Connection queue, Connection online, SqlDialect dialect) throws SQLException {
+        ReplayResult result = new ReplayResult();
+        long start = System.currentTimeMillis();
+        boolean onlineAutoCommit = online.getAutoCommit();
+        online.setAutoCommit(false);
         try {
-            DatabaseMetaData metaData = conn.getMetaData();
-            try (ResultSet rs = metaData.getTables(null, null, tableName, null)) {
-                return rs.next();
+            long lastId = 0;
+            List<PendingChange> chunk;
+            while (!(chunk = readChunk(queue, lastId)).isEmpty()) {
+                lastId = chunk.get(chunk.size() - 1).id();
+
+                Set<Long> failedIds = new HashSet<>();
+                List<ReplayRow> conflicts = new ArrayList<>();
+                try {
+                    for (Map.Entry<ReplayKey, List<PendingChange>> group : groupForReplay(chunk).entrySet()) {
+                        replayGroup(online, dialect, group.getKey(), group.getValue(), failedIds, conflicts);
+                        result.tables.add(group.getKey().tableName());
+                    }
+                    online.commit();
+                } catch (SQLException e) {
+                    // Error de conexión o del commit: nada del bloque quedó aplicado
+                    online.rollback();
+                    throw e;
+                }
+
+                deleteAcknowledged(queue, chunk, failedIds, conflicts);
+                result.chunks++;
+                result.synced += chunk.size() - failedIds.size() - conflicts.size();
+                result.failed += failedIds.size();
+                result.conflicts += conflicts.size();
+                System.out.printf("Bloque %d sincronizado: %d registros (%d con error, %d en conflicto)\n",
+                        result.chunks, chunk.size(), failedIds.size(), conflicts.size());
             }
-        } catch (SQLException e) {
-            return false;
+        } finally {
+            online.setAutoCommit(onlineAutoCommit);
         }
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
     }
 
-    private boolean syncRecord(Connection conn, String tableName, String recordId,
-                               String operation, String data) {
-        try {
-            switch (operation.toUpperCase()) {
-                case "INSERT":
-                    return performInsert(conn, tableName, recordId, data);
-                case "UPDATE":
-                    return performUpdate(conn, tableName, recordId, data);
-                case "DELETE":
-                    return performDelete(conn, tableName, recordId);
-                default:
-                    System.err.println("Operacion desconocida: " + operation);
-                    return false;
+    private List<PendingChange> readChunk(Connection queue, long afterId) throws SQLException {
+        String sql = "SELECT id, table_name, record_id, operation, data FROM pending_sync WHERE id > ? ORDER BY id LIMIT ?";
+        List<PendingChange> chunk = new ArrayList<>(REPLAY_CHUNK_SIZE);
+        try (PreparedStatement stmt = queue.prepareStatement(sql)) {
+            stmt.setLong(1, afterId);
+            stmt.setInt(2, REPLAY_CHUNK_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    chunk.add(new PendingChange(rs.getLong(1), rs.getString(2).toUpperCase(), rs.getString(3),
+                            rs.getString(4).toUpperCase(), rs.getString(5)));
+                }
             }
-        } catch (Exception e) {
-            System.err.println("Error ejecutando operacion " + operation +
-                    " en " + tableName + ": " + e.getMessage());
-            return false;
         }
+        return chunk;
     }
 
-    private boolean performInsert(Connection conn, String tableName, String recordId, String jsonData) {
-        try {
-            System.out.println("INSERT en " + tableName + ": " + jsonData);
+    /**
+     * Agrupa por tabla y operación. Primero altas, luego cambios y al final bajas, con
+     * los calendarios antes que los eventos; dentro de un grupo se respeta el orden de la cola
+     */
+    private static Map<ReplayKey, List<PendingChange>> groupForReplay(List<PendingChange> chunk) {
+        Map<ReplayKey, List<PendingChange>> groups = new TreeMap<>(
+                Comparator.comparingInt((ReplayKey key) -> operationOrder(key.operation()))
+                        .thenComparingInt(key -> tableOrder(key.tableName()))
+                        .thenComparing(ReplayKey::tableName)
+                        .thenComparing(ReplayKey::operation));
+        for (PendingChange change : chunk) {
+            groups.computeIfAbsent(new ReplayKey(change.tableName(), change.operation()), k -> new ArrayList<>())
+                    .add(change);
+        }
+        return groups;
+    }
 
-            // Implementación simplificada para eventos
-            if ("EVENTS".equals(tableName.toUpperCase())) {
-                return insertEvent(conn, recordId, jsonData);
-            } else if ("CALENDARS".equals(tableName.toUpperCase())) {
-                return insertCalendar(conn, recordId, jsonData);
-            }
+    private static int operationOrder(String operation) {
+        return switch (operation) {
+            case "INSERT" -> 0;
+            case "UPDATE" -> 1;
+            case "REACTIVATE" -> 2;
+            case "DELETE" -> 3;
+            default -> 4;
+        };
+    }
 
-            // Para otras tablas, registrar pero no fallar
-            System.out.println("INSERT para " + tableName + " registrado pero no implementado");
-            return true;
-        } catch (Exception e) {
-            System.err.println("Error en INSERT: " + e.getMessage());
-            return false;
+    private static int tableOrder(String tableName) {
+        return switch (tableName) {
+            case "USERS" -> 0;
+            case "CALENDARS" -> 1;
+            case "CALENDAR_PERMISSIONS" -> 2;
+            case "EVENTS" -> 3;
+            case "EVENT_EXCEPTIONS" -> 4;
+            default -> 5;
+        };
+    }
+
+    private void replayGroup(Connection online, SqlDialect dialect, ReplayKey key, List<PendingChange> changes,
+                             Set<Long> failedIds, List<ReplayRow> conflicts) throws SQLException {
+        if (!SUPPORTED_OPERATIONS.contains(key.operation())) {
+            System.err.println("Operacion desconocida: " + key.operation());
+            changes.forEach(change -> failedIds.add(change.id()));
+            return;
+        }
+        String sql = replaySql(key, dialect);
+        if (sql == null) {
+            // Sin sentencia de reenvío: se quedan en la cola en vez de perderse
+            System.err.println(key.operation() + " para " + key.tableName() + " sin sentencia de reenvío, " +
+                    changes.size() + " registros se quedan en la cola");
+            changes.forEach(change -> failedIds.add(change.id()));
+            return;
+        }
+
+        List<ReplayRow> rows = decodeGroup(key, changes, failedIds);
+        if (rows.isEmpty()) return;
+
+        Savepoint beforeGroup = online.setSavepoint();
+        try (PreparedStatement stmt = online.prepareStatement(sql)) {
+            for (ReplayRow row : rows) {
+                bindReplay(stmt, key, row);
+                stmt.addBatch();
+            }
+            int[] counts = stmt.executeBatch();
+            for (int i = 0; i < counts.length && i < rows.size(); i++) {
+                checkEffect(key, rows.get(i), counts[i], conflicts);
+            }
+        } catch (SQLException e) {
+            // Oracle lanza BatchUpdateException; sqlite-jdbc, la SQLException de la fila que falló
+            if (!online.isValid(2)) throw e;
+            System.err.println("Lote " + key.operation() + " en " + key.tableName() +
+                    " fallido, se reintenta fila por fila: " + e.getMessage());
+            online.rollback(beforeGroup);
+            replayRowByRow(online, sql, key, rows, failedIds, conflicts);
         }
     }
 
-    private boolean insertEvent(Connection conn, String eventId, String jsonData) {
-        try {
-            // Parseo simple del JSON
-            String title = extractJsonValue(jsonData, "title");
-            String description = extractJsonValue(jsonData, "description");
-            String startDate = extractJsonValue(jsonData, "startDate");
-            String endDate = extractJsonValue(jsonData, "endDate");
-            String location = extractJsonValue(jsonData, "location");
-
-            String sql = """
-                INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION, 
-                                  START_DATE, END_DATE, LOCATION, ACTIVE, CREATED_DATE) 
-                VALUES (?, 'DEFAULT_CAL', 'DEFAULT_USER', ?, ?, ?, ?, ?, 'Y', SYSDATE)
-            """;
-
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, eventId);
-                stmt.setString(2, title);
-                stmt.setString(3, description);
-                stmt.setString(4, startDate);
-                stmt.setString(5, endDate);
-                stmt.setString(6, location);
-                return stmt.executeUpdate() > 0;
+    /**
+     * Decodifica los datos de cada fila una sola vez; las ilegibles se quedan en la cola
+     */
+    private static List<ReplayRow> decodeGroup(ReplayKey key, List<PendingChange> changes, Set<Long> failedIds) {
+        List<ReplayRow> rows = new ArrayList<>(changes.size());
+        for (PendingChange change : changes) {
+            try {
+                SyncPayloadCodec.Payload payload;
+                if ("DELETE EVENT_EXCEPTIONS".equals(key.operation() + " " + key.tableName())) {
+                    payload = SyncPayloadCodec.decodeExceptionKey(change.recordId());
+                } else if ("DELETE".equals(key.operation())) {
+                    payload = SyncPayloadCodec.decodeDelete(key.tableName(), change.data());
+                } else {
+                    payload = SyncPayloadCodec.decode(key.tableName(), change.data());
+                }
+                rows.add(new ReplayRow(change, payload));
+            } catch (SyncPayloadCodec.PayloadException e) {
+                failedIds.add(change.id());
+                System.err.printf("Datos no legibles en %s (ID: %s): %s\n",
+                        key.tableName(), change.recordId(), e.getMessage());
             }
-        } catch (Exception e) {
-            System.err.println("Error insertando evento: " + e.getMessage());
-            return false;
         }
+        return rows;
     }
 
-    private boolean insertCalendar(Connection conn, String calendarId, String jsonData) {
-        try {
-            String name = extractJsonValue(jsonData, "name");
-            String description = extractJsonValue(jsonData, "description");
-            String color = extractJsonValue(jsonData, "color");
-
-            String sql = """
-                INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME, DESCRIPTION, COLOR, ACTIVE, CREATED_DATE) 
-                VALUES (?, 'DEFAULT_USER', ?, ?, ?, 'Y', SYSDATE)
-            """;
-
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, calendarId);
-                stmt.setString(2, name);
-                stmt.setString(3, description);
-                stmt.setString(4, color);
-                return stmt.executeUpdate() > 0;
+    /**
+     * Una sentencia y un punto de guardado por fila: la que falla se deshace sola y el resto sigue
+     */
+    private void replayRowByRow(Connection online, String sql, ReplayKey key, List<ReplayRow> rows,
+                                Set<Long> failedIds, List<ReplayRow> conflicts) throws SQLException {
+        try (PreparedStatement stmt = online.prepareStatement(sql)) {
+            for (ReplayRow row : rows) {
+                PendingChange change = row.change();
+                Savepoint beforeRow = online.setSavepoint();
+                try {
+                    bindReplay(stmt, key, row);
+                    checkEffect(key, row, stmt.executeUpdate(), conflicts);
+                } catch (SQLIntegrityConstraintViolationException e) {
+                    online.rollback(beforeRow);
+                    if ("INSERT".equals(key.operation())) {
+                        // El registro ya existe online: la cola se reenvió antes y no llegó a borrarse
+                        System.out.println("INSERT ya aplicado en " + key.tableName() + " (ID: " + change.recordId() + ")");
+                    } else {
+                        failedIds.add(change.id());
+                        System.err.printf("Error sincronizando %s (ID: %s): %s\n",
+                                key.tableName(), change.recordId(), e.getMessage());
+                    }
+                } catch (SQLException e) {
+                    if (!online.isValid(2)) {
+                        throw e; // Se cayó la conexión: no tiene sentido seguir fila por fila
+                    }
+                    online.rollback(beforeRow);
+                    failedIds.add(change.id());
+                    System.err.printf("Error sincronizando %s (ID: %s): %s\n",
+                            key.tableName(), change.recordId(), e.getMessage());
+                }
             }
-        } catch (Exception e) {
-            System.err.println("Error insertando calendario: " + e.getMessage());
-            return false;
         }
     }
 
-    private boolean performUpdate(Connection conn, String tableName, String recordId, String jsonData) {
-        try {
-            System.out.println("UPDATE en " + tableName + " ID " + recordId + ": " + jsonData);
+    /**
+     * Sentencia de reenvío para la tabla y operación, o null si no está implementada
+     */
+    private String replaySql(ReplayKey key, SqlDialect dialect) {
+        SqlCatalog entry = switch (key.operation() + " " + key.tableName()) {
+            case "INSERT EVENTS" -> SqlCatalog.EVENT_INSERT;
+            case "UPDATE EVENTS" -> SqlCatalog.SYNC_EVENT_UPDATE;
+            case "DELETE EVENTS" -> SqlCatalog.SYNC_EVENT_DELETE;
+            case "INSERT CALENDARS" -> SqlCatalog.CALENDAR_INSERT;
+            case "UPDATE CALENDARS" -> SqlCatalog.SYNC_CALENDAR_UPDATE;
+            case "DELETE CALENDARS" -> SqlCatalog.SYNC_CALENDAR_DELETE;
+            case "REACTIVATE CALENDARS" -> SqlCatalog.SYNC_CALENDAR_REACTIVATE;
+            case "INSERT CALENDAR_PERMISSIONS" -> SqlCatalog.SYNC_PERMISSION_INSERT;
+            case "UPDATE CALENDAR_PERMISSIONS" -> SqlCatalog.SYNC_PERMISSION_UPDATE;
+            case "INSERT USERS" -> SqlCatalog.SYNC_USER_INSERT;
+            case "UPDATE USERS" -> SqlCatalog.SYNC_USER_UPDATE;
+            case "DELETE CALENDAR_PERMISSIONS" -> SqlCatalog.SYNC_PERMISSION_DELETE;
+            case "DELETE USERS" -> SqlCatalog.SYNC_USER_DELETE;
+            case "INSERT EVENT_EXCEPTIONS" -> SqlCatalog.EVENT_EXCEPTION_INSERT;
+            case "DELETE EVENT_EXCEPTIONS" -> SqlCatalog.SYNC_EVENT_EXCEPTION_DELETE;
+            default -> null;
+        };
+        return entry != null ? entry.sql(dialect) : null;
+    }
 
-            if ("EVENTS".equals(tableName.toUpperCase())) {
-                return updateEvent(conn, recordId, jsonData);
+    private void bindReplay(PreparedStatement stmt, ReplayKey key, ReplayRow row) throws SQLException {
+        String recordId = row.change().recordId();
+        boolean insert = "INSERT".equals(key.operation());
+        switch (row.payload()) {
+            case SyncPayloadCodec.EventPayload e when insert -> {
+                // Los datos v0 no traían calendario ni creador
+                stmt.setString(1, recordId);
+                stmt.setString(2, e.calendarId() != null ? e.calendarId() : LEGACY_CALENDAR_ID);
+                stmt.setString(3, e.creatorId() != null ? e.creatorId() : LEGACY_USER_ID);
+                stmt.setString(4, e.title());
+                stmt.setString(5, e.description());
+                stmt.setTimestamp(6, timestamp(e.startDate()));
+                stmt.setTimestamp(7, timestamp(e.endDate()));
+                stmt.setString(8, e.allDay() ? "Y" : "N");
+                stmt.setString(9, e.location());
+                stmt.setString(10, e.recurrence());
+                stmt.setTimestamp(11, timestamp(e.recurrenceEndDate()));
+            }
+            case SyncPayloadCodec.EventPayload e -> {
+                stmt.setString(1, e.title());
+                stmt.setString(2, e.description());
+                stmt.setTimestamp(3, timestamp(e.startDate()));
+                stmt.setTimestamp(4, timestamp(e.endDate()));
+                stmt.setString(5, e.allDay() ? "Y" : "N");
+                stmt.setString(6, e.location());
+                stmt.setString(7, e.recurrence());
+                stmt.setTimestamp(8, timestamp(e.recurrenceEndDate()));
+                stmt.setString(9, recordId);
+                setVersion(stmt, 10, e.baseVersion());
+            }
+            case SyncPayloadCodec.CalendarPayload c when insert -> {
+                stmt.setString(1, recordId);
+                stmt.setString(2, c.ownerId() != null ? c.ownerId() : LEGACY_USER_ID);
+                stmt.setString(3, c.name());
+                stmt.setString(4, c.description());
+                stmt.setString(5, c.color());
             }
+            case SyncPayloadCodec.CalendarPayload c -> {
+                // UPDATE y REACTIVATE enlazan igual
+                stmt.setString(1, c.name());
+                stmt.setString(2, c.description());
+                stmt.setString(3, c.color());
+                stmt.setString(4, recordId);
+                setVersion(stmt, 5, c.baseVersion());
+            }
+            case SyncPayloadCodec.PermissionPayload p when insert -> {
+                stmt.setString(1, recordId);
+                stmt.setString(2, p.calendarId());
+                stmt.setString(3, p.userId());
+                stmt.setString(4, p.permissionType() != null ? p.permissionType() : "VIEW");
+            }
+            case SyncPayloadCodec.PermissionPayload p -> {
+                stmt.setString(1, p.permissionType() != null ? p.permissionType() : "VIEW");
+                stmt.setString(2, recordId);
+            }
+            case SyncPayloadCodec.UserPayload u when insert -> {
+                stmt.setString(1, recordId);
+                stmt.setString(2, u.matricula());
+                stmt.setString(3, u.firstName());
+                stmt.setString(4, u.lastName());
+                stmt.setString(5, u.email());
+                stmt.setString(6, u.password());
+                stmt.setString(7, u.role());
+            }
+            case SyncPayloadCodec.UserPayload u -> {
+                stmt.setString(1, u.matricula());
+                stmt.setString(2, u.firstName());
+                stmt.setString(3, u.lastName());
+                stmt.setString(4, u.email());
+                stmt.setString(5, u.role());
+                stmt.setString(6, recordId);
+            }
+            case SyncPayloadCodec.ExceptionPayload x -> {
+                stmt.setString(1, x.eventId());
+                stmt.setDate(2, x.occurrenceDate() != null ? java.sql.Date.valueOf(x.occurrenceDate()) : null);
+            }
+            case SyncPayloadCodec.DeletePayload d -> {
+                stmt.setString(1, recordId);
+                if (isVersioned(key.tableName())) setVersion(stmt, 2, d.baseVersion());
+            }
+        }
+    }
 
-            System.out.println("UPDATE para " + tableName + " registrado pero no implementado");
-            return true;
-        } catch (Exception e) {
-            System.err.println("Error en UPDATE: " + e.getMessage());
-            return false;
+    /**
+     * Tablas con ROW_VERSION: sus cambios y bajas se reenvían condicionados
+     */
+    private static boolean isVersioned(String tableName) {
+        return "EVENTS".equals(tableName) || "CALENDARS".equals(tableName);
+    }
+
+    private static void setVersion(PreparedStatement stmt, int index, Long version) throws SQLException {
+        if (version != null) {
+            stmt.setLong(index, version);
+        } else {
+            stmt.setNull(index, Types.NUMERIC); // Sin versión base: COALESCE deja el cambio sin condición
         }
     }
 
-    private boolean updateEvent(Connection conn, String eventId, String jsonData) {
-        try {
-            String title = extractJsonValue(jsonData, "title");
-            String description = extractJsonValue(jsonData, "description");
-            String startDate = extractJsonValue(jsonData, "startDate");
-            String endDate = extractJsonValue(jsonData, "endDate");
-            String location = extractJsonValue(jsonData, "location");
-
-            String sql = """
-                UPDATE EVENTS SET TITLE = ?, DESCRIPTION = ?, START_DATE = ?, 
-                                END_DATE = ?, LOCATION = ?, MODIFIED_DATE = SYSDATE 
-                WHERE EVENT_ID = ?
-            """;
-
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, title);
-                stmt.setString(2, description);
-                stmt.setString(3, startDate);
-                stmt.setString(4, endDate);
-                stmt.setString(5, location);
-                stmt.setString(6, eventId);
-                return stmt.executeUpdate() > 0;
+    private static Long baseVersion(SyncPayloadCodec.Payload payload) {
+        return switch (payload) {
+            case SyncPayloadCodec.EventPayload e -> e.baseVersion();
+            case SyncPayloadCodec.CalendarPayload c -> c.baseVersion();
+            case SyncPayloadCodec.DeletePayload d -> d.baseVersion();
+            default -> null;
+        };
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    /**
+     * Un UPDATE o DELETE sin efecto con versión base es un conflicto: el registro cambió (o se
+     * borró) online desde que se leyó. Sin versión base no encontró el registro y no se
+     * reintenta: nunca tendría efecto
+     */
+    private static void checkEffect(ReplayKey key, ReplayRow row, int count, List<ReplayRow> conflicts) {
+        if (count != 0 || "INSERT".equals(key.operation())) return;
+        if (isVersioned(key.tableName()) && baseVersion(row.payload()) != null) {
+            conflicts.add(row);
+            System.out.printf("Conflicto en %s (ID: %s): cambió online después de la versión %d\n",
+                    key.tableName(), row.change().recordId(), baseVersion(row.payload()));
+        } else {
+            System.out.println(key.operation() + " en " + key.tableName() + " sin efecto (ID: " +
+                    row.change().recordId() + " no existe online)");
+        }
+    }
+
+    /**
+     * Borra de la cola los ids reconocidos del bloque como rangos contiguos, saltando los fallidos.
+     * Los conflictos se mueven a sync_conflicts en la misma transacción
+     */
+    private void deleteAcknowledged(Connection queue, List<PendingChange> chunk, Set<Long> failedIds,
+                                    List<ReplayRow> conflicts) throws SQLException {
+        String deleteSql = "DELETE FROM pending_sync WHERE id BETWEEN ? AND ?";
+        boolean queueAutoCommit = queue.getAutoCommit();
+        queue.setAutoCommit(false);
+        try (PreparedStatement stmt = queue.prepareStatement(deleteSql)) {
+            if (!conflicts.isEmpty()) {
+                recordConflicts(queue, conflicts);
             }
-        } catch (Exception e) {
-            System.err.println("Error actualizando evento: " + e.getMessage());
-            return false;
+            long rangeStart = -1;
+            long rangeEnd = -1;
+            for (PendingChange change : chunk) {
+                if (failedIds.contains(change.id())) {
+                    if (rangeStart >= 0) addRange(stmt, rangeStart, rangeEnd);
+                    rangeStart = -1;
+                } else {
+                    if (rangeStart < 0) rangeStart = change.id();
+                    rangeEnd = change.id();
+                }
+            }
+            if (rangeStart >= 0) addRange(stmt, rangeStart, rangeEnd);
+            stmt.executeBatch();
+            queue.commit();
+        } catch (SQLException e) {
+            queue.rollback();
+            throw e;
+        } finally {
+            queue.setAutoCommit(queueAutoCommit);
         }
     }
 
-    private boolean performDelete(Connection conn, String tableName, String recordId) {
-        try {
-            String idColumn = getIdColumnForTable(tableName);
-            String deleteSql = "UPDATE " + tableName + " SET ACTIVE = 'N' WHERE " + idColumn + " = ?";
+    private static void recordConflicts(Connection queue, List<ReplayRow> conflicts) throws SQLException {
+        try (PreparedStatement stmt = queue.prepareStatement(SqlCatalog.SYNC_CONFLICT_INSERT.sql(SqlDialect.SQLITE))) {
+            for (ReplayRow conflict : conflicts) {
+                PendingChange change = conflict.change();
+                stmt.setString(1, change.tableName());
+                stmt.setString(2, change.recordId());
+                stmt.setString(3, change.operation());
+                stmt.setObject(4, baseVersion(conflict.payload()));
+                stmt.setString(5, change.data());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
 
-            try (PreparedStatement stmt = conn.prepareStatement(deleteSql)) {
-                stmt.setString(1, recordId);
-                int affected = stmt.executeUpdate();
-                System.out.println("DELETE en " + tableName + " ID " + recordId +
-                        " (afectados: " + affected + ")");
-                return affected > 0;
+    private static void addRange(PreparedStatement stmt, long from, long to) throws SQLException {
+        stmt.setLong(1, from);
+        stmt.setLong(2, to);
+        stmt.addBatch();
+    }
+
+    /**
+     * Las tablas reenviadas cambiaron online: la réplica local debe volver a traerlas
+     */
+    private static void markReplicaStale(Set<String> tableNames) {
+        for (String tableName : tableNames) {
+            try {
+                LocalReplica.getInstance().markStale(LocalReplica.Table.valueOf(tableName));
+            } catch (IllegalArgumentException ignored) {
+                // Tabla que la réplica no copia
             }
-        } catch (Exception e) {
-            System.err.println("Error en DELETE: " + e.getMessage());
-            return false;
         }
     }
 
-    private String getIdColumnForTable(String tableName) {
-        switch (tableName.toUpperCase()) {
-            case "USERS":
-                return "USER_ID";
-            case "CALENDARS":
-                return "CALENDAR_ID";
-            case "EVENTS":
-                return "EVENT_ID";
-            case "CALENDAR_PERMISSIONS":
-                return "PERMISSION_ID";
-            case "INVITATIONS":
-                return "INVITATION_ID";
-            case "CLASS_TEMPLATES":
-                return "TEMPLATE_ID";
-            default:
-                return "id";
+    /**
+     * MÉTODO NUEVO: Contar registros pendientes
+     */
+    private int countPendingRecords(Connection conn) throws SQLException {
+        String countSql = "SELECT COUNT(*) FROM pending_sync";
+        try (PreparedStatement stmt = conn.prepareStatement(countSql);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
         }
     }
 
-    private void deletePendingSync(Connection conn, int pendingId) throws SQLException {
-        String deleteSql = "DELETE FROM pending_sync WHERE id = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(deleteSql)) {
-            stmt.setInt(1, pendingId);
-            stmt.executeUpdate();
+    private boolean tableExists(Connection conn, String tableName) {
+        try {
+            DatabaseMetaData metaData = conn.getMetaData();
+            try (ResultSet rs = metaData.getTables(null, null, tableName, null)) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            return false;
         }
     }
 
     /**
-     * MÉTODO MEJORADO: Mejor manejo de SQLite vs Oracle
+     * Registra un cambio hecho sin conexión. Va al registro offline (sin esperar a SQLite),
+     * que lo vuelca a pending_sync fusionándolo con el pendiente del mismo registro
      */
     public void addPendingChange(String tableName, String recordId, String operation, String jsonData) {
         if (!DatabaseConfig.isOfflineMode()) {
             return;
         }
 
+        try {
+            OfflineChangeLog.getInstance().append(tableName, recordId, operation, jsonData);
+            return;
+        } catch (IOException e) {
+            System.err.println("Registro offline no disponible, se encola directo: " + e.getMessage());
+        }
+
         try (Connection conn = DatabaseConfig.getConnection()) {
             // Verificar si la tabla existe
             if (!tableExists(conn, "pending_sync")) {
                 createPendingSyncTable(conn);
             }
 
-            // Verificar si ya existe el mismo registro pendiente
-            if (isDuplicatePendingChange(conn, tableName, recordId, operation)) {
-                System.out.println("Cambio duplicado ignorado: " + tableName + " (" + operation + ") - ID: " + recordId);
-                return;
-            }
-
-            String insertSql = """
-                INSERT INTO pending_sync (table_name, record_id, operation, data, created_at) 
-                VALUES (?, ?, ?, ?, datetime('now'))
-                """;
-
-            try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
-                stmt.setString(1, tableName);
-                stmt.setString(2, recordId);
-                stmt.setString(3, operation);
-                stmt.setString(4, jsonData);
-                stmt.executeUpdate();
-
-                System.out.println("Cambio agregado a cola de sincronizacion: " +
-                        tableName + " (" + operation + ") - ID: " + recordId);
-            }
+            // Se fusiona con el cambio pendiente del mismo registro (si lo hay)
+            PendingChangeJournal.Outcome outcome = PendingChangeJournal.record(conn, tableName, recordId, operation, jsonData);
+            System.out.println("Cambio " + outcome + " en cola de sincronizacion: " +
+                    tableName + " (" + operation + ") - ID: " + recordId);
         } catch (Exception e) {
             System.err.println("Error agregando cambio pendiente: " + e.getMessage());
         }
     }
 
     /**
-     * MÉTODO NUEVO: Verificar cambios duplicados
+     * Alta, cambio o reactivación de un calendario hecha sin conexión (baseVersion: su ROW_VERSION local)
      */
-    private boolean isDuplicatePendingChange(Connection conn, String tableName, String recordId, String operation) {
-        try {
-            String checkSql = "SELECT COUNT(*) FROM pending_sync WHERE table_name = ? AND record_id = ? AND operation = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(checkSql)) {
-                stmt.setString(1, tableName);
-                stmt.setString(2, recordId);
-                stmt.setString(3, operation);
-                try (ResultSet rs = stmt.executeQuery()) {
-                    return rs.next() && rs.getInt(1) > 0;
-                }
-            }
-        } catch (Exception e) {
-            return false; // En caso de error, permitir el insert
-        }
+    public void addPendingCalendar(String operation, com.utez.calendario.models.Calendar calendar) {
+        addPendingChange("CALENDARS", calendar.getCalendarId(), operation,
+                SyncPayloadCodec.encode(SyncPayloadCodec.CalendarPayload.from(calendar)));
+    }
+
+    /**
+     * Permiso sobre un calendario concedido sin conexión
+     */
+    public void addPendingPermission(String permissionId, String calendarId, String userId, String permissionType,
+                                     String grantedBy) {
+        addPendingChange("CALENDAR_PERMISSIONS", permissionId, "INSERT", SyncPayloadCodec.encode(
+                new SyncPayloadCodec.PermissionPayload(SyncPayloadCodec.CURRENT_VERSION, calendarId, userId,
+                        permissionType, grantedBy)));
+    }
+
+    /**
+     * Baja hecha sin conexión; baseVersion es el ROW_VERSION local (null: sin condición al reenviar)
+     */
+    public void addPendingDelete(String tableName, String recordId, Long baseVersion) {
+        addPendingChange(tableName, recordId, "DELETE", SyncPayloadCodec.encode(
+                new SyncPayloadCodec.DeletePayload(SyncPayloadCodec.CURRENT_VERSION, baseVersion)));
     }
 
     private void createPendingSyncTable(Connection conn) throws SQLException {
@@ -604,7 +863,7 @@ public class OfflineSyncService {
     }
 
     public SyncStats getSyncStats() {
-        try (Connection conn = DatabaseConfig.getConnection()) {
+        try (Connection conn = DatabaseConfig.getLocalConnection()) {
             if (!tableExists(conn, "pending_sync")) {
                 return new SyncStats(0, DatabaseConfig.isOfflineMode(), DatabaseConfig.getOfflineReason());
             }
@@ -614,7 +873,7 @@ public class OfflineSyncService {
                  ResultSet rs = stmt.executeQuery()) {
 
                 if (rs.next()) {
-                    int pendingCount = rs.getInt("pending");
+                    int pendingCount = rs.getInt("pending") + (int) undrainedChanges();
                     return new SyncStats(pendingCount, DatabaseConfig.isOfflineMode(),
                             DatabaseConfig.getOfflineReason());
                 }
@@ -626,6 +885,93 @@ public class OfflineSyncService {
         return new SyncStats(0, DatabaseConfig.isOfflineMode(), DatabaseConfig.getOfflineReason());
     }
 
+    private static long undrainedChanges() {
+        try {
+            return OfflineChangeLog.getInstance().getUndrainedCount();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Cambios offline que chocaron con cambios online, del más antiguo al más reciente
+     */
+    public List<SyncConflict> getConflicts() {
+        List<SyncConflict> conflicts = new ArrayList<>();
+        String sql = "SELECT id, table_name, record_id, operation, base_version, data, detected_at FROM sync_conflicts ORDER BY id";
+        try (Connection conn = DatabaseConfig.getLocalConnection()) {
+            if (!tableExists(conn, "sync_conflicts")) {
+                return conflicts;
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long baseVersion = rs.getLong(5);
+                    conflicts.add(new SyncConflict(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                            rs.wasNull() ? null : baseVersion, rs.getString(6), rs.getString(7)));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error leyendo conflictos de sincronizacion: " + e.getMessage());
+        }
+        return conflicts;
+    }
+
+    /**
+     * Resuelve un conflicto. keepLocal vuelve a encolar el cambio offline sin versión base (se
+     * impone al online en la siguiente sincronización); si no, se descarta y la réplica vuelve
+     * a traer el registro de la base online
+     */
+    public boolean resolveConflict(long conflictId, boolean keepLocal) {
+        try (Connection conn = DatabaseConfig.getLocalConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                SyncConflict conflict = null;
+                String selectSql = "SELECT table_name, record_id, operation, data FROM sync_conflicts WHERE id = ?";
+                try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+                    stmt.setLong(1, conflictId);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (rs.next()) {
+                            conflict = new SyncConflict(conflictId, rs.getString(1), rs.getString(2), rs.getString(3),
+                                    null, rs.getString(4), null);
+                        }
+                    }
+                }
+                if (conflict == null) {
+                    conn.rollback();
+                    return false;
+                }
+
+                if (keepLocal) {
+                    PendingChangeJournal.merge(conn, conflict.tableName(), conflict.recordId(), conflict.operation(),
+                            PendingChangeJournal.withoutBaseVersion(conflict.data()));
+                }
+                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM sync_conflicts WHERE id = ?")) {
+                    stmt.setLong(1, conflictId);
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+
+                if (!keepLocal) {
+                    markReplicaStale(Set.of(conflict.tableName()));
+                }
+                System.out.println("Conflicto " + conflictId + " resuelto (" +
+                        (keepLocal ? "se conserva el cambio local" : "se conserva la version online") + "): " +
+                        conflict.tableName() + " - ID: " + conflict.recordId());
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error resolviendo conflicto " + conflictId + ": " + e.getMessage());
+            return false;
+        }
+    }
+
     public boolean isSyncInProgress() {
         return isSyncing.get();
     }
@@ -636,6 +982,11 @@ public class OfflineSyncService {
 
     public void shutdown() {
         if (isRunning.compareAndSet(true, false)) {
+            try {
+                OfflineChangeLog.getInstance().close();
+            } catch (IOException e) {
+                System.err.println("Error cerrando el registro offline: " + e.getMessage());
+            }
             scheduler.shutdown();
             try {
                 if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
@@ -649,40 +1000,27 @@ public class OfflineSyncService {
         }
     }
 
-    /**
-     * MÉTODO AUXILIAR MEJORADO: Parsear JSON simple
-     */
-    private String extractJsonValue(String jsonData, String key) {
-        if (jsonData == null || key == null) return "";
+    private record PendingChange(long id, String tableName, String recordId, String operation, String data) {}
 
-        try {
-            String pattern = "\"" + key + "\":\"";
-            int startIndex = jsonData.indexOf(pattern);
-            if (startIndex == -1) {
-                // Intentar sin comillas (para números o booleanos)
-                pattern = "\"" + key + "\":";
-                startIndex = jsonData.indexOf(pattern);
-                if (startIndex == -1) return "";
+    private record ReplayKey(String tableName, String operation) {}
 
-                startIndex += pattern.length();
-                int endIndex = jsonData.indexOf(",", startIndex);
-                if (endIndex == -1) endIndex = jsonData.indexOf("}", startIndex);
-                if (endIndex == -1) return "";
+    private record ReplayRow(PendingChange change, SyncPayloadCodec.Payload payload) {}
 
-                return jsonData.substring(startIndex, endIndex).trim();
-            }
-
-            startIndex += pattern.length();
-            int endIndex = jsonData.indexOf("\"", startIndex);
-            if (endIndex == -1) return "";
-
-            return jsonData.substring(startIndex, endIndex);
-        } catch (Exception e) {
-            System.err.println("Error parseando JSON para clave '" + key + "': " + e.getMessage());
-            return "";
-        }
+    static final class ReplayResult {
+        final Set<String> tables = new HashSet<>();
+        int synced;
+        int failed;
+        int conflicts;
+        int chunks;
+        long elapsedMillis;
     }
 
+    /**
+     * Cambio offline apartado porque el registro cambió online desde la versión base
+     */
+    public record SyncConflict(long id, String tableName, String recordId, String operation, Long baseVersion,
+                               String data, String detectedAt) {}
+
     public static class SyncStats {
         public final int pendingChanges;
         public final boolean isOfflineMode;
@@ -0,0 +1,214 @@
+package com.utez.calendario.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Diario de cambios offline sobre pending_sync que fusiona las entradas por (tabla, registro).
+ *
+ * Cada registro tiene como mucho una entrada pendiente con su estado final:
+ * varios UPDATE se funden en uno con los datos más recientes, un INSERT seguido de
+ * UPDATE sigue siendo un solo INSERT, un INSERT seguido de DELETE se anula y un
+ * UPDATE seguido de DELETE queda en DELETE. Una reactivación (REACTIVATE) anula la baja
+ * pendiente, y una baja anula la reactivación pendiente. La entrada conserva su posición en la
+ * cola (id), así las altas siguen reenviándose antes que lo que depende de ellas.
+ * Al fusionar se conserva la "baseVersion" del primer cambio: la versión online que
+ * el cliente vio antes de editar, contra la que se condiciona el reenvío.
+ */
+final class PendingChangeJournal {
+
+    /**
+     * Qué hizo el diario con un cambio
+     */
+    enum Outcome {
+        QUEUED("encolado"),
+        MERGED("fusionado con el pendiente"),
+        CANCELLED("anulado junto con su alta pendiente"),
+        IGNORED("ignorado, el registro ya está borrado");
+
+        private final String description;
+
+        Outcome(String description) {
+            this.description = description;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String BASE_VERSION = "baseVersion";
+
+    private PendingChangeJournal() {}
+
+    /**
+     * Registra el cambio fusionándolo con la entrada pendiente del mismo registro, en una transacción
+     */
+    static Outcome record(Connection conn, String tableName, String recordId, String operation, String jsonData)
+            throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            Outcome outcome = merge(conn, tableName, recordId, operation, jsonData);
+            conn.commit();
+            return outcome;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Fusiona el cambio dentro de la transacción del llamador (p. ej. al volcar OfflineChangeLog)
+     */
+    static Outcome merge(Connection conn, String tableName, String recordId, String operation, String jsonData)
+            throws SQLException {
+        String op = operation.toUpperCase();
+        String selectSql = """
+                SELECT id, operation, data FROM pending_sync
+                WHERE table_name = ? AND record_id = ? ORDER BY id DESC LIMIT 1""";
+        long pendingId;
+        String pendingOp;
+        String pendingData;
+        try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+            stmt.setString(1, tableName);
+            stmt.setString(2, recordId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    append(conn, tableName, recordId, op, jsonData);
+                    return Outcome.QUEUED;
+                }
+                pendingId = rs.getLong(1);
+                pendingOp = rs.getString(2).toUpperCase();
+                pendingData = rs.getString(3);
+            }
+        }
+
+        switch (pendingOp + ">" + op) {
+            case "INSERT>INSERT", "INSERT>UPDATE", "UPDATE>UPDATE", "UPDATE>INSERT", "REACTIVATE>UPDATE" -> {
+                // La operación pendiente se mantiene (un alta sigue siendo alta) con el estado más reciente
+                update(conn, pendingId, pendingOp, mergeData(pendingData, jsonData));
+                return Outcome.MERGED;
+            }
+            case "INSERT>DELETE" -> {
+                // El registro nunca llegó a la base online: no hay nada que reenviar
+                delete(conn, pendingId);
+                return Outcome.CANCELLED;
+            }
+            case "DELETE>REACTIVATE", "REACTIVATE>DELETE" -> {
+                // La base online sigue en el estado que vio el cliente: ni baja ni reactivación
+                delete(conn, pendingId);
+                return Outcome.CANCELLED;
+            }
+            case "UPDATE>DELETE" -> {
+                update(conn, pendingId, op, keepBaseVersion(pendingData, jsonData));
+                return Outcome.MERGED;
+            }
+            case "DELETE>UPDATE", "DELETE>DELETE" -> {
+                return Outcome.IGNORED;
+            }
+            default -> {
+                // DELETE seguido de INSERT (mismo ID recreado) u operación desconocida: se encola aparte
+                append(conn, tableName, recordId, op, jsonData);
+                return Outcome.QUEUED;
+            }
+        }
+    }
+
+    /**
+     * Datos pendientes actualizados campo a campo con los nuevos, salvo la versión base; si
+     * alguno no es un objeto JSON se quedan los nuevos tal cual
+     */
+    static String mergeData(String pendingData, String newData) {
+        if (pendingData == null || pendingData.isBlank()) return newData;
+        if (newData == null || newData.isBlank()) return pendingData;
+        try {
+            JsonNode pending = MAPPER.readTree(pendingData);
+            JsonNode latest = MAPPER.readTree(newData);
+            if (pending instanceof ObjectNode merged && latest instanceof ObjectNode) {
+                JsonNode baseVersion = merged.get(BASE_VERSION);
+                merged.setAll((ObjectNode) latest);
+                if (baseVersion != null && !baseVersion.isNull()) merged.set(BASE_VERSION, baseVersion);
+                return MAPPER.writeValueAsString(merged);
+            }
+        } catch (Exception e) {
+            System.err.println("Datos pendientes no fusionables, se guardan los más recientes: " + e.getMessage());
+        }
+        return newData;
+    }
+
+    /**
+     * Datos nuevos con la versión base del cambio pendiente, si la tenía
+     */
+    static String keepBaseVersion(String pendingData, String newData) {
+        if (pendingData == null || pendingData.isBlank()) return newData;
+        try {
+            JsonNode baseVersion = MAPPER.readTree(pendingData).get(BASE_VERSION);
+            if (baseVersion == null || baseVersion.isNull()) return newData;
+            JsonNode latest = newData != null && !newData.isBlank() ? MAPPER.readTree(newData) : MAPPER.createObjectNode();
+            if (latest instanceof ObjectNode kept) {
+                kept.set(BASE_VERSION, baseVersion);
+                return MAPPER.writeValueAsString(kept);
+            }
+        } catch (Exception e) {
+            System.err.println("Versión base del cambio pendiente ilegible: " + e.getMessage());
+        }
+        return newData;
+    }
+
+    /**
+     * Datos sin versión base: el reenvío se aplica sin condición
+     */
+    static String withoutBaseVersion(String data) {
+        if (data == null || data.isBlank()) return data;
+        try {
+            if (MAPPER.readTree(data) instanceof ObjectNode node) {
+                node.remove(BASE_VERSION);
+                return MAPPER.writeValueAsString(node);
+            }
+        } catch (Exception e) {
+            System.err.println("Datos del conflicto ilegibles, se reenvían tal cual: " + e.getMessage());
+        }
+        return data;
+    }
+
+    private static void append(Connection conn, String tableName, String recordId, String op, String jsonData)
+            throws SQLException {
+        String insertSql = """
+                INSERT INTO pending_sync (table_name, record_id, operation, data, created_at)
+                VALUES (?, ?, ?, ?, datetime('now'))""";
+        try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
+            stmt.setString(1, tableName);
+            stmt.setString(2, recordId);
+            stmt.setString(3, op);
+            stmt.setString(4, jsonData);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static void update(Connection conn, long id, String op, String jsonData) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("UPDATE pending_sync SET operation = ?, data = ? WHERE id = ?")) {
+            stmt.setString(1, op);
+            stmt.setString(2, jsonData);
+            stmt.setLong(3, id);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static void delete(Connection conn, long id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM pending_sync WHERE id = ?")) {
+            stmt.setLong(1, id);
+            stmt.executeUpdate();
+        }
+    }
+}
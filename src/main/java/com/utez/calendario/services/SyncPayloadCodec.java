@@ -0,0 +1,338 @@
+package com.utez.calendario.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.utez.calendario.models.Calendar;
+import com.utez.calendario.models.Event;
+import com.utez.calendario.models.User;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Codificación de los datos de pending_sync por tabla.
+ *
+ * Cada fila guarda un objeto JSON con el campo "v" (versión del formato) y el estado
+ * del registro. Se decodifica en una sola pasada con el parser de streaming de Jackson,
+ * sin árbol intermedio; los campos desconocidos se saltan, así un formato posterior
+ * con campos nuevos sigue siendo legible. Los datos sin "v" son los de la versión 0,
+ * anteriores a este codec (solo texto, sin calendario ni creador).
+ *
+ * Los cambios y bajas de EVENTS y CALENDARS llevan "baseVersion": el ROW_VERSION que
+ * tenía el registro cuando se editó offline. Sin él (datos anteriores) el reenvío no
+ * tiene condición; por ser opcional no cambia la versión del formato.
+ */
+final class SyncPayloadCodec {
+
+    static final int CURRENT_VERSION = 1;
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final DateTimeFormatter LEGACY_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm[:ss]");
+
+    /**
+     * Estado de un registro tal como viaja en la cola
+     */
+    sealed interface Payload
+            permits EventPayload, CalendarPayload, PermissionPayload, UserPayload, ExceptionPayload, DeletePayload {
+        int version();
+    }
+
+    record EventPayload(int version, String calendarId, String creatorId, String title, String description,
+                        LocalDateTime startDate, LocalDateTime endDate, boolean allDay, String location,
+                        String recurrence, LocalDateTime recurrenceEndDate, Long baseVersion) implements Payload {
+
+        static EventPayload from(Event event) {
+            return new EventPayload(CURRENT_VERSION, event.getCalendarId(), event.getCreatorId(), event.getTitle(),
+                    event.getDescription(), event.getStartDate(), event.getEndDate(), event.isAllDay(),
+                    event.getLocation(), event.getRecurrence(), event.getRecurrenceEndDate(), event.getRowVersion());
+        }
+    }
+
+    record CalendarPayload(int version, String ownerId, String name, String description, String color,
+                           Long baseVersion) implements Payload {
+
+        static CalendarPayload from(Calendar calendar) {
+            return new CalendarPayload(CURRENT_VERSION, calendar.getOwnerId(), calendar.getName(),
+                    calendar.getDescription(), calendar.getColor(), calendar.getRowVersion());
+        }
+    }
+
+    record PermissionPayload(int version, String calendarId, String userId, String permissionType, String grantedBy)
+            implements Payload {}
+
+    record UserPayload(int version, String matricula, String email, String firstName, String lastName,
+                       String password, String role) implements Payload {
+
+        static UserPayload from(User user) {
+            return new UserPayload(CURRENT_VERSION, user.getMatricula(), user.getEmail(), user.getFirstName(),
+                    user.getLastName(), user.getPassword(), user.getRole() != null ? user.getRole().getValue() : null);
+        }
+    }
+
+    /**
+     * Ocurrencia excluida de una serie; en la cola el registro es "EVENT_ID@fecha"
+     */
+    record ExceptionPayload(int version, String eventId, LocalDate occurrenceDate) implements Payload {
+
+        String recordId() {
+            return eventId + "@" + occurrenceDate;
+        }
+    }
+
+    /**
+     * Baja de un registro; baseVersion es null si no se conoce
+     */
+    record DeletePayload(int version, Long baseVersion) implements Payload {}
+
+    /**
+     * Datos ilegibles, de una versión más nueva o de una tabla sin codec
+     */
+    static final class PayloadException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        PayloadException(String message) {
+            super(message);
+        }
+
+        PayloadException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private SyncPayloadCodec() {}
+
+    /**
+     * true si la tabla tiene formato propio en la cola
+     */
+    static boolean supports(String tableName) {
+        return switch (tableName.toUpperCase()) {
+            case "EVENTS", "CALENDARS", "CALENDAR_PERMISSIONS", "USERS", "EVENT_EXCEPTIONS" -> true;
+            default -> false;
+        };
+    }
+
+    // ========== CODIFICACIÓN ==========
+
+    static String encode(Payload payload) {
+        StringWriter out = new StringWriter(256);
+        try (JsonGenerator json = JSON.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeNumberField("v", CURRENT_VERSION);
+            switch (payload) {
+                case EventPayload e -> {
+                    writeString(json, "calendarId", e.calendarId());
+                    writeString(json, "creatorId", e.creatorId());
+                    writeString(json, "title", e.title());
+                    writeString(json, "description", e.description());
+                    writeDateTime(json, "startDate", e.startDate());
+                    writeDateTime(json, "endDate", e.endDate());
+                    json.writeBooleanField("allDay", e.allDay());
+                    writeString(json, "location", e.location());
+                    writeString(json, "recurrence", e.recurrence());
+                    writeDateTime(json, "recurrenceEndDate", e.recurrenceEndDate());
+                    writeLong(json, "baseVersion", e.baseVersion());
+                }
+                case CalendarPayload c -> {
+                    writeString(json, "ownerId", c.ownerId());
+                    writeString(json, "name", c.name());
+                    writeString(json, "description", c.description());
+                    writeString(json, "color", c.color());
+                    writeLong(json, "baseVersion", c.baseVersion());
+                }
+                case PermissionPayload p -> {
+                    writeString(json, "calendarId", p.calendarId());
+                    writeString(json, "userId", p.userId());
+                    writeString(json, "permissionType", p.permissionType());
+                    writeString(json, "grantedBy", p.grantedBy());
+                }
+                case UserPayload u -> {
+                    writeString(json, "matricula", u.matricula());
+                    writeString(json, "email", u.email());
+                    writeString(json, "firstName", u.firstName());
+                    writeString(json, "lastName", u.lastName());
+                    writeString(json, "password", u.password());
+                    writeString(json, "role", u.role());
+                }
+                case ExceptionPayload x -> {
+                    writeString(json, "eventId", x.eventId());
+                    writeString(json, "occurrenceDate", x.occurrenceDate() != null ? x.occurrenceDate().toString() : null);
+                }
+                case DeletePayload d -> writeLong(json, "baseVersion", d.baseVersion());
+            }
+            json.writeEndObject();
+        } catch (IOException e) {
+            // StringWriter no lanza E/S: solo un error de programación llega aquí
+            throw new IllegalStateException("No se pudo codificar " + payload, e);
+        }
+        return out.toString();
+    }
+
+    private static void writeString(JsonGenerator json, String field, String value) throws IOException {
+        if (value != null) {
+            json.writeStringField(field, value);
+        } else {
+            json.writeNullField(field); // Explícito: al fusionar cambios en PendingChangeJournal borra el valor anterior
+        }
+    }
+
+    private static void writeLong(JsonGenerator json, String field, Long value) throws IOException {
+        if (value != null) {
+            json.writeNumberField(field, value);
+        } else {
+            json.writeNullField(field);
+        }
+    }
+
+    private static void writeDateTime(JsonGenerator json, String field, LocalDateTime value) throws IOException {
+        writeString(json, field, value != null ? value.toString() : null);
+    }
+
+    // ========== DECODIFICACIÓN ==========
+
+    /**
+     * Decodifica en una pasada los datos de una fila de la cola. Nulos o vacíos son un objeto vacío
+     */
+    static Payload decode(String tableName, String data) throws PayloadException {
+        String table = tableName.toUpperCase();
+        if (!supports(table)) {
+            throw new PayloadException("Sin codec para la tabla " + tableName);
+        }
+        Fields fields = parse(tableName, data);
+
+        try {
+            return switch (table) {
+                case "EVENTS" -> new EventPayload(fields.version, fields.calendarId, fields.creatorId, fields.title,
+                        fields.description, parseDateTime(fields.startDate), parseDateTime(fields.endDate),
+                        fields.allDay, fields.location, fields.recurrence, parseDateTime(fields.recurrenceEndDate),
+                        fields.baseVersion);
+                case "CALENDARS" -> new CalendarPayload(fields.version, fields.ownerId, fields.name,
+                        fields.description, fields.color, fields.baseVersion);
+                case "CALENDAR_PERMISSIONS" -> new PermissionPayload(fields.version, fields.calendarId, fields.userId,
+                        fields.permissionType, fields.grantedBy);
+                case "USERS" -> new UserPayload(fields.version, fields.matricula, fields.email, fields.firstName,
+                        fields.lastName, fields.password, fields.role);
+                default -> new ExceptionPayload(fields.version, fields.eventId,
+                        fields.occurrenceDate != null ? LocalDate.parse(fields.occurrenceDate) : null);
+            };
+        } catch (DateTimeParseException e) {
+            throw new PayloadException("Fecha inválida en " + tableName + ": " + e.getParsedString(), e);
+        }
+    }
+
+    /**
+     * Datos de una baja de cualquier tabla; sin datos (formato anterior) no hay versión base
+     */
+    static DeletePayload decodeDelete(String tableName, String data) throws PayloadException {
+        Fields fields = parse(tableName, data);
+        return new DeletePayload(fields.version, fields.baseVersion);
+    }
+
+    /**
+     * Excepción identificada por el registro de la cola ("EVENT_ID@fecha"); las bajas no traen más datos
+     */
+    static ExceptionPayload decodeExceptionKey(String recordId) throws PayloadException {
+        int at = recordId != null ? recordId.lastIndexOf('@') : -1;
+        if (at <= 0) {
+            throw new PayloadException("Registro de excepción sin fecha: " + recordId);
+        }
+        try {
+            return new ExceptionPayload(CURRENT_VERSION, recordId.substring(0, at), LocalDate.parse(recordId.substring(at + 1)));
+        } catch (DateTimeParseException e) {
+            throw new PayloadException("Fecha inválida en EVENT_EXCEPTIONS: " + e.getParsedString(), e);
+        }
+    }
+
+    private static Fields parse(String tableName, String data) throws PayloadException {
+        Fields fields = new Fields();
+        if (data != null && !data.isBlank()) {
+            try (JsonParser json = JSON.createParser(data)) {
+                if (json.nextToken() != JsonToken.START_OBJECT) {
+                    throw new PayloadException("Los datos de " + tableName + " no son un objeto JSON");
+                }
+                while (json.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = json.currentName();
+                    JsonToken value = json.nextToken();
+                    if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                        json.skipChildren();
+                        continue;
+                    }
+                    fields.set(field, value, json);
+                }
+            } catch (IOException e) {
+                throw new PayloadException("JSON inválido en " + tableName + ": " + e.getMessage(), e);
+            }
+        }
+        if (fields.version > CURRENT_VERSION) {
+            throw new PayloadException("Datos de " + tableName + " en formato v" + fields.version +
+                    ", esta versión lee hasta v" + CURRENT_VERSION);
+        }
+        return fields;
+    }
+
+    /**
+     * ISO (v1) o "yyyy-MM-dd HH:mm:ss" / "yyyy-MM-dd" de los datos v0
+     */
+    static LocalDateTime parseDateTime(String value) {
+        if (value == null || value.isBlank()) return null;
+        if (value.length() == 10) return LocalDate.parse(value).atStartOfDay();
+        if (value.charAt(10) == 'T') return LocalDateTime.parse(value);
+        return LocalDateTime.parse(value, LEGACY_DATE_TIME);
+    }
+
+    /**
+     * Campos conocidos de todas las tablas; cada decodificación llena solo los suyos
+     */
+    private static final class Fields {
+        int version = 0;
+        String calendarId, creatorId, title, description, startDate, endDate, location, recurrence, recurrenceEndDate;
+        boolean allDay;
+        String ownerId, name, color;
+        String userId, permissionType, grantedBy;
+        String matricula, email, firstName, lastName, password, role;
+        String eventId, occurrenceDate;
+        Long baseVersion;
+
+        void set(String field, JsonToken token, JsonParser json) throws IOException {
+            switch (field) {
+                case "v" -> version = json.getValueAsInt(0);
+                case "calendarId" -> calendarId = text(token, json);
+                case "creatorId" -> creatorId = text(token, json);
+                case "title" -> title = text(token, json);
+                case "description" -> description = text(token, json);
+                case "startDate" -> startDate = text(token, json);
+                case "endDate" -> endDate = text(token, json);
+                // v0 no lo tenía; acepta true o "Y"
+                case "allDay" -> allDay = token == JsonToken.VALUE_TRUE || "Y".equalsIgnoreCase(json.getValueAsString());
+                case "location" -> location = text(token, json);
+                case "recurrence" -> recurrence = text(token, json);
+                case "recurrenceEndDate" -> recurrenceEndDate = text(token, json);
+                case "ownerId" -> ownerId = text(token, json);
+                case "name" -> name = text(token, json);
+                case "color" -> color = text(token, json);
+                case "userId" -> userId = text(token, json);
+                case "permissionType" -> permissionType = text(token, json);
+                case "grantedBy" -> grantedBy = text(token, json);
+                case "matricula" -> matricula = text(token, json);
+                case "email" -> email = text(token, json);
+                case "firstName" -> firstName = text(token, json);
+                case "lastName" -> lastName = text(token, json);
+                case "password" -> password = text(token, json);
+                case "role" -> role = text(token, json);
+                case "eventId" -> eventId = text(token, json);
+                case "occurrenceDate" -> occurrenceDate = text(token, json);
+                case "baseVersion" -> baseVersion = token == JsonToken.VALUE_NULL ? null : json.getValueAsLong();
+                default -> { } // Campo de otra tabla o de un formato posterior
+            }
+        }
+
+        private static String text(JsonToken token, JsonParser json) throws IOException {
+            return token == JsonToken.VALUE_NULL ? null : json.getValueAsString();
+        }
+    }
+}
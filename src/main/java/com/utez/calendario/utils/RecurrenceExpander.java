@@ -0,0 +1,181 @@
+package com.utez.calendario.utils;
+
+import com.utez.calendario.models.Event;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Expande bajo demanda una serie recurrente (fila maestra de EVENTS) solo dentro de la ventana pedida.
+ *
+ * Recorre los días de la ventana como epoch days (long) sin crear LocalDate intermedios;
+ * solo reserva memoria para las ocurrencias que efectivamente emite.
+ * El ID de cada ocurrencia es "{EVENT_ID}@{yyyyMMdd}".
+ */
+public final class RecurrenceExpander {
+
+    public static final char OCCURRENCE_SEPARATOR = '@';
+
+    private RecurrenceExpander() {}
+
+    /**
+     * Recibe la fecha, el inicio y el fin de cada ocurrencia emitida
+     */
+    @FunctionalInterface
+    public interface OccurrenceSink {
+        void accept(LocalDate date, LocalDateTime start, LocalDateTime end);
+    }
+
+    /**
+     * Emite las ocurrencias de la serie que se solapan con [windowStart, windowEnd]
+     *
+     * @param master     fila maestra con RECURRENCE y, opcionalmente, RECURRENCE_END_DATE
+     * @param exceptions fechas de ocurrencias eliminadas o desprendidas de la serie (puede ser null)
+     * @param sink       recibe cada ocurrencia
+     * @return número de ocurrencias emitidas, o -1 si la regla no es válida
+     */
+    public static int expand(Event master, Set<LocalDate> exceptions, LocalDate windowStart, LocalDate windowEnd,
+                             Consumer<Event> sink) {
+        return expand(master.getRecurrence(), master.getStartDate(), master.getEndDate(), master.getRecurrenceEndDate(),
+                exceptions, windowStart, windowEnd,
+                (date, start, end) -> sink.accept(occurrence(master, date, start, end)));
+    }
+
+    /**
+     * Variante sin modelo: sirve para cualquier representación de la fila maestra (Event, EventSummary)
+     *
+     * @return número de ocurrencias emitidas, o -1 si la regla no es válida
+     */
+    public static int expand(String recurrence, LocalDateTime seriesStart, LocalDateTime seriesEnd,
+                             LocalDateTime recurrenceEndDate, Set<LocalDate> exceptions,
+                             LocalDate windowStart, LocalDate windowEnd, OccurrenceSink sink) {
+        RecurrenceRule rule = RecurrenceRule.parse(recurrence);
+        if (rule == null || seriesStart == null) return -1;
+
+        LocalTime startTime = seriesStart.toLocalTime();
+        Duration duration = seriesEnd != null ? Duration.between(seriesStart, seriesEnd) : Duration.ZERO;
+        // Ocurrencias de varios días que empiezan antes de la ventana: cuenta días de calendario, no periodos
+        // de 24 h (un viernes 20:00 que dura 40 h termina el domingo, dos días después)
+        long spanDays = seriesEnd != null
+                ? Math.max(0, seriesEnd.toLocalDate().toEpochDay() - seriesStart.toLocalDate().toEpochDay())
+                : 0;
+
+        long seriesFirstDay = seriesStart.toLocalDate().toEpochDay();
+        long from = Math.max(seriesFirstDay, windowStart.toEpochDay() - spanDays);
+        long to = windowEnd.toEpochDay();
+        if (recurrenceEndDate != null) {
+            to = Math.min(to, recurrenceEndDate.toLocalDate().toEpochDay());
+        }
+
+        // Lunes de la semana en que inicia la serie, para respetar INTERVAL en reglas semanales
+        long seriesWeekMonday = seriesFirstDay - dayIndex(seriesFirstDay);
+        boolean hasExceptions = exceptions != null && !exceptions.isEmpty();
+
+        int emitted = 0;
+        for (long day = from; day <= to; day++) {
+            if (!matches(rule, day, seriesFirstDay, seriesWeekMonday)) continue;
+
+            LocalDate date = LocalDate.ofEpochDay(day);
+            if (hasExceptions && exceptions.contains(date)) continue;
+
+            LocalDateTime start = LocalDateTime.of(date, startTime);
+            sink.accept(date, start, start.plus(duration));
+            emitted++;
+        }
+        return emitted;
+    }
+
+    /**
+     * ID de la ocurrencia de una serie en la fecha dada: "{EVENT_ID}@{yyyyMMdd}"
+     */
+    public static String occurrenceId(String masterId, LocalDate date) {
+        return masterId + OCCURRENCE_SEPARATOR + formatDate(date);
+    }
+
+    /**
+     * Devuelve el ID de la serie a partir del ID de una ocurrencia (o el mismo ID si no es ocurrencia)
+     */
+    public static String masterIdOf(String eventId) {
+        if (eventId == null) return null;
+        int separator = eventId.indexOf(OCCURRENCE_SEPARATOR);
+        return separator < 0 ? eventId : eventId.substring(0, separator);
+    }
+
+    /**
+     * Devuelve la fecha de la ocurrencia, o null si el ID no es de una ocurrencia
+     */
+    public static LocalDate occurrenceDateOf(String eventId) {
+        if (eventId == null) return null;
+        int separator = eventId.indexOf(OCCURRENCE_SEPARATOR);
+        if (separator < 0 || eventId.length() != separator + 9) return null;
+
+        String digits = eventId.substring(separator + 1);
+        try {
+            return LocalDate.of(Integer.parseInt(digits.substring(0, 4)),
+                    Integer.parseInt(digits.substring(4, 6)),
+                    Integer.parseInt(digits.substring(6, 8)));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public static boolean isOccurrenceId(String eventId) {
+        return occurrenceDateOf(eventId) != null;
+    }
+
+    /**
+     * Crea la ocurrencia de la serie para la fecha dada
+     */
+    public static Event occurrence(Event master, LocalDate date) {
+        Duration duration = master.getEndDate() != null
+                ? Duration.between(master.getStartDate(), master.getEndDate())
+                : Duration.ZERO;
+        LocalDateTime start = LocalDateTime.of(date, master.getStartDate().toLocalTime());
+        return occurrence(master, date, start, start.plus(duration));
+    }
+
+    private static boolean matches(RecurrenceRule rule, long day, long seriesFirstDay, long seriesWeekMonday) {
+        if (rule.getFrequency() == RecurrenceRule.Frequency.DAILY) {
+            return (day - seriesFirstDay) % rule.getInterval() == 0;
+        }
+        if (!rule.includesDay(dayIndex(day))) return false;
+        return rule.getInterval() == 1 || ((day - seriesWeekMonday) / 7) % rule.getInterval() == 0;
+    }
+
+    private static Event occurrence(Event master, LocalDate date, LocalDateTime start, LocalDateTime end) {
+        Event event = new Event();
+        event.setEventId(occurrenceId(master.getEventId(), date));
+        event.setCalendarId(master.getCalendarId());
+        event.setCreatorId(master.getCreatorId());
+        event.setTitle(master.getTitle());
+        event.setDescription(master.getDescription());
+        event.setLocation(master.getLocation());
+        event.setStartDate(start);
+        event.setEndDate(end);
+        event.setAllDay(master.getAllDay());
+        event.setRecurrence(master.getRecurrence());
+        event.setRecurrenceEndDate(master.getRecurrenceEndDate());
+        event.setActive(master.getActive());
+        event.setCreatedDate(master.getCreatedDate());
+        event.setModifiedDate(master.getModifiedDate());
+        event.setCalendarColor(master.getCalendarColor());
+        event.setShared(master.isShared());
+        return event;
+    }
+
+    /**
+     * 0 = lunes ... 6 = domingo (el epoch day 0, 1970-01-01, fue jueves)
+     */
+    private static int dayIndex(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L);
+    }
+
+    private static String formatDate(LocalDate date) {
+        int value = date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+        return Integer.toString(value);
+    }
+}
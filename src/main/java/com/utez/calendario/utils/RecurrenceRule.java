@@ -0,0 +1,129 @@
+package com.utez.calendario.utils;
+
+import java.time.DayOfWeek;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Regla de recurrencia estilo RRULE guardada en EVENTS.RECURRENCE.
+ * Soporta FREQ=DAILY|WEEKLY, INTERVAL y BYDAY (MO..SU); el fin de la serie
+ * se guarda aparte en EVENTS.RECURRENCE_END_DATE.
+ *
+ * Ejemplo: "FREQ=WEEKLY;INTERVAL=1;BYDAY=MO,WE,FR"
+ */
+public final class RecurrenceRule {
+
+    public enum Frequency { DAILY, WEEKLY }
+
+    private static final String[] DAY_CODES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+    private final Frequency frequency;
+    private final int interval;
+    private final int dayMask; // bit 0 = lunes ... bit 6 = domingo
+
+    private RecurrenceRule(Frequency frequency, int interval, int dayMask) {
+        this.frequency = frequency;
+        this.interval = Math.max(1, interval);
+        this.dayMask = dayMask;
+    }
+
+    public static RecurrenceRule weekly(Collection<DayOfWeek> days) {
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= 1 << (day.getValue() - 1);
+        }
+        return new RecurrenceRule(Frequency.WEEKLY, 1, mask);
+    }
+
+    public static RecurrenceRule daily(int interval) {
+        return new RecurrenceRule(Frequency.DAILY, interval, 0);
+    }
+
+    /**
+     * Interpreta el texto de EVENTS.RECURRENCE; devuelve null si no es una regla soportada
+     */
+    public static RecurrenceRule parse(String rule) {
+        if (rule == null || rule.isBlank()) return null;
+
+        Frequency frequency = null;
+        int interval = 1;
+        int mask = 0;
+
+        for (String part : rule.trim().toUpperCase(Locale.ROOT).split(";")) {
+            int eq = part.indexOf('=');
+            if (eq <= 0) continue;
+            String key = part.substring(0, eq).trim();
+            String value = part.substring(eq + 1).trim();
+
+            switch (key) {
+                case "FREQ" -> {
+                    try {
+                        frequency = Frequency.valueOf(value);
+                    } catch (IllegalArgumentException e) {
+                        return null;
+                    }
+                }
+                case "INTERVAL" -> {
+                    try {
+                        interval = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                }
+                case "BYDAY" -> {
+                    for (String code : value.split(",")) {
+                        int index = dayIndex(code.trim());
+                        if (index < 0) return null;
+                        mask |= 1 << index;
+                    }
+                }
+                default -> {
+                    // Claves no soportadas se ignoran
+                }
+            }
+        }
+
+        if (frequency == null) return null;
+        if (frequency == Frequency.WEEKLY && mask == 0) return null;
+        return new RecurrenceRule(frequency, interval, mask);
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Índice de día 0 = lunes ... 6 = domingo
+     */
+    public boolean includesDay(int dayIndex) {
+        return (dayMask & (1 << dayIndex)) != 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("FREQ=").append(frequency).append(";INTERVAL=").append(interval);
+        if (frequency == Frequency.WEEKLY) {
+            sb.append(";BYDAY=");
+            boolean first = true;
+            for (int i = 0; i < DAY_CODES.length; i++) {
+                if (includesDay(i)) {
+                    if (!first) sb.append(',');
+                    sb.append(DAY_CODES[i]);
+                    first = false;
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int dayIndex(String code) {
+        for (int i = 0; i < DAY_CODES.length; i++) {
+            if (DAY_CODES[i].equals(code)) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,56 @@
+package com.utez.calendario.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static SQLTransientConnectionException poolTimeout() {
+        return new SQLTransientConnectionException("CalendarioPool - Connection is not available, request timed out after 30000ms.");
+    }
+
+    @Test
+    void poolExhaustionDoesNotOpenTheCircuit() {
+        CircuitBreaker breaker = new CircuitBreaker("prueba", 3, 1000, 10000);
+        for (int i = 0; i < 10; i++) {
+            breaker.recordFailure(poolTimeout());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        // Tampoco suma a la racha de fallos reales
+        breaker.recordFailure(new SQLException("ORA-00001"));
+        breaker.recordFailure(new SQLException("ORA-00001"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.recordFailure(new SQLException("ORA-00001"));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void transientConnectionWithNetworkCauseOpensTheCircuit() {
+        CircuitBreaker breaker = new CircuitBreaker("prueba", 3, 1000, 10000);
+        SQLTransientConnectionException error = new SQLTransientConnectionException("timeout", new ConnectException("Connection refused"));
+
+        assertFalse(CircuitBreaker.isPoolExhaustion(error));
+        breaker.recordFailure(error);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void poolExhaustionDuringProbeReopensTheCircuit() {
+        CircuitBreaker breaker = new CircuitBreaker("prueba", 1, 0, 0);
+        breaker.recordFailure(new SQLException("ORA-00001"));
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // La prueba debe resolverse o el circuito quedaría semiabierto para siempre
+        breaker.recordFailure(poolTimeout());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,72 @@
+package com.utez.calendario.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Envoltura de una conexión JDBC que cuenta los viajes al servidor (cada execute*) y,
+ * opcionalmente, simula la latencia de red de cada uno para que SQLite se comporte como Oracle remoto
+ */
+public final class CountingConnection {
+
+    private static final Set<String> ROUND_TRIPS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final AtomicInteger roundTrips = new AtomicInteger();
+    private final long latencyNanos;
+    private final Connection connection;
+
+    public CountingConnection(Connection target, long latencyNanos) {
+        this.latencyNanos = latencyNanos;
+        this.connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (result instanceof Statement statement) {
+                        return wrap(statement);
+                    }
+                    return result;
+                });
+    }
+
+    public Connection connection() {
+        return connection;
+    }
+
+    public int roundTrips() {
+        return roundTrips.get();
+    }
+
+    public void reset() {
+        roundTrips.set(0);
+    }
+
+    private Statement wrap(Statement statement) {
+        // PreparedStatement extiende Statement: un solo tipo de proxy sirve para ambos
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class : PreparedStatement.class;
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (ROUND_TRIPS.contains(method.getName())) {
+                roundTrips.incrementAndGet();
+                if (latencyNanos > 0) LockSupport.parkNanos(latencyNanos);
+            }
+            return invoke(statement, method, args);
+        };
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
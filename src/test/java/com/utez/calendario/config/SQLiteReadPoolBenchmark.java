@@ -0,0 +1,184 @@
+package com.utez.calendario.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latencia de lectura offline mientras una transacción de escritura masiva está abierta:
+ * lecturas por la única conexión escritora (diseño anterior) frente al pool de lectores sobre WAL.
+ */
+@Tag("benchmark")
+class SQLiteReadPoolBenchmark {
+
+    private static final int SEED_ROWS = 20_000;
+    private static final int BULK_ROWS = 60_000;
+    private static final int READER_THREADS = 2;
+    private static final String READ_SQL = """
+            SELECT COUNT(*) FROM EVENTS e
+            WHERE e.CALENDAR_ID = 'CAL-RW' AND e.ACTIVE = 'Y' AND e.START_DATE < ? AND e.END_DATE >= ?""";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readLatencyDuringBulkWrite() throws Exception {
+        String url = "jdbc:sqlite:" + dir.resolve("lectores.db").toAbsolutePath();
+        try (Connection conn = TestDatabases.openMigrated(dir.resolve("lectores.db"))) {
+            seed(conn);
+        }
+
+        try (HikariDataSource writer = DatabaseConfig.openSQLitePool(url, "bench-writer", 1, false, true)) {
+            try (Connection warm = writer.getConnection()) {
+                warm.isValid(1); // Aplica journal_mode=WAL antes de abrir los lectores de solo lectura
+            }
+            try (HikariDataSource readers = DatabaseConfig.openSQLitePool(url, "bench-readers", READER_THREADS, true, true)) {
+                Result shared = run(writer, writer, "A");
+                Result split = run(writer, readers, "B");
+
+                System.out.printf("📊 Lecturas durante una escritura de %d filas (%d lectores)%n", BULK_ROWS, READER_THREADS);
+                System.out.println("   Conexión única: " + shared);
+                System.out.println("   Pool de lectores WAL: " + split);
+
+                // Con una sola conexión las lecturas esperan el commit; con WAL no dependen de la escritura
+                assertTrue(split.max() < shared.max(), "Los lectores WAL no deberían esperar al escritor");
+                assertTrue(split.p99() < split.writeMillis() / 4, "p99 de lectura comparable a la escritura completa");
+            }
+        }
+    }
+
+    private Result run(HikariDataSource writer, HikariDataSource readSource, String prefix) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(READER_THREADS + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch transactionOpen = new CountDownLatch(1);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        try {
+            Future<Long> write = pool.submit(() -> bulkWrite(writer, prefix, transactionOpen, writing));
+            transactionOpen.await(10, TimeUnit.SECONDS);
+
+            List<Future<?>> reads = new ArrayList<>();
+            for (int t = 0; t < READER_THREADS; t++) {
+                reads.add(pool.submit(() -> {
+                    while (writing.get()) {
+                        long start = System.nanoTime();
+                        read(readSource);
+                        latencies.add(System.nanoTime() - start);
+                    }
+                    return null;
+                }));
+            }
+            long writeMillis = write.get(2, TimeUnit.MINUTES);
+            for (Future<?> read : reads) read.get(1, TimeUnit.MINUTES);
+            return Result.of(latencies, writeMillis);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long bulkWrite(HikariDataSource writer, String prefix, CountDownLatch transactionOpen,
+                                  AtomicBoolean writing) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = writer.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(
+                    "INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, TITLE, START_DATE, END_DATE, ACTIVE) VALUES (?, 'CAL-RW', ?, ?, ?, 'Y')")) {
+                LocalDateTime base = LocalDateTime.of(2027, 1, 1, 8, 0);
+                for (int i = 0; i < BULK_ROWS; i++) {
+                    insert.setString(1, prefix + "-BULK-" + i);
+                    insert.setString(2, "Importado " + i);
+                    insert.setTimestamp(3, Timestamp.valueOf(base.plusMinutes(i)));
+                    insert.setTimestamp(4, Timestamp.valueOf(base.plusMinutes(i + 30L)));
+                    insert.addBatch();
+                    if (i % 1000 == 999) {
+                        insert.executeBatch();
+                        transactionOpen.countDown(); // La transacción ya tiene el candado de escritura
+                    }
+                }
+                insert.executeBatch();
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+        } finally {
+            transactionOpen.countDown();
+            writing.set(false);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static void read(HikariDataSource source) throws SQLException {
+        try (Connection conn = source.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(READ_SQL)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.of(2026, 11, 1, 0, 0)));
+            stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.of(2026, 10, 1, 0, 0)));
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+            }
+        }
+    }
+
+    private static void seed(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO USERS (USER_ID, EMAIL, FIRST_NAME, LAST_NAME, PASSWORD) " +
+                    "VALUES ('U-RW', 'rw@utez.edu.mx', 'Prueba', 'Lectores', 'x')");
+            stmt.executeUpdate("INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME) VALUES ('CAL-RW', 'U-RW', 'Lectores')");
+        }
+        conn.setAutoCommit(false);
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, TITLE, START_DATE, END_DATE, ACTIVE) VALUES (?, 'CAL-RW', ?, ?, ?, 'Y')")) {
+            LocalDateTime base = LocalDateTime.of(2026, 10, 1, 7, 0);
+            for (int i = 0; i < SEED_ROWS; i++) {
+                insert.setString(1, "SEED-" + i);
+                insert.setString(2, "Evento " + i);
+                insert.setTimestamp(3, Timestamp.valueOf(base.plusMinutes(2L * i)));
+                insert.setTimestamp(4, Timestamp.valueOf(base.plusMinutes(2L * i + 60)));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        conn.commit();
+        conn.setAutoCommit(true);
+    }
+
+    private record Result(int reads, double p50, double p99, double max, long writeMillis) {
+
+        static Result of(List<Long> nanos, long writeMillis) {
+            List<Long> sorted = new ArrayList<>(nanos);
+            Collections.sort(sorted);
+            if (sorted.isEmpty()) return new Result(0, 0, 0, 0, writeMillis);
+            return new Result(sorted.size(), millis(sorted, 0.50), millis(sorted, 0.99),
+                    sorted.get(sorted.size() - 1) / 1e6, writeMillis);
+        }
+
+        private static double millis(List<Long> sorted, double percentile) {
+            int index = Math.min(sorted.size() - 1, (int) Math.ceil(percentile * sorted.size()) - 1);
+            return sorted.get(Math.max(0, index)) / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d lecturas, p50 %.2f ms, p99 %.2f ms, máx %.2f ms (escritura %d ms)",
+                    reads, p50, p99, max, writeMillis);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.utez.calendario.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlCatalogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void everyEntryCompilesAgainstTheMigratedSqliteSchema() throws SQLException {
+        try (Connection conn = TestDatabases.openMigrated(dir.resolve("catalogo.db"))) {
+            assertEquals(List.of(), SqlCatalog.validate(conn, SqlDialect.SQLITE));
+        }
+    }
+
+    @Test
+    void validationReportsMissingTables() throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + dir.resolve("vacia.db"))) {
+            List<String> failures = SqlCatalog.validate(conn, SqlDialect.SQLITE);
+
+            assertFalse(failures.isEmpty());
+            assertTrue(failures.stream().anyMatch(failure -> failure.startsWith("EVENT_INSERT:")), failures.toString());
+        }
+    }
+
+    @Test
+    void renderedStatementsHaveNoPlaceholdersLeft() {
+        for (SqlCatalog entry : SqlCatalog.values()) {
+            for (SqlDialect dialect : SqlDialect.values()) {
+                assertFalse(entry.sql(dialect).matches("(?s).*\\{\\w+(:[^}]*)?}.*"), entry + " en " + dialect);
+            }
+        }
+    }
+
+    @Test
+    void jdbcBindsBecomeNumberedOutsideLiteralsAndComments() {
+        assertEquals("SELECT /*+ INDEX(e ?) */ :1, '?', 'it''s ?' FROM DUAL WHERE A = :2 AND B IN (:3, :4)",
+                SqlCatalog.toNumberedBinds("SELECT /*+ INDEX(e ?) */ ?, '?', 'it''s ?' FROM DUAL WHERE A = ? AND B IN (?, ?)"));
+    }
+}
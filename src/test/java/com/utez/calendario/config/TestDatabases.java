@@ -0,0 +1,28 @@
+package com.utez.calendario.config;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Bases SQLite temporales con el esquema offline completo para las pruebas
+ */
+public final class TestDatabases {
+
+    private TestDatabases() {}
+
+    /**
+     * Abre (o crea) el archivo y aplica todas las migraciones SQLite
+     */
+    public static Connection openMigrated(Path file) throws SQLException {
+        Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.toAbsolutePath());
+        try {
+            SchemaMigrator.migrate(conn, SqlDialect.SQLITE);
+            return conn;
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.config.CountingConnection;
+import com.utez.calendario.config.SqlCatalog;
+import com.utez.calendario.config.SqlDialect;
+import com.utez.calendario.config.TestDatabases;
+import com.utez.calendario.models.Event;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Alta de un horario de 16 semanas x 6 días (96 ocurrencias): un INSERT con autocommit por evento,
+ * como hacía EventDialogController antes, frente a EventService.insertBatch (una transacción, lotes de 50).
+ * Cada viaje paga una latencia simulada para que los tiempos reflejen una base remota.
+ */
+@Tag("benchmark")
+class EventBatchInsertBenchmark {
+
+    private static final int WEEKS = 16;
+    private static final int DAYS_PER_WEEK = 6;
+    private static final long LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final String CALENDAR = "CAL-BENCH";
+    private static final String USER = "U-BENCH";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void scheduleOf96EventsInOneTransaction() throws SQLException {
+        String insertSql = SqlCatalog.EVENT_INSERT.sql(SqlDialect.SQLITE);
+
+        long perEventNanos;
+        int perEventTrips;
+        try (Connection conn = openFixture("por-evento.db")) {
+            CountingConnection counting = new CountingConnection(conn, LATENCY_NANOS);
+            List<Event> events = schedule("A");
+            long start = System.nanoTime();
+            for (Event event : events) {
+                try (PreparedStatement stmt = counting.connection().prepareStatement(insertSql)) {
+                    EventService.bindInsertEvent(stmt, event);
+                    stmt.executeUpdate();
+                }
+            }
+            perEventNanos = System.nanoTime() - start;
+            perEventTrips = counting.roundTrips();
+            assertEquals(events.size(), countEvents(conn));
+        }
+
+        long batchNanos;
+        int batchTrips;
+        try (Connection conn = openFixture("lote.db")) {
+            CountingConnection counting = new CountingConnection(conn, LATENCY_NANOS);
+            List<Event> events = schedule("B");
+            long start = System.nanoTime();
+            EventService.insertBatch(counting.connection(), events, insertSql);
+            batchNanos = System.nanoTime() - start;
+            batchTrips = counting.roundTrips();
+            assertEquals(events.size(), countEvents(conn));
+        }
+
+        int total = WEEKS * DAYS_PER_WEEK;
+        System.out.printf("📊 Alta de %d eventos (latencia simulada %d ms por viaje)%n",
+                total, TimeUnit.NANOSECONDS.toMillis(LATENCY_NANOS));
+        System.out.printf("   Un INSERT por evento: %d viajes, %d commits, %.1f ms%n",
+                perEventTrips, total, perEventNanos / 1e6);
+        System.out.printf("   insertBatch: %d viajes, 1 commit, %.1f ms%n", batchTrips, batchNanos / 1e6);
+
+        assertEquals(total, perEventTrips);
+        assertEquals((total + EventService.BATCH_CHUNK_SIZE - 1) / EventService.BATCH_CHUNK_SIZE, batchTrips);
+    }
+
+    @Test
+    void failedChunkRollsBackTheWholeSchedule() throws SQLException {
+        try (Connection conn = openFixture("rollback.db")) {
+            List<Event> events = schedule("C");
+            // El duplicado cae en el segundo bloque: el primero ya se ejecutó pero no debe quedar nada
+            events.get(EventService.BATCH_CHUNK_SIZE + 1).setEventId(events.get(0).getEventId());
+            try {
+                EventService.insertBatch(conn, events, SqlCatalog.EVENT_INSERT.sql(SqlDialect.SQLITE));
+            } catch (SQLException expected) {
+                // El lote se revierte y la excepción llega al llamador
+            }
+            assertEquals(0, countEvents(conn));
+        }
+    }
+
+    private Connection openFixture(String name) throws SQLException {
+        Connection conn = TestDatabases.openMigrated(dir.resolve(name));
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM EVENTS");
+            stmt.executeUpdate("INSERT OR IGNORE INTO USERS (USER_ID, EMAIL, FIRST_NAME, LAST_NAME, PASSWORD) " +
+                    "VALUES ('" + USER + "', 'bench@utez.edu.mx', 'Prueba', 'Benchmark', 'x')");
+            stmt.executeUpdate("INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME) VALUES ('" + CALENDAR + "', '" + USER + "', 'Clases')");
+        }
+        return conn;
+    }
+
+    private static List<Event> schedule(String prefix) {
+        List<Event> events = new ArrayList<>(WEEKS * DAYS_PER_WEEK);
+        LocalDate monday = LocalDate.of(2026, 9, 7).with(DayOfWeek.MONDAY);
+        for (int week = 0; week < WEEKS; week++) {
+            for (int day = 0; day < DAYS_PER_WEEK; day++) {
+                LocalDateTime start = monday.plusWeeks(week).plusDays(day).atTime(7, 0);
+                Event event = new Event();
+                event.setEventId(prefix + "-" + week + "-" + day);
+                event.setCalendarId(CALENDAR);
+                event.setCreatorId(USER);
+                event.setTitle("Clase semana " + (week + 1));
+                event.setStartDate(start);
+                event.setEndDate(start.plusHours(2));
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    private static int countEvents(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM EVENTS")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
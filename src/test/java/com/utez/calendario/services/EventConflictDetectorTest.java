@@ -0,0 +1,142 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.models.Event;
+import com.utez.calendario.models.EventSummary;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventConflictDetectorTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2026, 10, 19, 0, 0);
+
+    @Test
+    void overlappingCandidateReportsTheExistingEvent() {
+        EventConflictDetector detector = detector(existing("A", 7, 9), existing("B", 11, 13));
+
+        assertEquals("A", detector.findConflict(candidate(8, 10)).eventId());
+        assertEquals("B", detector.findConflict(candidate(12, 12.5)).eventId());
+        assertEquals("A", detector.findConflict(candidate(6, 8)).eventId());
+        assertNull(detector.findConflict(candidate(9.5, 10.5)));
+    }
+
+    @Test
+    void candidateContainingSeveralEventsReportsTheLatestStarting() {
+        EventConflictDetector detector = detector(existing("A", 7, 8), existing("B", 9, 10), existing("C", 11, 12));
+
+        assertEquals("C", detector.findConflict(candidate(6, 14)).eventId());
+    }
+
+    @Test
+    void touchingBoundariesDoNotConflict() {
+        EventConflictDetector detector = detector(existing("A", 7, 9));
+
+        assertNull(detector.findConflict(candidate(9, 10)));
+        assertNull(detector.findConflict(candidate(5, 7)));
+    }
+
+    @Test
+    void zeroLengthEvents() {
+        EventConflictDetector detector = detector(existing("A", 7, 9), existing("P", 12, 12));
+
+        // Un instante dentro de un evento choca; en sus bordes no
+        assertEquals("A", detector.findConflict(candidate(8, 8)).eventId());
+        assertNull(detector.findConflict(candidate(7, 7)));
+        assertNull(detector.findConflict(candidate(9, 9)));
+
+        // Un evento existente sin duración choca solo si cae dentro del candidato
+        assertEquals("P", detector.findConflict(candidate(11, 13)).eventId());
+        assertNull(detector.findConflict(candidate(12, 13)));
+        assertNull(detector.findConflict(candidate(10, 12)));
+    }
+
+    @Test
+    void missingEndDateIsTreatedAsAnInstant() {
+        EventConflictDetector detector = detector(existing("A", 7, 9));
+        Event candidate = candidate(8, 8);
+        candidate.setEndDate(null);
+
+        assertTrue(detector.hasConflict(candidate));
+    }
+
+    @Test
+    void excludedEventIsIgnored() {
+        List<EventSummary> events = List.of(existing("EDIT", 7, 9), existing("B", 8, 10));
+
+        assertEquals("B", new EventConflictDetector(events, "EDIT").findConflict(candidate(7, 8.5)).eventId());
+        assertNull(new EventConflictDetector(List.of(existing("EDIT", 7, 9)), "EDIT").findConflict(candidate(7, 9)));
+    }
+
+    @Test
+    void findConflictsReportsOnlyCollidingCandidates() {
+        EventConflictDetector detector = detector(existing("A", 7, 9));
+
+        List<EventConflictDetector.Conflict> conflicts =
+                detector.findConflicts(List.of(candidate(6, 7), candidate(8, 10), candidate(9, 11)));
+
+        assertEquals(1, conflicts.size());
+        assertEquals("A", conflicts.get(0).existing().eventId());
+        assertEquals(MONDAY.plusHours(8), conflicts.get(0).candidate().getStartDate());
+    }
+
+    @Test
+    void emptyDetectorHasNoConflicts() {
+        assertFalse(detector().hasConflict(candidate(7, 9)));
+    }
+
+    @Test
+    void longEarlyEventWithManyShortEventsAfterIt() {
+        // Un evento largo al inicio y miles de eventos cortos que terminan antes de cada candidato:
+        // recorrer hacia atrás costaría O(n) por candidato
+        int count = 100_000;
+        List<EventSummary> events = new ArrayList<>(count + 1);
+        events.add(new EventSummary("LARGO", "CAL", "Largo", MONDAY.minusDays(1), MONDAY.plusYears(3),
+                false, null, null, null, false));
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = MONDAY.plusMinutes(10L * i);
+            events.add(new EventSummary("E" + i, "CAL", "Corto", start, start.plusMinutes(1),
+                    false, null, null, null, false));
+        }
+        EventConflictDetector detector = new EventConflictDetector(events, null);
+
+        List<Event> candidates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = MONDAY.plusMinutes(10L * i + 5);
+            candidates.add(new Event("N" + i, "CAL", "USR", "Nuevo", start, start.plusMinutes(2)));
+        }
+
+        List<EventConflictDetector.Conflict> conflicts = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> detector.findConflicts(candidates));
+
+        assertEquals(count, conflicts.size());
+        assertTrue(conflicts.stream().allMatch(c -> c.existing().eventId().equals("LARGO")));
+        assertNull(new EventConflictDetector(events, "LARGO").findConflict(candidates.get(count / 2)));
+    }
+
+    // ===== Utilidades =====
+
+    private static EventConflictDetector detector(EventSummary... events) {
+        return new EventConflictDetector(List.of(events), null);
+    }
+
+    private static EventSummary existing(String id, double fromHour, double toHour) {
+        return new EventSummary(id, "CAL", id, at(fromHour), at(toHour), false, null, null, null, false);
+    }
+
+    private static Event candidate(double fromHour, double toHour) {
+        return new Event(null, "CAL", "USR", "Nuevo", at(fromHour), at(toHour));
+    }
+
+    private static LocalDateTime at(double hour) {
+        return MONDAY.plusMinutes(Math.round(hour * 60));
+    }
+}
@@ -0,0 +1,164 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.config.TestDatabases;
+import com.utez.calendario.models.Event;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventCursorTest {
+
+    private static final String CALENDAR = "CAL-CUR";
+    private static final LocalDate MONTH_START = LocalDate.of(2026, 10, 1);
+    private static final LocalDate MONTH_END = LocalDate.of(2026, 10, 31);
+    private static final String BIG_CALENDAR = "CAL-BIG";
+    private static final int BIG_ROWS = 60_000;
+    // Un Event mapeado ocupa cientos de bytes: materializar BIG_ROWS superaría con holgura este margen
+    private static final long FLAT_HEAP_TOLERANCE = 8L * 1024 * 1024;
+
+    @TempDir
+    static Path dir;
+
+    private static Path file;
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        file = dir.resolve("cursor.db");
+        try (Connection conn = TestDatabases.openMigrated(file);
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO USERS (USER_ID, EMAIL, FIRST_NAME, LAST_NAME, PASSWORD) " +
+                    "VALUES ('U-CUR', 'cursor@utez.edu.mx', 'Prueba', 'Cursor', 'x')");
+            stmt.executeUpdate("INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME) VALUES ('" + CALENDAR + "', 'U-CUR', 'Cursor')");
+            stmt.executeUpdate("INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME) VALUES ('" + BIG_CALENDAR + "', 'U-CUR', 'Grande')");
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement("""
+                    INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, TITLE, START_DATE, END_DATE, RECURRENCE, ACTIVE)
+                    VALUES (?, ?, ?, ?, ?, ?, 'Y')""")) {
+                // Evento simple que empieza en septiembre y termina en octubre
+                insert(insert, "A-CRUZA", CALENDAR, LocalDateTime.of(2026, 9, 30, 22, 0), LocalDateTime.of(2026, 10, 1, 2, 0), null);
+                insert(insert, "B-SIMPLE", CALENDAR, LocalDateTime.of(2026, 10, 7, 10, 0), LocalDateTime.of(2026, 10, 7, 11, 0), null);
+                insert(insert, "C-FUERA", CALENDAR, LocalDateTime.of(2026, 11, 2, 10, 0), LocalDateTime.of(2026, 11, 2, 11, 0), null);
+                // Serie de los miércoles que empezó en agosto
+                insert(insert, "S-MIERCOLES", CALENDAR, LocalDateTime.of(2026, 8, 5, 9, 0), LocalDateTime.of(2026, 8, 5, 10, 0),
+                        "FREQ=WEEKLY;BYDAY=WE");
+                for (int i = 0; i < BIG_ROWS; i++) {
+                    LocalDateTime start = MONTH_START.atTime(0, 0).plusSeconds(i * 40L);
+                    insert(insert, String.format("BIG-%06d", i), BIG_CALENDAR, start, start.plusMinutes(30), null);
+                    if (i % 1000 == 0) insert.executeBatch();
+                }
+                insert.executeBatch();
+            }
+            try (PreparedStatement exception = conn.prepareStatement(
+                    "INSERT INTO EVENT_EXCEPTIONS (EVENT_ID, OCCURRENCE_DATE) VALUES ('S-MIERCOLES', ?)")) {
+                exception.setDate(1, java.sql.Date.valueOf(LocalDate.of(2026, 10, 14)));
+                exception.executeUpdate();
+            }
+            conn.commit();
+        }
+    }
+
+    @Test
+    void streamsOverlappingEventsAndExpandedSeriesInOrder() throws SQLException {
+        List<String> ids = new ArrayList<>();
+        List<Event> events = new ArrayList<>();
+        try (Stream<Event> stream = stream(CALENDAR)) {
+            stream.forEach(event -> {
+                ids.add(event.getEventId());
+                events.add(event);
+            });
+        }
+
+        // Miércoles 7, 21 y 28 (el 14 es excepción); el evento que cruza desde septiembre sí entra
+        assertEquals(List.of("A-CRUZA", "S-MIERCOLES@20261007", "B-SIMPLE", "S-MIERCOLES@20261021", "S-MIERCOLES@20261028"), ids);
+        for (int i = 1; i < events.size(); i++) {
+            assertFalse(events.get(i).getStartDate().isBefore(events.get(i - 1).getStartDate()), "Orden por START_DATE");
+        }
+    }
+
+    @Test
+    void continuationTokenResumesAfterTheLastRow() throws SQLException {
+        EventCursor.ContinuationToken token;
+        List<String> firstPage = new ArrayList<>();
+        try (EventCursor cursor = EventService.openEventCursor(TestDatabases.openMigrated(file), BIG_CALENDAR,
+                MONTH_START, MONTH_END, null, 50)) {
+            for (int i = 0; i < 3 && cursor.hasNext(); i++) firstPage.add(cursor.next().getEventId());
+            token = EventCursor.ContinuationToken.decode(cursor.getContinuationToken().encode());
+        }
+        assertEquals(List.of("BIG-000000", "BIG-000001", "BIG-000002"), firstPage);
+
+        try (EventCursor cursor = EventService.openEventCursor(TestDatabases.openMigrated(file), BIG_CALENDAR,
+                MONTH_START, MONTH_END, token, 50)) {
+            assertEquals("BIG-000003", cursor.next().getEventId());
+        }
+    }
+
+    @Test
+    void heapStaysFlatWhileStreamingALargeCalendar() throws SQLException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long[] samples = new long[2];
+        int rows = 0;
+
+        try (Stream<Event> stream = stream(BIG_CALENDAR)) {
+            Iterator<Event> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                assertNotNull(iterator.next());
+                rows++;
+                if (rows == BIG_ROWS / 10) samples[0] = usedHeap(memory);
+                if (rows == BIG_ROWS * 9 / 10) samples[1] = usedHeap(memory);
+            }
+        }
+
+        assertEquals(BIG_ROWS, rows);
+        long growth = samples[1] - samples[0];
+        System.out.printf("📊 Heap usado al 10%%: %d KB, al 90%%: %d KB (crecimiento %d KB en %d filas)%n",
+                samples[0] / 1024, samples[1] / 1024, growth / 1024, BIG_ROWS * 8 / 10);
+        assertTrue(growth < FLAT_HEAP_TOLERANCE, "El heap creció " + growth / 1024 + " KB mientras se recorría el cursor");
+    }
+
+    private static Stream<Event> stream(String calendarId) throws SQLException {
+        List<Event> occurrences;
+        try (Connection conn = TestDatabases.openMigrated(file)) {
+            occurrences = EventService.loadSeriesOccurrences(conn, calendarId, MONTH_START, MONTH_END);
+        }
+        EventCursor cursor = EventService.openEventCursor(TestDatabases.openMigrated(file), calendarId,
+                MONTH_START, MONTH_END, null, EventService.DEFAULT_CURSOR_FETCH_SIZE);
+        return EventService.mergeWithOccurrences(cursor, occurrences);
+    }
+
+    private static long usedHeap(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void insert(PreparedStatement stmt, String id, String calendarId, LocalDateTime start,
+                               LocalDateTime end, String recurrence) throws SQLException {
+        stmt.setString(1, id);
+        stmt.setString(2, calendarId);
+        stmt.setString(3, "Evento " + id);
+        stmt.setTimestamp(4, Timestamp.valueOf(start));
+        stmt.setTimestamp(5, Timestamp.valueOf(end));
+        stmt.setString(6, recurrence);
+        stmt.addBatch();
+    }
+}
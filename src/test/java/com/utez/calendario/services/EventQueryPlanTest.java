@@ -0,0 +1,91 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.config.SqlCatalog;
+import com.utez.calendario.config.SqlDialect;
+import com.utez.calendario.config.TestDatabases;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Regresión de planes: ninguna consulta de rango sobre EVENTS debe volver a recorrer la tabla completa.
+ * Corre EXPLAIN QUERY PLAN sobre una base SQLite migrada con el esquema offline.
+ */
+class EventQueryPlanTest {
+
+    // "SCAN e" o "SCAN EVENTS" sin índice; "SCAN e USING INDEX ..." sí usa uno
+    private static final Pattern EVENTS_FULL_SCAN =
+            Pattern.compile("^SCAN (e|EVENTS)( AS e)?$", Pattern.CASE_INSENSITIVE);
+
+    @TempDir
+    static Path dir;
+
+    private static Connection conn;
+
+    @BeforeAll
+    static void migrate() throws SQLException {
+        conn = TestDatabases.openMigrated(dir.resolve("plan.db"));
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        conn.close();
+    }
+
+    private static Map<String, String> rangeQueries() {
+        Map<String, String> queries = new LinkedHashMap<>();
+        queries.put("rango propio (detalle)", EventService.rangeSql(EventRowMapper.DETAIL_COLUMNS, false));
+        queries.put("rango con compartidos (detalle)", EventService.rangeSql(EventRowMapper.DETAIL_COLUMNS, true));
+        queries.put("rango con compartidos (cuadrícula)", EventService.rangeSql(EventRowMapper.SUMMARY_COLUMNS, true));
+        queries.put("calendario en un mes", EventService.CALENDAR_MONTH_SQL);
+        queries.put("EVENTS_FOR_CALENDAR", SqlCatalog.EVENTS_FOR_CALENDAR.sql(SqlDialect.SQLITE));
+        queries.put("cursor", EventService.cursorSql(false));
+        queries.put("cursor con continuación", EventService.cursorSql(true));
+        queries.put("series de un calendario", EventService.CALENDAR_SERIES_SQL);
+        queries.put("fragmento EVENT_OVERLAP",
+                "SELECT e.EVENT_ID FROM EVENTS e WHERE e.CALENDAR_ID = ? AND e.ACTIVE = 'Y' AND " +
+                        SqlCatalog.Fragments.EVENT_OVERLAP);
+        return queries;
+    }
+
+    @TestFactory
+    Stream<DynamicTest> rangeQueriesUseAnIndexOnEvents() {
+        return rangeQueries().entrySet().stream().map(query -> DynamicTest.dynamicTest(query.getKey(), () -> {
+            List<String> plan = explain(query.getValue());
+            assertFalse(plan.isEmpty(), "EXPLAIN QUERY PLAN sin filas");
+            for (String step : plan) {
+                if (EVENTS_FULL_SCAN.matcher(step.trim()).matches()) {
+                    fail("Recorrido completo de EVENTS en '" + query.getKey() + "': " + plan);
+                }
+            }
+        }));
+    }
+
+    private static List<String> explain(String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                plan.add(rs.getString("detail"));
+            }
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,174 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.config.TestDatabases;
+import com.utez.calendario.models.Event;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH: costo de leer y mapear un mes de filas (500) desde SQLite por índice con EventRowMapper
+ * frente a la lectura por nombre de columna que hacía EventService.mapResultSetToEvent.
+ * Cada operación ejecuta la consulta preparada y recorre todo el resultado; GCProfiler reporta bytes por operación.
+ *
+ * mvn test -Pbenchmark -Dtest=EventRowMapperBenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventRowMapperBenchmark {
+
+    private static final int ROWS = 500;
+    private static final LocalDate MONTH_START = LocalDate.of(2026, 10, 1);
+
+    private Path dir;
+    private Connection conn;
+    private PreparedStatement summaryQuery;
+    private PreparedStatement detailQuery;
+
+    @Test
+    void runJmh() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EventRowMapperBenchmark.class.getName() + "\\.map")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Setup(Level.Trial)
+    public void load() throws Exception {
+        dir = Files.createTempDirectory("row-mapper");
+        conn = TestDatabases.openMigrated(dir.resolve("mapper.db"));
+        seed(conn);
+        summaryQuery = prepare(conn, EventRowMapper.SUMMARY_COLUMNS);
+        detailQuery = prepare(conn, EventRowMapper.DETAIL_COLUMNS);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws Exception {
+        summaryQuery.close();
+        detailQuery.close();
+        conn.close();
+        Files.deleteIfExists(dir.resolve("mapper.db"));
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public void mapSummaryByIndex(Blackhole sink) throws SQLException {
+        try (ResultSet rs = summaryQuery.executeQuery()) {
+            while (rs.next()) {
+                sink.consume(EventRowMapper.mapSummary(rs));
+            }
+        }
+    }
+
+    @Benchmark
+    public void mapDetailByIndex(Blackhole sink) throws SQLException {
+        try (ResultSet rs = detailQuery.executeQuery()) {
+            while (rs.next()) {
+                sink.consume(EventRowMapper.mapDetail(rs));
+            }
+        }
+    }
+
+    @Benchmark
+    public void mapDetailByName(Blackhole sink) throws SQLException {
+        try (ResultSet rs = detailQuery.executeQuery()) {
+            while (rs.next()) {
+                sink.consume(mapByName(rs));
+            }
+        }
+    }
+
+    /**
+     * Mapeo por nombre de columna previo a EventRowMapper, como referencia
+     */
+    private static Event mapByName(ResultSet rs) throws SQLException {
+        Event event = new Event();
+        event.setEventId(rs.getString("EVENT_ID"));
+        event.setCalendarId(rs.getString("CALENDAR_ID"));
+        event.setCreatorId(rs.getString("CREATOR_ID"));
+        event.setTitle(rs.getString("TITLE"));
+        event.setDescription(rs.getString("DESCRIPTION"));
+
+        Timestamp startDate = rs.getTimestamp("START_DATE");
+        if (startDate != null) event.setStartDate(startDate.toLocalDateTime());
+
+        Timestamp endDate = rs.getTimestamp("END_DATE");
+        if (endDate != null) event.setEndDate(endDate.toLocalDateTime());
+
+        String allDay = rs.getString("ALL_DAY");
+        if (allDay != null && !allDay.isEmpty()) event.setAllDay(allDay.charAt(0));
+
+        event.setLocation(rs.getString("LOCATION"));
+        event.setRecurrence(rs.getString("RECURRENCE"));
+
+        Timestamp recurrenceEndDate = rs.getTimestamp("RECURRENCE_END_DATE");
+        if (recurrenceEndDate != null) event.setRecurrenceEndDate(recurrenceEndDate.toLocalDateTime());
+        return event;
+    }
+
+    private static void seed(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO USERS (USER_ID, EMAIL, FIRST_NAME, LAST_NAME, PASSWORD) " +
+                    "VALUES ('U-JMH', 'jmh@utez.edu.mx', 'Prueba', 'JMH', 'x')");
+            stmt.executeUpdate("INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME) VALUES ('CAL-JMH', 'U-JMH', 'JMH')");
+        }
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement("""
+                INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION, START_DATE, END_DATE,
+                                    ALL_DAY, LOCATION, ACTIVE)
+                VALUES (?, 'CAL-JMH', 'U-JMH', ?, 'Descripción del evento', ?, ?, 'N', 'Edificio D', 'Y')""")) {
+            for (int i = 0; i < ROWS; i++) {
+                LocalDateTime start = MONTH_START.atTime(7, 0).plusDays(i % 30).plusMinutes(15L * (i / 30));
+                stmt.setString(1, "E" + i);
+                stmt.setString(2, "Evento " + i);
+                stmt.setTimestamp(3, Timestamp.valueOf(start));
+                stmt.setTimestamp(4, Timestamp.valueOf(start.plusHours(1)));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        conn.commit();
+        conn.setAutoCommit(true);
+    }
+
+    private static PreparedStatement prepare(Connection conn, String columns) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(EventService.rangeSql(columns, true));
+        EventService.bindRange(stmt, "U-JMH", MONTH_START, MONTH_START.plusMonths(1).minusDays(1), true);
+        return stmt;
+    }
+}
@@ -0,0 +1,135 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.config.TestDatabases;
+import com.utez.calendario.models.Event;
+import com.utez.calendario.models.EventSummary;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Los índices fijos de EventRowMapper deben coincidir con el orden real de las columnas
+ */
+class EventRowMapperTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 5, 9, 0);
+
+    @TempDir
+    static Path dir;
+
+    private static Connection conn;
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        conn = TestDatabases.openMigrated(dir.resolve("mapper.db"));
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO USERS (USER_ID, EMAIL, FIRST_NAME, LAST_NAME, PASSWORD) " +
+                    "VALUES ('U-MAP', 'map@utez.edu.mx', 'Prueba', 'Mapper', 'x')");
+            stmt.executeUpdate("INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME, COLOR) VALUES ('CAL-MAP', 'U-MAP', 'Mapa', '#ff0000')");
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("""
+                INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, DESCRIPTION, START_DATE, END_DATE,
+                                    ALL_DAY, LOCATION, RECURRENCE, RECURRENCE_END_DATE, ACTIVE, ROW_VERSION)
+                VALUES ('E-MAP', 'CAL-MAP', 'U-MAP', 'Clase', 'Descripción', ?, ?, 'Y', 'Aula 3', 'FREQ=DAILY', ?, 'Y', 7)""")) {
+            stmt.setTimestamp(1, Timestamp.valueOf(START));
+            stmt.setTimestamp(2, Timestamp.valueOf(START.plusHours(2)));
+            stmt.setTimestamp(3, Timestamp.valueOf(START.plusDays(10)));
+            stmt.executeUpdate();
+        }
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void indexConstantsMatchTheColumnLists() {
+        int summaryColumns = EventRowMapper.SUMMARY_COLUMNS.split(",").length;
+        assertEquals(summaryColumns + 1, EventRowMapper.SUMMARY_COLOR);
+        assertEquals(summaryColumns + 2, EventRowMapper.SUMMARY_SHARED);
+        assertEquals(EventRowMapper.DETAIL_COLUMNS.split(",").length, EventRowMapper.DETAIL_COLUMN_COUNT);
+    }
+
+    @Test
+    void summaryQueryPutsColumnsWhereTheMapperReadsThem() throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(EventService.rangeSql(EventRowMapper.SUMMARY_COLUMNS, true))) {
+            ResultSetMetaData meta = stmt.getMetaData();
+            assertLabels(meta, EventRowMapper.SUMMARY_COLUMNS);
+            assertEquals("COLOR", meta.getColumnLabel(EventRowMapper.SUMMARY_COLOR).toUpperCase());
+            assertEquals("SHARED", meta.getColumnLabel(EventRowMapper.SUMMARY_SHARED).toUpperCase());
+            assertEquals(EventRowMapper.SUMMARY_SHARED, meta.getColumnCount());
+        }
+    }
+
+    @Test
+    void detailQueryPutsColumnsWhereTheMapperReadsThem() throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(EventService.rangeSql(EventRowMapper.DETAIL_COLUMNS, true))) {
+            ResultSetMetaData meta = stmt.getMetaData();
+            assertLabels(meta, EventRowMapper.DETAIL_COLUMNS);
+            assertEquals("COLOR", meta.getColumnLabel(EventRowMapper.DETAIL_COLUMN_COUNT + 1).toUpperCase());
+            assertEquals("SHARED", meta.getColumnLabel(EventRowMapper.DETAIL_COLUMN_COUNT + 2).toUpperCase());
+        }
+    }
+
+    @Test
+    void mapsARowByIndex() throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(EventService.rangeSql(EventRowMapper.DETAIL_COLUMNS, false))) {
+            EventService.bindRange(stmt, "U-MAP", LocalDate.of(2026, 10, 1), LocalDate.of(2026, 10, 31), false);
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+                Event event = EventRowMapper.mapDetail(rs);
+                assertEquals("E-MAP", event.getEventId());
+                assertEquals("CAL-MAP", event.getCalendarId());
+                assertEquals("U-MAP", event.getCreatorId());
+                assertEquals("Clase", event.getTitle());
+                assertEquals("Descripción", event.getDescription());
+                assertEquals(START, event.getStartDate());
+                assertEquals(START.plusHours(2), event.getEndDate());
+                assertTrue(event.isAllDay());
+                assertEquals("Aula 3", event.getLocation());
+                assertEquals("FREQ=DAILY", event.getRecurrence());
+                assertEquals(START.plusDays(10), event.getRecurrenceEndDate());
+                assertEquals(7L, event.getRowVersion());
+                assertFalse(rs.next());
+            }
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(EventService.rangeSql(EventRowMapper.SUMMARY_COLUMNS, true))) {
+            EventService.bindRange(stmt, "U-MAP", LocalDate.of(2026, 10, 1), LocalDate.of(2026, 10, 31), true);
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+                EventSummary summary = EventRowMapper.mapSummary(rs);
+                assertEquals("E-MAP", summary.eventId());
+                assertEquals(START, summary.startDate());
+                assertEquals("#ff0000", summary.calendarColor());
+                assertFalse(summary.shared());
+                assertTrue(summary.allDay());
+            }
+        }
+    }
+
+    private static void assertLabels(ResultSetMetaData meta, String columns) throws SQLException {
+        String[] names = columns.split(",");
+        for (int i = 0; i < names.length; i++) {
+            String expected = names[i].trim().substring(names[i].trim().indexOf('.') + 1);
+            assertEquals(expected, meta.getColumnLabel(i + 1).toUpperCase(), "Columna " + (i + 1));
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.config.TestDatabases;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recuperación, rotación y compactación del registro offline sobre una carpeta y una base temporales
+ */
+class OfflineChangeLogTest {
+
+    private static final int SMALL_SEGMENT = 512;
+
+    @TempDir
+    Path dir;
+
+    private Path walDir;
+    private String url;
+
+    @BeforeEach
+    void migrate() throws SQLException {
+        walDir = dir.resolve("wal");
+        Path db = dir.resolve("offline.db");
+        url = "jdbc:sqlite:" + db.toAbsolutePath();
+        try (Connection conn = TestDatabases.openMigrated(db);
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM pending_sync");
+        }
+    }
+
+    private OfflineChangeLog open(int segmentBytes) throws IOException {
+        return new OfflineChangeLog(walDir, segmentBytes, () -> DriverManager.getConnection(url));
+    }
+
+    private static void appendEvents(OfflineChangeLog log, int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            log.append("EVENTS", "EVT-" + i, "INSERT", "{\"v\":1,\"title\":\"Clase " + i + "\"}");
+        }
+    }
+
+    @Test
+    void tornEntryIsDiscardedOnRecovery() throws Exception {
+        OfflineChangeLog log = open(SMALL_SEGMENT * 8);
+        appendEvents(log, 0, 3);
+        log.flush();
+
+        // Cierre abrupto a mitad de la cuarta entrada: la longitud quedó escrita pero no el resto
+        Path segment = segments().get(0);
+        int end = endOfEntries(segment);
+        writeInt(segment, end, 40);
+
+        OfflineChangeLog recovered = open(SMALL_SEGMENT * 8);
+        assertEquals(4, recovered.append("EVENTS", "EVT-3", "INSERT", "{\"v\":1}"));
+        assertEquals(4, recovered.drain());
+        assertEquals(4, countPending());
+    }
+
+    @Test
+    void crcMismatchStopsRecoveryAtTheCorruptEntry() throws Exception {
+        OfflineChangeLog log = open(SMALL_SEGMENT * 8);
+        appendEvents(log, 0, 3);
+        log.flush();
+
+        // Un byte cambiado en el cuerpo de la segunda entrada
+        Path segment = segments().get(0);
+        int second = readInt(segment, 0) + 16;
+        int bodyByte = second + 16 + 6;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, bodyByte);
+            one.put(0, (byte) (one.get(0) ^ 0x5A)).rewind();
+            channel.write(one, bodyByte);
+        }
+
+        OfflineChangeLog recovered = open(SMALL_SEGMENT * 8);
+        assertEquals(1, recovered.drain());
+        assertEquals(1, countPending());
+        // La escritura sigue tras la última entrada válida
+        assertEquals(2, recovered.append("EVENTS", "EVT-9", "INSERT", "{\"v\":1}"));
+    }
+
+    @Test
+    void segmentRollKeepsOrderAcrossFiles() throws Exception {
+        OfflineChangeLog log = open(SMALL_SEGMENT);
+        appendEvents(log, 0, 40);
+        log.flush();
+        assertTrue(segments().size() > 1, "Se esperaban varios segmentos: " + segments());
+
+        // Otro proceso recupera todos los segmentos en orden
+        OfflineChangeLog recovered = open(SMALL_SEGMENT);
+        assertEquals(41, recovered.append("EVENTS", "EVT-40", "INSERT", "{\"v\":1}"));
+        assertEquals(41, recovered.drain());
+        assertEquals(41, countPending());
+        assertEquals(41, checkpoint());
+    }
+
+    @Test
+    void drainCompactsClosedSegments() throws Exception {
+        OfflineChangeLog log = open(SMALL_SEGMENT);
+        appendEvents(log, 0, 40);
+        int before = segments().size();
+        assertTrue(before > 1);
+
+        assertEquals(40, log.drain());
+        List<Path> remaining = segments();
+        assertEquals(1, remaining.size(), "Solo debe quedar el segmento activo: " + remaining);
+        assertEquals(0, log.getUndrainedCount());
+
+        // Lo que llega después del volcado sigue en el segmento activo
+        appendEvents(log, 40, 42);
+        assertEquals(2, log.getUndrainedCount());
+        assertEquals(2, log.drain());
+        assertEquals(42, countPending());
+    }
+
+    @Test
+    void sequenceResumesAfterCheckpointWhenSegmentsAreMissing() throws Exception {
+        OfflineChangeLog log = open(SMALL_SEGMENT * 8);
+        appendEvents(log, 0, 5);
+        assertEquals(5, log.drain());
+
+        // Sin la carpeta la secuencia empezaría en 1 y drain ignoraría todo hasta el punto de control
+        Path moved = dir.resolve("wal-perdido");
+        Files.move(walDir, moved);
+
+        OfflineChangeLog fresh = open(SMALL_SEGMENT * 8);
+        assertEquals(6, fresh.append("EVENTS", "EVT-NEW", "INSERT", "{\"v\":1}"));
+        assertEquals(1, fresh.drain());
+        assertEquals(6, countPending());
+        assertEquals(6, checkpoint());
+    }
+
+    // ===== Utilidades =====
+
+    private List<Path> segments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(walDir, "wal-*.log")) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    /**
+     * Posición tras la última entrada: se saltan cabeceras [longitud][crc][secuencia] hasta una longitud 0
+     */
+    private static int endOfEntries(Path segment) throws IOException {
+        int pos = 0;
+        int length;
+        while ((length = readInt(segment, pos)) > 0) {
+            pos += 16 + length;
+        }
+        return pos;
+    }
+
+    private static int readInt(Path segment, int pos) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4);
+            channel.read(buffer, pos);
+            return buffer.getInt(0);
+        }
+    }
+
+    private static void writeInt(Path segment, int pos, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, value), pos);
+        }
+    }
+
+    private int countPending() throws SQLException {
+        return queryInt("SELECT COUNT(*) FROM pending_sync");
+    }
+
+    private long checkpoint() throws SQLException {
+        return queryInt("SELECT applied_seq FROM offline_log_checkpoint WHERE id = 1");
+    }
+
+    private int queryInt(String sql) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
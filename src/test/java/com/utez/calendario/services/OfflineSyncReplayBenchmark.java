@@ -0,0 +1,211 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.config.CountingConnection;
+import com.utez.calendario.config.SqlCatalog;
+import com.utez.calendario.config.SqlDialect;
+import com.utez.calendario.config.TestDatabases;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reenvío de una cola de 10 000 cambios (altas, cambios y bajas de eventos): una sentencia con
+ * autocommit por registro, como antes, frente a replayQueue (bloques de 500, un executeBatch por grupo).
+ * Cada viaje paga una latencia simulada para que los tiempos reflejen una base remota.
+ */
+@Tag("benchmark")
+class OfflineSyncReplayBenchmark {
+
+    private static final int INSERTS = 6_000;
+    private static final int UPDATES = 3_000;
+    private static final int DELETES = 1_000;
+    private static final int TOTAL = INSERTS + UPDATES + DELETES;
+    private static final long LATENCY_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+    private static final String CALENDAR = "CAL-BENCH";
+    private static final String USER = "U-BENCH";
+    private static final LocalDateTime FIRST_START = LocalDateTime.of(2026, 9, 7, 7, 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayOf10kChangesInChunks() throws SQLException {
+        long perRowNanos;
+        int perRowTrips;
+        try (Connection queue = openQueue("cola-por-registro.db");
+             Connection online = openOnline("online-por-registro.db")) {
+            CountingConnection counting = new CountingConnection(online, LATENCY_NANOS);
+            long start = System.nanoTime();
+            replayOneByOne(queue, counting.connection());
+            perRowNanos = System.nanoTime() - start;
+            perRowTrips = counting.roundTrips();
+            assertEquals(INSERTS - DELETES, countActiveEvents(online));
+        }
+
+        OfflineSyncService.ReplayResult result;
+        long chunkedNanos;
+        int chunkedTrips;
+        try (Connection queue = openQueue("cola-por-bloques.db");
+             Connection online = openOnline("online-por-bloques.db")) {
+            CountingConnection counting = new CountingConnection(online, LATENCY_NANOS);
+            long start = System.nanoTime();
+            result = OfflineSyncService.getInstance().replayQueue(queue, counting.connection(), SqlDialect.SQLITE);
+            chunkedNanos = System.nanoTime() - start;
+            chunkedTrips = counting.roundTrips();
+            assertEquals(INSERTS - DELETES, countActiveEvents(online));
+            assertEquals(0, countPending(queue));
+        }
+
+        System.out.printf("📊 Reenvío de %d cambios (latencia simulada %d µs por viaje)%n",
+                TOTAL, TimeUnit.NANOSECONDS.toMicros(LATENCY_NANOS));
+        System.out.printf("   Un registro por sentencia: %d viajes, %d commits, %.0f ms (%.0f cambios/s)%n",
+                perRowTrips, TOTAL, perRowNanos / 1e6, TOTAL / (perRowNanos / 1e9));
+        System.out.printf("   replayQueue: %d viajes, %d bloques, %.0f ms (%.0f cambios/s)%n",
+                chunkedTrips, result.chunks, chunkedNanos / 1e6, TOTAL / (chunkedNanos / 1e9));
+
+        assertEquals(TOTAL, perRowTrips);
+        assertEquals(TOTAL, result.synced);
+        assertEquals(0, result.failed);
+        assertEquals(0, result.conflicts);
+        assertEquals(TOTAL / 500, result.chunks);
+        // Cada bloque trae a lo sumo tres grupos (altas, cambios, bajas): un executeBatch por grupo
+        assertTrue(chunkedTrips <= result.chunks * 3, "Viajes por bloque: " + chunkedTrips);
+    }
+
+    /**
+     * El camino anterior: cada cambio es su propia sentencia y su propio commit
+     */
+    private static void replayOneByOne(Connection queue, Connection online) throws SQLException {
+        try (Statement stmt = queue.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT record_id, operation, data FROM pending_sync ORDER BY id")) {
+            while (rs.next()) {
+                String recordId = rs.getString(1);
+                String operation = rs.getString(2);
+                String data = rs.getString(3);
+                try {
+                    switch (operation) {
+                        case "INSERT" -> {
+                            var e = (SyncPayloadCodec.EventPayload) SyncPayloadCodec.decode("EVENTS", data);
+                            try (PreparedStatement insert = online.prepareStatement(SqlCatalog.EVENT_INSERT.sql(SqlDialect.SQLITE))) {
+                                insert.setString(1, recordId);
+                                insert.setString(2, e.calendarId());
+                                insert.setString(3, e.creatorId());
+                                insert.setString(4, e.title());
+                                insert.setString(5, e.description());
+                                insert.setTimestamp(6, Timestamp.valueOf(e.startDate()));
+                                insert.setTimestamp(7, Timestamp.valueOf(e.endDate()));
+                                insert.setString(8, "N");
+                                insert.setString(9, e.location());
+                                insert.setString(10, e.recurrence());
+                                insert.setTimestamp(11, null);
+                                insert.executeUpdate();
+                            }
+                        }
+                        case "UPDATE" -> {
+                            var e = (SyncPayloadCodec.EventPayload) SyncPayloadCodec.decode("EVENTS", data);
+                            try (PreparedStatement update = online.prepareStatement(SqlCatalog.SYNC_EVENT_UPDATE.sql(SqlDialect.SQLITE))) {
+                                update.setString(1, e.title());
+                                update.setString(2, e.description());
+                                update.setTimestamp(3, Timestamp.valueOf(e.startDate()));
+                                update.setTimestamp(4, Timestamp.valueOf(e.endDate()));
+                                update.setString(5, "N");
+                                update.setString(6, e.location());
+                                update.setString(7, e.recurrence());
+                                update.setTimestamp(8, null);
+                                update.setString(9, recordId);
+                                update.setObject(10, null);
+                                update.executeUpdate();
+                            }
+                        }
+                        default -> {
+                            try (PreparedStatement delete = online.prepareStatement(SqlCatalog.SYNC_EVENT_DELETE.sql(SqlDialect.SQLITE))) {
+                                delete.setString(1, recordId);
+                                delete.setObject(2, null);
+                                delete.executeUpdate();
+                            }
+                        }
+                    }
+                } catch (SyncPayloadCodec.PayloadException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    private Connection openQueue(String name) throws SQLException {
+        Connection queue = TestDatabases.openMigrated(dir.resolve(name));
+        try (Statement stmt = queue.createStatement()) {
+            stmt.executeUpdate("DELETE FROM pending_sync");
+        }
+        queue.setAutoCommit(false);
+        try (PreparedStatement stmt = queue.prepareStatement(
+                "INSERT INTO pending_sync (table_name, record_id, operation, data) VALUES ('EVENTS', ?, ?, ?)")) {
+            for (int i = 0; i < INSERTS; i++) {
+                addChange(stmt, i, "INSERT", SyncPayloadCodec.encode(event(i, "Clase " + i)));
+            }
+            for (int i = 0; i < UPDATES; i++) {
+                addChange(stmt, i, "UPDATE", SyncPayloadCodec.encode(event(i, "Clase " + i + " (movida)")));
+            }
+            for (int i = 0; i < DELETES; i++) {
+                int target = INSERTS - 1 - i;
+                addChange(stmt, target, "DELETE",
+                        SyncPayloadCodec.encode(new SyncPayloadCodec.DeletePayload(SyncPayloadCodec.CURRENT_VERSION, null)));
+            }
+            stmt.executeBatch();
+        }
+        queue.commit();
+        queue.setAutoCommit(true);
+        return queue;
+    }
+
+    private static void addChange(PreparedStatement stmt, int index, String operation, String data) throws SQLException {
+        stmt.setString(1, "EVT-" + index);
+        stmt.setString(2, operation);
+        stmt.setString(3, data);
+        stmt.addBatch();
+    }
+
+    private static SyncPayloadCodec.EventPayload event(int index, String title) {
+        LocalDateTime start = FIRST_START.plusDays(index % 120).plusHours(index % 8);
+        return new SyncPayloadCodec.EventPayload(SyncPayloadCodec.CURRENT_VERSION, CALENDAR, USER, title,
+                "Aula " + (index % 30), start, start.plusHours(1), false, "Edificio D", null, null, null);
+    }
+
+    private Connection openOnline(String name) throws SQLException {
+        Connection conn = TestDatabases.openMigrated(dir.resolve(name));
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM EVENTS");
+            stmt.executeUpdate("INSERT OR IGNORE INTO USERS (USER_ID, EMAIL, FIRST_NAME, LAST_NAME, PASSWORD) " +
+                    "VALUES ('" + USER + "', 'bench@utez.edu.mx', 'Prueba', 'Benchmark', 'x')");
+            stmt.executeUpdate("INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME) VALUES ('" + CALENDAR + "', '" + USER + "', 'Clases')");
+        }
+        return conn;
+    }
+
+    private static int countActiveEvents(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM EVENTS WHERE ACTIVE = 'Y'")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static int countPending(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM pending_sync")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.config.SqlDialect;
+import com.utez.calendario.config.TestDatabases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Reenvío de pending_sync contra una segunda base SQLite que hace de base online
+ */
+class OfflineSyncReplayTest {
+
+    private static final String CALENDAR = "CAL-SYNC";
+    private static final String USER = "U-SYNC";
+    private static final String EVENT = "EVT-SYNC";
+    private static final LocalDate OCCURRENCE = LocalDate.of(2026, 10, 19);
+
+    @TempDir
+    Path dir;
+
+    private Connection queue;
+    private Connection online;
+
+    @BeforeEach
+    void open() throws SQLException {
+        queue = TestDatabases.openMigrated(dir.resolve("cola.db"));
+        online = TestDatabases.openMigrated(dir.resolve("online.db"));
+        try (Statement stmt = queue.createStatement()) {
+            stmt.executeUpdate("DELETE FROM pending_sync");
+        }
+        try (Statement stmt = online.createStatement()) {
+            stmt.executeUpdate("INSERT OR IGNORE INTO USERS (USER_ID, EMAIL, FIRST_NAME, LAST_NAME, PASSWORD) " +
+                    "VALUES ('" + USER + "', 'sync@utez.edu.mx', 'Prueba', 'Sync', 'x')");
+            stmt.executeUpdate("INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME) VALUES ('" + CALENDAR + "', '" + USER + "', 'Clases')");
+        }
+        try (PreparedStatement stmt = online.prepareStatement(
+                "INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, START_DATE, END_DATE, RECURRENCE, ACTIVE) " +
+                        "VALUES (?, ?, ?, 'Clase', ?, ?, 'WEEKLY', 'Y')")) {
+            LocalDateTime start = OCCURRENCE.minusWeeks(1).atTime(7, 0);
+            stmt.setString(1, EVENT);
+            stmt.setString(2, CALENDAR);
+            stmt.setString(3, USER);
+            stmt.setTimestamp(4, Timestamp.valueOf(start));
+            stmt.setTimestamp(5, Timestamp.valueOf(start.plusHours(2)));
+            stmt.executeUpdate();
+        }
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        queue.close();
+        online.close();
+    }
+
+    @Test
+    void tableWithoutReplayStatementStaysInTheQueue() throws SQLException {
+        enqueue("CLASS_TEMPLATES", "TPL-1", "INSERT", "{\"v\":1}");
+        enqueue("CLASS_TEMPLATES", "TPL-1", "DELETE", null);
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        assertEquals(0, result.synced);
+        assertEquals(2, result.failed);
+        assertEquals(2, count(queue, "SELECT COUNT(*) FROM pending_sync"));
+    }
+
+    @Test
+    void exceptionDeleteRemovesTheRow() throws SQLException {
+        try (PreparedStatement stmt = online.prepareStatement(
+                "INSERT INTO EVENT_EXCEPTIONS (EVENT_ID, OCCURRENCE_DATE) VALUES (?, ?)")) {
+            stmt.setString(1, EVENT);
+            stmt.setDate(2, Date.valueOf(OCCURRENCE));
+            stmt.executeUpdate();
+        }
+        enqueue("EVENT_EXCEPTIONS", EVENT + "@" + OCCURRENCE, "DELETE", null);
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        assertEquals(1, result.synced);
+        assertEquals(0, result.failed);
+        assertEquals(0, count(online, "SELECT COUNT(*) FROM EVENT_EXCEPTIONS WHERE EVENT_ID = '" + EVENT + "'"));
+        assertEquals(0, count(queue, "SELECT COUNT(*) FROM pending_sync"));
+    }
+
+    @Test
+    void exceptionDeleteWithoutDateStaysInTheQueue() throws SQLException {
+        enqueue("EVENT_EXCEPTIONS", EVENT, "DELETE", null);
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        assertEquals(1, result.failed);
+        assertEquals(1, count(queue, "SELECT COUNT(*) FROM pending_sync"));
+    }
+
+    // ===== Cambios y bajas condicionados a ROW_VERSION =====
+
+    @Test
+    void eventUpdateWithMatchingVersionIsApplied() throws SQLException {
+        setVersion("EVENTS", "EVENT_ID", EVENT, 2);
+        enqueue("EVENTS", EVENT, "UPDATE", SyncPayloadCodec.encode(eventChange("Clase movida", 2L)));
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        assertEquals(1, result.synced);
+        assertEquals(0, result.conflicts);
+        assertEquals("Clase movida", text(online, "SELECT TITLE FROM EVENTS WHERE EVENT_ID = '" + EVENT + "'"));
+        assertEquals(3, count(online, "SELECT ROW_VERSION FROM EVENTS WHERE EVENT_ID = '" + EVENT + "'"));
+        assertEquals(0, countConflicts(EVENT));
+    }
+
+    @Test
+    void eventUpdateWithStaleVersionBecomesConflict() throws SQLException {
+        setVersion("EVENTS", "EVENT_ID", EVENT, 5);
+        enqueue("EVENTS", EVENT, "UPDATE", SyncPayloadCodec.encode(eventChange("Clase movida", 2L)));
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        assertEquals(0, result.synced);
+        assertEquals(1, result.conflicts);
+        assertEquals("Clase", text(online, "SELECT TITLE FROM EVENTS WHERE EVENT_ID = '" + EVENT + "'"));
+        assertEquals(1, countConflicts(EVENT));
+        assertEquals(2, count(queue, "SELECT base_version FROM sync_conflicts WHERE record_id = '" + EVENT + "'"));
+        assertEquals(0, count(queue, "SELECT COUNT(*) FROM pending_sync"));
+    }
+
+    @Test
+    void eventDeleteWithMatchingVersionIsApplied() throws SQLException {
+        setVersion("EVENTS", "EVENT_ID", EVENT, 1);
+        enqueue("EVENTS", EVENT, "DELETE", SyncPayloadCodec.encode(deleteAt(1L)));
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        assertEquals(1, result.synced);
+        assertEquals("N", text(online, "SELECT ACTIVE FROM EVENTS WHERE EVENT_ID = '" + EVENT + "'"));
+        assertEquals(0, countConflicts(EVENT));
+    }
+
+    @Test
+    void eventDeleteWithStaleVersionBecomesConflict() throws SQLException {
+        setVersion("EVENTS", "EVENT_ID", EVENT, 4);
+        enqueue("EVENTS", EVENT, "DELETE", SyncPayloadCodec.encode(deleteAt(1L)));
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        assertEquals(1, result.conflicts);
+        assertEquals("Y", text(online, "SELECT ACTIVE FROM EVENTS WHERE EVENT_ID = '" + EVENT + "'"));
+        assertEquals(1, countConflicts(EVENT));
+    }
+
+    @Test
+    void calendarUpdateWithMatchingVersionIsApplied() throws SQLException {
+        setVersion("CALENDARS", "CALENDAR_ID", CALENDAR, 3);
+        enqueue("CALENDARS", CALENDAR, "UPDATE", SyncPayloadCodec.encode(calendarChange("Materias", 3L)));
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        assertEquals(1, result.synced);
+        assertEquals("Materias", text(online, "SELECT NAME FROM CALENDARS WHERE CALENDAR_ID = '" + CALENDAR + "'"));
+        assertEquals(4, count(online, "SELECT ROW_VERSION FROM CALENDARS WHERE CALENDAR_ID = '" + CALENDAR + "'"));
+    }
+
+    @Test
+    void calendarUpdateWithStaleVersionBecomesConflict() throws SQLException {
+        setVersion("CALENDARS", "CALENDAR_ID", CALENDAR, 6);
+        enqueue("CALENDARS", CALENDAR, "UPDATE", SyncPayloadCodec.encode(calendarChange("Materias", 3L)));
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        assertEquals(1, result.conflicts);
+        assertEquals("Clases", text(online, "SELECT NAME FROM CALENDARS WHERE CALENDAR_ID = '" + CALENDAR + "'"));
+        assertEquals(1, countConflicts(CALENDAR));
+    }
+
+    @Test
+    void calendarUpdateDoesNotReviveDeletedCalendar() throws SQLException {
+        try (Statement stmt = online.createStatement()) {
+            stmt.executeUpdate("UPDATE CALENDARS SET ACTIVE = 'N' WHERE CALENDAR_ID = '" + CALENDAR + "'");
+        }
+        enqueue("CALENDARS", CALENDAR, "UPDATE", SyncPayloadCodec.encode(calendarChange("Materias", 0L)));
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        // Borrado online después de la versión leída: conflicto, no un cambio sobre una fila inactiva
+        assertEquals(1, result.conflicts);
+        assertEquals("Clases", text(online, "SELECT NAME FROM CALENDARS WHERE CALENDAR_ID = '" + CALENDAR + "'"));
+    }
+
+    @Test
+    void calendarDeleteWithMatchingVersionIsApplied() throws SQLException {
+        setVersion("CALENDARS", "CALENDAR_ID", CALENDAR, 2);
+        enqueue("CALENDARS", CALENDAR, "DELETE", SyncPayloadCodec.encode(deleteAt(2L)));
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        assertEquals(1, result.synced);
+        assertEquals("N", text(online, "SELECT ACTIVE FROM CALENDARS WHERE CALENDAR_ID = '" + CALENDAR + "'"));
+    }
+
+    @Test
+    void calendarDeleteWithStaleVersionBecomesConflict() throws SQLException {
+        setVersion("CALENDARS", "CALENDAR_ID", CALENDAR, 5);
+        enqueue("CALENDARS", CALENDAR, "DELETE", SyncPayloadCodec.encode(deleteAt(2L)));
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        assertEquals(1, result.conflicts);
+        assertEquals("Y", text(online, "SELECT ACTIVE FROM CALENDARS WHERE CALENDAR_ID = '" + CALENDAR + "'"));
+        assertEquals(1, countConflicts(CALENDAR));
+    }
+
+    @Test
+    void calendarReactivateWithMatchingVersionIsApplied() throws SQLException {
+        try (Statement stmt = online.createStatement()) {
+            stmt.executeUpdate("UPDATE CALENDARS SET ACTIVE = 'N', ROW_VERSION = 3 WHERE CALENDAR_ID = '" + CALENDAR + "'");
+        }
+        enqueue("CALENDARS", CALENDAR, "REACTIVATE", SyncPayloadCodec.encode(calendarChange("Clases", 3L)));
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        assertEquals(1, result.synced);
+        assertEquals("Y", text(online, "SELECT ACTIVE FROM CALENDARS WHERE CALENDAR_ID = '" + CALENDAR + "'"));
+    }
+
+    @Test
+    void calendarReactivateOfActiveCalendarBecomesConflict() throws SQLException {
+        enqueue("CALENDARS", CALENDAR, "REACTIVATE", SyncPayloadCodec.encode(calendarChange("Materias", 0L)));
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        assertEquals(1, result.conflicts);
+        assertEquals("Clases", text(online, "SELECT NAME FROM CALENDARS WHERE CALENDAR_ID = '" + CALENDAR + "'"));
+    }
+
+    // ===== Altas que dependen de otras altas offline =====
+
+    @Test
+    void offlineCalendarAndAnEventInItAreBothReplayed() throws SQLException {
+        enableForeignKeys();
+        enqueue("CALENDARS", "CAL-OFF", "INSERT", SyncPayloadCodec.encode(
+                new SyncPayloadCodec.CalendarPayload(SyncPayloadCodec.CURRENT_VERSION, USER, "Offline", null, "#4CAF50", null)));
+        enqueue("EVENTS", "EVT-OFF", "INSERT", SyncPayloadCodec.encode(eventIn("CAL-OFF")));
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        assertEquals(2, result.synced);
+        assertEquals(0, result.failed);
+        assertEquals(1, count(online, "SELECT COUNT(*) FROM CALENDARS WHERE CALENDAR_ID = 'CAL-OFF'"));
+        assertEquals("CAL-OFF", text(online, "SELECT CALENDAR_ID FROM EVENTS WHERE EVENT_ID = 'EVT-OFF'"));
+        assertEquals(0, count(queue, "SELECT COUNT(*) FROM pending_sync"));
+    }
+
+    @Test
+    void eventInCalendarMissingOnlineStaysInTheQueue() throws SQLException {
+        enableForeignKeys();
+        enqueue("EVENTS", "EVT-OFF", "INSERT", SyncPayloadCodec.encode(eventIn("CAL-OFF")));
+
+        OfflineSyncService.ReplayResult result = replay();
+
+        assertEquals(1, result.failed);
+        assertEquals(1, count(queue, "SELECT COUNT(*) FROM pending_sync"));
+    }
+
+    @Test
+    void offlinePermissionGrantAndRevokeAreReplayed() throws SQLException {
+        enqueue("CALENDAR_PERMISSIONS", "PRM-OFF", "INSERT", SyncPayloadCodec.encode(
+                new SyncPayloadCodec.PermissionPayload(SyncPayloadCodec.CURRENT_VERSION, CALENDAR, USER, "VIEW", null)));
+
+        assertEquals(1, replay().synced);
+        assertEquals("Y", text(online, "SELECT ACTIVE FROM CALENDAR_PERMISSIONS WHERE PERMISSION_ID = 'PRM-OFF'"));
+
+        enqueue("CALENDAR_PERMISSIONS", "PRM-OFF", "DELETE", SyncPayloadCodec.encode(deleteAt(null)));
+
+        assertEquals(1, replay().synced);
+        assertEquals("N", text(online, "SELECT ACTIVE FROM CALENDAR_PERMISSIONS WHERE PERMISSION_ID = 'PRM-OFF'"));
+    }
+
+    private static SyncPayloadCodec.EventPayload eventChange(String title, Long baseVersion) {
+        LocalDateTime start = OCCURRENCE.atTime(9, 0);
+        return new SyncPayloadCodec.EventPayload(SyncPayloadCodec.CURRENT_VERSION, CALENDAR, USER, title, null,
+                start, start.plusHours(1), false, null, null, null, baseVersion);
+    }
+
+    private static SyncPayloadCodec.EventPayload eventIn(String calendarId) {
+        LocalDateTime start = OCCURRENCE.atTime(9, 0);
+        return new SyncPayloadCodec.EventPayload(SyncPayloadCodec.CURRENT_VERSION, calendarId, USER, "Sin conexión", null,
+                start, start.plusHours(1), false, null, null, null, null);
+    }
+
+    private static SyncPayloadCodec.CalendarPayload calendarChange(String name, Long baseVersion) {
+        return new SyncPayloadCodec.CalendarPayload(SyncPayloadCodec.CURRENT_VERSION, USER, name, null, "#e74c3c", baseVersion);
+    }
+
+    private static SyncPayloadCodec.DeletePayload deleteAt(Long baseVersion) {
+        return new SyncPayloadCodec.DeletePayload(SyncPayloadCodec.CURRENT_VERSION, baseVersion);
+    }
+
+    private void setVersion(String table, String idColumn, String id, long version) throws SQLException {
+        try (PreparedStatement stmt = online.prepareStatement(
+                "UPDATE " + table + " SET ROW_VERSION = ? WHERE " + idColumn + " = ?")) {
+            stmt.setLong(1, version);
+            stmt.setString(2, id);
+            stmt.executeUpdate();
+        }
+    }
+
+    // SQLite no valida EVENTS.CALENDAR_ID sin esta pragma; Oracle siempre lo hace
+    private void enableForeignKeys() throws SQLException {
+        try (Statement stmt = online.createStatement()) {
+            stmt.execute("PRAGMA foreign_keys = ON");
+        }
+    }
+
+    private int countConflicts(String recordId) throws SQLException {
+        return count(queue, "SELECT COUNT(*) FROM sync_conflicts WHERE record_id = '" + recordId + "'");
+    }
+
+    private static String text(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    private OfflineSyncService.ReplayResult replay() throws SQLException {
+        return OfflineSyncService.getInstance().replayQueue(queue, online, SqlDialect.SQLITE);
+    }
+
+    private void enqueue(String table, String recordId, String operation, String data) throws SQLException {
+        try (PreparedStatement stmt = queue.prepareStatement(
+                "INSERT INTO pending_sync (table_name, record_id, operation, data) VALUES (?, ?, ?, ?)")) {
+            stmt.setString(1, table);
+            stmt.setString(2, recordId);
+            stmt.setString(3, operation);
+            stmt.setString(4, data);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static int count(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.utez.calendario.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utez.calendario.config.TestDatabases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reglas de fusión del diario sobre una pending_sync SQLite temporal
+ */
+class PendingChangeJournalTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    private Connection conn;
+
+    @BeforeEach
+    void open() throws SQLException {
+        conn = TestDatabases.openMigrated(dir.resolve("diario.db"));
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM pending_sync");
+        }
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void updatesFoldIntoOneWithTheLatestDataAndTheFirstBaseVersion() throws Exception {
+        assertEquals(PendingChangeJournal.Outcome.QUEUED,
+                record("EVT1", "UPDATE", "{\"v\":1,\"title\":\"A\",\"location\":\"Aula 1\",\"baseVersion\":3}"));
+        assertEquals(PendingChangeJournal.Outcome.MERGED,
+                record("EVT1", "UPDATE", "{\"v\":1,\"title\":\"B\",\"baseVersion\":4}"));
+
+        List<Row> rows = rows();
+        assertEquals(1, rows.size());
+        assertEquals("UPDATE", rows.get(0).operation);
+        JsonNode data = MAPPER.readTree(rows.get(0).data);
+        assertEquals("B", data.get("title").asText());
+        assertEquals("Aula 1", data.get("location").asText());
+        assertEquals(3, data.get("baseVersion").asInt());
+    }
+
+    @Test
+    void insertFollowedByUpdateStaysAnInsert() throws Exception {
+        record("EVT1", "INSERT", "{\"v\":1,\"title\":\"A\"}");
+        assertEquals(PendingChangeJournal.Outcome.MERGED, record("EVT1", "update", "{\"v\":1,\"title\":\"B\"}"));
+
+        List<Row> rows = rows();
+        assertEquals(1, rows.size());
+        assertEquals("INSERT", rows.get(0).operation);
+        assertEquals("B", MAPPER.readTree(rows.get(0).data).get("title").asText());
+    }
+
+    @Test
+    void insertFollowedByDeleteCancels() throws Exception {
+        record("EVT1", "INSERT", "{\"v\":1,\"title\":\"A\"}");
+        record("EVT1", "UPDATE", "{\"v\":1,\"title\":\"B\"}");
+
+        assertEquals(PendingChangeJournal.Outcome.CANCELLED, record("EVT1", "DELETE", null));
+        assertTrue(rows().isEmpty());
+    }
+
+    @Test
+    void updateFollowedByDeleteKeepsTheFirstBaseVersion() throws Exception {
+        record("EVT1", "UPDATE", "{\"v\":1,\"title\":\"A\",\"baseVersion\":7}");
+        record("EVT1", "UPDATE", "{\"v\":1,\"title\":\"B\",\"baseVersion\":8}");
+
+        assertEquals(PendingChangeJournal.Outcome.MERGED, record("EVT1", "DELETE", "{\"v\":1,\"baseVersion\":9}"));
+
+        List<Row> rows = rows();
+        assertEquals(1, rows.size());
+        assertEquals("DELETE", rows.get(0).operation);
+        assertEquals(7, MAPPER.readTree(rows.get(0).data).get("baseVersion").asInt());
+    }
+
+    @Test
+    void deleteFollowedByUpdateIsIgnored() throws Exception {
+        record("EVT1", "DELETE", "{\"v\":1,\"baseVersion\":2}");
+
+        assertEquals(PendingChangeJournal.Outcome.IGNORED, record("EVT1", "UPDATE", "{\"v\":1,\"title\":\"B\"}"));
+        assertEquals(PendingChangeJournal.Outcome.IGNORED, record("EVT1", "DELETE", null));
+
+        List<Row> rows = rows();
+        assertEquals(1, rows.size());
+        assertEquals("DELETE", rows.get(0).operation);
+        assertEquals(2, MAPPER.readTree(rows.get(0).data).get("baseVersion").asInt());
+    }
+
+    @Test
+    void deleteFollowedByInsertIsQueuedSeparately() throws Exception {
+        record("EVT1", "DELETE", null);
+
+        assertEquals(PendingChangeJournal.Outcome.QUEUED, record("EVT1", "INSERT", "{\"v\":1,\"title\":\"Otra vez\"}"));
+
+        List<Row> rows = rows();
+        assertEquals(List.of("DELETE", "INSERT"), rows.stream().map(row -> row.operation).toList());
+    }
+
+    @Test
+    void reactivateAndDeleteCancelEachOther() throws Exception {
+        calendar("CAL1", "DELETE", "{\"v\":1,\"baseVersion\":2}");
+        assertEquals(PendingChangeJournal.Outcome.CANCELLED, calendar("CAL1", "REACTIVATE", "{\"v\":1,\"baseVersion\":3}"));
+        assertTrue(rows().isEmpty());
+
+        calendar("CAL2", "REACTIVATE", "{\"v\":1,\"baseVersion\":4}");
+        assertEquals(PendingChangeJournal.Outcome.CANCELLED, calendar("CAL2", "DELETE", "{\"v\":1,\"baseVersion\":5}"));
+        assertTrue(rows().isEmpty());
+    }
+
+    @Test
+    void reactivateFollowedByUpdateStaysAReactivate() throws Exception {
+        calendar("CAL1", "REACTIVATE", "{\"v\":1,\"name\":\"A\",\"baseVersion\":4}");
+        assertEquals(PendingChangeJournal.Outcome.MERGED, calendar("CAL1", "UPDATE", "{\"v\":1,\"name\":\"B\",\"baseVersion\":5}"));
+
+        List<Row> rows = rows();
+        assertEquals(1, rows.size());
+        assertEquals("REACTIVATE", rows.get(0).operation);
+        JsonNode data = MAPPER.readTree(rows.get(0).data);
+        assertEquals("B", data.get("name").asText());
+        assertEquals(4, data.get("baseVersion").asInt());
+    }
+
+    @Test
+    void sameIdInAnotherTableIsNotMerged() throws Exception {
+        record("X1", "UPDATE", "{\"v\":1,\"title\":\"A\"}");
+        PendingChangeJournal.record(conn, "CALENDARS", "X1", "UPDATE", "{\"v\":1,\"name\":\"B\"}");
+
+        assertEquals(2, rows().size());
+    }
+
+    @Test
+    void mergedEntryKeepsItsQueuePosition() throws Exception {
+        record("EVT1", "INSERT", "{\"v\":1,\"title\":\"A\"}");
+        record("EVT2", "INSERT", "{\"v\":1,\"title\":\"B\"}");
+        record("EVT1", "UPDATE", "{\"v\":1,\"title\":\"A2\"}");
+
+        assertEquals(List.of("EVT1", "EVT2"), rows().stream().map(row -> row.recordId).toList());
+    }
+
+    @Test
+    void queueIsBoundedByDistinctRecords() throws Exception {
+        int records = 20;
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < records; i++) {
+                String op = round == 0 && i % 2 == 0 ? "INSERT" : "UPDATE";
+                record("EVT" + i, op, "{\"v\":1,\"title\":\"Ronda " + round + "\",\"baseVersion\":" + (round + 1) + "}");
+            }
+        }
+
+        List<Row> rows = rows();
+        assertEquals(records, rows.size());
+        for (Row row : rows) {
+            JsonNode data = MAPPER.readTree(row.data);
+            assertEquals("Ronda 49", data.get("title").asText());
+            assertEquals(1, data.get("baseVersion").asInt());
+        }
+
+        // Borrar todos: las altas se anulan y los cambios quedan como bajas
+        for (int i = 0; i < records; i++) {
+            record("EVT" + i, "DELETE", null);
+        }
+        rows = rows();
+        assertEquals(records / 2, rows.size());
+        assertFalse(rows.stream().anyMatch(row -> !row.operation.equals("DELETE")));
+    }
+
+    // ===== Utilidades =====
+
+    private PendingChangeJournal.Outcome record(String recordId, String operation, String data) throws SQLException {
+        return PendingChangeJournal.record(conn, "EVENTS", recordId, operation, data);
+    }
+
+    private PendingChangeJournal.Outcome calendar(String recordId, String operation, String data) throws SQLException {
+        return PendingChangeJournal.record(conn, "CALENDARS", recordId, operation, data);
+    }
+
+    private record Row(String recordId, String operation, String data) {}
+
+    private List<Row> rows() throws SQLException {
+        List<Row> rows = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT record_id, operation, data FROM pending_sync ORDER BY id")) {
+            while (rs.next()) {
+                rows.add(new Row(rs.getString(1), rs.getString(2), rs.getString(3)));
+            }
+        }
+        return rows;
+    }
+}
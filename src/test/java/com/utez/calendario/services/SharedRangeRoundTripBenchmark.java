@@ -0,0 +1,182 @@
+package com.utez.calendario.services;
+
+import com.utez.calendario.config.CountingConnection;
+import com.utez.calendario.config.SqlCatalog;
+import com.utez.calendario.config.SqlDialect;
+import com.utez.calendario.config.TestDatabases;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Viajes a la base por carga de una vista mensual: la consulta única UNION ALL de rangeSql
+ * frente al patrón anterior (eventos propios + lista de compartidos + una consulta por calendario compartido).
+ * Cada viaje paga una latencia simulada para que los tiempos reflejen una base remota.
+ */
+@Tag("benchmark")
+class SharedRangeRoundTripBenchmark {
+
+    private static final String USER = "U-BENCH";
+    private static final String OWNER = "U-OWNER";
+    private static final int OWN_CALENDARS = 3;
+    private static final int SHARED_CALENDARS = 15;
+    private static final int EVENTS_PER_CALENDAR = 20;
+    private static final long LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final int ITERATIONS = 20;
+    private static final LocalDate MONTH_START = LocalDate.of(2026, 10, 1);
+    private static final LocalDate MONTH_END = MONTH_START.plusMonths(1).minusDays(1);
+
+    @TempDir
+    static Path dir;
+
+    private static Connection conn;
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        conn = TestDatabases.openMigrated(dir.resolve("round-trips.db"));
+        conn.setAutoCommit(false);
+        try (PreparedStatement user = conn.prepareStatement(
+                "INSERT INTO USERS (USER_ID, EMAIL, FIRST_NAME, LAST_NAME, PASSWORD) VALUES (?, ?, 'Prueba', 'Benchmark', 'x')");
+             PreparedStatement calendar = conn.prepareStatement(
+                     "INSERT INTO CALENDARS (CALENDAR_ID, OWNER_ID, NAME, COLOR, ACTIVE) VALUES (?, ?, ?, '#3498db', 'Y')");
+             PreparedStatement permission = conn.prepareStatement(
+                     "INSERT INTO CALENDAR_PERMISSIONS (PERMISSION_ID, CALENDAR_ID, USER_ID, GRANTED_BY, ACTIVE) VALUES (?, ?, ?, ?, 'Y')");
+             PreparedStatement event = conn.prepareStatement(
+                     "INSERT INTO EVENTS (EVENT_ID, CALENDAR_ID, CREATOR_ID, TITLE, START_DATE, END_DATE, ACTIVE) VALUES (?, ?, ?, ?, ?, ?, 'Y')")) {
+
+            for (String userId : List.of(USER, OWNER)) {
+                user.setString(1, userId);
+                user.setString(2, userId + "@utez.edu.mx");
+                user.executeUpdate();
+            }
+            for (int c = 0; c < OWN_CALENDARS + SHARED_CALENDARS; c++) {
+                boolean shared = c >= OWN_CALENDARS;
+                String calendarId = "CAL" + c;
+                calendar.setString(1, calendarId);
+                calendar.setString(2, shared ? OWNER : USER);
+                calendar.setString(3, "Calendario " + c);
+                calendar.executeUpdate();
+                if (shared) {
+                    permission.setString(1, "P" + c);
+                    permission.setString(2, calendarId);
+                    permission.setString(3, USER);
+                    permission.setString(4, OWNER);
+                    permission.executeUpdate();
+                }
+                for (int e = 0; e < EVENTS_PER_CALENDAR; e++) {
+                    LocalDateTime start = MONTH_START.atTime(8, 0).plusDays(e % 28).plusHours(c % 8);
+                    event.setString(1, calendarId + "-E" + e);
+                    event.setString(2, calendarId);
+                    event.setString(3, shared ? OWNER : USER);
+                    event.setString(4, "Evento " + e);
+                    event.setTimestamp(5, Timestamp.valueOf(start));
+                    event.setTimestamp(6, Timestamp.valueOf(start.plusHours(1)));
+                    event.addBatch();
+                }
+                event.executeBatch();
+            }
+        }
+        conn.commit();
+        conn.setAutoCommit(true);
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void monthViewCostsOneRoundTrip() throws SQLException {
+        CountingConnection counting = new CountingConnection(conn, LATENCY_NANOS);
+
+        int singleRows = 0;
+        long singleNanos = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            counting.reset();
+            long start = System.nanoTime();
+            singleRows = loadSingleQuery(counting.connection());
+            singleNanos += System.nanoTime() - start;
+        }
+        int singleTrips = counting.roundTrips();
+
+        int legacyRows = 0;
+        long legacyNanos = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            counting.reset();
+            long start = System.nanoTime();
+            legacyRows = loadLegacy(counting.connection());
+            legacyNanos += System.nanoTime() - start;
+        }
+        int legacyTrips = counting.roundTrips();
+
+        System.out.printf("📊 Vista mensual con %d calendarios compartidos (latencia simulada %d ms por viaje)%n",
+                SHARED_CALENDARS, TimeUnit.NANOSECONDS.toMillis(LATENCY_NANOS));
+        System.out.printf("   Consulta única: %d viaje(s), %d filas, %.2f ms por carga%n",
+                singleTrips, singleRows, singleNanos / 1e6 / ITERATIONS);
+        System.out.printf("   Patrón anterior: %d viajes, %d filas, %.2f ms por carga%n",
+                legacyTrips, legacyRows, legacyNanos / 1e6 / ITERATIONS);
+
+        assertEquals(legacyRows, singleRows, "Ambos caminos deben devolver los mismos eventos");
+        assertEquals((OWN_CALENDARS + SHARED_CALENDARS) * EVENTS_PER_CALENDAR, singleRows);
+        assertEquals(1, singleTrips);
+        assertEquals(2 + SHARED_CALENDARS, legacyTrips);
+    }
+
+    private static int loadSingleQuery(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(EventService.rangeSql(EventRowMapper.SUMMARY_COLUMNS, true))) {
+            EventService.bindRange(stmt, USER, MONTH_START, MONTH_END, true);
+            return count(stmt);
+        }
+    }
+
+    private static int loadLegacy(Connection connection) throws SQLException {
+        int rows;
+        try (PreparedStatement own = connection.prepareStatement(EventService.rangeSql(EventRowMapper.DETAIL_COLUMNS, false))) {
+            EventService.bindRange(own, USER, MONTH_START, MONTH_END, false);
+            rows = count(own);
+        }
+
+        List<String> sharedIds = new ArrayList<>();
+        try (PreparedStatement shared = connection.prepareStatement(SqlCatalog.SHARED_CALENDARS_FOR_USER.sql(SqlDialect.SQLITE))) {
+            shared.setString(1, USER);
+            try (ResultSet rs = shared.executeQuery()) {
+                while (rs.next()) {
+                    sharedIds.add(rs.getString("CALENDAR_ID"));
+                }
+            }
+        }
+
+        for (String calendarId : sharedIds) {
+            try (PreparedStatement perCalendar = connection.prepareStatement(SqlCatalog.EVENTS_FOR_CALENDAR.sql(SqlDialect.SQLITE))) {
+                perCalendar.setString(1, calendarId);
+                EventService.bindOverlapRange(perCalendar, 2, MONTH_START, MONTH_END);
+                rows += count(perCalendar);
+            }
+        }
+        return rows;
+    }
+
+    private static int count(PreparedStatement stmt) throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) rows++;
+        }
+        return rows;
+    }
+}
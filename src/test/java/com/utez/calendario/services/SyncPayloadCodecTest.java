@@ -0,0 +1,194 @@
+package com.utez.calendario.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyncPayloadCodecTest {
+
+    private static final int V = SyncPayloadCodec.CURRENT_VERSION;
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 19, 7, 0);
+
+    // ===== Ida y vuelta por tabla =====
+
+    @Test
+    void eventRoundTrip() throws Exception {
+        SyncPayloadCodec.EventPayload event = new SyncPayloadCodec.EventPayload(V, "CAL1", "USR1", "Clase",
+                "Aula 3", START, START.plusHours(2), true, "Edificio D", "WEEKLY", START.plusMonths(4), 7L);
+
+        assertEquals(event, SyncPayloadCodec.decode("EVENTS", SyncPayloadCodec.encode(event)));
+    }
+
+    @Test
+    void eventRoundTripWithNulls() throws Exception {
+        SyncPayloadCodec.EventPayload event = new SyncPayloadCodec.EventPayload(V, "CAL1", "USR1", "Clase",
+                null, START, START.plusHours(2), false, null, null, null, null);
+
+        assertEquals(event, SyncPayloadCodec.decode("EVENTS", SyncPayloadCodec.encode(event)));
+    }
+
+    @Test
+    void calendarRoundTrip() throws Exception {
+        SyncPayloadCodec.CalendarPayload calendar =
+                new SyncPayloadCodec.CalendarPayload(V, "USR1", "Tareas", "Entregas", "#3498db", 3L);
+
+        assertEquals(calendar, SyncPayloadCodec.decode("CALENDARS", SyncPayloadCodec.encode(calendar)));
+    }
+
+    @Test
+    void calendarModelSendsItsRowVersion() {
+        com.utez.calendario.models.Calendar model =
+                new com.utez.calendario.models.Calendar("CAL1", "USR1", "Tareas", null, "#3498db");
+        model.setRowVersion(4);
+
+        assertEquals(4L, SyncPayloadCodec.CalendarPayload.from(model).baseVersion());
+    }
+
+    @Test
+    void permissionRoundTrip() throws Exception {
+        SyncPayloadCodec.PermissionPayload permission =
+                new SyncPayloadCodec.PermissionPayload(V, "CAL1", "USR2", "EDIT", "USR1");
+
+        assertEquals(permission, SyncPayloadCodec.decode("CALENDAR_PERMISSIONS", SyncPayloadCodec.encode(permission)));
+    }
+
+    @Test
+    void userRoundTrip() throws Exception {
+        SyncPayloadCodec.UserPayload user = new SyncPayloadCodec.UserPayload(V, "20233TN001",
+                "alumno@utez.edu.mx", "Ana", "López", "secreto", "alumno");
+
+        assertEquals(user, SyncPayloadCodec.decode("USERS", SyncPayloadCodec.encode(user)));
+    }
+
+    @Test
+    void exceptionRoundTrip() throws Exception {
+        SyncPayloadCodec.ExceptionPayload exception =
+                new SyncPayloadCodec.ExceptionPayload(V, "EVT1", LocalDate.of(2026, 10, 26));
+
+        assertEquals(exception, SyncPayloadCodec.decode("EVENT_EXCEPTIONS", SyncPayloadCodec.encode(exception)));
+        assertEquals("EVT1@2026-10-26", exception.recordId());
+        assertEquals(exception, SyncPayloadCodec.decodeExceptionKey(exception.recordId()));
+    }
+
+    @Test
+    void deleteRoundTrip() throws Exception {
+        SyncPayloadCodec.DeletePayload delete = new SyncPayloadCodec.DeletePayload(V, 12L);
+
+        assertEquals(delete, SyncPayloadCodec.decodeDelete("EVENTS", SyncPayloadCodec.encode(delete)));
+    }
+
+    @Test
+    void deleteWithoutDataHasNoBaseVersion() throws Exception {
+        SyncPayloadCodec.DeletePayload delete = SyncPayloadCodec.decodeDelete("CALENDARS", null);
+
+        assertEquals(0, delete.version());
+        assertNull(delete.baseVersion());
+    }
+
+    // ===== Datos v0 =====
+
+    @Test
+    void legacyEventWithoutVersion() throws Exception {
+        String data = "{\"title\":\"Examen\",\"description\":\"Parcial\",\"startDate\":\"2026-10-19 07:00:00\"," +
+                "\"endDate\":\"2026-10-19 09:00\",\"location\":\"Aula 3\",\"allDay\":\"Y\"}";
+
+        SyncPayloadCodec.EventPayload event = (SyncPayloadCodec.EventPayload) SyncPayloadCodec.decode("EVENTS", data);
+
+        assertEquals(0, event.version());
+        assertNull(event.calendarId());
+        assertNull(event.creatorId());
+        assertEquals("Examen", event.title());
+        assertEquals(START, event.startDate());
+        assertEquals(START.plusHours(2), event.endDate());
+        assertTrue(event.allDay());
+        assertNull(event.baseVersion());
+    }
+
+    @Test
+    void legacyCalendarWithDateOnlyFields() throws Exception {
+        SyncPayloadCodec.CalendarPayload calendar = (SyncPayloadCodec.CalendarPayload)
+                SyncPayloadCodec.decode("CALENDARS", "{\"name\":\"Clases\",\"color\":\"#e74c3c\"}");
+
+        assertEquals(0, calendar.version());
+        assertEquals("Clases", calendar.name());
+        assertNull(calendar.ownerId());
+        assertEquals(LocalDate.of(2026, 10, 19).atStartOfDay(), SyncPayloadCodec.parseDateTime("2026-10-19"));
+    }
+
+    @Test
+    void emptyDataDecodesAsEmptyLegacyObject() throws Exception {
+        SyncPayloadCodec.EventPayload event = (SyncPayloadCodec.EventPayload) SyncPayloadCodec.decode("EVENTS", "");
+
+        assertEquals(0, event.version());
+        assertNull(event.title());
+        assertFalse(event.allDay());
+    }
+
+    // ===== Texto con comillas y comas =====
+
+    @Test
+    void titlesWithEscapedQuotesAndCommas() throws Exception {
+        String title = "Reunión \"urgente\", aula 3, \\ piso 2";
+        SyncPayloadCodec.EventPayload event = new SyncPayloadCodec.EventPayload(V, "CAL1", "USR1", title,
+                "a,b,\"c\"", START, START.plusHours(1), false, "{\"no\":\"json\"}", null, null, null);
+
+        SyncPayloadCodec.EventPayload decoded =
+                (SyncPayloadCodec.EventPayload) SyncPayloadCodec.decode("EVENTS", SyncPayloadCodec.encode(event));
+
+        assertEquals(title, decoded.title());
+        assertEquals("a,b,\"c\"", decoded.description());
+        assertEquals("{\"no\":\"json\"}", decoded.location());
+    }
+
+    @Test
+    void legacyTitleWithEscapedQuoteAndComma() throws Exception {
+        String data = "{\"title\":\"Entrega \\\"final\\\", equipo 2\",\"startDate\":\"2026-10-19 07:00:00\"}";
+
+        SyncPayloadCodec.EventPayload event = (SyncPayloadCodec.EventPayload) SyncPayloadCodec.decode("EVENTS", data);
+
+        assertEquals("Entrega \"final\", equipo 2", event.title());
+    }
+
+    @Test
+    void unknownFieldsAreSkipped() throws Exception {
+        String data = "{\"v\":1,\"name\":\"Clases\",\"tags\":[\"a\",\"b\"],\"meta\":{\"x\":1},\"extra\":true}";
+
+        SyncPayloadCodec.CalendarPayload calendar =
+                (SyncPayloadCodec.CalendarPayload) SyncPayloadCodec.decode("CALENDARS", data);
+
+        assertEquals("Clases", calendar.name());
+    }
+
+    // ===== Errores =====
+
+    @Test
+    void newerVersionIsRejected() {
+        String data = "{\"v\":" + (V + 1) + ",\"title\":\"Clase\"}";
+
+        assertThrows(SyncPayloadCodec.PayloadException.class, () -> SyncPayloadCodec.decode("EVENTS", data));
+        assertThrows(SyncPayloadCodec.PayloadException.class, () -> SyncPayloadCodec.decodeDelete("EVENTS", data));
+    }
+
+    @Test
+    void unknownTableIsRejected() {
+        assertFalse(SyncPayloadCodec.supports("CLASS_TEMPLATES"));
+        assertThrows(SyncPayloadCodec.PayloadException.class,
+                () -> SyncPayloadCodec.decode("CLASS_TEMPLATES", "{\"v\":1}"));
+    }
+
+    @Test
+    void malformedDataIsRejected() {
+        assertThrows(SyncPayloadCodec.PayloadException.class, () -> SyncPayloadCodec.decode("EVENTS", "[1,2]"));
+        assertThrows(SyncPayloadCodec.PayloadException.class, () -> SyncPayloadCodec.decode("EVENTS", "{\"title\":"));
+        assertThrows(SyncPayloadCodec.PayloadException.class,
+                () -> SyncPayloadCodec.decode("EVENTS", "{\"startDate\":\"19/10/2026\"}"));
+        assertThrows(SyncPayloadCodec.PayloadException.class, () -> SyncPayloadCodec.decodeExceptionKey("EVT1"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.utez.calendario.utils;
+
+import com.utez.calendario.models.Event;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecurrenceExpanderTest {
+
+    @Test
+    void weeklyIntervalSkipsAlternateWeeksCountedFromTheSeriesWeek() {
+        // Miércoles 2 de septiembre de 2026; la semana de la serie empieza el lunes 31 de agosto
+        Event master = master("E1", LocalDateTime.of(2026, 9, 2, 10, 0), "FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE", null);
+
+        List<LocalDate> dates = dates(master, null, LocalDate.of(2026, 8, 31), LocalDate.of(2026, 9, 30));
+
+        // El lunes 31 es anterior al inicio de la serie; las semanas del 7 y del 21 no tocan
+        assertEquals(List.of(
+                LocalDate.of(2026, 9, 2),
+                LocalDate.of(2026, 9, 14), LocalDate.of(2026, 9, 16),
+                LocalDate.of(2026, 9, 28), LocalDate.of(2026, 9, 30)), dates);
+    }
+
+    @Test
+    void dailyIntervalIsAlignedToTheSeriesStartNotTheWindow() {
+        Event master = master("E2", LocalDateTime.of(2026, 1, 1, 8, 0), "FREQ=DAILY;INTERVAL=3", null);
+
+        List<LocalDate> dates = dates(master, null, LocalDate.of(2026, 1, 5), LocalDate.of(2026, 1, 14));
+
+        assertEquals(List.of(LocalDate.of(2026, 1, 7), LocalDate.of(2026, 1, 10), LocalDate.of(2026, 1, 13)), dates);
+    }
+
+    @Test
+    void recurrenceEndDateAndExceptionsAreHonoured() {
+        Event master = master("E3", LocalDateTime.of(2026, 3, 2, 7, 0), "FREQ=WEEKLY;BYDAY=MO",
+                LocalDateTime.of(2026, 3, 23, 23, 59));
+
+        List<LocalDate> dates = dates(master, Set.of(LocalDate.of(2026, 3, 9)),
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 4, 30));
+
+        assertEquals(List.of(LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 16), LocalDate.of(2026, 3, 23)), dates);
+    }
+
+    @Test
+    void wallClockTimeIsKeptAcrossDaylightSavingChanges() {
+        // Las fechas se guardan sin zona: la clase de las 9:00 sigue a las 9:00 tras el 8 de marzo y el 1 de noviembre
+        Event master = master("E4", LocalDateTime.of(2026, 3, 1, 9, 0), "FREQ=WEEKLY;BYDAY=SU", null);
+        master.setEndDate(LocalDateTime.of(2026, 3, 1, 10, 30));
+
+        List<Event> occurrences = new ArrayList<>();
+        RecurrenceExpander.expand(master, null, LocalDate.of(2026, 3, 1), LocalDate.of(2026, 11, 8), occurrences::add);
+
+        assertEquals(37, occurrences.size());
+        for (Event occurrence : occurrences) {
+            assertEquals(LocalTime.of(9, 0), occurrence.getStartDate().toLocalTime());
+            assertEquals(LocalTime.of(10, 30), occurrence.getEndDate().toLocalTime());
+        }
+        assertTrue(occurrences.stream().anyMatch(e -> e.getStartDate().toLocalDate().equals(LocalDate.of(2026, 3, 8))));
+        assertTrue(occurrences.stream().anyMatch(e -> e.getStartDate().toLocalDate().equals(LocalDate.of(2026, 11, 1))));
+    }
+
+    @Test
+    void multiDayOccurrenceStartingBeforeTheWindowIsEmitted() {
+        Event master = master("E5", LocalDateTime.of(2026, 5, 1, 20, 0), "FREQ=WEEKLY;BYDAY=FR", null);
+        master.setEndDate(LocalDateTime.of(2026, 5, 3, 12, 0));
+
+        // La ocurrencia del viernes 8 dura hasta el domingo 10
+        List<LocalDate> dates = dates(master, null, LocalDate.of(2026, 5, 10), LocalDate.of(2026, 5, 14));
+
+        assertEquals(List.of(LocalDate.of(2026, 5, 8)), dates);
+    }
+
+    @Test
+    void invalidRuleReturnsMinusOne() {
+        Event master = master("E6", LocalDateTime.of(2026, 1, 1, 8, 0), "FREQ=YEARLY", null);
+
+        assertEquals(-1, RecurrenceExpander.expand(master, null, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31), e -> {}));
+    }
+
+    @Test
+    void occurrenceIdsRoundTrip() {
+        String id = RecurrenceExpander.occurrenceId("E20260101080000123", LocalDate.of(2026, 2, 3));
+
+        assertEquals("E20260101080000123@20260203", id);
+        assertEquals("E20260101080000123", RecurrenceExpander.masterIdOf(id));
+        assertEquals(LocalDate.of(2026, 2, 3), RecurrenceExpander.occurrenceDateOf(id));
+        assertTrue(RecurrenceExpander.isOccurrenceId(id));
+        assertFalse(RecurrenceExpander.isOccurrenceId("E20260101080000123"));
+        assertNull(RecurrenceExpander.occurrenceDateOf("E1@2026"));
+    }
+
+    private static Event master(String id, LocalDateTime start, String rule, LocalDateTime recurrenceEnd) {
+        Event event = new Event();
+        event.setEventId(id);
+        event.setCalendarId("CAL1");
+        event.setTitle("Serie " + id);
+        event.setStartDate(start);
+        event.setEndDate(start.plusHours(1));
+        event.setRecurrence(rule);
+        event.setRecurrenceEndDate(recurrenceEnd);
+        return event;
+    }
+
+    private static List<LocalDate> dates(Event master, Set<LocalDate> exceptions, LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        RecurrenceExpander.expand(master, exceptions, from, to, e -> dates.add(e.getStartDate().toLocalDate()));
+        return dates;
+    }
+}
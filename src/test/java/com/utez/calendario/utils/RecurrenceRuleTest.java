@@ -0,0 +1,61 @@
+package com.utez.calendario.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecurrenceRuleTest {
+
+    @Test
+    void parsesWeeklyRuleWithIntervalAndDays() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE,FR");
+
+        assertEquals(RecurrenceRule.Frequency.WEEKLY, rule.getFrequency());
+        assertEquals(2, rule.getInterval());
+        assertTrue(rule.includesDay(0));
+        assertFalse(rule.includesDay(1));
+        assertTrue(rule.includesDay(2));
+        assertTrue(rule.includesDay(4));
+        assertFalse(rule.includesDay(6));
+    }
+
+    @Test
+    void parsingIsCaseInsensitiveAndIgnoresUnknownKeys() {
+        RecurrenceRule rule = RecurrenceRule.parse(" freq=daily; interval=3; wkst=MO ");
+
+        assertEquals(RecurrenceRule.Frequency.DAILY, rule.getFrequency());
+        assertEquals(3, rule.getInterval());
+    }
+
+    @Test
+    void rejectsUnsupportedOrIncompleteRules() {
+        assertNull(RecurrenceRule.parse(null));
+        assertNull(RecurrenceRule.parse("  "));
+        assertNull(RecurrenceRule.parse("FREQ=MONTHLY"));
+        assertNull(RecurrenceRule.parse("FREQ=WEEKLY"));
+        assertNull(RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=XX"));
+        assertNull(RecurrenceRule.parse("FREQ=DAILY;INTERVAL=dos"));
+        assertNull(RecurrenceRule.parse("INTERVAL=2"));
+    }
+
+    @Test
+    void intervalBelowOneIsTreatedAsOne() {
+        assertEquals(1, RecurrenceRule.parse("FREQ=DAILY;INTERVAL=0").getInterval());
+        assertEquals(1, RecurrenceRule.daily(-4).getInterval());
+    }
+
+    @Test
+    void toStringRoundTrips() {
+        RecurrenceRule weekly = RecurrenceRule.weekly(EnumSet.of(DayOfWeek.SUNDAY, DayOfWeek.TUESDAY));
+
+        assertEquals("FREQ=WEEKLY;INTERVAL=1;BYDAY=TU,SU", weekly.toString());
+        assertEquals(weekly.toString(), RecurrenceRule.parse(weekly.toString()).toString());
+        assertEquals("FREQ=DAILY;INTERVAL=2", RecurrenceRule.daily(2).toString());
+    }
+}
@@ -0,0 +1,100 @@
+package com.utez.calendario.utils;
+
+import com.utez.calendario.models.Event;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Vista anual con 40 series semanales (lunes a sábado, todo el año): tiempo y memoria reservada por
+ * RecurrenceExpander, tanto con la variante sin modelo (cuadrículas) como creando un Event por ocurrencia.
+ */
+@Tag("benchmark")
+class RecurrenceYearViewBenchmark {
+
+    private static final int SERIES = 40;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 500;
+    private static final LocalDate YEAR_START = LocalDate.of(2026, 1, 1);
+    private static final LocalDate YEAR_END = LocalDate.of(2026, 12, 31);
+
+    @Test
+    void expandYearView() {
+        List<Event> masters = new ArrayList<>(SERIES);
+        for (int i = 0; i < SERIES; i++) {
+            Event master = new Event();
+            master.setEventId("E" + i);
+            master.setCalendarId("CAL" + (i % 4));
+            master.setTitle("Clase " + i);
+            master.setStartDate(LocalDateTime.of(2026, 1, 5, 7 + i % 12, 0));
+            master.setEndDate(master.getStartDate().plusHours(1));
+            master.setRecurrence("FREQ=WEEKLY;INTERVAL=1;BYDAY=MO,TU,WE,TH,FR,SA");
+            masters.add(master);
+        }
+        Set<LocalDate> exceptions = Set.of(LocalDate.of(2026, 3, 16), LocalDate.of(2026, 9, 16));
+
+        int[] count = new int[1];
+        for (int i = 0; i < WARMUP; i++) {
+            count[0] = 0;
+            expandSummaries(masters, exceptions, count);
+            expandEvents(masters, exceptions);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            count[0] = 0;
+            expandSummaries(masters, exceptions, count);
+        }
+        long summaryNanos = System.nanoTime() - start;
+        long summaryBytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+        int occurrences = count[0];
+
+        bytesBefore = threads.getThreadAllocatedBytes(thread);
+        start = System.nanoTime();
+        int events = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            events = expandEvents(masters, exceptions).size();
+        }
+        long eventNanos = System.nanoTime() - start;
+        long eventBytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+
+        System.out.printf("📊 Vista anual: %d series, %d ocurrencias por expansión%n", SERIES, occurrences);
+        System.out.printf("   Sin modelo: %.3f ms, %d bytes por ocurrencia%n",
+                summaryNanos / 1e6 / ITERATIONS, summaryBytes / ((long) ITERATIONS * occurrences));
+        System.out.printf("   Con Event: %.3f ms, %d bytes por ocurrencia%n",
+                eventNanos / 1e6 / ITERATIONS, eventBytes / ((long) ITERATIONS * events));
+
+        // 2026-01-05 (lunes) a fin de año: 51 semanas completas + 31 de diciembre (jueves) -> 51*6 + 4, menos 2 excepciones
+        int expected = SERIES * (51 * 6 + 4 - exceptions.size());
+        assertEquals(expected, occurrences);
+        assertEquals(expected, events);
+    }
+
+    private static void expandSummaries(List<Event> masters, Set<LocalDate> exceptions, int[] count) {
+        for (Event master : masters) {
+            RecurrenceExpander.expand(master.getRecurrence(), master.getStartDate(), master.getEndDate(),
+                    master.getRecurrenceEndDate(), exceptions, YEAR_START, YEAR_END,
+                    (date, start, end) -> count[0]++);
+        }
+    }
+
+    private static List<Event> expandEvents(List<Event> masters, Set<LocalDate> exceptions) {
+        List<Event> events = new ArrayList<>();
+        for (Event master : masters) {
+            RecurrenceExpander.expand(master, exceptions, YEAR_START, YEAR_END, events::add);
+        }
+        return events;
+    }
+}